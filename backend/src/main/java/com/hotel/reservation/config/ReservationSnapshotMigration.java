@@ -0,0 +1,225 @@
+package com.hotel.reservation.config;
+
+import com.hotel.reservation.model.Payment;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.ReservationSnapshot;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserSnapshot;
+import com.mongodb.DBRef;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One-off migration from DBRef references to embedded snapshots.
+ * Reservations stored with a {@code user} and {@code room} DBRef, and payments stored
+ * with a {@code reservation} and {@code user} DBRef, are rewritten with the snapshots
+ * the current model embeds. Documents are streamed in batches: the users (and, for
+ * payments, reservations) of a batch are read with one query and the batch is
+ * written with one unordered bulk update. Completion is recorded in
+ * schema_migrations, so later starts skip the scan.
+ *
+ * Runs before every other startup runner; snapshots are taken from the user and
+ * room documents as they are now, since their booking-time values were never stored.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ReservationSnapshotMigration implements CommandLineRunner {
+
+    static final String MIGRATION_ID = "reservation-snapshots";
+
+    private static final String MIGRATIONS = "schema_migrations";
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Indexes on the DBRef paths, replaced by the indexes on the snapshot IDs
+     */
+    private static final List<String> OBSOLETE_RESERVATION_INDEXES = List.of("room_dates_status_idx", "user_status_idx");
+    private static final List<String> OBSOLETE_PAYMENT_INDEXES = List.of("reservation_idx", "user_idx");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        if (migrations.find(Filters.eq("_id", MIGRATION_ID)).first() != null) {
+            return;
+        }
+
+        long reservations = migrateReservations();
+        long payments = migratePayments();
+
+        dropIndexes(mongoTemplate.getCollectionName(Reservation.class), OBSOLETE_RESERVATION_INDEXES);
+        dropIndexes(mongoTemplate.getCollectionName(Payment.class), OBSOLETE_PAYMENT_INDEXES);
+
+        migrations.insertOne(new Document("_id", MIGRATION_ID).append("completedAt", new Date()));
+        log.info("Migrated {} reservation(s) and {} payment(s) to embedded snapshots", reservations, payments);
+    }
+
+    private long migrateReservations() {
+        Map<String, Room> rooms = mongoTemplate.findAll(Room.class).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        return migrate(mongoTemplate.getCollectionName(Reservation.class), "user", "room", batch -> {
+            Map<String, User> users = findByIds(User.class, referencedIds(batch, "user"), User::getId);
+
+            return batch.stream().map(document -> {
+                List<Bson> updates = new ArrayList<>();
+                String userId = referencedId(document, "user");
+                if (userId != null) {
+                    updates.add(Updates.set("user", userSnapshot(users, userId)));
+                }
+                String roomId = referencedId(document, "room");
+                if (roomId != null) {
+                    Room room = rooms.get(roomId);
+                    updates.add(Updates.set("room", toDocument(room != null
+                            ? RoomSnapshot.of(room) : new RoomSnapshot(roomId, null, null, null, null))));
+                }
+                return new UpdateOneModel<Document>(Filters.eq("_id", document.get("_id")), Updates.combine(updates));
+            }).toList();
+        });
+    }
+
+    private long migratePayments() {
+        return migrate(mongoTemplate.getCollectionName(Payment.class), "reservation", "user", batch -> {
+            // Reservations are migrated first, so they already carry their room snapshot
+            Map<String, Reservation> reservations = findByIds(Reservation.class, referencedIds(batch, "reservation"), Reservation::getId);
+            Map<String, User> users = findByIds(User.class, referencedIds(batch, "user"), User::getId);
+
+            return batch.stream().map(document -> {
+                List<Bson> updates = new ArrayList<>();
+                String reservationId = referencedId(document, "reservation");
+                if (reservationId != null) {
+                    Reservation reservation = reservations.get(reservationId);
+                    updates.add(Updates.set("reservation", toDocument(reservation != null
+                            ? ReservationSnapshot.of(reservation)
+                            : new ReservationSnapshot(reservationId, null, null, null, null))));
+                }
+                String userId = referencedId(document, "user");
+                if (userId != null) {
+                    updates.add(Updates.set("user", userSnapshot(users, userId)));
+                }
+                return new UpdateOneModel<Document>(Filters.eq("_id", document.get("_id")), Updates.combine(updates));
+            }).toList();
+        });
+    }
+
+    /**
+     * Stream the documents of a collection that still hold either DBRef and rewrite them batch by batch.
+     */
+    private long migrate(String collectionName, String firstRef, String secondRef,
+                         Function<List<Document>, List<UpdateOneModel<Document>>> toUpdates) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        Bson withReferences = Filters.or(
+                Filters.exists(firstRef + ".$id"),
+                Filters.exists(secondRef + ".$id"));
+
+        long migrated = 0;
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (MongoCursor<Document> cursor = collection.find(withReferences)
+                .projection(new Document(firstRef, 1).append(secondRef, 1))
+                .batchSize(BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == BATCH_SIZE || !cursor.hasNext()) {
+                    collection.bulkWrite(toUpdates.apply(batch), new BulkWriteOptions().ordered(false));
+                    migrated += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        return migrated;
+    }
+
+    private Collection<String> referencedIds(List<Document> batch, String field) {
+        return batch.stream()
+                .map(document -> referencedId(document, field))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * ID held by a stored DBRef, or null if the field is not a DBRef.
+     */
+    private String referencedId(Document document, String field) {
+        Object reference = document.get(field);
+        if (reference instanceof DBRef dbRef) {
+            return dbRef.getId().toString();
+        }
+        if (reference instanceof Document embedded && embedded.get("$id") != null) {
+            return embedded.get("$id").toString();
+        }
+        return null;
+    }
+
+    private <T> Map<String, T> findByIds(Class<T> type, Collection<String> ids, Function<T, String> idOf) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, T> byId = new HashMap<>();
+        mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), type)
+                .forEach(entity -> byId.put(idOf.apply(entity), entity));
+        return byId;
+    }
+
+    /**
+     * Snapshot of a referenced user; a user that no longer exists keeps only its ID.
+     */
+    private Document userSnapshot(Map<String, User> users, String userId) {
+        User user = users.get(userId);
+        return toDocument(user != null ? UserSnapshot.of(user) : new UserSnapshot(userId, null, null, null, null));
+    }
+
+    private Document toDocument(Object snapshot) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(snapshot, document);
+        document.remove("_class");
+        return document;
+    }
+
+    private void dropIndexes(String collectionName, List<String> indexNames) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        for (String indexName : indexNames) {
+            try {
+                collection.dropIndex(indexName);
+                log.info("Dropped obsolete index {} on {}", indexName, collectionName);
+            } catch (MongoCommandException e) {
+                // Never created, or already dropped
+                log.debug("Index {} on {} not dropped: {}", indexName, collectionName, e.getErrorMessage());
+            }
+        }
+    }
+}
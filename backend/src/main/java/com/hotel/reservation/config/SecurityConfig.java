@@ -77,6 +77,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/payments/create-intent-public").permitAll()
                 .requestMatchers("/api/payments/confirm").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasAnyRole("ADMIN", "MANAGER")
                 .requestMatchers("/api/admin/**").hasAnyRole("ADMIN", "MANAGER")
                 .anyRequest().authenticated()
             )
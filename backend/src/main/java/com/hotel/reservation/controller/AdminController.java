@@ -1,6 +1,7 @@
 package com.hotel.reservation.controller;
 
 import com.hotel.reservation.dto.ManagerBookingResponse;
+import com.hotel.reservation.dto.ReservationSummary;
 import com.hotel.reservation.dto.TokenBookingRequest;
 import com.hotel.reservation.dto.UserDto;
 import com.hotel.reservation.model.Payment;
@@ -199,14 +200,14 @@ public class AdminController {
     // Reservation Management
     @GetMapping("/reservations")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<Reservation>> getAllReservations() {
+    public ResponseEntity<List<ReservationSummary>> getAllReservations() {
         log.info("Getting all reservations");
-        return ResponseEntity.ok(reservationRepository.findAll());
+        return ResponseEntity.ok(reservationRepository.findAllSummaries());
     }
 
     @GetMapping("/reservations/date-range")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<Reservation>> getReservationsByDateRange(
+    public ResponseEntity<List<ReservationSummary>> getReservationsByDateRange(
             @RequestParam String startDate,
             @RequestParam String endDate) {
         log.info("Getting reservations by date range: {} to {}", startDate, endDate);
@@ -214,8 +215,8 @@ public class AdminController {
         LocalDate start = LocalDate.parse(startDate);
         LocalDate end = LocalDate.parse(endDate);
 
-        List<Reservation> reservations = reservationRepository
-                .findByCheckInDateBetween(start, end);
+        List<ReservationSummary> reservations = reservationRepository
+                .findSummariesByCheckInDateBetween(start, end);
 
         return ResponseEntity.ok(reservations);
     }
@@ -227,14 +228,10 @@ public class AdminController {
             @RequestBody Map<String, String> request) {
         log.info("Updating reservation status: {}", id);
 
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reservation not found"));
-
         String statusStr = request.get("status");
         Reservation.ReservationStatus status = Reservation.ReservationStatus.valueOf(statusStr);
 
-        reservation.setStatus(status);
-        Reservation updatedReservation = reservationRepository.save(reservation);
+        Reservation updatedReservation = reservationService.changeReservation(id, reservation -> reservation.setStatus(status));
 
         return ResponseEntity.ok(updatedReservation);
     }
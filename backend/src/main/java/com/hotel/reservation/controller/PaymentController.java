@@ -1,11 +1,15 @@
 package com.hotel.reservation.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.hotel.reservation.dto.ConfirmPaymentRequest;
+import com.hotel.reservation.dto.PaymentSummary;
 import com.hotel.reservation.model.Payment;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.security.UserPrincipal;
+import com.hotel.reservation.service.IdempotencyService;
 import com.hotel.reservation.service.PaymentService;
 import com.hotel.reservation.service.ReservationService;
+import com.hotel.reservation.service.StripeEventInbox;
 import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -32,11 +36,14 @@ public class PaymentController {
 
     private final PaymentService paymentService;
     private final ReservationService reservationService;
+    private final IdempotencyService idempotencyService;
+    private final StripeEventInbox stripeEventInbox;
 
     /**
      * Create a payment intent for a reservation.
      *
      * @param userPrincipal authenticated user
+     * @param idempotencyKey key that makes retries return the first response (optional)
      * @param paymentData payment details containing reservationId
      * @return payment entity with client secret
      * @throws StripeException if Stripe API fails
@@ -44,23 +51,69 @@ public class PaymentController {
     @PostMapping("/create-intent")
     public ResponseEntity<Map<String, Object>> createPaymentIntent(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, String> paymentData) throws StripeException {
 
-        String reservationId = paymentData.get("reservationId");
-        Reservation reservation = reservationService.getReservationById(reservationId);
+        return idempotencyService.execute("create-payment-intent", userPrincipal.getId(), idempotencyKey,
+                paymentData, new TypeReference<Map<String, Object>>() {}, () -> {
+            String reservationId = paymentData.get("reservationId");
+            Reservation reservation = reservationService.getReservationById(reservationId);
 
-        if (!reservation.getUser().getId().equals(userPrincipal.getId())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+            if (!reservation.getUser().getId().equals(userPrincipal.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
 
-        Payment payment = paymentService.createPaymentIntent(reservation);
+            Payment payment = paymentService.createPaymentIntent(reservation);
 
-        // Return payment details including client secret for Stripe Elements
-        return ResponseEntity.ok(Map.of(
-                "paymentId", payment.getId(),
-                "paymentIntentId", payment.getStripePaymentIntentId(),
-                "clientSecret", payment.getStripeClientSecret()
-        ));
+            // Return payment details including client secret for Stripe Elements
+            return ResponseEntity.ok(Map.of(
+                    "paymentId", payment.getId(),
+                    "paymentIntentId", payment.getStripePaymentIntentId(),
+                    "clientSecret", payment.getStripeClientSecret()
+            ));
+        });
+    }
+
+    /**
+     * Create one payment intent for all reservations of a group booking.
+     *
+     * @param userPrincipal authenticated user
+     * @param idempotencyKey key that makes retries return the first response (optional)
+     * @param paymentData payment details containing groupId
+     * @return payment entity with client secret
+     * @throws StripeException if Stripe API fails
+     */
+    @PostMapping("/create-group-intent")
+    public ResponseEntity<Map<String, Object>> createGroupPaymentIntent(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, String> paymentData) throws StripeException {
+
+        return idempotencyService.execute("create-group-payment-intent", userPrincipal.getId(), idempotencyKey,
+                paymentData, new TypeReference<Map<String, Object>>() {}, () -> {
+            String groupId = paymentData.get("groupId");
+            List<Reservation> reservations = reservationService.getGroupReservations(groupId);
+
+            if (reservations.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Group booking not found"));
+            }
+
+            boolean isOwner = reservations.stream()
+                    .allMatch(reservation -> reservation.getUser().getId().equals(userPrincipal.getId()));
+            if (!isOwner) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            Payment payment = paymentService.createGroupPaymentIntent(groupId, reservations);
+
+            // Return payment details including client secret for Stripe Elements
+            return ResponseEntity.ok(Map.of(
+                    "paymentId", payment.getId(),
+                    "paymentIntentId", payment.getStripePaymentIntentId(),
+                    "clientSecret", payment.getStripeClientSecret()
+            ));
+        });
     }
 
     /**
@@ -125,9 +178,9 @@ public class PaymentController {
      * @return list of payments
      */
     @GetMapping("/history")
-    public ResponseEntity<List<Payment>> getPaymentHistory(
+    public ResponseEntity<List<PaymentSummary>> getPaymentHistory(
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        List<Payment> payments = paymentService.getUserPaymentHistory(userPrincipal.getId());
+        List<PaymentSummary> payments = paymentService.getUserPaymentHistory(userPrincipal.getId());
         return ResponseEntity.ok(payments);
     }
 
@@ -138,8 +191,8 @@ public class PaymentController {
      */
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        List<Payment> payments = paymentService.getAllPayments();
+    public ResponseEntity<List<PaymentSummary>> getAllPayments() {
+        List<PaymentSummary> payments = paymentService.getAllPayments();
         return ResponseEntity.ok(payments);
     }
 
@@ -203,6 +256,9 @@ public class PaymentController {
 
     /**
      * Stripe webhook endpoint for payment events.
+     * The verified event is stored in the inbox and processed by the webhook workers,
+     * so the response does not wait for it; redelivered events are acknowledged
+     * without being stored again.
      *
      * @param payload webhook payload
      * @param signature Stripe signature header
@@ -217,19 +273,20 @@ public class PaymentController {
             // Verify webhook signature to prevent tampering
             com.stripe.model.Event event = paymentService.verifyWebhook(payload, signature);
 
-            // Process verified webhook event
-            paymentService.handleWebhookEvent(event);
+            // Store verified event for asynchronous processing
+            stripeEventInbox.accept(event, payload);
 
-            return ResponseEntity.ok("Webhook processed successfully");
+            return ResponseEntity.ok("Webhook received");
         } catch (com.stripe.exception.SignatureVerificationException e) {
             // Invalid signature - reject the webhook
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body("Invalid signature");
         } catch (Exception e) {
-            // Log error but return 200 to prevent Stripe retries
+            // Not stored - fail so that Stripe delivers the event again
             org.slf4j.LoggerFactory.getLogger(PaymentController.class)
-                .error("Error processing webhook", e);
-            return ResponseEntity.ok("Webhook received");
+                .error("Error storing webhook", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Webhook not stored");
         }
     }
 }
@@ -1,22 +1,35 @@
 package com.hotel.reservation.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.hotel.reservation.dto.CancellationRequest;
 import com.hotel.reservation.dto.CancellationResponse;
+import com.hotel.reservation.dto.GroupBookingRequest;
+import com.hotel.reservation.dto.GroupBookingResponse;
 import com.hotel.reservation.dto.RefundCalculation;
+import com.hotel.reservation.dto.ReservationRequest;
+import com.hotel.reservation.dto.ReservationSummary;
+import com.hotel.reservation.model.BookingTicket;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.model.User;
 import com.hotel.reservation.repository.UserRepository;
 import com.hotel.reservation.security.UserPrincipal;
+import com.hotel.reservation.service.AsyncBookingService;
 import com.hotel.reservation.service.CancellationService;
+import com.hotel.reservation.service.IdempotencyService;
 import com.hotel.reservation.service.ReservationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +49,11 @@ public class ReservationController {
     private final ReservationService reservationService;
     private final UserRepository userRepository;
     private final CancellationService cancellationService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncBookingService asyncBookingService;
+
+    @Value("${app.group-booking.max-rooms:20}")
+    private int maxGroupRooms;
 
     /**
      * Get all reservations (Admin/Manager only).
@@ -44,8 +62,8 @@ public class ReservationController {
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<Reservation>> getAllReservations() {
-        List<Reservation> reservations = reservationService.getAllReservations();
+    public ResponseEntity<List<ReservationSummary>> getAllReservations() {
+        List<ReservationSummary> reservations = reservationService.getAllReservations();
         return ResponseEntity.ok(reservations);
     }
 
@@ -56,9 +74,9 @@ public class ReservationController {
      * @return list of user's reservations
      */
     @GetMapping("/my-reservations")
-    public ResponseEntity<List<Reservation>> getUserReservations(
+    public ResponseEntity<List<ReservationSummary>> getUserReservations(
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        List<Reservation> reservations = reservationService.getUserReservations(userPrincipal.getId());
+        List<ReservationSummary> reservations = reservationService.getUserReservationSummaries(userPrincipal.getId());
         return ResponseEntity.ok(reservations);
     }
 
@@ -126,53 +144,132 @@ public class ReservationController {
      * Create a new reservation.
      *
      * @param userPrincipal authenticated user
+     * @param idempotencyKey key that makes retries return the first response (optional)
      * @param reservationData reservation details
      * @return created reservation
      */
     @PostMapping
     public ResponseEntity<Reservation> createReservation(
             @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> reservationData) {
 
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return idempotencyService.execute("create-reservation", userPrincipal.getId(), idempotencyKey,
+                reservationData, new TypeReference<Reservation>() {}, () -> {
+            User user = userRepository.findById(userPrincipal.getId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Input validation
-        String roomId = (String) reservationData.get("roomId");
-        if (roomId == null || roomId.trim().isEmpty()) {
-            throw new IllegalArgumentException("Room ID is required");
-        }
+            ReservationRequest request = toReservationRequest(reservationData);
 
-        LocalDate checkInDate = LocalDate.parse((String) reservationData.get("checkInDate"));
-        LocalDate checkOutDate = LocalDate.parse((String) reservationData.get("checkOutDate"));
+            Reservation reservation = reservationService.createReservation(user, request.getRoomId(),
+                    request.getCheckInDate(), request.getCheckOutDate(), request.getNumberOfGuests(),
+                    request.getSpecialRequests());
 
-        // Validate dates - allow bookings from today onwards
-        // Use minusDays(1) to be lenient with timezone differences between client and server
-        LocalDate yesterday = LocalDate.now().minusDays(1);
-        if (checkInDate.isBefore(yesterday)) {
-            throw new IllegalArgumentException("Check-in date cannot be in the past");
-        }
-        if (checkOutDate.isBefore(checkInDate) || checkOutDate.isEqual(checkInDate)) {
-            throw new IllegalArgumentException("Check-out date must be after check-in date");
-        }
-        if (checkInDate.isAfter(LocalDate.now().plusYears(2))) {
-            throw new IllegalArgumentException("Check-in date cannot be more than 2 years in the future");
-        }
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+        });
+    }
 
-        int numberOfGuests = (int) reservationData.get("numberOfGuests");
-        if (numberOfGuests < 1 || numberOfGuests > 10) {
-            throw new IllegalArgumentException("Number of guests must be between 1 and 10");
-        }
+    /**
+     * Accept a reservation for asynchronous booking.
+     * The request is validated and queued; the returned ticket is polled for the outcome.
+     *
+     * @param userPrincipal authenticated user
+     * @param idempotencyKey key that makes retries return the first response (optional)
+     * @param reservationData reservation details
+     * @return queued booking ticket
+     */
+    @PostMapping("/async")
+    public ResponseEntity<BookingTicket> createReservationAsync(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> reservationData) {
 
-        String specialRequests = (String) reservationData.getOrDefault("specialRequests", "");
-        if (specialRequests.length() > 500) {
-            throw new IllegalArgumentException("Special requests cannot exceed 500 characters");
-        }
+        return idempotencyService.execute("create-reservation-async", userPrincipal.getId(), idempotencyKey,
+                reservationData, new TypeReference<BookingTicket>() {}, () -> {
+            ReservationRequest request = toReservationRequest(reservationData);
+            BookingTicket ticket = asyncBookingService.submit(userPrincipal.getId(), request);
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/reservations/tickets/" + ticket.getId()))
+                    .body(ticket);
+        });
+    }
+
+    /**
+     * Get the status of an asynchronous booking.
+     *
+     * @param ticketId ticket ID
+     * @param userPrincipal authenticated user
+     * @return booking ticket, with the reservation ID once booked
+     */
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<BookingTicket> getBookingTicket(
+            @PathVariable String ticketId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(getOwnTicket(ticketId, userPrincipal));
+    }
+
+    /**
+     * Long-poll for an asynchronous booking to be processed.
+     * Answers as soon as the ticket is booked, rejected or failed; a ticket that is
+     * still queued is returned when the wait times out, and the client asks again.
+     *
+     * @param ticketId ticket ID
+     * @param waitSeconds how long to wait at most (capped by the server)
+     * @param userPrincipal authenticated user
+     * @return booking ticket
+     */
+    @GetMapping("/tickets/{ticketId}/await")
+    public DeferredResult<BookingTicket> awaitBookingTicket(
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "30") long waitSeconds,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        getOwnTicket(ticketId, userPrincipal);
+        return asyncBookingService.awaitTicket(ticketId, waitSeconds);
+    }
+
+    /**
+     * Book several rooms at once.
+     * Either every room of the group is reserved or none is.
+     *
+     * @param userPrincipal authenticated user
+     * @param idempotencyKey key that makes retries return the first response (optional)
+     * @param request rooms to book and special requests
+     * @return group ID, total amount and created reservations
+     */
+    @PostMapping("/group")
+    public ResponseEntity<GroupBookingResponse> createGroupReservation(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody GroupBookingRequest request) {
+
+        return idempotencyService.execute("create-group-reservation", userPrincipal.getId(), idempotencyKey,
+                request, new TypeReference<GroupBookingResponse>() {}, () -> {
+            User user = userRepository.findById(userPrincipal.getId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            List<GroupBookingRequest.Item> items = request.getItems();
+            if (items == null || items.isEmpty()) {
+                throw new IllegalArgumentException("At least one room is required");
+            }
+            if (items.size() > maxGroupRooms) {
+                throw new IllegalArgumentException("A group booking cannot exceed " + maxGroupRooms + " rooms");
+            }
+
+            // Every room is validated like a single reservation, with the group's special requests
+            String specialRequests = request.getSpecialRequests() != null ? request.getSpecialRequests() : "";
+            items.forEach(item -> toReservationRequest(item, specialRequests));
 
-        Reservation reservation = reservationService.createReservation(
-                user, roomId, checkInDate, checkOutDate, numberOfGuests, specialRequests);
+            List<Reservation> reservations = reservationService.createGroupReservation(user, items, specialRequests);
+            BigDecimal totalAmount = reservations.stream()
+                    .map(Reservation::getTotalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new GroupBookingResponse(reservations.get(0).getGroupId(), totalAmount, reservations));
+        });
     }
 
     /**
@@ -302,11 +399,11 @@ public class ReservationController {
      */
     @GetMapping("/date-range")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<Reservation>> getReservationsByDateRange(
+    public ResponseEntity<List<ReservationSummary>> getReservationsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        List<Reservation> reservations = reservationService.getReservationsByDateRange(startDate, endDate);
+        List<ReservationSummary> reservations = reservationService.getReservationsByDateRange(startDate, endDate);
         return ResponseEntity.ok(reservations);
     }
 
@@ -342,4 +439,87 @@ public class ReservationController {
 
         return ResponseEntity.ok(reservation);
     }
+
+    private BookingTicket getOwnTicket(String ticketId, UserPrincipal userPrincipal) {
+        BookingTicket ticket = asyncBookingService.getTicket(ticketId);
+        if (!ticket.getUserId().equals(userPrincipal.getId())) {
+            throw new AccessDeniedException("Access denied");
+        }
+        return ticket;
+    }
+
+    /**
+     * Validate the body of a reservation request.
+     *
+     * @param reservationData reservation details
+     * @return the validated request
+     * @throws IllegalArgumentException if a field is missing or invalid
+     */
+    private ReservationRequest toReservationRequest(Map<String, Object> reservationData) {
+        String checkInDate = (String) reservationData.get("checkInDate");
+        String checkOutDate = (String) reservationData.get("checkOutDate");
+
+        return toReservationRequest(
+                (String) reservationData.get("roomId"),
+                checkInDate != null ? LocalDate.parse(checkInDate) : null,
+                checkOutDate != null ? LocalDate.parse(checkOutDate) : null,
+                (int) reservationData.get("numberOfGuests"),
+                (String) reservationData.getOrDefault("specialRequests", ""));
+    }
+
+    /**
+     * Validate one room of a group booking.
+     *
+     * @param item the room to book
+     * @param specialRequests special requests for the whole group
+     * @return the validated request
+     * @throws IllegalArgumentException if a field is missing or invalid
+     */
+    private ReservationRequest toReservationRequest(GroupBookingRequest.Item item, String specialRequests) {
+        return toReservationRequest(item.getRoomId(), item.getCheckInDate(), item.getCheckOutDate(),
+                item.getNumberOfGuests(), specialRequests);
+    }
+
+    /**
+     * Validate the fields shared by single and group reservation requests.
+     */
+    private ReservationRequest toReservationRequest(String roomId, LocalDate checkInDate, LocalDate checkOutDate,
+                                                    int numberOfGuests, String specialRequests) {
+        // Input validation
+        if (roomId == null || roomId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Room ID is required");
+        }
+        if (checkInDate == null || checkOutDate == null) {
+            throw new IllegalArgumentException("Check-in and check-out dates are required");
+        }
+
+        // Validate dates - allow bookings from today onwards
+        // Use minusDays(1) to be lenient with timezone differences between client and server
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (checkInDate.isBefore(yesterday)) {
+            throw new IllegalArgumentException("Check-in date cannot be in the past");
+        }
+        if (checkOutDate.isBefore(checkInDate) || checkOutDate.isEqual(checkInDate)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        if (checkInDate.isAfter(LocalDate.now().plusYears(2))) {
+            throw new IllegalArgumentException("Check-in date cannot be more than 2 years in the future");
+        }
+
+        if (numberOfGuests < 1 || numberOfGuests > 10) {
+            throw new IllegalArgumentException("Number of guests must be between 1 and 10");
+        }
+
+        if (specialRequests.length() > 500) {
+            throw new IllegalArgumentException("Special requests cannot exceed 500 characters");
+        }
+
+        ReservationRequest request = new ReservationRequest();
+        request.setRoomId(roomId);
+        request.setCheckInDate(checkInDate);
+        request.setCheckOutDate(checkOutDate);
+        request.setNumberOfGuests(numberOfGuests);
+        request.setSpecialRequests(specialRequests);
+        return request;
+    }
 }
@@ -1,18 +1,25 @@
 package com.hotel.reservation.controller;
 
+import com.hotel.reservation.dto.BookedNightsBitset;
+import com.hotel.reservation.dto.FlexibleAvailabilityDTO;
+import com.hotel.reservation.dto.ResourceVersion;
 import com.hotel.reservation.dto.RoomAvailabilityDTO;
 import com.hotel.reservation.model.Room;
 import com.hotel.reservation.service.RoomService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST controller for room management endpoints.
@@ -28,19 +35,31 @@ public class RoomController {
 
     private final RoomService roomService;
 
+    /**
+     * Room data may be stored by browsers and proxies but must be revalidated
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     /**
      * Get all rooms with optional filtering.
+     * Supports conditional requests; the entity tag covers the whole catalog.
      *
      * @param type room type filter (optional)
      * @param minPrice minimum price filter (optional)
      * @param maxPrice maximum price filter (optional)
-     * @return list of rooms
+     * @param request current request, for If-None-Match / If-Modified-Since
+     * @return list of rooms, or 304 if unchanged
      */
     @GetMapping
     public ResponseEntity<List<Room>> getAllRooms(
             @RequestParam(required = false) Room.RoomType type,
             @RequestParam(required = false) BigDecimal minPrice,
-            @RequestParam(required = false) BigDecimal maxPrice) {
+            @RequestParam(required = false) BigDecimal maxPrice,
+            ServletWebRequest request) {
+
+        if (checkNotModified(request, roomService.getRoomsVersion(type, minPrice, maxPrice))) {
+            return null;
+        }
 
         List<Room> rooms;
         if (type != null || minPrice != null || maxPrice != null) {
@@ -54,12 +73,18 @@ public class RoomController {
 
     /**
      * Get room by ID.
+     * Supports conditional requests based on the room's modification time.
      *
      * @param id room ID
-     * @return room entity
+     * @param request current request, for If-None-Match / If-Modified-Since
+     * @return room entity, or 304 if unchanged
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Room> getRoomById(@PathVariable String id) {
+    public ResponseEntity<Room> getRoomById(@PathVariable String id, ServletWebRequest request) {
+        if (checkNotModified(request, roomService.getRoomVersion(id))) {
+            return null;
+        }
+
         Room room = roomService.getRoomById(id);
         return ResponseEntity.ok(room);
     }
@@ -102,6 +127,29 @@ public class RoomController {
         return ResponseEntity.ok(rooms);
     }
 
+    /**
+     * Find bookable stays around a target date.
+     * Returns, per room, every check-in date within {@code flexDays} days of the
+     * target on which a stay of {@code nights} nights can be booked, replacing
+     * one availability search per candidate date.
+     *
+     * @param targetDate preferred check-in date
+     * @param nights length of the stay
+     * @param flexDays how many days the check-in may move either way (default 3)
+     * @param guests number of guests (optional)
+     * @return rooms with their bookable stays
+     */
+    @GetMapping("/flexible-availability")
+    public ResponseEntity<List<FlexibleAvailabilityDTO>> getFlexibleAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate targetDate,
+            @RequestParam int nights,
+            @RequestParam(defaultValue = "3") int flexDays,
+            @RequestParam(required = false) Integer guests) {
+
+        List<FlexibleAvailabilityDTO> rooms = roomService.getFlexibleAvailability(targetDate, nights, flexDays, guests);
+        return ResponseEntity.ok(rooms);
+    }
+
     /**
      * Create a new room (Manager/Admin only).
      *
@@ -143,15 +191,60 @@ public class RoomController {
     }
 
     /**
-     * Get booked date ranges for a specific room.
-     * Returns all date ranges where the room is reserved (CONFIRMED or CHECKED_IN).
+     * Get booked date ranges for a specific room within a date window.
+     * Returns merged ranges of nights on which the room is fully reserved
+     * (PENDING, CONFIRMED or CHECKED_IN), or with {@code format=bitset} a
+     * fixed-size bitset with one bit per night of the window.
+     * Supports conditional requests; the entity tag changes with every
+     * reservation change for the room.
      *
      * @param id room ID
-     * @return list of booked date ranges
+     * @param from start of the window (optional, defaults to today)
+     * @param to end of the window, exclusive (optional, defaults to the booking horizon)
+     * @param format "ranges" (default) or "bitset"
+     * @param request current request, for If-None-Match / If-Modified-Since
+     * @return booked date ranges or bitset, or 304 if unchanged
      */
     @GetMapping("/{id}/booked-dates")
-    public ResponseEntity<List<java.util.Map<String, LocalDate>>> getBookedDates(@PathVariable String id) {
-        List<java.util.Map<String, LocalDate>> bookedDates = roomService.getBookedDateRanges(id);
+    public ResponseEntity<?> getBookedDates(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ranges") String format,
+            ServletWebRequest request) {
+        boolean bitset = "bitset".equalsIgnoreCase(format);
+        if (!bitset && !"ranges".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+
+        if (checkNotModified(request, roomService.getBookedDatesVersion(id, from, to, bitset))) {
+            return null;
+        }
+
+        if (bitset) {
+            BookedNightsBitset bookedNights = roomService.getBookedNightsBitset(id, from, to);
+            return ResponseEntity.ok(bookedNights);
+        }
+
+        List<Map<String, LocalDate>> bookedDates = roomService.getBookedDateRanges(id, from, to);
         return ResponseEntity.ok(bookedDates);
     }
+
+    /**
+     * Set the caching headers for a versioned resource and check the request's
+     * preconditions. When this returns true the 304 response is already prepared.
+     */
+    private boolean checkNotModified(ServletWebRequest request, ResourceVersion version) {
+        if (version == null || version.getEtag() == null) {
+            return false;
+        }
+
+        // Set before Spring Security's default no-store header gets a chance to apply
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+
+        if (version.getLastModified() != null) {
+            return request.checkNotModified(version.getEtag(), version.getLastModified().toEpochMilli());
+        }
+        return request.checkNotModified(version.getEtag());
+    }
 }
@@ -0,0 +1,143 @@
+package com.hotel.reservation.controller;
+
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.WaitlistEntry;
+import com.hotel.reservation.repository.UserRepository;
+import com.hotel.reservation.security.UserPrincipal;
+import com.hotel.reservation.service.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * REST controller for the waitlist of temporarily held rooms.
+ * A guest whose booking was rejected because the room is held joins the waitlist
+ * and then long-polls for the entry's promotion instead of retrying the booking.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final UserRepository userRepository;
+
+    /**
+     * Join the waitlist for a room and stay.
+     *
+     * @param userPrincipal authenticated user
+     * @param waitlistData room, dates, number of guests and special requests
+     * @return created waitlist entry
+     */
+    @PostMapping
+    public ResponseEntity<WaitlistEntry> joinWaitlist(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestBody Map<String, Object> waitlistData) {
+
+        User user = userRepository.findById(userPrincipal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        String roomId = (String) waitlistData.get("roomId");
+        if (roomId == null || roomId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Room ID is required");
+        }
+
+        LocalDate checkInDate = LocalDate.parse((String) waitlistData.get("checkInDate"));
+        LocalDate checkOutDate = LocalDate.parse((String) waitlistData.get("checkOutDate"));
+
+        // Same date rules as a booking
+        if (checkInDate.isBefore(LocalDate.now().minusDays(1))) {
+            throw new IllegalArgumentException("Check-in date cannot be in the past");
+        }
+        if (!checkOutDate.isAfter(checkInDate)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        if (checkInDate.isAfter(LocalDate.now().plusYears(2))) {
+            throw new IllegalArgumentException("Check-in date cannot be more than 2 years in the future");
+        }
+
+        int numberOfGuests = (int) waitlistData.get("numberOfGuests");
+        if (numberOfGuests < 1 || numberOfGuests > 10) {
+            throw new IllegalArgumentException("Number of guests must be between 1 and 10");
+        }
+
+        String specialRequests = (String) waitlistData.getOrDefault("specialRequests", "");
+        if (specialRequests.length() > 500) {
+            throw new IllegalArgumentException("Special requests cannot exceed 500 characters");
+        }
+
+        WaitlistEntry entry = waitlistService.join(
+                user, roomId, checkInDate, checkOutDate, numberOfGuests, specialRequests);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+
+    /**
+     * Get a waitlist entry.
+     *
+     * @param id entry ID
+     * @param userPrincipal authenticated user
+     * @return waitlist entry
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<WaitlistEntry> getWaitlistEntry(
+            @PathVariable String id,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        return ResponseEntity.ok(getOwnEntry(id, userPrincipal));
+    }
+
+    /**
+     * Long-poll for a waitlist entry to be promoted or closed.
+     * Answers as soon as the entry stops waiting; an entry that is still waiting
+     * is returned when the wait times out, and the client asks again.
+     *
+     * @param id entry ID
+     * @param waitSeconds how long to wait at most (capped by the server)
+     * @param userPrincipal authenticated user
+     * @return the entry, possibly with the ID of the reservation it was promoted to
+     */
+    @GetMapping("/{id}/await")
+    public DeferredResult<WaitlistEntry> awaitWaitlistEntry(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "30") long waitSeconds,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        getOwnEntry(id, userPrincipal);
+        return waitlistService.awaitUpdate(id, waitSeconds);
+    }
+
+    /**
+     * Leave the waitlist.
+     *
+     * @param id entry ID
+     * @param userPrincipal authenticated user
+     * @return cancelled waitlist entry
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<WaitlistEntry> leaveWaitlist(
+            @PathVariable String id,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+
+        getOwnEntry(id, userPrincipal);
+        return ResponseEntity.ok(waitlistService.leave(id));
+    }
+
+    private WaitlistEntry getOwnEntry(String id, UserPrincipal userPrincipal) {
+        WaitlistEntry entry = waitlistService.getEntry(id);
+        if (!entry.getUserId().equals(userPrincipal.getId())) {
+            throw new AccessDeniedException("Access denied");
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,42 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Compact encoding of the booked nights of a room within a date window.
+ * Bit i (least significant bit first within each byte) is set when the night
+ * starting on {@code from + i days} is booked, so the payload size depends
+ * only on the window length.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookedNightsBitset {
+
+    /**
+     * First night of the window (inclusive)
+     */
+    private LocalDate from;
+
+    /**
+     * End of the window (exclusive)
+     */
+    private LocalDate to;
+
+    /**
+     * Number of nights covered by the bitset
+     */
+    private int nights;
+
+    /**
+     * Base64-encoded bitset of booked nights
+     */
+    private String bitset;
+}
@@ -0,0 +1,68 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Room;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a flexible-date search result.
+ * Lists, for one room, every start date within the flexible window on which
+ * a stay of the requested length can be booked.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlexibleAvailabilityDTO {
+
+    /**
+     * The room entity
+     */
+    private Room room;
+
+    /**
+     * Total number of this room type
+     */
+    private int totalRooms;
+
+    /**
+     * Bookable stays, ordered by check-in date
+     */
+    private List<StayOption> options;
+
+    /**
+     * A bookable stay of the requested length
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StayOption {
+
+        /**
+         * Check-in date
+         */
+        private LocalDate checkInDate;
+
+        /**
+         * Check-out date
+         */
+        private LocalDate checkOutDate;
+
+        /**
+         * Number of units still free on every night of the stay
+         */
+        private int availableCount;
+
+        /**
+         * Price of the stay
+         */
+        private BigDecimal totalPrice;
+    }
+}
@@ -0,0 +1,47 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a payment intent as returned by a payment gateway.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayPaymentIntent {
+
+    /**
+     * Payment intent ID
+     */
+    private String id;
+
+    /**
+     * Client secret for completing the payment in the browser
+     */
+    private String clientSecret;
+
+    /**
+     * Payment intent status, as named by Stripe (e.g. succeeded)
+     */
+    private String status;
+
+    /**
+     * ID of the latest charge
+     */
+    private String latestChargeId;
+
+    /**
+     * Card brand of the payment method
+     */
+    private String cardBrand;
+
+    /**
+     * Last four digits of the card
+     */
+    private String cardLast4;
+}
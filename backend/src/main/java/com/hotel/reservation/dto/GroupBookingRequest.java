@@ -0,0 +1,61 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a group booking request.
+ * Every item is one room; the same room type may appear several times.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupBookingRequest {
+
+    /**
+     * Rooms to book
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * Special requests or notes for the whole group
+     */
+    private String specialRequests;
+
+    /**
+     * One room of the group.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        /**
+         * Room ID
+         */
+        private String roomId;
+
+        /**
+         * Check-in date
+         */
+        private LocalDate checkInDate;
+
+        /**
+         * Check-out date
+         */
+        private LocalDate checkOutDate;
+
+        /**
+         * Number of guests in this room
+         */
+        private int numberOfGuests;
+    }
+}
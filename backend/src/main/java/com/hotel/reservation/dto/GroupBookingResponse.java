@@ -0,0 +1,36 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Reservation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for the result of a group booking.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupBookingResponse {
+
+    /**
+     * Group booking ID, used to pay for the whole group
+     */
+    private String groupId;
+
+    /**
+     * Total amount for all rooms of the group
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * One pending reservation per room, in request order
+     */
+    private List<Reservation> reservations;
+}
@@ -0,0 +1,115 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Payment;
+import com.hotel.reservation.model.ReservationSnapshot;
+import com.hotel.reservation.model.UserSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a payment listing.
+ * Read with a projection of just these fields; the Stripe client secret is
+ * only served by the payment detail endpoint.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSummary {
+
+    /**
+     * Payment ID
+     */
+    private String id;
+
+    /**
+     * Paid reservation, as at payment time
+     */
+    private ReservationSnapshot reservation;
+
+    /**
+     * Group booking ID (null for individual bookings)
+     */
+    private String groupId;
+
+    /**
+     * Paying user, as at payment time
+     */
+    private UserSnapshot user;
+
+    /**
+     * Payment amount
+     */
+    private BigDecimal amount;
+
+    /**
+     * Currency
+     */
+    private String currency;
+
+    /**
+     * Payment status
+     */
+    private Payment.PaymentStatus status;
+
+    /**
+     * Stripe payment intent ID
+     */
+    private String stripePaymentIntentId;
+
+    /**
+     * Stripe charge ID
+     */
+    private String stripeChargeId;
+
+    /**
+     * Payment method (card, wallet, etc.)
+     */
+    private String paymentMethod;
+
+    /**
+     * Last 4 digits of card (if applicable)
+     */
+    private String cardLast4;
+
+    /**
+     * Card brand
+     */
+    private String cardBrand;
+
+    /**
+     * Refund amount (if refunded)
+     */
+    private BigDecimal refundAmount;
+
+    /**
+     * Refund reason
+     */
+    private String refundReason;
+
+    /**
+     * Refund timestamp
+     */
+    private LocalDateTime refundedAt;
+
+    /**
+     * Payment receipt URL
+     */
+    private String receiptUrl;
+
+    /**
+     * Creation timestamp
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Last modification timestamp
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,58 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Reservation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of a reservation's stay.
+ * Read with a projection of just these fields, so it can be loaded in bulk
+ * for occupancy calculations.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationStay {
+
+    /**
+     * Reservation ID
+     */
+    private String reservationId;
+
+    /**
+     * ID of the reserved room
+     */
+    private String roomId;
+
+    /**
+     * Check-in date
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Check-out date
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Current reservation status
+     */
+    private Reservation.ReservationStatus status;
+
+    /**
+     * Last modification timestamp
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * How the nights are claimed, or null if not recorded
+     */
+    private Reservation.InventoryMode inventoryMode;
+}
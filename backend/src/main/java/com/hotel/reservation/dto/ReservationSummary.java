@@ -0,0 +1,101 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.model.UserSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a reservation listing.
+ * Read with a projection of just these fields; the payment link token and
+ * bookkeeping fields are only served by the reservation detail endpoints.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSummary {
+
+    /**
+     * Reservation ID
+     */
+    private String id;
+
+    /**
+     * Group booking ID (null for individual bookings)
+     */
+    private String groupId;
+
+    /**
+     * Guest, as at booking time
+     */
+    private UserSnapshot user;
+
+    /**
+     * Room, as at booking time
+     */
+    private RoomSnapshot room;
+
+    /**
+     * Check-in date
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Check-out date
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Number of guests
+     */
+    private int numberOfGuests;
+
+    /**
+     * Total amount
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * Current reservation status
+     */
+    private Reservation.ReservationStatus status;
+
+    /**
+     * Special requests or notes from the guest
+     */
+    private String specialRequests;
+
+    /**
+     * Payment ID associated with the reservation
+     */
+    private String paymentId;
+
+    /**
+     * Expiry timestamp of a pending reservation
+     */
+    private LocalDateTime expiresAt;
+
+    /**
+     * Cancellation reason (if cancelled)
+     */
+    private String cancellationReason;
+
+    /**
+     * Cancellation timestamp
+     */
+    private LocalDateTime cancelledAt;
+
+    /**
+     * Creation timestamp
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Validators for a cacheable API resource, used for conditional GET requests.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+
+    /**
+     * Strong entity tag (unquoted)
+     */
+    private String etag;
+
+    /**
+     * Last modification time, or null if unknown
+     */
+    private Instant lastModified;
+}
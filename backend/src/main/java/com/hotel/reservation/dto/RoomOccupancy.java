@@ -0,0 +1,31 @@
+package com.hotel.reservation.dto;
+
+import com.hotel.reservation.model.Room;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A room together with the number of its units that are occupied.
+ * With a date range, the count is the peak number of units booked on any
+ * night of the range; without dates it is the number of confirmed or
+ * checked-in reservations.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomOccupancy {
+
+    /**
+     * The room entity
+     */
+    private Room room;
+
+    /**
+     * Number of occupied units of this room
+     */
+    private int occupiedCount;
+}
@@ -0,0 +1,31 @@
+package com.hotel.reservation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a room's booked dates are derived from, reduced to values that change
+ * whenever any of its reservations is created, changed or deleted.
+ * Read from the database, so every instance reports the same values.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomReservationsVersion {
+
+    /**
+     * Number of reservations of the room, in any status
+     */
+    private long reservationCount;
+
+    /**
+     * Latest updatedAt among them, or null if there are none
+     */
+    private LocalDateTime lastUpdatedAt;
+}
@@ -0,0 +1,15 @@
+package com.hotel.reservation.exception;
+
+/**
+ * Exception thrown when an asynchronous booking request arrives while the
+ * booking queue is full.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public class BookingQueueFullException extends RuntimeException {
+
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.hotel.reservation.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -137,6 +139,68 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    /**
+     * Handle idempotency key in use exception (409 Conflict).
+     * This occurs when a retry arrives while the first request with the same key is still running.
+     *
+     * @param ex idempotency key in use exception
+     * @return error response
+     */
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyInUseException(IdempotencyKeyInUseException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handle booking queue full exception (503 Service Unavailable).
+     * This occurs when asynchronous booking requests arrive faster than the workers process them.
+     *
+     * @param ex booking queue full exception
+     * @return error response with a Retry-After header
+     */
+    @ExceptionHandler(BookingQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleBookingQueueFullException(BookingQueueFullException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    /**
+     * Handle payment provider unavailable exception (503 Service Unavailable).
+     * This occurs when Stripe calls are rejected by the bulkhead or time out.
+     *
+     * @param ex payment provider unavailable exception
+     * @return error response with a Retry-After header
+     */
+    @ExceptionHandler(PaymentProviderUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handlePaymentProviderUnavailableException(PaymentProviderUnavailableException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+
+    /**
+     * Handle optimistic locking failure exception (409 Conflict).
+     * This occurs when a reservation keeps being changed by other requests while it is updated.
+     *
+     * @param ex optimistic locking failure exception
+     * @return error response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
     /**
      * Handle generic runtime exceptions.
      *
@@ -0,0 +1,15 @@
+package com.hotel.reservation.exception;
+
+/**
+ * Exception thrown when a request arrives with an Idempotency-Key whose
+ * first request is still being processed.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hotel.reservation.exception;
+
+/**
+ * Exception thrown when a stored webhook event cannot be processed because of its
+ * content, such as a missing type or data object. Processing it again would fail
+ * the same way, so the event is marked failed without being retried.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public class InvalidWebhookEventException extends RuntimeException {
+
+    public InvalidWebhookEventException(String message) {
+        super(message);
+    }
+
+    public InvalidWebhookEventException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hotel.reservation.exception;
+
+import com.stripe.exception.ApiConnectionException;
+
+/**
+ * Exception thrown when a Stripe call is not made or not answered in time,
+ * because too many calls are already in flight or Stripe is slow to respond.
+ * It is a Stripe connection error, so callers that tolerate Stripe failures
+ * handle it the same way.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public class PaymentProviderUnavailableException extends ApiConnectionException {
+
+    public PaymentProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Booking ticket entity for a reservation request that is processed asynchronously.
+ * The ticket is returned as soon as the request is accepted and records the outcome
+ * once a booking worker has processed it, so the client can poll for it on any instance.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "booking_tickets")
+public class BookingTicket {
+
+    /**
+     * Unique identifier for the ticket
+     */
+    @Id
+    private String id;
+
+    /**
+     * ID of the booking user
+     */
+    private String userId;
+
+    /**
+     * ID of the requested room
+     */
+    private String roomId;
+
+    /**
+     * Requested check-in date
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Requested check-out date
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Number of guests
+     */
+    private int numberOfGuests;
+
+    /**
+     * Special requests for the reservation
+     */
+    private String specialRequests;
+
+    /**
+     * Processing status
+     */
+    private Status status = Status.QUEUED;
+
+    /**
+     * ID of the created reservation
+     */
+    private String reservationId;
+
+    /**
+     * Why the booking was not made
+     */
+    private String errorMessage;
+
+    /**
+     * When the request was accepted
+     */
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    /**
+     * Last modification timestamp
+     */
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    /**
+     * When the ticket is removed
+     */
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+
+    /**
+     * Document version, so a ticket given up on is not booked afterwards
+     */
+    @Version
+    private Long version;
+
+    public enum Status {
+        QUEUED,
+        PROCESSING,
+        BOOKED,
+        REJECTED,
+        FAILED
+    }
+}
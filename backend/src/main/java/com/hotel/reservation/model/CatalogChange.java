@@ -0,0 +1,35 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time of the latest change to a cached catalog.
+ * Moved forward on every add, update and delete, so a deletion changes the
+ * catalog's Last-Modified even though no remaining entry was touched.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "catalog_changes")
+public class CatalogChange {
+
+    /**
+     * Catalog name
+     */
+    @Id
+    private String id;
+
+    /**
+     * When the catalog last changed
+     */
+    private LocalDateTime changedAt;
+}
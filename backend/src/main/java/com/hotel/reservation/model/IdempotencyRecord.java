@@ -0,0 +1,75 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idempotency record entity for replaying retried requests.
+ * The ID combines the endpoint, the user and the client's Idempotency-Key, so
+ * inserting it is what claims the key; the first response is stored on the
+ * record and returned again for every retry until the record expires.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * Endpoint scope, user ID and Idempotency-Key
+     */
+    @Id
+    private String id;
+
+    /**
+     * Hash of the request body the key was first used with
+     */
+    private String requestHash;
+
+    /**
+     * Processing status
+     */
+    private Status status;
+
+    /**
+     * HTTP status of the stored response
+     */
+    private int responseStatus;
+
+    /**
+     * JSON body of the stored response
+     */
+    private String responseBody;
+
+    /**
+     * Headers of the stored response, such as Location
+     */
+    private Map<String, List<String>> responseHeaders;
+
+    /**
+     * When the key was first used
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * When the record is removed; short while in progress, so a crashed request frees its key
+     */
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
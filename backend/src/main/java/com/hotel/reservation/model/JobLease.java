@@ -0,0 +1,57 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease entity granting one application instance leadership for scheduled jobs.
+ * The lease is taken over by another instance once expireAt has passed without a
+ * renewal; each holder gets a new, strictly increasing fencing token.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_leases")
+public class JobLease {
+
+    /**
+     * Lease name
+     */
+    @Id
+    private String id;
+
+    /**
+     * Instance holding the lease
+     */
+    private String holder;
+
+    /**
+     * Fencing token issued to the current holder
+     */
+    private long fencingToken;
+
+    /**
+     * When the current holder acquired the lease
+     */
+    private LocalDateTime acquiredAt;
+
+    /**
+     * When the current holder last renewed the lease
+     */
+    private LocalDateTime renewedAt;
+
+    /**
+     * When the lease lapses unless renewed; abandoned leases are removed by the TTL index
+     */
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+}
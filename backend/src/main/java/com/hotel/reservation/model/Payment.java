@@ -6,7 +6,9 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -15,6 +17,8 @@ import java.time.LocalDateTime;
 /**
  * Payment entity representing a payment transaction.
  * Integrates with Stripe for payment processing.
+ * The reservation and the paying user are embedded as snapshots taken when the
+ * payment is created, so payment history needs no further lookups.
  *
  * @author Hotel Reservation Team
  * @version 1.0
@@ -23,8 +27,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "payments")
+@CompoundIndexes({
+    @CompoundIndex(name = "reservation_id_idx", def = "{'reservation._id': 1}"),
+    @CompoundIndex(name = "user_id_idx", def = "{'user._id': 1}")
+})
 public class Payment {
 
+    /**
+     * Document path of the reservation ID
+     */
+    public static final String RESERVATION_ID = "reservation._id";
+
+    /**
+     * Document path of the paying user's ID
+     */
+    public static final String USER_ID = "user._id";
+
     /**
      * Unique identifier for the payment
      */
@@ -32,16 +50,21 @@ public class Payment {
     private String id;
 
     /**
-     * Reference to the reservation
+     * The paid reservation, as at payment time
+     */
+    private ReservationSnapshot reservation;
+
+    /**
+     * Group booking paid by this payment (null for individual bookings).
+     * The reservation snapshot then describes the first room of the group.
      */
-    @DBRef
-    private Reservation reservation;
+    @Indexed(name = "group_idx", sparse = true)
+    private String groupId;
 
     /**
-     * Reference to the user who made the payment
+     * The user who made the payment, as at payment time
      */
-    @DBRef
-    private User user;
+    private UserSnapshot user;
 
     /**
      * Payment amount
@@ -56,11 +79,13 @@ public class Payment {
     /**
      * Payment status
      */
+    @Indexed(name = "status_idx")
     private PaymentStatus status = PaymentStatus.PENDING;
 
     /**
      * Stripe payment intent ID
      */
+    @Indexed(name = "stripe_payment_intent_idx", sparse = true)
     private String stripePaymentIntentId;
 
     /**
@@ -110,8 +135,10 @@ public class Payment {
 
     /**
      * Payment creation timestamp
+     * (indexed so payment listings are read in creation order)
      */
     @CreatedDate
+    @Indexed(name = "created_at_idx")
     private LocalDateTime createdAt;
 
     /**
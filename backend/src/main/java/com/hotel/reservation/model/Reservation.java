@@ -6,9 +6,10 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -22,6 +23,9 @@ import java.time.LocalDateTime;
  * Compound indexes ensure fast lookups for overlapping reservation queries
  * and prevent double-booking scenarios.
  *
+ * The guest and the room are embedded as snapshots taken at booking time, so
+ * reading reservations needs no lookup of users or rooms.
+ *
  * @author Hotel Reservation Team
  * @version 1.0
  */
@@ -30,13 +34,29 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Document(collection = "reservations")
 @CompoundIndexes({
-    @CompoundIndex(name = "room_dates_status_idx",
-                   def = "{'room.$id': 1, 'checkInDate': 1, 'checkOutDate': 1, 'status': 1}"),
+    @CompoundIndex(name = "room_id_dates_status_idx",
+                   def = "{'room._id': 1, 'checkInDate': 1, 'checkOutDate': 1, 'status': 1}"),
+    @CompoundIndex(name = "room_id_updated_idx",
+                   def = "{'room._id': 1, 'updatedAt': 1}"),
     @CompoundIndex(name = "status_expires_idx",
-                   def = "{'status': 1, 'expiresAt': 1}")
+                   def = "{'status': 1, 'expiresAt': 1}"),
+    @CompoundIndex(name = "user_id_status_idx",
+                   def = "{'user._id': 1, 'status': 1}"),
+    @CompoundIndex(name = "dates_idx",
+                   def = "{'checkInDate': 1, 'checkOutDate': 1}")
 })
 public class Reservation {
 
+    /**
+     * Document path of the guest's user ID
+     */
+    public static final String USER_ID = "user._id";
+
+    /**
+     * Document path of the room ID
+     */
+    public static final String ROOM_ID = "room._id";
+
     /**
      * Unique identifier for the reservation
      */
@@ -44,16 +64,14 @@ public class Reservation {
     private String id;
 
     /**
-     * Reference to the user who made the reservation
+     * The user who made the reservation, as at booking time
      */
-    @DBRef
-    private User user;
+    private UserSnapshot user;
 
     /**
-     * Reference to the reserved room
+     * The reserved room, as at booking time
      */
-    @DBRef
-    private Room room;
+    private RoomSnapshot room;
 
     /**
      * Check-in date
@@ -99,14 +117,23 @@ public class Reservation {
      * Reservation creation timestamp
      */
     @CreatedDate
+    @Indexed(name = "created_at_idx")
     private LocalDateTime createdAt;
 
     /**
      * Reservation last modification timestamp
+     * (indexed so other instances can poll for recent changes)
      */
     @LastModifiedDate
+    @Indexed(name = "updated_at_idx")
     private LocalDateTime updatedAt;
 
+    /**
+     * Document version, incremented by every write (missing on documents created before versioning)
+     */
+    @Version
+    private Long version;
+
     /**
      * Cancellation reason (if cancelled)
      */
@@ -127,8 +154,22 @@ public class Reservation {
      * Secure payment link token for manager-assisted bookings
      * Used to generate a unique payment URL that customers can access
      */
+    @Indexed(name = "payment_link_token_idx", sparse = true)
     private String paymentLinkToken;
 
+    /**
+     * Group booking this reservation belongs to (null for individual bookings)
+     */
+    @Indexed(name = "group_idx", sparse = true)
+    private String groupId;
+
+    /**
+     * How the nights of the stay are claimed; fixed when the reservation is created,
+     * so it is released the same way even if the room's number of units changes.
+     * Null for reservations made before it was recorded
+     */
+    private InventoryMode inventoryMode;
+
     /**
      * Reservation status enumeration
      */
@@ -139,4 +180,12 @@ public class Reservation {
         CHECKED_OUT,
         CANCELLED
     }
+
+    /**
+     * Inventory mode enumeration
+     */
+    public enum InventoryMode {
+        NIGHT_LOCKS,    // One room lock per night (single-unit rooms)
+        LEDGER          // One unit per night in the inventory ledger (multi-unit rooms)
+    }
 }
@@ -0,0 +1,60 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Reservation details embedded in payments.
+ * Taken when the payment is created, so payment history needs no lookup of the
+ * reservation or its room.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationSnapshot {
+
+    /**
+     * ID of the reservation (stored as the embedded document's _id)
+     */
+    private String id;
+
+    /**
+     * ID of the reserved room
+     */
+    private String roomId;
+
+    /**
+     * Name of the reserved room
+     */
+    private String roomName;
+
+    /**
+     * Check-in date
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Check-out date
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Take a snapshot of a reservation.
+     *
+     * @param reservation the reservation
+     * @return the snapshot
+     */
+    public static ReservationSnapshot of(Reservation reservation) {
+        RoomSnapshot room = reservation.getRoom();
+        return new ReservationSnapshot(reservation.getId(),
+                room != null ? room.getId() : null,
+                room != null ? room.getName() : null,
+                reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+}
@@ -0,0 +1,67 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Per-night inventory ledger entry for a room type.
+ * Holds how many units of the room are sold for one night and to which
+ * reservations; bookings claim each night of the stay with a guarded increment
+ * so that a room type with several units can be sold up to its totalRooms.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "room_inventory")
+@CompoundIndexes({
+    @CompoundIndex(name = "room_night_unique_idx",
+                   def = "{'roomId': 1, 'night': 1}",
+                   unique = true)
+})
+public class RoomInventory {
+
+    @Id
+    private String id;
+
+    /**
+     * ID of the room type
+     */
+    private String roomId;
+
+    /**
+     * The night (date of check-in for that night)
+     */
+    private LocalDate night;
+
+    /**
+     * Number of units sold for this night
+     */
+    private int sold;
+
+    /**
+     * IDs of the reservations holding the sold units; null on nights written before they were recorded
+     */
+    private List<String> reservationIds;
+
+    public RoomInventory(String roomId, LocalDate night, int sold) {
+        this.roomId = roomId;
+        this.night = night;
+        this.sold = sold;
+    }
+
+    public RoomInventory(String roomId, LocalDate night, List<String> reservationIds) {
+        this(roomId, night, reservationIds.size());
+        this.reservationIds = reservationIds;
+    }
+}
@@ -14,7 +14,12 @@ import java.time.LocalDateTime;
 
 /**
  * Room lock entity for preventing concurrent bookings.
- * Uses MongoDB's unique index to ensure only one reservation can lock a room for given dates.
+ * One document per room-night held by a reservation; the unique index on
+ * (roomId, night) makes any two overlapping stays collide, so a whole stay is
+ * claimed with a single ordered insert of its nights.
+ *
+ * Stored in room_night_locks: the previous range-based locks in room_locks
+ * expire on their own after ten minutes.
  *
  * @author Hotel Reservation Team
  * @version 1.0
@@ -22,10 +27,10 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "room_locks")
+@Document(collection = "room_night_locks")
 @CompoundIndexes({
-    @CompoundIndex(name = "room_dates_unique_idx",
-                   def = "{'roomId': 1, 'checkInDate': 1, 'checkOutDate': 1}",
+    @CompoundIndex(name = "room_night_unique_idx",
+                   def = "{'roomId': 1, 'night': 1}",
                    unique = true)
 })
 public class RoomLock {
@@ -34,18 +39,18 @@ public class RoomLock {
     private String id;
 
     private String roomId;
-    private LocalDate checkInDate;
-    private LocalDate checkOutDate;
+    private LocalDate night;
+
+    @Indexed(name = "reservation_id_idx")
     private String reservationId;
 
-    @Indexed(expireAfterSeconds = 600) // Auto-delete after 10 minutes
-    private LocalDateTime createdAt;
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0) // Auto-delete once the night has passed
+    private LocalDateTime expireAt;
 
-    public RoomLock(String roomId, LocalDate checkInDate, LocalDate checkOutDate, String reservationId) {
+    public RoomLock(String roomId, LocalDate night, String reservationId) {
         this.roomId = roomId;
-        this.checkInDate = checkInDate;
-        this.checkOutDate = checkOutDate;
+        this.night = night;
         this.reservationId = reservationId;
-        this.createdAt = LocalDateTime.now();
+        this.expireAt = night.plusDays(1).atStartOfDay();
     }
 }
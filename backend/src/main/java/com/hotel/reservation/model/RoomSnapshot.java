@@ -0,0 +1,57 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Room details embedded in reservations.
+ * Taken when the reservation is made and records the price it was booked at;
+ * anything else about the room is read from the room catalog by ID.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomSnapshot {
+
+    /**
+     * ID of the room (stored as the embedded document's _id)
+     */
+    private String id;
+
+    /**
+     * Room name at booking time
+     */
+    private String name;
+
+    /**
+     * Room type at booking time
+     */
+    private Room.RoomType type;
+
+    /**
+     * Price per night the stay was booked at
+     */
+    private BigDecimal pricePerNight;
+
+    /**
+     * Main image at booking time
+     */
+    private String imageUrl;
+
+    /**
+     * Take a snapshot of a room.
+     *
+     * @param room the room
+     * @return the snapshot
+     */
+    public static RoomSnapshot of(Room room) {
+        return new RoomSnapshot(room.getId(), room.getName(), room.getType(),
+                room.getPricePerNight(), room.getImageUrl());
+    }
+}
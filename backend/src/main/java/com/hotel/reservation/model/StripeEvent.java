@@ -0,0 +1,108 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbox entry for a verified Stripe webhook event.
+ * The ID is Stripe's event ID, so a redelivered event is rejected on insert. Entries
+ * are processed by webhook workers in the order Stripe created them per payment
+ * intent, and retried with backoff until they succeed or run out of attempts.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stripe_events")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_next_attempt_idx",
+                   def = "{'status': 1, 'nextAttemptAt': 1}"),
+    @CompoundIndex(name = "payment_intent_order_idx",
+                   def = "{'paymentIntentId': 1, 'createdAt': 1, 'receivedAt': 1}")
+})
+public class StripeEvent {
+
+    /**
+     * Stripe event ID
+     */
+    @Id
+    private String id;
+
+    /**
+     * Stripe event type
+     */
+    private String type;
+
+    /**
+     * Payment intent the event belongs to, if any
+     */
+    private String paymentIntentId;
+
+    /**
+     * Raw event JSON as delivered
+     */
+    private String payload;
+
+    /**
+     * Processing status
+     */
+    private Status status = Status.PENDING;
+
+    /**
+     * Processing attempts so far
+     */
+    private int attempts;
+
+    /**
+     * When Stripe created the event
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * When the webhook was received
+     */
+    private LocalDateTime receivedAt;
+
+    /**
+     * When the entry is next due; for a claimed entry, when the claim is considered abandoned
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * ID of the current claim, so only the claiming worker records the outcome
+     */
+    private String claimId;
+
+    /**
+     * Error of the last failed attempt
+     */
+    private String lastError;
+
+    /**
+     * When the event was processed
+     */
+    private LocalDateTime processedAt;
+
+    /**
+     * When the entry is removed; set once it is finished
+     */
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        PROCESSED,
+        FAILED
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Guest details embedded in reservations and payments.
+ * Taken when the booking or payment is made, so reading it needs no lookup
+ * of the user; later profile changes do not alter it.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSnapshot {
+
+    /**
+     * ID of the user (stored as the embedded document's _id)
+     */
+    private String id;
+
+    /**
+     * First name at booking time
+     */
+    private String firstName;
+
+    /**
+     * Last name at booking time
+     */
+    private String lastName;
+
+    /**
+     * Email address at booking time
+     */
+    private String email;
+
+    /**
+     * Phone number at booking time
+     */
+    private String phoneNumber;
+
+    /**
+     * Take a snapshot of a user.
+     *
+     * @param user the user
+     * @return the snapshot
+     */
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.getPhoneNumber());
+    }
+}
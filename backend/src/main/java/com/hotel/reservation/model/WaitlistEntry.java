@@ -0,0 +1,109 @@
+package com.hotel.reservation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Waitlist entry entity for a guest waiting for a room that is temporarily held.
+ * Entries for a room are promoted to a pending reservation in the order they
+ * were created, as soon as a hold on the room is released.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "waitlist_entries")
+@CompoundIndex(name = "room_status_created_idx", def = "{'roomId': 1, 'status': 1, 'createdAt': 1}")
+public class WaitlistEntry {
+
+    /**
+     * Unique identifier for the entry
+     */
+    @Id
+    private String id;
+
+    /**
+     * ID of the waiting user
+     */
+    private String userId;
+
+    /**
+     * ID of the requested room
+     */
+    private String roomId;
+
+    /**
+     * Requested check-in date
+     */
+    private LocalDate checkInDate;
+
+    /**
+     * Requested check-out date
+     */
+    private LocalDate checkOutDate;
+
+    /**
+     * Number of guests
+     */
+    private int numberOfGuests;
+
+    /**
+     * Special requests for the reservation
+     */
+    private String specialRequests;
+
+    /**
+     * Waitlist status
+     */
+    private Status status = Status.WAITING;
+
+    /**
+     * ID of the reservation created on promotion
+     */
+    private String reservationId;
+
+    /**
+     * When the guest joined the waitlist (determines the order of promotion)
+     */
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    /**
+     * Last modification timestamp
+     */
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    /**
+     * When the entry is removed: the requested check-in day
+     */
+    @Indexed(name = "expire_at_ttl_idx", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+
+    /**
+     * Document version, so only one instance can promote an entry
+     */
+    @Version
+    private Long version;
+
+    public enum Status {
+        WAITING,
+        PROMOTING,
+        PROMOTED,
+        EXPIRED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,16 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.BookingTicket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for BookingTicket entity.
+ * Tickets are only ever looked up by ID.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface BookingTicketRepository extends MongoRepository<BookingTicket, String> {
+}
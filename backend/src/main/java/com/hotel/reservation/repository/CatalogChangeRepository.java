@@ -0,0 +1,16 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.CatalogChange;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for CatalogChange entity.
+ * Change times are only written through {@link CatalogChangeRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface CatalogChangeRepository extends MongoRepository<CatalogChange, String>, CatalogChangeRepositoryCustom {
+}
@@ -0,0 +1,21 @@
+package com.hotel.reservation.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog change updates implemented directly on MongoTemplate.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface CatalogChangeRepositoryCustom {
+
+    /**
+     * Record a change to a catalog. The change time only ever moves forward, so
+     * an instance with a slower clock cannot move it back.
+     *
+     * @param catalog catalog name
+     * @param changedAt time of the change
+     */
+    void recordChange(String catalog, LocalDateTime changedAt);
+}
@@ -0,0 +1,28 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.CatalogChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+/**
+ * MongoTemplate-backed implementation of {@link CatalogChangeRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class CatalogChangeRepositoryImpl implements CatalogChangeRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordChange(String catalog, LocalDateTime changedAt) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(catalog)),
+                new Update().max("changedAt", changedAt), CatalogChange.class);
+    }
+}
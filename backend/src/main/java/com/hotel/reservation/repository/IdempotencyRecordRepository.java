@@ -0,0 +1,16 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for IdempotencyRecord entity.
+ * Keys are claimed with {@link #insert(Object)}, which fails on an existing ID.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
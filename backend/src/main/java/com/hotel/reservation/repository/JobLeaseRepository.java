@@ -0,0 +1,17 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.JobLease;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for JobLease entity.
+ * The lease is only ever written through the conditional updates of
+ * {@link JobLeaseRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface JobLeaseRepository extends MongoRepository<JobLease, String>, JobLeaseRepositoryCustom {
+}
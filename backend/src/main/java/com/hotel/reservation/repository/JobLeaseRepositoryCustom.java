@@ -0,0 +1,79 @@
+package com.hotel.reservation.repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Conditional lease and fencing updates implemented directly on MongoTemplate.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface JobLeaseRepositoryCustom {
+
+    /**
+     * Issue the next fencing token of a lease.
+     * Tokens are kept apart from the lease document, so they keep increasing after
+     * an expired lease has been removed by its TTL index.
+     *
+     * @param leaseId lease name
+     * @return a token greater than every token issued before
+     */
+    long nextFencingToken(String leaseId);
+
+    /**
+     * Take a lease if it is free or has expired.
+     * The check and the takeover are a single atomic update.
+     *
+     * @param leaseId lease name
+     * @param holder acquiring instance
+     * @param fencingToken token issued for this acquisition
+     * @param now current time
+     * @param ttl how long the lease lasts without renewal
+     * @return true if the lease was acquired, false if another instance holds it
+     */
+    boolean acquire(String leaseId, String holder, long fencingToken, LocalDateTime now, Duration ttl);
+
+    /**
+     * Extend a lease still held with the given token.
+     *
+     * @param leaseId lease name
+     * @param holder renewing instance
+     * @param fencingToken token the lease was acquired with
+     * @param now current time
+     * @param ttl how long the lease lasts without renewal
+     * @return true if renewed, false if the lease was lost to another instance
+     */
+    boolean renew(String leaseId, String holder, long fencingToken, LocalDateTime now, Duration ttl);
+
+    /**
+     * Give up a lease still held with the given token, so another instance can take it at once.
+     *
+     * @param leaseId lease name
+     * @param holder releasing instance
+     * @param fencingToken token the lease was acquired with
+     */
+    void release(String leaseId, String holder, long fencingToken);
+
+    /**
+     * Whether a lease is still held with the given token and has not expired.
+     *
+     * @param leaseId lease name
+     * @param fencingToken token the lease was acquired with
+     * @param now current time
+     * @return true if no other instance can have taken the lease over
+     */
+    boolean isHeld(String leaseId, long fencingToken, LocalDateTime now);
+
+    /**
+     * Record a run of a job unless a run with a newer fencing token was recorded.
+     * A former leader that has not noticed losing its lease is refused here.
+     *
+     * @param job job name
+     * @param holder running instance
+     * @param fencingToken token of the running instance's lease
+     * @param now current time
+     * @return true if the job may run, false if a newer leader has run it
+     */
+    boolean fenceJobRun(String job, String holder, long fencingToken, LocalDateTime now);
+}
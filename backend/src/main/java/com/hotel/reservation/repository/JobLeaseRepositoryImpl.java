@@ -0,0 +1,109 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.JobLease;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * MongoTemplate-backed implementation of {@link JobLeaseRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class JobLeaseRepositoryImpl implements JobLeaseRepositoryCustom {
+
+    /**
+     * Last fencing token issued per lease
+     */
+    static final String TOKENS_COLLECTION = "job_lease_tokens";
+
+    /**
+     * Fencing token of the latest run per job
+     */
+    static final String RUNS_COLLECTION = "job_runs";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long nextFencingToken(String leaseId) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(leaseId)),
+                new Update().inc("value", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                TOKENS_COLLECTION);
+        return counter.get("value", Number.class).longValue();
+    }
+
+    @Override
+    public boolean acquire(String leaseId, String holder, long fencingToken, LocalDateTime now, Duration ttl) {
+        Query free = new Query(Criteria.where("_id").is(leaseId).and("expireAt").lte(now));
+        Update take = new Update()
+                .set("holder", holder)
+                .set("fencingToken", fencingToken)
+                .set("acquiredAt", now)
+                .set("renewedAt", now)
+                .set("expireAt", now.plus(ttl));
+
+        try {
+            // Takes over an expired lease, or creates it if there is none; a lease that
+            // is still held does not match and the insert is rejected on _id
+            mongoTemplate.upsert(free, take, JobLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean renew(String leaseId, String holder, long fencingToken, LocalDateTime now, Duration ttl) {
+        Query held = new Query(Criteria.where("_id").is(leaseId)
+                .and("holder").is(holder)
+                .and("fencingToken").is(fencingToken));
+        Update extend = new Update()
+                .set("renewedAt", now)
+                .set("expireAt", now.plus(ttl));
+
+        return mongoTemplate.updateFirst(held, extend, JobLease.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void release(String leaseId, String holder, long fencingToken) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(leaseId)
+                .and("holder").is(holder)
+                .and("fencingToken").is(fencingToken)), JobLease.class);
+    }
+
+    @Override
+    public boolean isHeld(String leaseId, long fencingToken, LocalDateTime now) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(leaseId)
+                .and("fencingToken").is(fencingToken)
+                .and("expireAt").gt(now)), JobLease.class);
+    }
+
+    @Override
+    public boolean fenceJobRun(String job, String holder, long fencingToken, LocalDateTime now) {
+        Query notNewer = new Query(Criteria.where("_id").is(job).and("fencingToken").lte(fencingToken));
+        Update run = new Update()
+                .set("fencingToken", fencingToken)
+                .set("holder", holder)
+                .set("lastRunAt", now);
+
+        try {
+            mongoTemplate.upsert(notNewer, run, RUNS_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
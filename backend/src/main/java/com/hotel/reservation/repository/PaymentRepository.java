@@ -3,6 +3,7 @@ package com.hotel.reservation.repository;
 import com.hotel.reservation.model.Payment;
 import com.hotel.reservation.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,7 +17,7 @@ import java.util.Optional;
  * @version 1.0
  */
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
 
     /**
      * Find all payments for a specific user.
@@ -24,6 +25,7 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
      * @param user the user to search for
      * @return list of payments for the user
      */
+    @Query("{ 'user._id': ?#{new org.bson.types.ObjectId([0].id)} }")
     List<Payment> findByUser(User user);
 
     /**
@@ -32,6 +34,7 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
      * @param userId the user ID to search for
      * @return list of payments for the user
      */
+    @Query("{ 'user._id': ObjectId(?0) }")
     List<Payment> findByUserId(String userId);
 
     /**
@@ -57,8 +60,17 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
      * @param reservationId the reservation ID
      * @return list of payments for the reservation
      */
+    @Query("{ 'reservation._id': ObjectId(?0) }")
     List<Payment> findAllByReservationId(String reservationId);
 
+    /**
+     * Find all payments of a group booking.
+     *
+     * @param groupId the group ID
+     * @return list of payments for the group
+     */
+    List<Payment> findAllByGroupId(String groupId);
+
     /**
      * Find payment by reservation ID.
      * NOTE: This may throw an exception if multiple payments exist for the same reservation.
@@ -67,5 +79,6 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
      * @param reservationId the reservation ID
      * @return Optional containing the payment if found
      */
+    @Query("{ 'reservation._id': ObjectId(?0) }")
     Optional<Payment> findByReservationId(String reservationId);
 }
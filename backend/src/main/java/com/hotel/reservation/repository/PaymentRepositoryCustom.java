@@ -0,0 +1,30 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.PaymentSummary;
+
+import java.util.List;
+
+/**
+ * Payment listing queries implemented directly on MongoTemplate.
+ * These read only the fields of a listing row.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Find the listing rows of all payments, newest first.
+     *
+     * @return list of payment summaries
+     */
+    List<PaymentSummary> findAllSummaries();
+
+    /**
+     * Find the listing rows of a user's payments.
+     *
+     * @param userId the user ID
+     * @return list of payment summaries
+     */
+    List<PaymentSummary> findSummariesByUserId(String userId);
+}
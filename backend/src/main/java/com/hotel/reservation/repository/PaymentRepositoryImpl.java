@@ -0,0 +1,51 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.PaymentSummary;
+import com.hotel.reservation.model.Payment;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link PaymentRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    private static final String COLLECTION = "payments";
+
+    /**
+     * Fields of a listing row; the client secret stays on the server
+     */
+    private static final String[] SUMMARY_FIELDS = {
+            "reservation", "groupId", "user", "amount", "currency", "status", "stripePaymentIntentId",
+            "stripeChargeId", "paymentMethod", "cardLast4", "cardBrand", "refundAmount", "refundReason",
+            "refundedAt", "receiptUrl", "createdAt", "updatedAt"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<PaymentSummary> findAllSummaries() {
+        // Walks created_at_idx instead of scanning the collection
+        return findSummaries(new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")));
+    }
+
+    @Override
+    public List<PaymentSummary> findSummariesByUserId(String userId) {
+        return findSummaries(new Query(Criteria.where(Payment.USER_ID)
+                .is(ObjectId.isValid(userId) ? new ObjectId(userId) : userId)));
+    }
+
+    private List<PaymentSummary> findSummaries(Query query) {
+        query.fields().include(SUMMARY_FIELDS);
+        return mongoTemplate.find(query, PaymentSummary.class, COLLECTION);
+    }
+}
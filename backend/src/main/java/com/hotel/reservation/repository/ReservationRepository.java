@@ -19,14 +19,16 @@ import java.util.Optional;
  * @version 1.0
  */
 @Repository
-public interface ReservationRepository extends MongoRepository<Reservation, String> {
+public interface ReservationRepository extends MongoRepository<Reservation, String>, ReservationRepositoryCustom {
 
     /**
      * Find all reservations for a specific user.
+     * Matches on the embedded user ID so that user_id_status_idx can be used.
      *
      * @param user the user to search for
      * @return list of reservations for the user
      */
+    @Query("{ 'user._id': ?#{new org.bson.types.ObjectId([0].id)} }")
     List<Reservation> findByUser(User user);
 
     /**
@@ -35,24 +37,27 @@ public interface ReservationRepository extends MongoRepository<Reservation, Stri
      * @param userId the user ID to search for
      * @return list of reservations for the user
      */
+    @Query("{ 'user._id': ObjectId(?0) }")
     List<Reservation> findByUserId(String userId);
 
     /**
      * Find all reservations for a specific room.
+     * Matches on the embedded room ID so that room_id_dates_status_idx can be used.
      *
      * @param room the room to search for
      * @return list of reservations for the room
      */
+    @Query("{ 'room._id': ?#{new org.bson.types.ObjectId([0].id)} }")
     List<Reservation> findByRoom(Room room);
 
     /**
      * Find all reservations for a specific room by room ID.
-     * Uses MongoDB DBRef format to query the room reference.
+     * Matches on the embedded room ID, which is stored as an ObjectId.
      *
      * @param roomId the room ID to search for
      * @return list of reservations for the room
      */
-    @Query("{ 'room.$id': ?0 }")
+    @Query("{ 'room._id': ObjectId(?0) }")
     List<Reservation> findByRoomId(String roomId);
 
     /**
@@ -66,33 +71,30 @@ public interface ReservationRepository extends MongoRepository<Reservation, Stri
     /**
      * Find overlapping reservations for a room.
      * This is critical for preventing overbooking.
+     * A stay overlaps when it starts before the requested check-out and ends after
+     * the requested check-in; every predicate is bounded by room_id_dates_status_idx.
      *
      * @param roomId the room ID
      * @param checkInDate the check-in date
      * @param checkOutDate the check-out date
      * @return list of overlapping reservations
      */
-    @Query("{ 'room.$id': ?0, " +
-           "'status': { $in: ['PENDING', 'CONFIRMED', 'CHECKED_IN'] }, " +
-           "$or: [" +
-           "  { 'checkInDate': { $lt: ?2 }, 'checkOutDate': { $gt: ?1 } }, " +
-           "  { 'checkInDate': { $gte: ?1, $lt: ?2 } }, " +
-           "  { 'checkOutDate': { $gt: ?1, $lte: ?2 } }" +
-           "]}")
+    @Query("{ 'room._id': ObjectId(?0), " +
+           "'checkInDate': { $lt: ?2 }, " +
+           "'checkOutDate': { $gt: ?1 }, " +
+           "'status': { $in: ['PENDING', 'CONFIRMED', 'CHECKED_IN'] } }")
     List<Reservation> findOverlappingReservations(String roomId, LocalDate checkInDate, LocalDate checkOutDate);
 
     /**
      * Find reservations by date range.
+     * Returns every stay that touches the range (both ends inclusive), expressed as
+     * a single range on dates_idx instead of three $or branches.
      *
      * @param startDate start date of the range
      * @param endDate end date of the range
      * @return list of reservations within the date range
      */
-    @Query("{ $or: [" +
-           "  { 'checkInDate': { $gte: ?0, $lte: ?1 } }, " +
-           "  { 'checkOutDate': { $gte: ?0, $lte: ?1 } }, " +
-           "  { 'checkInDate': { $lte: ?0 }, 'checkOutDate': { $gte: ?1 } }" +
-           "]}")
+    @Query("{ 'checkInDate': { $lte: ?1 }, 'checkOutDate': { $gte: ?0 } }")
     List<Reservation> findByDateRange(LocalDate startDate, LocalDate endDate);
 
     /**
@@ -138,5 +140,24 @@ public interface ReservationRepository extends MongoRepository<Reservation, Stri
      * @param status the reservation status
      * @return list of reservations matching the criteria
      */
+    @Query("{ 'user._id': ObjectId(?0), 'status': ?1 }")
     List<Reservation> findByUserIdAndStatus(String userId, Reservation.ReservationStatus status);
+
+    /**
+     * Find reservations in a status whose expiry time has passed.
+     * Bounded by status_expires_idx, so the cost grows with the number of matches only.
+     *
+     * @param status the reservation status
+     * @param expiresAt exclusive upper bound for the expiry time
+     * @return list of matching reservations
+     */
+    List<Reservation> findByStatusAndExpiresAtBefore(Reservation.ReservationStatus status, java.time.LocalDateTime expiresAt);
+
+    /**
+     * Find all reservations of a group booking.
+     *
+     * @param groupId the group booking ID
+     * @return list of reservations in the group
+     */
+    List<Reservation> findByGroupId(String groupId);
 }
@@ -0,0 +1,151 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.dto.RoomReservationsVersion;
+import com.hotel.reservation.dto.ReservationSummary;
+import com.hotel.reservation.model.Reservation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Custom reservation queries implemented directly on MongoTemplate.
+ * These read only the fields their callers need, which keeps bulk reads
+ * small on the wire and cheap to map.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface ReservationRepositoryCustom {
+
+    /**
+     * Find the stays of all reservations in the given statuses.
+     *
+     * @param statuses reservation statuses to include
+     * @return list of stays
+     */
+    List<ReservationStay> findStaysByStatusIn(Collection<Reservation.ReservationStatus> statuses);
+
+    /**
+     * Find the stays of all reservations modified at or after the given time.
+     *
+     * @param since lower bound for the last modification timestamp
+     * @return list of stays ordered by modification time
+     */
+    List<ReservationStay> findStaysUpdatedSince(LocalDateTime since);
+
+    /**
+     * Find the stays of a room's reservations in the given statuses that
+     * overlap a date range, ordered by check-in date.
+     *
+     * @param roomId the room ID
+     * @param statuses reservation statuses to include
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @return list of overlapping stays
+     */
+    List<ReservationStay> findStaysOverlapping(String roomId, Collection<Reservation.ReservationStatus> statuses,
+                                               LocalDate from, LocalDate to);
+
+    /**
+     * Find the stays of several rooms' reservations in the given statuses that
+     * overlap a date range, in a single query.
+     *
+     * @param roomIds the room IDs
+     * @param statuses reservation statuses to include
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @return list of overlapping stays
+     */
+    List<ReservationStay> findStaysOverlapping(Collection<String> roomIds,
+                                               Collection<Reservation.ReservationStatus> statuses,
+                                               LocalDate from, LocalDate to);
+
+    /**
+     * Find which of the given rooms are blocked for a date range, either by an
+     * active reservation or by a room lock on one of its nights.
+     * Issues one {@code $in} query per collection regardless of how many rooms are checked.
+     *
+     * @param roomIds candidate room IDs
+     * @param checkInDate the check-in date
+     * @param checkOutDate the check-out date
+     * @return IDs of the rooms that are not available
+     */
+    Set<String> findBlockedRoomIds(Collection<String> roomIds, LocalDate checkInDate, LocalDate checkOutDate);
+
+    /**
+     * Count a room's reservations in any status and find the latest updatedAt among them.
+     * Both are answered from room_id_updated_idx: a count over the room's keys and
+     * the last key in updatedAt order.
+     *
+     * @param roomId the room ID
+     * @return reservation count and latest modification time of the room
+     */
+    RoomReservationsVersion findRoomReservationsVersion(String roomId);
+
+    /**
+     * Apply a change to a reservation and write it, provided the stored document
+     * still has the version the reservation was read with.
+     * Only the fields whose stored form was changed are written, with {@code $set}
+     * or {@code $unset}, together with a new updatedAt and an incremented version,
+     * so unchanged references are never rewritten.
+     * Nothing is written if the change leaves the stored form as it was.
+     * On success the reservation carries its new version and updatedAt; on a version
+     * conflict nothing is written and the changed reservation must be discarded.
+     *
+     * @param reservation the reservation as read
+     * @param change applies the change to the reservation
+     * @return true if the change was written, false if the reservation was modified concurrently
+     */
+    boolean updateIfUnchanged(Reservation reservation, Consumer<Reservation> change);
+
+    /**
+     * Find the listing rows of all reservations, newest first.
+     *
+     * @return list of reservation summaries
+     */
+    List<ReservationSummary> findAllSummaries();
+
+    /**
+     * Find the listing rows of a user's reservations.
+     *
+     * @param userId the user ID
+     * @return list of reservation summaries
+     */
+    List<ReservationSummary> findSummariesByUserId(String userId);
+
+    /**
+     * Find the listing rows of reservations checking in strictly between two dates.
+     *
+     * @param startDate lower bound (exclusive)
+     * @param endDate upper bound (exclusive)
+     * @return list of reservation summaries
+     */
+    List<ReservationSummary> findSummariesByCheckInDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find the listing rows of reservations whose stay touches a date range (both ends inclusive).
+     *
+     * @param startDate start date of the range
+     * @param endDate end date of the range
+     * @return list of reservation summaries
+     */
+    List<ReservationSummary> findSummariesByDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Cancel those of the given reservations that are still pending holds expired
+     * before the given time, with a single multi-document update.
+     * Each cancelled reservation gets the given cancellation time, a new updatedAt and
+     * an incremented version; reservations paid or changed in the meantime are left alone.
+     *
+     * @param reservationIds IDs of the expired holds
+     * @param now the sweep time, recorded as cancellation time
+     * @param reason cancellation reason
+     * @return number of reservations cancelled
+     */
+    long cancelExpiredHolds(Collection<String> reservationIds, LocalDateTime now, String reason);
+}
@@ -0,0 +1,271 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.dto.ReservationSummary;
+import com.hotel.reservation.dto.RoomReservationsVersion;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.RoomLock;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * MongoTemplate-backed implementation of {@link ReservationRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+
+    private static final String COLLECTION = "reservations";
+    private static final String ROOM_ID = Reservation.ROOM_ID;
+
+    private static final List<String> BLOCKING_STATUSES = List.of(
+            Reservation.ReservationStatus.PENDING.name(),
+            Reservation.ReservationStatus.CONFIRMED.name(),
+            Reservation.ReservationStatus.CHECKED_IN.name());
+
+    private static final String VERSION = "version";
+
+    /**
+     * Fields of a listing row; everything else stays on the server
+     */
+    private static final String[] SUMMARY_FIELDS = {
+            "groupId", "user", "room", "checkInDate", "checkOutDate", "numberOfGuests", "totalAmount", "status",
+            "specialRequests", "paymentId", "expiresAt", "cancellationReason", "cancelledAt", "createdAt"};
+
+    /**
+     * Fields that a change never writes directly
+     */
+    private static final Set<String> UNCHANGEABLE_FIELDS = Set.of("_id", VERSION, "updatedAt");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ReservationStay> findStaysByStatusIn(Collection<Reservation.ReservationStatus> statuses) {
+        Query query = new Query(Criteria.where("status").in(statuses.stream().map(Enum::name).toList()));
+        return findStays(query);
+    }
+
+    @Override
+    public List<ReservationStay> findStaysUpdatedSince(LocalDateTime since) {
+        Query query = new Query(Criteria.where("updatedAt").gte(toMongo(since)))
+                .with(Sort.by(Sort.Direction.ASC, "updatedAt"));
+        return findStays(query);
+    }
+
+    @Override
+    public List<ReservationStay> findStaysOverlapping(String roomId, Collection<Reservation.ReservationStatus> statuses,
+                                                      LocalDate from, LocalDate to) {
+        Query query = new Query(Criteria.where(ROOM_ID).is(toIdValue(roomId))
+                .and("status").in(statuses.stream().map(Enum::name).toList())
+                .and("checkInDate").lt(toMongo(to))
+                .and("checkOutDate").gt(toMongo(from)))
+                .with(Sort.by(Sort.Direction.ASC, "checkInDate"));
+        return findStays(query);
+    }
+
+    @Override
+    public List<ReservationStay> findStaysOverlapping(Collection<String> roomIds,
+                                                      Collection<Reservation.ReservationStatus> statuses,
+                                                      LocalDate from, LocalDate to) {
+        if (roomIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where(ROOM_ID).in(roomIds.stream().map(this::toIdValue).toList())
+                .and("status").in(statuses.stream().map(Enum::name).toList())
+                .and("checkInDate").lt(toMongo(to))
+                .and("checkOutDate").gt(toMongo(from)));
+        return findStays(query);
+    }
+
+    @Override
+    public Set<String> findBlockedRoomIds(Collection<String> roomIds, LocalDate checkInDate, LocalDate checkOutDate) {
+        Set<String> blocked = new HashSet<>();
+        if (roomIds.isEmpty()) {
+            return blocked;
+        }
+
+        Query reservations = new Query(Criteria.where(ROOM_ID).in(roomIds.stream().map(this::toIdValue).toList())
+                .and("status").in(BLOCKING_STATUSES)
+                .and("checkInDate").lt(toMongo(checkOutDate))
+                .and("checkOutDate").gt(toMongo(checkInDate)));
+        reservations.fields().include(ROOM_ID);
+        mongoTemplate.find(reservations, Document.class, COLLECTION)
+                .forEach(document -> blocked.add(roomIdOf(document)));
+
+        Query locks = new Query(Criteria.where("roomId").in(roomIds)
+                .and("night").gte(toMongo(checkInDate)).lt(toMongo(checkOutDate)));
+        locks.fields().include("roomId");
+        mongoTemplate.find(locks, Document.class, mongoTemplate.getCollectionName(RoomLock.class))
+                .forEach(document -> blocked.add(document.getString("roomId")));
+
+        blocked.remove(null);
+        return blocked;
+    }
+
+    @Override
+    public RoomReservationsVersion findRoomReservationsVersion(String roomId) {
+        Criteria forRoom = Criteria.where(ROOM_ID).is(toIdValue(roomId));
+        long count = mongoTemplate.count(new Query(forRoom), COLLECTION);
+
+        Query latest = new Query(forRoom).with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        latest.fields().include("updatedAt");
+        Document document = mongoTemplate.findOne(latest, Document.class, COLLECTION);
+
+        return new RoomReservationsVersion(count,
+                document != null ? fromMongo(document.get("updatedAt"), LocalDateTime.class) : null);
+    }
+
+    @Override
+    public boolean updateIfUnchanged(Reservation reservation, Consumer<Reservation> change) {
+        Document before = toDocument(reservation);
+        change.accept(reservation);
+        Document after = toDocument(reservation);
+
+        Document set = new Document();
+        Document unset = new Document();
+        after.forEach((field, value) -> {
+            if (!UNCHANGEABLE_FIELDS.contains(field) && !Objects.equals(before.get(field), value)) {
+                set.put(field, value);
+            }
+        });
+        before.keySet().stream()
+                .filter(field -> !UNCHANGEABLE_FIELDS.contains(field) && !after.containsKey(field))
+                .forEach(field -> unset.put(field, ""));
+
+        if (set.isEmpty() && unset.isEmpty()) {
+            return true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        set.put("updatedAt", toMongo(now));
+        Document update = new Document("$set", set).append("$inc", new Document(VERSION, 1L));
+        if (!unset.isEmpty()) {
+            update.append("$unset", unset);
+        }
+
+        // A missing version only matches null, which is what documents written before versioning have
+        Document filter = new Document("_id", toIdValue(reservation.getId())).append(VERSION, reservation.getVersion());
+        if (mongoTemplate.getCollection(COLLECTION).updateOne(filter, update).getMatchedCount() == 0) {
+            return false;
+        }
+
+        reservation.setVersion(reservation.getVersion() == null ? 1L : reservation.getVersion() + 1);
+        reservation.setUpdatedAt(now);
+        return true;
+    }
+
+    @Override
+    public List<ReservationSummary> findAllSummaries() {
+        // Walks created_at_idx instead of scanning the collection
+        return findSummaries(new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")));
+    }
+
+    @Override
+    public List<ReservationSummary> findSummariesByUserId(String userId) {
+        return findSummaries(new Query(Criteria.where(Reservation.USER_ID).is(toIdValue(userId))));
+    }
+
+    @Override
+    public List<ReservationSummary> findSummariesByCheckInDateBetween(LocalDate startDate, LocalDate endDate) {
+        return findSummaries(new Query(Criteria.where("checkInDate").gt(toMongo(startDate)).lt(toMongo(endDate))));
+    }
+
+    @Override
+    public List<ReservationSummary> findSummariesByDateRange(LocalDate startDate, LocalDate endDate) {
+        return findSummaries(new Query(Criteria.where("checkInDate").lte(toMongo(endDate))
+                .and("checkOutDate").gte(toMongo(startDate))));
+    }
+
+    private List<ReservationSummary> findSummaries(Query query) {
+        query.fields().include(SUMMARY_FIELDS);
+        return mongoTemplate.find(query, ReservationSummary.class, COLLECTION);
+    }
+
+    @Override
+    public long cancelExpiredHolds(Collection<String> reservationIds, LocalDateTime now, String reason) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+
+        // Re-checked by the filter, so a hold paid since it was read stays pending
+        Query query = new Query(Criteria.where("_id").in(reservationIds.stream().map(this::toIdValue).toList())
+                .and("status").is(Reservation.ReservationStatus.PENDING.name())
+                .and("expiresAt").lt(toMongo(now)));
+        Update update = new Update()
+                .set("status", Reservation.ReservationStatus.CANCELLED.name())
+                .set("cancellationReason", reason)
+                .set("cancelledAt", toMongo(now))
+                .set("updatedAt", toMongo(now))
+                .inc(VERSION, 1L);
+        return mongoTemplate.updateMulti(query, update, COLLECTION).getModifiedCount();
+    }
+
+    private Document toDocument(Reservation reservation) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(reservation, document);
+        return document;
+    }
+
+    private List<ReservationStay> findStays(Query query) {
+        query.fields().include(ROOM_ID, "checkInDate", "checkOutDate", "status", "updatedAt", "inventoryMode");
+        return mongoTemplate.find(query, Document.class, COLLECTION).stream()
+                .map(this::toStay)
+                .toList();
+    }
+
+    private ReservationStay toStay(Document document) {
+        String status = document.getString("status");
+        String inventoryMode = document.getString("inventoryMode");
+        return new ReservationStay(
+                document.get("_id").toString(),
+                roomIdOf(document),
+                fromMongo(document.get("checkInDate"), LocalDate.class),
+                fromMongo(document.get("checkOutDate"), LocalDate.class),
+                status != null ? Reservation.ReservationStatus.valueOf(status) : null,
+                fromMongo(document.get("updatedAt"), LocalDateTime.class),
+                inventoryMode != null ? Reservation.InventoryMode.valueOf(inventoryMode) : null);
+    }
+
+    /**
+     * Extract the room ID from the embedded room snapshot.
+     */
+    private String roomIdOf(Document reservation) {
+        Object room = reservation.get("room");
+        if (room instanceof Document snapshot && snapshot.get("_id") != null) {
+            return snapshot.get("_id").toString();
+        }
+        return null;
+    }
+
+    /**
+     * Reservation IDs and embedded room IDs are stored as ObjectIds; raw queries must match that type.
+     */
+    private Object toIdValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private Object toMongo(Object value) {
+        return mongoTemplate.getConverter().convertToMongoType(value);
+    }
+
+    private <T> T fromMongo(Object value, Class<T> type) {
+        return value == null ? null : mongoTemplate.getConverter().getConversionService().convert(value, type);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.RoomInventory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for RoomInventory entity.
+ * Provides access to the per-night inventory ledger.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface RoomInventoryRepository extends MongoRepository<RoomInventory, String>, RoomInventoryRepositoryCustom {
+
+    /**
+     * Find the ledger entries of several rooms for a range of nights.
+     *
+     * @param roomIds the room IDs
+     * @param fromNight first night (inclusive)
+     * @param toNight last night (exclusive)
+     * @return list of ledger entries
+     */
+    @Query("{ 'roomId': { $in: ?0 }, 'night': { $gte: ?1, $lt: ?2 } }")
+    List<RoomInventory> findNights(Collection<String> roomIds, LocalDate fromNight, LocalDate toNight);
+}
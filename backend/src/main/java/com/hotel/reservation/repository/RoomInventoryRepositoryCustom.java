@@ -0,0 +1,56 @@
+package com.hotel.reservation.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Atomic updates on the room inventory ledger implemented directly on MongoTemplate.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface RoomInventoryRepositoryCustom {
+
+    /**
+     * Sell one unit of a room for a night to a reservation if fewer than the given limit are sold.
+     * The check and the increment are a single atomic update, and a reservation
+     * holds at most one unit of a night.
+     *
+     * @param roomId the room ID
+     * @param night the night to sell
+     * @param limit number of units of the room
+     * @param reservationId the reservation buying the unit
+     * @return true if the reservation holds a unit, false if the night is full
+     */
+    boolean incrementSold(String roomId, LocalDate night, int limit, String reservationId);
+
+    /**
+     * Sell one unit of a room for a night to a reservation without checking the limit.
+     * Does nothing if the reservation already holds a unit of the night.
+     *
+     * @param roomId the room ID
+     * @param night the night to sell
+     * @param reservationId the reservation buying the unit
+     */
+    void forceIncrementSold(String roomId, LocalDate night, String reservationId);
+
+    /**
+     * Return the unit a reservation holds for every night in a range.
+     * Nights the reservation does not hold are left unchanged.
+     *
+     * @param roomId the room ID
+     * @param fromNight first night (inclusive)
+     * @param toNight last night (exclusive)
+     * @param reservationId the reservation returning its units
+     */
+    void decrementSold(String roomId, LocalDate fromNight, LocalDate toNight, String reservationId);
+
+    /**
+     * Record reservations as holders of units already counted as sold for a night.
+     *
+     * @param roomId the room ID
+     * @param night the night
+     * @param reservationIds the reservations holding units of the night
+     */
+    void recordReservationIds(String roomId, LocalDate night, Collection<String> reservationIds);
+}
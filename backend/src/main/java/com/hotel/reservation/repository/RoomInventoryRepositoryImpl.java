@@ -0,0 +1,83 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.RoomInventory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * MongoTemplate-backed implementation of {@link RoomInventoryRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class RoomInventoryRepositoryImpl implements RoomInventoryRepositoryCustom {
+
+    private static final String RESERVATION_IDS = "reservationIds";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean incrementSold(String roomId, LocalDate night, int limit, String reservationId) {
+        Query guarded = new Query(Criteria.where("roomId").is(roomId)
+                .and("night").is(night)
+                .and("sold").lt(limit)
+                .and(RESERVATION_IDS).ne(reservationId));
+        Update sellOne = new Update().inc("sold", 1).addToSet(RESERVATION_IDS, reservationId);
+
+        try {
+            // Creates the night on first sale; when the night is full the guard does not
+            // match and the insert is rejected by room_night_unique_idx
+            mongoTemplate.upsert(guarded, sellOne, RoomInventory.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The night is full, a concurrent request created it first, or the reservation already holds it
+            return mongoTemplate.updateFirst(guarded, sellOne, RoomInventory.class).getModifiedCount() > 0
+                    || mongoTemplate.exists(held(roomId, night, reservationId), RoomInventory.class);
+        }
+    }
+
+    @Override
+    public void forceIncrementSold(String roomId, LocalDate night, String reservationId) {
+        Query query = new Query(Criteria.where("roomId").is(roomId)
+                .and("night").is(night)
+                .and(RESERVATION_IDS).ne(reservationId));
+        Update sellOne = new Update().inc("sold", 1).addToSet(RESERVATION_IDS, reservationId);
+
+        try {
+            mongoTemplate.upsert(query, sellOne, RoomInventory.class);
+        } catch (DuplicateKeyException e) {
+            mongoTemplate.updateFirst(query, sellOne, RoomInventory.class);
+        }
+    }
+
+    @Override
+    public void decrementSold(String roomId, LocalDate fromNight, LocalDate toNight, String reservationId) {
+        // Only nights the reservation still holds, so a repeated release cannot return another reservation's unit
+        Query query = new Query(Criteria.where("roomId").is(roomId)
+                .and("night").gte(fromNight).lt(toNight)
+                .and(RESERVATION_IDS).is(reservationId));
+        Update returnOne = new Update().inc("sold", -1).pull(RESERVATION_IDS, reservationId);
+        mongoTemplate.updateMulti(query, returnOne, RoomInventory.class);
+    }
+
+    @Override
+    public void recordReservationIds(String roomId, LocalDate night, Collection<String> reservationIds) {
+        Query query = new Query(Criteria.where("roomId").is(roomId).and("night").is(night));
+        mongoTemplate.updateFirst(query,
+                new Update().addToSet(RESERVATION_IDS).each(reservationIds.toArray()), RoomInventory.class);
+    }
+
+    private Query held(String roomId, LocalDate night, String reservationId) {
+        return new Query(Criteria.where("roomId").is(roomId)
+                .and("night").is(night)
+                .and(RESERVATION_IDS).is(reservationId));
+    }
+}
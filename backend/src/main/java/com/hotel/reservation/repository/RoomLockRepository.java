@@ -2,15 +2,16 @@ package com.hotel.reservation.repository;
 
 import com.hotel.reservation.model.RoomLock;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for RoomLock entity.
- * Manages room locking for concurrent booking prevention.
+ * Manages per-night room locks for concurrent booking prevention.
+ * Locks are claimed with {@link #insert(Iterable)}, a single ordered insertMany.
  *
  * @author Hotel Reservation Team
  * @version 1.0
@@ -19,31 +20,29 @@ import java.util.List;
 public interface RoomLockRepository extends MongoRepository<RoomLock, String> {
 
     /**
-     * Find overlapping locks for a room.
-     * Used to check if a room is locked for the requested dates.
+     * Delete locks by reservation ID.
      *
-     * @param roomId the room ID
-     * @param checkInDate the check-in date
-     * @param checkOutDate the check-out date
-     * @return list of overlapping locks
+     * @param reservationId the reservation ID
      */
-    @Query("{ 'roomId': ?0, " +
-           "$or: [" +
-           "  { 'checkInDate': { $lt: ?2 }, 'checkOutDate': { $gt: ?1 } }, " +
-           "  { 'checkInDate': { $gte: ?1, $lt: ?2 } }, " +
-           "  { 'checkOutDate': { $gt: ?1, $lte: ?2 } }" +
-           "]}")
-    List<RoomLock> findOverlappingLocks(String roomId, LocalDate checkInDate, LocalDate checkOutDate);
+    void deleteByReservationId(String reservationId);
 
     /**
-     * Delete locks by reservation ID.
+     * Delete a reservation's locks on some of its nights.
      *
      * @param reservationId the reservation ID
+     * @param nights the nights to unlock
      */
-    void deleteByReservationId(String reservationId);
+    void deleteByReservationIdAndNightIn(String reservationId, Collection<LocalDate> nights);
+
+    /**
+     * Delete the locks of several reservations with a single deleteMany.
+     *
+     * @param reservationIds the reservation IDs
+     */
+    void deleteByReservationIdIn(Collection<String> reservationIds);
 
     /**
-     * Find lock by reservation ID.
+     * Find locks by reservation ID.
      *
      * @param reservationId the reservation ID
      * @return list of locks for the reservation
@@ -15,7 +15,7 @@ import java.util.List;
  * @version 1.0
  */
 @Repository
-public interface RoomRepository extends MongoRepository<Room, String> {
+public interface RoomRepository extends MongoRepository<Room, String>, RoomRepositoryCustom {
 
     /**
      * Find rooms by type.
@@ -0,0 +1,27 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.RoomOccupancy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Custom room queries implemented directly on MongoTemplate.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface RoomRepositoryCustom {
+
+    /**
+     * Find rooms together with their occupancy in a single aggregation.
+     * Active reservations are matched and grouped per room on the server and
+     * joined against the rooms collection, replacing one query per room.
+     *
+     * @param checkInDate check-in date (optional)
+     * @param checkOutDate check-out date (optional)
+     * @param minCapacity minimum room capacity (optional)
+     * @return list of rooms with occupancy
+     */
+    List<RoomOccupancy> findAllWithOccupancy(LocalDate checkInDate, LocalDate checkOutDate, Integer minCapacity);
+}
@@ -0,0 +1,122 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.RoomOccupancy;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.aggregation.VariableOperators.Let.ExpressionVariable;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * MongoTemplate-backed implementation of {@link RoomRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class RoomRepositoryImpl implements RoomRepositoryCustom {
+
+    private static final String STAYS = "stays";
+
+    private static final String ROOM_VARIABLE = "roomId";
+
+    private static final List<String> ACTIVE_STATUSES = List.of(
+            Reservation.ReservationStatus.PENDING.name(),
+            Reservation.ReservationStatus.CONFIRMED.name(),
+            Reservation.ReservationStatus.CHECKED_IN.name());
+
+    private static final List<String> OCCUPYING_STATUSES = List.of(
+            Reservation.ReservationStatus.CONFIRMED.name(),
+            Reservation.ReservationStatus.CHECKED_IN.name());
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<RoomOccupancy> findAllWithOccupancy(LocalDate checkInDate, LocalDate checkOutDate, Integer minCapacity) {
+        boolean hasDates = checkInDate != null && checkOutDate != null;
+
+        // Runs inside the join, so it is evaluated per room on room_id_dates_status_idx
+        Criteria stayCriteria = Criteria.where("status").in(hasDates ? ACTIVE_STATUSES : OCCUPYING_STATUSES);
+        if (hasDates) {
+            stayCriteria = stayCriteria
+                    .and("checkInDate").lt(toMongo(checkOutDate))
+                    .and("checkOutDate").gt(toMongo(checkInDate));
+        }
+
+        LookupOperation stays = LookupOperation.newLookup()
+                .from(mongoTemplate.getCollectionName(Reservation.class))
+                .let(ExpressionVariable.newVariable(ROOM_VARIABLE).forField("_id"))
+                .pipeline(
+                        Aggregation.stage(new Document("$match", sameRoom(stayCriteria))),
+                        Aggregation.project("checkInDate", "checkOutDate").andExclude("_id"))
+                .as(STAYS);
+
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (minCapacity != null && minCapacity > 0) {
+            operations.add(Aggregation.match(Criteria.where("capacity").gte(minCapacity)));
+        }
+        operations.add(stays);
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                        mongoTemplate.getCollectionName(Room.class), Document.class)
+                .getMappedResults().stream()
+                .map(document -> toRoomOccupancy(document, hasDates))
+                .toList();
+    }
+
+    /**
+     * Adds the join condition to the stay filter. It is matched with let + $expr rather than
+     * localField/foreignField, because combining those with a pipeline needs MongoDB 5.0.
+     */
+    private Document sameRoom(Criteria stayCriteria) {
+        return new Document(stayCriteria.getCriteriaObject())
+                .append("$expr", new Document("$eq", List.of("$" + Reservation.ROOM_ID, "$$" + ROOM_VARIABLE)));
+    }
+
+    private RoomOccupancy toRoomOccupancy(Document document, boolean hasDates) {
+        List<Document> matched = document.getList(STAYS, Document.class, List.of());
+        document.remove(STAYS);
+
+        Room room = mongoTemplate.getConverter().read(Room.class, document);
+        int occupiedCount = hasDates ? peakOverlap(matched) : matched.size();
+        return new RoomOccupancy(room, occupiedCount);
+    }
+
+    /**
+     * Highest number of stays that share a night, computed with a sweep over
+     * check-in (+1) and check-out (-1) boundaries.
+     */
+    private int peakOverlap(List<Document> matched) {
+        TreeMap<LocalDate, Integer> boundaries = new TreeMap<>();
+        for (Document stay : matched) {
+            boundaries.merge(fromMongo(stay.get("checkInDate")), 1, Integer::sum);
+            boundaries.merge(fromMongo(stay.get("checkOutDate")), -1, Integer::sum);
+        }
+
+        int current = 0;
+        int peak = 0;
+        for (int delta : boundaries.values()) {
+            current += delta;
+            peak = Math.max(peak, current);
+        }
+        return peak;
+    }
+
+    private Object toMongo(Object value) {
+        return mongoTemplate.getConverter().convertToMongoType(value);
+    }
+
+    private LocalDate fromMongo(Object value) {
+        return mongoTemplate.getConverter().getConversionService().convert(value, LocalDate.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.StripeEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for StripeEvent entity.
+ * Events are added with {@link #insert(Object)}, which fails on a redelivered event ID.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface StripeEventRepository extends MongoRepository<StripeEvent, String>, StripeEventRepositoryCustom {
+}
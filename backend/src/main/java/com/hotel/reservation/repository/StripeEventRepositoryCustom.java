@@ -0,0 +1,72 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.StripeEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Claim and completion updates on the Stripe event inbox implemented directly on MongoTemplate.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface StripeEventRepositoryCustom {
+
+    /**
+     * Find inbox entries that are due: pending entries whose next attempt has come,
+     * and claimed entries whose claim was abandoned. Bounded by status_next_attempt_idx.
+     *
+     * @param now current time
+     * @param limit maximum number of entries
+     * @return due entries, longest due first
+     */
+    List<StripeEvent> findDue(LocalDateTime now, int limit);
+
+    /**
+     * Find the oldest unfinished entry of a payment intent.
+     * Entries of a payment intent are processed one at a time in this order.
+     *
+     * @param paymentIntentId payment intent ID
+     * @return the oldest pending or claimed entry
+     */
+    Optional<StripeEvent> findOldestOpen(String paymentIntentId);
+
+    /**
+     * Claim a due entry for processing.
+     * The check and the claim are a single atomic update, so only one worker wins.
+     *
+     * @param id event ID
+     * @param claimId ID of this claim
+     * @param now current time
+     * @param abandonAt when the claim is considered abandoned
+     * @return true if claimed
+     */
+    boolean claim(String id, String claimId, LocalDateTime now, LocalDateTime abandonAt);
+
+    /**
+     * Record the final outcome of a claimed entry.
+     *
+     * @param id event ID
+     * @param claimId ID of the claim
+     * @param status PROCESSED or FAILED
+     * @param error error of the last attempt, or null
+     * @param now current time
+     * @param expireAt when the entry is removed
+     * @return false if the claim was taken over in the meantime
+     */
+    boolean finish(String id, String claimId, StripeEvent.Status status, String error,
+                   LocalDateTime now, LocalDateTime expireAt);
+
+    /**
+     * Release a claimed entry for another attempt later.
+     *
+     * @param id event ID
+     * @param claimId ID of the claim
+     * @param error error of the failed attempt
+     * @param nextAttemptAt when the entry is due again
+     * @return false if the claim was taken over in the meantime
+     */
+    boolean retryLater(String id, String claimId, String error, LocalDateTime nextAttemptAt);
+}
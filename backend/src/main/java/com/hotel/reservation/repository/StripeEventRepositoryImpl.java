@@ -0,0 +1,87 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.StripeEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * MongoTemplate-backed implementation of {@link StripeEventRepositoryCustom}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@RequiredArgsConstructor
+public class StripeEventRepositoryImpl implements StripeEventRepositoryCustom {
+
+    private static final List<StripeEvent.Status> OPEN_STATUSES =
+            List.of(StripeEvent.Status.PENDING, StripeEvent.Status.PROCESSING);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<StripeEvent> findDue(LocalDateTime now, int limit) {
+        Query query = new Query(Criteria.where("status").in(OPEN_STATUSES).and("nextAttemptAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, StripeEvent.class);
+    }
+
+    @Override
+    public Optional<StripeEvent> findOldestOpen(String paymentIntentId) {
+        Query query = new Query(Criteria.where("paymentIntentId").is(paymentIntentId).and("status").in(OPEN_STATUSES))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "receivedAt"));
+        query.fields().include("_id");
+        return Optional.ofNullable(mongoTemplate.findOne(query, StripeEvent.class));
+    }
+
+    @Override
+    public boolean claim(String id, String claimId, LocalDateTime now, LocalDateTime abandonAt) {
+        Query due = new Query(Criteria.where("_id").is(id)
+                .and("status").in(OPEN_STATUSES)
+                .and("nextAttemptAt").lte(now));
+        Update claim = new Update()
+                .set("status", StripeEvent.Status.PROCESSING)
+                .set("claimId", claimId)
+                .set("nextAttemptAt", abandonAt)
+                .inc("attempts", 1);
+
+        return mongoTemplate.updateFirst(due, claim, StripeEvent.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean finish(String id, String claimId, StripeEvent.Status status, String error,
+                          LocalDateTime now, LocalDateTime expireAt) {
+        Update finish = new Update()
+                .set("status", status)
+                .set("lastError", error)
+                .set("processedAt", now)
+                .set("expireAt", expireAt)
+                .unset("nextAttemptAt");
+
+        return mongoTemplate.updateFirst(claimed(id, claimId), finish, StripeEvent.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean retryLater(String id, String claimId, String error, LocalDateTime nextAttemptAt) {
+        Update retry = new Update()
+                .set("status", StripeEvent.Status.PENDING)
+                .set("lastError", error)
+                .set("nextAttemptAt", nextAttemptAt);
+
+        return mongoTemplate.updateFirst(claimed(id, claimId), retry, StripeEvent.class).getModifiedCount() > 0;
+    }
+
+    private Query claimed(String id, String claimId) {
+        return new Query(Criteria.where("_id").is(id)
+                .and("status").is(StripeEvent.Status.PROCESSING)
+                .and("claimId").is(claimId));
+    }
+}
@@ -0,0 +1,27 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.WaitlistEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for WaitlistEntry entity.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Repository
+public interface WaitlistEntryRepository extends MongoRepository<WaitlistEntry, String> {
+
+    /**
+     * Find a room's entries in the given statuses, oldest first.
+     *
+     * @param roomId the room ID
+     * @param statuses entry statuses to include
+     * @return list of entries in promotion order
+     */
+    List<WaitlistEntry> findByRoomIdAndStatusInOrderByCreatedAtAsc(String roomId, Collection<WaitlistEntry.Status> statuses);
+}
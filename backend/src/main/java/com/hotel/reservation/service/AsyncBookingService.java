@@ -0,0 +1,331 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ReservationRequest;
+import com.hotel.reservation.exception.BookingQueueFullException;
+import com.hotel.reservation.exception.PendingReservationExistsException;
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import com.hotel.reservation.model.BookingTicket;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.repository.BookingTicketRepository;
+import com.hotel.reservation.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for booking requests that are processed asynchronously.
+ * An accepted request is stored as a {@link BookingTicket} and its ID is put on a
+ * bounded in-process queue, so the request thread is released after one insert.
+ * Workers drain the queue in batches and book each room's tickets under a single
+ * acquisition of the room's booking lock. When the queue is full, requests are
+ * rejected right away instead of piling up.
+ *
+ * Tickets are processed on the instance that accepted them but can be polled on
+ * any instance. A ticket left unprocessed, for example by a restart, is failed
+ * once it is older than app.async-booking.ticket-timeout-seconds.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class AsyncBookingService {
+
+    private static final String QUEUE_FULL_MESSAGE =
+            "Too many booking requests are being processed. Please try again in a moment.";
+
+    /**
+     * How long finished tickets are kept for polling
+     */
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final BookingTicketRepository bookingTicketRepository;
+    private final ReservationService reservationService;
+    private final UserRepository userRepository;
+    private final RoomCatalog roomCatalog;
+    private final RoomBookingLocks roomBookingLocks;
+    private final BlockingQueue<String> queue;
+    private final ExecutorService workers;
+    private final Counter rejected;
+    private final int batchSize;
+    private final Duration ticketTimeout;
+    private final Duration maxWait;
+
+    private final ParkedRequests<BookingTicket> parkedRequests = new ParkedRequests<>();
+
+    public AsyncBookingService(BookingTicketRepository bookingTicketRepository,
+                               ReservationService reservationService,
+                               UserRepository userRepository,
+                               RoomCatalog roomCatalog,
+                               RoomBookingLocks roomBookingLocks,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.async-booking.queue-capacity:1000}") int queueCapacity,
+                               @Value("${app.async-booking.workers:4}") int workerCount,
+                               @Value("${app.async-booking.batch-size:50}") int batchSize,
+                               @Value("${app.async-booking.ticket-timeout-seconds:60}") long ticketTimeoutSeconds,
+                               @Value("${app.async-booking.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.bookingTicketRepository = bookingTicketRepository;
+        this.reservationService = reservationService;
+        this.userRepository = userRepository;
+        this.roomCatalog = roomCatalog;
+        this.roomBookingLocks = roomBookingLocks;
+        this.batchSize = batchSize;
+        this.ticketTimeout = Duration.ofSeconds(ticketTimeoutSeconds);
+        this.maxWait = Duration.ofSeconds(maxWaitSeconds);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("booking.queue.size", queue, BlockingQueue::size)
+                .description("Booking requests waiting for a worker")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("booking.queue.rejected")
+                .description("Booking requests rejected because the queue was full")
+                .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "booking-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Accept a booking request for asynchronous processing.
+     *
+     * @param userId ID of the booking user
+     * @param request validated booking request
+     * @return the queued ticket
+     * @throws BookingQueueFullException if the booking queue is full
+     * @throws RuntimeException if the room does not exist or capacity is exceeded
+     */
+    public BookingTicket submit(String userId, ReservationRequest request) {
+        Room room = roomCatalog.findById(request.getRoomId())
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+
+        if (request.getNumberOfGuests() > room.getCapacity()) {
+            throw new RuntimeException("Number of guests exceeds room capacity");
+        }
+
+        // Cheap check first, so a full queue costs no database write
+        if (queue.remainingCapacity() == 0) {
+            rejected.increment();
+            throw new BookingQueueFullException(QUEUE_FULL_MESSAGE);
+        }
+
+        BookingTicket ticket = new BookingTicket();
+        ticket.setUserId(userId);
+        ticket.setRoomId(request.getRoomId());
+        ticket.setCheckInDate(request.getCheckInDate());
+        ticket.setCheckOutDate(request.getCheckOutDate());
+        ticket.setNumberOfGuests(request.getNumberOfGuests());
+        ticket.setSpecialRequests(request.getSpecialRequests());
+        ticket.setStatus(BookingTicket.Status.QUEUED);
+        ticket.setExpireAt(LocalDateTime.now().plus(RETENTION));
+
+        BookingTicket savedTicket = bookingTicketRepository.insert(ticket);
+
+        if (!queue.offer(savedTicket.getId())) {
+            bookingTicketRepository.deleteById(savedTicket.getId());
+            rejected.increment();
+            throw new BookingQueueFullException(QUEUE_FULL_MESSAGE);
+        }
+
+        return savedTicket;
+    }
+
+    /**
+     * Get a booking ticket by ID.
+     * A ticket that has not been processed in time is failed here.
+     *
+     * @param id ticket ID
+     * @return booking ticket
+     * @throws RuntimeException if the ticket is not found
+     */
+    public BookingTicket getTicket(String id) {
+        BookingTicket ticket = bookingTicketRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Booking ticket not found with id: " + id));
+
+        if (isOpen(ticket) && ticket.getCreatedAt() != null
+                && ticket.getCreatedAt().isBefore(LocalDateTime.now().minus(ticketTimeout))) {
+            ticket.setStatus(BookingTicket.Status.FAILED);
+            ticket.setErrorMessage("The booking request timed out. Please try again.");
+            try {
+                return bookingTicketRepository.save(ticket);
+            } catch (OptimisticLockingFailureException e) {
+                // Finished by its worker in the meantime
+                return getTicket(id);
+            }
+        }
+
+        return ticket;
+    }
+
+    /**
+     * Wait until a ticket is processed, or until the wait times out.
+     * The result is the ticket as it is then, so a caller that gets an open ticket
+     * back simply asks again.
+     *
+     * @param id ticket ID
+     * @param waitSeconds requested wait, capped at app.async-booking.max-wait-seconds
+     * @return the ticket once processed, or as it is when the wait times out
+     */
+    public DeferredResult<BookingTicket> awaitTicket(String id, long waitSeconds) {
+        long timeoutMs = Math.min(Duration.ofSeconds(Math.max(waitSeconds, 1)).toMillis(), maxWait.toMillis());
+        DeferredResult<BookingTicket> result = parkedRequests.park(id, timeoutMs, () -> getTicket(id));
+
+        BookingTicket ticket = getTicket(id);
+        if (!isOpen(ticket)) {
+            result.setResult(ticket);
+        }
+
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void runWorker() {
+        List<String> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            try {
+                processBatch(batch);
+            } catch (RuntimeException e) {
+                log.error("Booking batch of {} tickets failed", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Book a batch of tickets, one room at a time and in the order they were accepted.
+     */
+    private void processBatch(List<String> ticketIds) {
+        List<BookingTicket> tickets = new ArrayList<>(bookingTicketRepository.findAllById(ticketIds));
+        tickets.sort(Comparator.comparingInt(ticket -> ticketIds.indexOf(ticket.getId())));
+
+        Map<String, List<BookingTicket>> ticketsByRoom = new LinkedHashMap<>();
+        for (BookingTicket ticket : tickets) {
+            ticketsByRoom.computeIfAbsent(ticket.getRoomId(), roomId -> new ArrayList<>()).add(ticket);
+        }
+
+        ticketsByRoom.forEach((roomId, roomTickets) -> {
+            try {
+                roomBookingLocks.withRoomLock(roomId, () -> {
+                    roomTickets.forEach(this::book);
+                    return null;
+                });
+            } catch (RoomNotAvailableException e) {
+                // The room's lock could not be acquired, so none of its tickets was booked
+                roomTickets.forEach(ticket -> reject(ticket, e.getMessage()));
+            }
+        });
+    }
+
+    private void book(BookingTicket ticket) {
+        BookingTicket claimed = claim(ticket);
+        if (claimed == null) {
+            return;
+        }
+
+        try {
+            User user = userRepository.findById(claimed.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Reservation reservation = reservationService.createReservation(user, claimed.getRoomId(),
+                    claimed.getCheckInDate(), claimed.getCheckOutDate(), claimed.getNumberOfGuests(),
+                    claimed.getSpecialRequests());
+
+            claimed.setStatus(BookingTicket.Status.BOOKED);
+            claimed.setReservationId(reservation.getId());
+        } catch (RoomNotAvailableException | PendingReservationExistsException | IllegalArgumentException e) {
+            claimed.setStatus(BookingTicket.Status.REJECTED);
+            claimed.setErrorMessage(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Booking ticket {} could not be processed", claimed.getId(), e);
+            claimed.setStatus(BookingTicket.Status.FAILED);
+            claimed.setErrorMessage("An error occurred while processing your request. Please try again later.");
+        }
+
+        complete(claimed);
+    }
+
+    private void reject(BookingTicket ticket, String message) {
+        BookingTicket claimed = claim(ticket);
+        if (claimed != null) {
+            claimed.setStatus(BookingTicket.Status.REJECTED);
+            claimed.setErrorMessage(message);
+            complete(claimed);
+        }
+    }
+
+    /**
+     * Mark a ticket as being processed, or return null if it was timed out in the meantime.
+     */
+    private BookingTicket claim(BookingTicket ticket) {
+        if (ticket.getStatus() != BookingTicket.Status.QUEUED) {
+            return null;
+        }
+
+        try {
+            ticket.setStatus(BookingTicket.Status.PROCESSING);
+            return bookingTicketRepository.save(ticket);
+        } catch (OptimisticLockingFailureException e) {
+            return null;
+        }
+    }
+
+    private void complete(BookingTicket ticket) {
+        BookingTicket savedTicket;
+        try {
+            savedTicket = bookingTicketRepository.save(ticket);
+        } catch (OptimisticLockingFailureException e) {
+            // The client was told the request timed out, so the booking must not stand
+            if (ticket.getReservationId() != null) {
+                log.warn("Booking ticket {} timed out while booking, cancelling reservation {}",
+                        ticket.getId(), ticket.getReservationId());
+                reservationService.cancelReservation(ticket.getReservationId(), "Booking request timed out");
+            }
+            return;
+        }
+
+        parkedRequests.answer(savedTicket.getId(), savedTicket);
+    }
+
+    private static boolean isOpen(BookingTicket ticket) {
+        return ticket.getStatus() == BookingTicket.Status.QUEUED
+                || ticket.getStatus() == BookingTicket.Status.PROCESSING;
+    }
+}
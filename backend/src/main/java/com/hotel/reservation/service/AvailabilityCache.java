@@ -0,0 +1,160 @@
+package com.hotel.reservation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotel.reservation.dto.RoomAvailabilityDTO;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of computed room availability search results.
+ * Entries are keyed by search type, dates and guest count, evicted by size
+ * and TTL, and invalidated as soon as a reservation overlapping their dates
+ * changes. The TTL bounds how long changes made by other instances can go unseen.
+ * Every invalidation bumps a generation; a result whose load overlapped an
+ * invalidation is returned to its caller but not kept, since the invalidation
+ * cannot remove an entry that is still being computed.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class AvailabilityCache {
+
+    private enum SearchType { WITH_AVAILABILITY, AVAILABLE }
+
+    /**
+     * Cache key; dates are null for searches without a date range
+     */
+    private record SearchKey(SearchType type, LocalDate checkInDate, LocalDate checkOutDate, Integer guests) {
+
+        boolean overlaps(LocalDate from, LocalDate to) {
+            if (checkInDate == null || checkOutDate == null) {
+                // Undated searches show current occupancy, which any change can affect
+                return true;
+            }
+            return from != null && to != null && checkInDate.isBefore(to) && checkOutDate.isAfter(from);
+        }
+    }
+
+    private final Cache<SearchKey, List<?>> cache;
+
+    /**
+     * Bumped before every invalidation
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AvailabilityCache(MeterRegistry meterRegistry,
+                             @Value("${app.availability-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${app.availability-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "room-availability");
+    }
+
+    /**
+     * Get the rooms-with-availability result for a search, computing it on a miss.
+     *
+     * @param checkInDate check-in date (optional)
+     * @param checkOutDate check-out date (optional)
+     * @param guests number of guests (optional)
+     * @param loader computes the result on a miss
+     * @return list of rooms with availability information
+     */
+    @SuppressWarnings("unchecked")
+    public List<RoomAvailabilityDTO> getRoomsWithAvailability(LocalDate checkInDate, LocalDate checkOutDate,
+                                                              Integer guests,
+                                                              Supplier<List<RoomAvailabilityDTO>> loader) {
+        SearchKey key = new SearchKey(SearchType.WITH_AVAILABILITY, checkInDate, checkOutDate, guests);
+        return (List<RoomAvailabilityDTO>) getOrLoad(key, loader);
+    }
+
+    /**
+     * Get the available-rooms result for a search, computing it on a miss.
+     *
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date
+     * @param guests number of guests
+     * @param loader computes the result on a miss
+     * @return list of available rooms
+     */
+    @SuppressWarnings("unchecked")
+    public List<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, int guests,
+                                        Supplier<List<Room>> loader) {
+        SearchKey key = new SearchKey(SearchType.AVAILABLE, checkInDate, checkOutDate, guests);
+        return (List<Room>) getOrLoad(key, loader);
+    }
+
+    /**
+     * Drop the cached searches whose dates overlap the changed stay, before and
+     * after the change. Runs after the occupancy index has applied the change,
+     * so a recomputed entry never sees the old state.
+     *
+     * @param event reservation change event
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Reservation reservation = event.getReservation();
+        LocalDate checkInDate = reservation.getCheckInDate();
+        LocalDate checkOutDate = reservation.getCheckOutDate();
+
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key ->
+                key.overlaps(checkInDate, checkOutDate)
+                        || (event.isRescheduled()
+                            && key.overlaps(event.getPreviousCheckInDate(), event.getPreviousCheckOutDate())));
+    }
+
+    /**
+     * Drop every cached search, e.g. after the room catalog changed.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Look up a search, loading it on a miss. The generation is captured before
+     * the load; if it moved by the time the result would be stored, the result
+     * is only handed to this caller.
+     */
+    private List<?> getOrLoad(SearchKey key, Supplier<? extends List<?>> loader) {
+        long[] loadGeneration = new long[1];
+        List<?>[] loaded = new List<?>[1];
+
+        List<?> cached = cache.get(key, k -> {
+            loadGeneration[0] = generation.get();
+            loaded[0] = List.copyOf(loader.get());
+            // Returning null leaves the key absent
+            return generation.get() == loadGeneration[0] ? loaded[0] : null;
+        });
+
+        if (loaded[0] == null) {
+            return cached;
+        }
+        if (cached != null && generation.get() != loadGeneration[0]) {
+            // An invalidation started between the check and the store and may have missed the entry
+            cache.asMap().remove(key, cached);
+        }
+        return loaded[0];
+    }
+}
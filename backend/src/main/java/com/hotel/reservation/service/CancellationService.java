@@ -6,7 +6,6 @@ import com.hotel.reservation.dto.RefundCalculation;
 import com.hotel.reservation.model.CancellationPolicy;
 import com.hotel.reservation.model.Payment;
 import com.hotel.reservation.model.Reservation;
-import com.hotel.reservation.repository.PaymentRepository;
 import com.hotel.reservation.repository.ReservationRepository;
 import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +18,6 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 
 /**
  * Service for handling reservation cancellations with policy-based refunds.
@@ -34,8 +32,8 @@ import java.util.List;
 public class CancellationService {
 
     private final ReservationRepository reservationRepository;
-    private final PaymentRepository paymentRepository;
     private final PaymentService paymentService;
+    private final ReservationService reservationService;
 
     /**
      * Calculate potential refund for a reservation.
@@ -60,16 +58,9 @@ public class CancellationService {
         // Calculate days until check-in
         long daysUntilCheckIn = ChronoUnit.DAYS.between(LocalDate.now(), reservation.getCheckInDate());
 
-        // Check if reservation is PENDING with no successful payment
-        // Use findAllByReservationId to handle cases where multiple payment attempts exist
-        List<Payment> payments = paymentRepository.findAllByReservationId(reservationId);
-        Payment payment = payments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.SUCCEEDED)
-                .findFirst()
-                .orElse(payments.isEmpty() ? null : payments.get(0));
-
+        // Check if reservation is PENDING with no successful payment, its own or its group's
         boolean isPendingWithoutPayment = reservation.getStatus() == Reservation.ReservationStatus.PENDING
-                && (payment == null || payment.getStatus() != Payment.PaymentStatus.SUCCEEDED);
+                && paymentService.findRefundablePayment(reservation).isEmpty();
 
         // If reservation is pending without payment, return zero refund calculation
         if (isPendingWithoutPayment) {
@@ -197,12 +188,16 @@ public class CancellationService {
         // Calculate refund
         RefundCalculation refundCalc = calculateRefund(reservationId);
 
-        // Update reservation status
+        // Update reservation status; checked again against the latest version
         LocalDateTime cancelledAt = LocalDateTime.now();
-        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-        reservation.setCancellationReason(request.getReason());
-        reservation.setCancelledAt(cancelledAt);
-        reservationRepository.save(reservation);
+        reservationService.changeReservation(reservationId, current -> {
+            if (current.getStatus() == Reservation.ReservationStatus.CANCELLED) {
+                throw new RuntimeException("Reservation is already cancelled");
+            }
+            current.setStatus(Reservation.ReservationStatus.CANCELLED);
+            current.setCancellationReason(request.getReason());
+            current.setCancelledAt(cancelledAt);
+        });
 
         log.info("Reservation {} cancelled. Refund amount: ${}, Original: ${}",
                 reservationId, refundCalc.getRefundAmount(), refundCalc.getOriginalAmount());
@@ -210,14 +205,10 @@ public class CancellationService {
         // Process refund if payment exists and refund amount > 0
         String refundStatus = "N/A";
         if (refundCalc.getRefundAmount().compareTo(BigDecimal.ZERO) > 0) {
-            // Use findAllByReservationId to handle multiple payment attempts
-            List<Payment> allPayments = paymentRepository.findAllByReservationId(reservationId);
-            Payment payment = allPayments.stream()
-                    .filter(p -> p.getStatus() == Payment.PaymentStatus.SUCCEEDED)
-                    .findFirst()
-                    .orElse(null);
-
-            if (payment != null && payment.getStatus() == Payment.PaymentStatus.SUCCEEDED) {
+            // The group's payment for a reservation of a group booking; processRefund caps the amount at what is left
+            Payment payment = paymentService.findRefundablePayment(reservation).orElse(null);
+
+            if (payment != null) {
                 try {
                     paymentService.processRefund(
                             payment.getId(),
@@ -231,12 +222,9 @@ public class CancellationService {
                     refundStatus = "FAILED";
                     throw new RuntimeException("Cancellation succeeded but refund processing failed. Please contact support for manual refund. Error: " + e.getMessage());
                 }
-            } else if (payment == null) {
-                log.warn("No payment found for reservation {}. Cancellation processed without refund.", reservationId);
-                refundStatus = "NO_PAYMENT_FOUND";
             } else {
-                log.warn("Payment {} not in SUCCEEDED status (status: {}). Cannot process refund.", payment.getId(), payment.getStatus());
-                refundStatus = "PAYMENT_NOT_ELIGIBLE";
+                log.warn("No refundable payment found for reservation {}. Cancellation processed without refund.", reservationId);
+                refundStatus = "NO_PAYMENT_FOUND";
             }
         } else {
             refundStatus = "NO_REFUND_DUE";
@@ -0,0 +1,215 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hashed timing wheel that releases pending holds when their payment window closes.
+ * Every pending reservation is placed in the bucket of the tick after its expiresAt,
+ * so a hold is cancelled within about one tick of expiring instead of waiting for the
+ * next expiry sweep. Scheduling and cancelling a hold is O(1); each tick only looks at
+ * the holds of one bucket.
+ *
+ * Holds are scheduled and unscheduled from {@link ReservationChangedEvent}s, so a
+ * hold that is paid, cancelled or changed before it expires is dropped from the wheel.
+ * A due hold that is still pending but was not released, because its stored expiry
+ * has not passed yet or it changed concurrently, is scheduled again from its current
+ * state; if releasing fails, the holds are retried after app.hold-expiry.retry-ms.
+ * The wheel is rebuilt from the pending reservations at startup. Holds created on
+ * other instances are released by their own wheel, and
+ * {@link ReservationExpiryScheduler} remains as a safety net for anything missed.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class HoldExpiryWheel {
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final long tickMs;
+    private final long retryTicks;
+    private final int mask;
+
+    /**
+     * Reservation IDs by bucket; a bucket holds every hold due on a tick congruent to its index
+     */
+    private final List<Set<String>> buckets;
+
+    /**
+     * Tick on which each scheduled hold falls due
+     */
+    private final Map<String, Long> deadlines = new HashMap<>();
+
+    private final long startedAtMs = System.currentTimeMillis();
+    private long processedTick = 0;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hold-expiry-wheel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HoldExpiryWheel(ReservationService reservationService,
+                           ReservationRepository reservationRepository,
+                           @Value("${app.hold-expiry.tick-ms:1000}") long tickMs,
+                           @Value("${app.hold-expiry.wheel-size:512}") int wheelSize,
+                           @Value("${app.hold-expiry.retry-ms:5000}") long retryMs) {
+        this.reservationService = reservationService;
+        this.reservationRepository = reservationRepository;
+        this.tickMs = tickMs;
+        this.retryTicks = Math.max(retryMs / tickMs, 1);
+        // Rounded up to a power of two so the bucket is a mask of the tick
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Schedule the pending holds once the application has started, then start ticking.
+     * Holds that expired while the application was down fall due on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<Reservation> pending = reservationRepository.findByStatus(Reservation.ReservationStatus.PENDING);
+        pending.forEach(this::onHoldChanged);
+        log.info("Hold expiry wheel built from {} pending reservation(s)", pending.size());
+
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedule a hold when it is created, and drop it once it stops being pending.
+     *
+     * @param event reservation change event
+     */
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        onHoldChanged(event.getReservation());
+    }
+
+    /**
+     * Number of holds waiting to expire.
+     *
+     * @return scheduled hold count
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void onHoldChanged(Reservation reservation) {
+        if (reservation.getStatus() == Reservation.ReservationStatus.PENDING && reservation.getExpiresAt() != null) {
+            schedule(reservation.getId(), reservation.getExpiresAt());
+        } else {
+            unschedule(reservation.getId());
+        }
+    }
+
+    private synchronized void schedule(String reservationId, LocalDateTime expiresAt) {
+        long expiresAtMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // First tick that starts strictly after the expiry, and never one already processed
+        scheduleOnTick(reservationId, Math.max(Math.floorDiv(expiresAtMs - startedAtMs, tickMs) + 1, processedTick + 1));
+    }
+
+    private synchronized void scheduleOnTick(String reservationId, long deadline) {
+        unschedule(reservationId);
+        deadlines.put(reservationId, deadline);
+        buckets.get((int) (deadline & mask)).add(reservationId);
+    }
+
+    /**
+     * Schedule holds that could not be released again a few ticks from now,
+     * unless a change has scheduled them in the meantime.
+     */
+    private synchronized void retryLater(List<String> reservationIds) {
+        long deadline = processedTick + retryTicks;
+        reservationIds.stream()
+                .filter(reservationId -> !deadlines.containsKey(reservationId))
+                .forEach(reservationId -> scheduleOnTick(reservationId, deadline));
+    }
+
+    private synchronized void unschedule(String reservationId) {
+        Long deadline = deadlines.remove(reservationId);
+        if (deadline != null) {
+            buckets.get((int) (deadline & mask)).remove(reservationId);
+        }
+    }
+
+    /**
+     * Advance to the current tick and release the holds that fell due.
+     * Ticks missed while the thread was busy are caught up in one go.
+     */
+    private void tick() {
+        List<String> due = advance();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Reservation> cancelled = reservationService.expireHolds(
+                    due, LocalDateTime.now(), ReservationService.HOLD_EXPIRED_REASON);
+            if (!cancelled.isEmpty()) {
+                log.info("Released {} expired hold(s)", cancelled.size());
+            }
+
+            Set<String> cancelledIds = cancelled.stream().map(Reservation::getId).collect(Collectors.toSet());
+            List<String> remaining = due.stream().filter(reservationId -> !cancelledIds.contains(reservationId)).toList();
+            if (!remaining.isEmpty()) {
+                // Paid or cancelled holds are dropped; holds still pending are scheduled again
+                reservationRepository.findAllById(remaining).forEach(this::onHoldChanged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to release {} expired hold(s), retrying in {} tick(s)", due.size(), retryTicks, e);
+            retryLater(due);
+        }
+    }
+
+    private synchronized List<String> advance() {
+        long currentTick = (System.currentTimeMillis() - startedAtMs) / tickMs;
+        List<String> due = new ArrayList<>();
+
+        // After a full turn every bucket has been visited once
+        long firstTick = Math.max(processedTick + 1, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            buckets.get((int) (tick & mask)).removeIf(reservationId -> {
+                if (deadlines.get(reservationId) > currentTick) {
+                    return false;
+                }
+                deadlines.remove(reservationId);
+                due.add(reservationId);
+                return true;
+            });
+        }
+
+        processedTick = Math.max(processedTick, currentTick);
+        return due;
+    }
+}
@@ -0,0 +1,219 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotel.reservation.exception.IdempotencyKeyInUseException;
+import com.hotel.reservation.model.IdempotencyRecord;
+import com.hotel.reservation.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for replaying retried requests that carry an Idempotency-Key header.
+ * The first request with a key claims it by inserting an {@link IdempotencyRecord};
+ * its successful response, headers included, is stored on the record and returned
+ * for every retry, so a retried booking or payment intent is never created twice.
+ * Completed responses are also kept in memory for a while, so a retry that reaches
+ * the same instance is answered without a database round trip.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * A request whose response may be replayed
+     */
+    @FunctionalInterface
+    public interface IdempotentAction<T, E extends Exception> {
+        ResponseEntity<T> call() throws E;
+    }
+
+    /**
+     * Completed response as kept in memory
+     */
+    private record StoredResponse(String requestHash, int status, Map<String, List<String>> headers, String body) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> recent;
+    private final Duration retention;
+    private final Duration inProgressTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.retention-hours:24}") long retentionHours,
+                              @Value("${app.idempotency.in-progress-timeout-seconds:60}") long inProgressTimeoutSeconds,
+                              @Value("${app.idempotency.cache.maximum-size:10000}") long cacheSize,
+                              @Value("${app.idempotency.cache.ttl-seconds:600}") long cacheTtlSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(retentionHours);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotency-keys");
+    }
+
+    /**
+     * Run a request at most once per Idempotency-Key.
+     * Without a key the request simply runs. Responses other than 2xx are not
+     * stored, and a request that throws releases its key, so both can be retried.
+     * If a successful response cannot be stored, the key is kept in progress until
+     * it expires rather than released, since the request has already taken effect.
+     *
+     * @param scope endpoint the key applies to
+     * @param userId ID of the calling user
+     * @param key the Idempotency-Key header value (optional)
+     * @param request the request body, used to detect a key reused for a different request
+     * @param responseType type of the response body, used to replay it
+     * @param action the request to run
+     * @param <T> response body type
+     * @param <E> checked exception thrown by the request
+     * @return the response of the first request with this key
+     * @throws IdempotencyKeyInUseException if the first request with this key is still running
+     * @throws IllegalArgumentException if the key is invalid or was used for a different request
+     * @throws E if the request fails
+     */
+    public <T, E extends Exception> ResponseEntity<T> execute(String scope, String userId, String key, Object request,
+                                                              TypeReference<T> responseType,
+                                                              IdempotentAction<T, E> action) throws E {
+        if (key == null || key.isBlank()) {
+            return action.call();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key cannot exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = scope + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = recent.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord(id, requestHash, IdempotencyRecord.Status.IN_PROGRESS,
+                0, null, null, now, now.plus(inProgressTimeout));
+        try {
+            idempotencyRecordRepository.insert(record);
+        } catch (DuplicateKeyException e) {
+            return replayExisting(id, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        boolean succeeded = false;
+        try {
+            response = action.call();
+            succeeded = response.getStatusCode().is2xxSuccessful();
+        } finally {
+            if (!succeeded) {
+                idempotencyRecordRepository.deleteById(id);
+            }
+        }
+        if (!succeeded) {
+            return response;
+        }
+
+        try {
+            StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    new LinkedHashMap<>(response.getHeaders()), toJson(response.getBody()));
+            recent.put(id, stored);
+            record.setStatus(IdempotencyRecord.Status.COMPLETED);
+            record.setResponseStatus(stored.status());
+            record.setResponseHeaders(stored.headers());
+            record.setResponseBody(stored.body());
+            record.setExpireAt(LocalDateTime.now().plus(retention));
+            idempotencyRecordRepository.save(record);
+        } catch (RuntimeException e) {
+            // The request took effect, so its key must not be released; it stays in progress until it expires
+            log.error("Response for idempotency key {} could not be stored; the key stays in progress for up to {}",
+                    id, inProgressTimeout, e);
+        }
+        return response;
+    }
+
+    private <T> ResponseEntity<T> replayExisting(String id, String requestHash, TypeReference<T> responseType) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findById(id).orElse(null);
+
+        if (existing == null || existing.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+            if (existing != null && !existing.getRequestHash().equals(requestHash)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            throw new IdempotencyKeyInUseException("A request with this Idempotency-Key is still being processed. Please retry shortly.");
+        }
+
+        StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                existing.getResponseHeaders() != null ? existing.getResponseHeaders() : Map.of(),
+                existing.getResponseBody());
+        recent.put(id, stored);
+        return replay(stored, requestHash, responseType);
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, TypeReference<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+
+        log.debug("Replaying stored {} response for a retried request", stored.status());
+        try {
+            T body = objectMapper.readValue(stored.body(), responseType);
+            // Headers such as the Location of a created resource are replayed along with the body
+            return ResponseEntity.status(stored.status())
+                    .headers(headers -> headers.putAll(stored.headers()))
+                    .header("Idempotent-Replayed", "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be read", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] canonical = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request could not be hashed", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.JobLease;
+import com.hotel.reservation.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Leader election for scheduled jobs across application instances.
+ * Instances compete for a lease document in MongoDB; the holder renews it every
+ * app.job-lease.renew-interval-ms and only the holder runs jobs passed to
+ * {@link #runIfLeader(String, LongConsumer)}. When the holder stops renewing, another
+ * instance takes the lease over as soon as it expires, after at most
+ * app.job-lease.ttl-ms plus one renewal interval; an instance shutting down
+ * releases it at once.
+ *
+ * Every acquisition gets a new fencing token, which is passed to the job. A job run
+ * is recorded with the token of the leader running it and refused for older tokens,
+ * so a former leader that was paused past its lease cannot start a job after its
+ * successor has. Jobs call {@link #holdsLease(long)} with their token right before
+ * they write, and skip the write if the lease has moved on. That check and the write
+ * are separate operations, so the window for a stale write is narrowed, not closed;
+ * job writes are conditional updates that stay correct if run twice.
+ * Lease expiry is compared against the local clock, so clocks of the instances
+ * must agree to well within the lease TTL.
+ *
+ * The lease is renewed on its own thread, so a long-running job cannot delay the
+ * renewal. Exposes {@code job.lease.leader}, {@code job.lease.fencing.token},
+ * {@code job.lease.acquired}, {@code job.lease.lost} and {@code job.lease.fenced}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class JobLeaderLease {
+
+    static final String LEASE_ID = "scheduled-jobs";
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final Duration ttl;
+    private final long renewIntervalMs;
+    private final String instanceId;
+    private final Counter acquiredCounter;
+    private final Counter lostCounter;
+    private final Counter fencedCounter;
+
+    /**
+     * Fencing token of the held lease, 0 while not leader
+     */
+    private volatile long fencingToken = 0;
+
+    /**
+     * System.nanoTime() after which the held lease may have been taken over
+     */
+    private volatile long validUntilNanos = 0;
+
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JobLeaderLease(JobLeaseRepository jobLeaseRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.job-lease.ttl-ms:15000}") long ttlMs,
+                          @Value("${app.job-lease.renew-interval-ms:5000}") long renewIntervalMs) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.renewIntervalMs = renewIntervalMs;
+        this.instanceId = System.getenv().getOrDefault("HOSTNAME", "backend")
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        Gauge.builder("job.lease.leader", this, lease -> lease.isLeader() ? 1 : 0)
+                .description("1 while this instance holds the scheduled job lease")
+                .tag("lease", LEASE_ID)
+                .register(meterRegistry);
+        Gauge.builder("job.lease.fencing.token", this, lease -> lease.fencingToken)
+                .description("Fencing token of the held lease, 0 while not leader")
+                .tag("lease", LEASE_ID)
+                .register(meterRegistry);
+        this.acquiredCounter = Counter.builder("job.lease.acquired")
+                .description("Times this instance acquired the lease")
+                .tag("lease", LEASE_ID)
+                .register(meterRegistry);
+        this.lostCounter = Counter.builder("job.lease.lost")
+                .description("Times this instance found its lease taken over")
+                .tag("lease", LEASE_ID)
+                .register(meterRegistry);
+        this.fencedCounter = Counter.builder("job.lease.fenced")
+                .description("Job runs or writes refused because the lease had moved to a newer token")
+                .tag("lease", LEASE_ID)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start competing for the lease once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        renewer.scheduleWithFixedDelay(this::heartbeat, 0, renewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Whether this instance holds the lease and it cannot have expired yet.
+     *
+     * @return true if leader
+     */
+    public boolean isLeader() {
+        return fencingToken != 0 && System.nanoTime() - validUntilNanos < 0;
+    }
+
+    /**
+     * Whether the lease is still held with the given token, checked against the stored
+     * lease. Jobs call this right before they write.
+     *
+     * @param token fencing token passed to the job
+     * @return true if no other instance can have taken the lease over
+     */
+    public boolean holdsLease(long token) {
+        if (token != fencingToken || !isLeader()) {
+            return false;
+        }
+        if (!jobLeaseRepository.isHeld(LEASE_ID, token, now())) {
+            fencedCounter.increment();
+            log.warn("Fencing token {} is stale; the lease has been taken over", token);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Run a job if this instance is the leader.
+     * The run is first recorded with the lease's fencing token, and skipped if a
+     * newer leader has already run the job. The job receives the token to pass to
+     * {@link #holdsLease(long)} before it writes.
+     *
+     * @param job job name
+     * @param task the job, given the lease's fencing token
+     * @return true if the job ran
+     */
+    public boolean runIfLeader(String job, LongConsumer task) {
+        long token = fencingToken;
+        if (!isLeader()) {
+            log.debug("Skipping job {}: not the leader", job);
+            return false;
+        }
+
+        if (!jobLeaseRepository.fenceJobRun(job, instanceId, token, now())) {
+            fencedCounter.increment();
+            log.warn("Skipping job {}: fencing token {} is stale", job, token);
+            return false;
+        }
+
+        task.accept(token);
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+
+        long token = fencingToken;
+        if (token != 0) {
+            fencingToken = 0;
+            try {
+                jobLeaseRepository.release(LEASE_ID, instanceId, token);
+                log.info("Released job lease {} (token {})", LEASE_ID, token);
+            } catch (RuntimeException e) {
+                // Taken over once it expires
+                log.warn("Could not release job lease {}: {}", LEASE_ID, e.getMessage());
+            }
+        }
+    }
+
+    private void heartbeat() {
+        try {
+            if (fencingToken != 0) {
+                renew();
+            } else {
+                tryAcquire();
+            }
+        } catch (RuntimeException e) {
+            // A leader that cannot renew stops acting as leader once validUntilNanos passes
+            log.warn("Job lease heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void renew() {
+        long startedAt = System.nanoTime();
+        long token = fencingToken;
+
+        if (jobLeaseRepository.renew(LEASE_ID, instanceId, token, now(), ttl)) {
+            validUntilNanos = startedAt + ttl.toNanos();
+        } else {
+            fencingToken = 0;
+            lostCounter.increment();
+            log.warn("Lost job lease {} (token {}) to another instance", LEASE_ID, token);
+        }
+    }
+
+    private void tryAcquire() {
+        long startedAt = System.nanoTime();
+        LocalDateTime now = now();
+        JobLease current = jobLeaseRepository.findById(LEASE_ID).orElse(null);
+        if (current != null && current.getExpireAt() != null && current.getExpireAt().isAfter(now)) {
+            return;
+        }
+
+        long token = jobLeaseRepository.nextFencingToken(LEASE_ID);
+        if (jobLeaseRepository.acquire(LEASE_ID, instanceId, token, now, ttl)) {
+            validUntilNanos = startedAt + ttl.toNanos();
+            fencingToken = token;
+            acquiredCounter.increment();
+            log.info("Acquired job lease {} as {} with fencing token {}", LEASE_ID, instanceId, token);
+        }
+    }
+
+    private static LocalDateTime now() {
+        // Stored with millisecond precision
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
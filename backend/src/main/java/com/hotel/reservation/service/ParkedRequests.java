@@ -0,0 +1,61 @@
+package com.hotel.reservation.service;
+
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Long-poll requests parked until the document they wait on changes.
+ * Parked requests are answered in-process; a request parked on an instance that
+ * does not see the change is answered with a fresh read when its wait times out.
+ *
+ * @param <T> type of the document waited on
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+class ParkedRequests<T> {
+
+    private final Map<String, List<DeferredResult<T>>> parked = new ConcurrentHashMap<>();
+
+    /**
+     * Park a request for a document.
+     *
+     * @param id document ID
+     * @param timeoutMs how long the request waits at most
+     * @param reload reads the document again when the wait times out
+     * @return the parked request
+     */
+    DeferredResult<T> park(String id, long timeoutMs, Supplier<T> reload) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+
+        parked.compute(id, (key, results) -> {
+            List<DeferredResult<T>> waiting = results != null ? results : new CopyOnWriteArrayList<>();
+            waiting.add(result);
+            return waiting;
+        });
+        result.onCompletion(() -> parked.computeIfPresent(id, (key, results) -> {
+            results.remove(result);
+            return results.isEmpty() ? null : results;
+        }));
+        result.onTimeout(() -> result.setResult(reload.get()));
+
+        return result;
+    }
+
+    /**
+     * Answer every request parked for a document.
+     *
+     * @param id document ID
+     * @param value the changed document
+     */
+    void answer(String id, T value) {
+        List<DeferredResult<T>> results = parked.remove(id);
+        if (results != null) {
+            results.forEach(result -> result.setResult(value));
+        }
+    }
+}
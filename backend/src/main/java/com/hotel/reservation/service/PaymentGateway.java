@@ -0,0 +1,62 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.GatewayPaymentIntent;
+import com.stripe.exception.StripeException;
+
+import java.util.Map;
+
+/**
+ * Payment provider operations used by {@link PaymentService}.
+ * Implemented by {@link StripePaymentGateway}, and by {@link SimulatedPaymentGateway}
+ * for load tests that must not reach Stripe; app.payments.gateway selects one.
+ * Calls are blocking and are made through {@link StripeCallExecutor}.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+public interface PaymentGateway {
+
+    /**
+     * Create a payment intent that the guest completes in the browser.
+     *
+     * @param amountInCents amount in the currency's smallest unit
+     * @param currency ISO currency code
+     * @param metadata metadata stored with the intent
+     * @return the created payment intent
+     * @throws StripeException if the provider call fails
+     */
+    GatewayPaymentIntent createPaymentIntent(long amountInCents, String currency, Map<String, String> metadata)
+            throws StripeException;
+
+    /**
+     * Create and confirm a payment intent charging a payment method created client-side.
+     *
+     * @param amountInCents amount in the currency's smallest unit
+     * @param currency ISO currency code
+     * @param paymentMethodId payment method ID
+     * @param metadata metadata stored with the intent
+     * @return the payment intent, with card details
+     * @throws StripeException if the provider call fails
+     */
+    GatewayPaymentIntent chargePaymentMethod(long amountInCents, String currency, String paymentMethodId,
+                                             Map<String, String> metadata) throws StripeException;
+
+    /**
+     * Retrieve a payment intent with its charge and card details.
+     *
+     * @param paymentIntentId payment intent ID
+     * @return the payment intent
+     * @throws StripeException if the provider call fails
+     */
+    GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException;
+
+    /**
+     * Refund part or all of a payment intent.
+     *
+     * @param paymentIntentId payment intent ID
+     * @param amountInCents amount to refund in the currency's smallest unit
+     * @return refund ID
+     * @throws StripeException if the provider call fails
+     */
+    String createRefund(String paymentIntentId, long amountInCents) throws StripeException;
+}
@@ -1,52 +1,48 @@
 package com.hotel.reservation.service;
 
+import com.google.gson.JsonParseException;
+import com.hotel.reservation.dto.GatewayPaymentIntent;
+import com.hotel.reservation.dto.PaymentSummary;
+import com.hotel.reservation.exception.InvalidWebhookEventException;
 import com.hotel.reservation.model.Payment;
 import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.ReservationSnapshot;
 import com.hotel.reservation.repository.PaymentRepository;
-import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.model.Refund;
-import com.stripe.param.PaymentIntentCreateParams;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service class for payment processing using Stripe.
- * Handles payment creation, confirmation, and refunds.
+ * Handles payment creation, confirmation, and refunds. Calls to the payment
+ * provider go through the configured {@link PaymentGateway}. Payments of
+ * cancelled reservations are refunded from {@link ReservationCancelledEvent}s.
  *
  * @author Hotel Reservation Team
  * @version 1.0
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final ReservationService reservationService;
-
-    @Value("${stripe.api.key}")
-    private String stripeApiKey;
+    private final StripeCallExecutor stripeCallExecutor;
+    private final PaymentGateway paymentGateway;
 
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    /**
-     * Initialize Stripe with API key.
-     */
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeApiKey;
-    }
-
     /**
      * Create a payment intent for a reservation.
      *
@@ -60,22 +56,15 @@ public class PaymentService {
                 .multiply(BigDecimal.valueOf(100))
                 .longValue();
 
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amountInCents)
-                .setCurrency("usd")
-                .putMetadata("reservationId", reservation.getId())
-                .putMetadata("userId", reservation.getUser().getId())
-                .setAutomaticPaymentMethods(
-                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                .setEnabled(true)
-                                .build()
-                )
-                .build();
+        Map<String, String> metadata = Map.of(
+                "reservationId", reservation.getId(),
+                "userId", reservation.getUser().getId());
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        GatewayPaymentIntent paymentIntent = stripeCallExecutor.call("create-payment-intent",
+                () -> paymentGateway.createPaymentIntent(amountInCents, "usd", metadata));
 
         Payment payment = new Payment();
-        payment.setReservation(reservation);
+        payment.setReservation(ReservationSnapshot.of(reservation));
         payment.setUser(reservation.getUser());
         payment.setAmount(reservation.getTotalAmount());
         payment.setCurrency("USD");
@@ -86,6 +75,47 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
 
+    /**
+     * Create a single payment intent for all reservations of a group booking.
+     * The payment references the group's first reservation and carries the group ID,
+     * so confirming it confirms every reservation of the group.
+     *
+     * @param groupId group ID
+     * @param reservations reservations of the group
+     * @return payment entity with Stripe payment intent
+     * @throws StripeException if Stripe API call fails
+     */
+    @Transactional
+    public Payment createGroupPaymentIntent(String groupId, List<Reservation> reservations) throws StripeException {
+        Reservation first = reservations.get(0);
+        BigDecimal totalAmount = reservations.stream()
+                .map(Reservation::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long amountInCents = totalAmount
+                .multiply(BigDecimal.valueOf(100))
+                .longValue();
+
+        Map<String, String> metadata = Map.of(
+                "groupId", groupId,
+                "userId", first.getUser().getId(),
+                "reservationCount", Integer.toString(reservations.size()));
+
+        GatewayPaymentIntent paymentIntent = stripeCallExecutor.call("create-payment-intent",
+                () -> paymentGateway.createPaymentIntent(amountInCents, "usd", metadata));
+
+        Payment payment = new Payment();
+        payment.setReservation(ReservationSnapshot.of(first));
+        payment.setGroupId(groupId);
+        payment.setUser(first.getUser());
+        payment.setAmount(totalAmount);
+        payment.setCurrency("USD");
+        payment.setStripePaymentIntentId(paymentIntent.getId());
+        payment.setStripeClientSecret(paymentIntent.getClientSecret());
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+
+        return paymentRepository.save(payment);
+    }
+
     /**
      * Confirm a payment after successful Stripe processing.
      *
@@ -99,40 +129,43 @@ public class PaymentService {
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
         try {
-            // Retrieve payment intent from Stripe to get charge details
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            // Retrieve payment intent from Stripe to get charge and card details in a single call
+            GatewayPaymentIntent paymentIntent = stripeCallExecutor.call("retrieve-payment-intent",
+                    () -> paymentGateway.retrievePaymentIntent(paymentIntentId));
 
             // Extract charge ID if available
-            if (paymentIntent.getLatestCharge() != null) {
-                payment.setStripeChargeId(paymentIntent.getLatestCharge());
+            if (paymentIntent.getLatestChargeId() != null) {
+                payment.setStripeChargeId(paymentIntent.getLatestChargeId());
             }
 
             // Extract payment method details if available
-            if (paymentIntent.getPaymentMethod() != null) {
-                com.stripe.model.PaymentMethod paymentMethod =
-                    com.stripe.model.PaymentMethod.retrieve(paymentIntent.getPaymentMethod());
-
-                if (paymentMethod.getCard() != null) {
-                    payment.setCardBrand(paymentMethod.getCard().getBrand());
-                    payment.setCardLast4(paymentMethod.getCard().getLast4());
-                    payment.setPaymentMethod("card");
-                }
+            if (paymentIntent.getCardBrand() != null) {
+                payment.setCardBrand(paymentIntent.getCardBrand());
+                payment.setCardLast4(paymentIntent.getCardLast4());
+                payment.setPaymentMethod("card");
             }
         } catch (StripeException e) {
             // Log error but don't fail the confirmation
-            System.err.println("Failed to retrieve payment details from Stripe: " + e.getMessage());
+            log.warn("Failed to retrieve payment details of {} from Stripe: {}", paymentIntentId, e.getMessage());
         }
 
         payment.setStatus(Payment.PaymentStatus.SUCCEEDED);
         Payment savedPayment = paymentRepository.save(payment);
 
-        reservationService.confirmReservation(payment.getReservation().getId());
+        if (payment.getGroupId() != null) {
+            reservationService.getGroupReservations(payment.getGroupId())
+                    .forEach(reservation -> reservationService.confirmReservation(reservation.getId()));
+        } else {
+            reservationService.confirmReservation(payment.getReservation().getId());
+        }
 
         return savedPayment;
     }
 
     /**
      * Process a refund for a payment.
+     * A payment can be refunded in several parts, such as one per cancelled
+     * reservation of a group; the amount is capped at what has not been refunded yet.
      *
      * @param paymentId payment ID
      * @param amount refund amount
@@ -146,24 +179,27 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
-        if (payment.getStatus() != Payment.PaymentStatus.SUCCEEDED) {
+        if (!isRefundable(payment)) {
             throw new RuntimeException("Cannot refund payment that hasn't succeeded");
         }
 
-        long refundAmountInCents = amount.multiply(BigDecimal.valueOf(100)).longValue();
+        BigDecimal refunded = payment.getRefundAmount() != null ? payment.getRefundAmount() : BigDecimal.ZERO;
+        BigDecimal refundable = payment.getAmount().subtract(refunded);
+        BigDecimal refund = amount.min(refundable);
+        if (refund.signum() <= 0) {
+            throw new RuntimeException("Payment has already been refunded in full");
+        }
 
-        Map<String, Object> refundParams = new HashMap<>();
-        refundParams.put("payment_intent", payment.getStripePaymentIntentId());
-        refundParams.put("amount", refundAmountInCents);
-        refundParams.put("reason", "requested_by_customer");
+        long refundAmountInCents = refund.multiply(BigDecimal.valueOf(100)).longValue();
 
-        Refund refund = Refund.create(refundParams);
+        stripeCallExecutor.call("create-refund",
+                () -> paymentGateway.createRefund(payment.getStripePaymentIntentId(), refundAmountInCents));
 
-        payment.setRefundAmount(amount);
+        payment.setRefundAmount(refunded.add(refund));
         payment.setRefundReason(reason);
         payment.setRefundedAt(java.time.LocalDateTime.now());
 
-        if (amount.compareTo(payment.getAmount()) >= 0) {
+        if (payment.getRefundAmount().compareTo(payment.getAmount()) >= 0) {
             payment.setStatus(Payment.PaymentStatus.REFUNDED);
         } else {
             payment.setStatus(Payment.PaymentStatus.PARTIALLY_REFUNDED);
@@ -172,23 +208,63 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
 
+    /**
+     * Find the payment that paid for a reservation and can still be refunded.
+     * A reservation of a group booking was paid by the group's payment, which
+     * covers every reservation of the group.
+     *
+     * @param reservation the reservation
+     * @return the payment, or empty if the reservation has no succeeded payment with anything left to refund
+     */
+    public Optional<Payment> findRefundablePayment(Reservation reservation) {
+        List<Payment> payments = reservation.getGroupId() != null
+                ? paymentRepository.findAllByGroupId(reservation.getGroupId())
+                : paymentRepository.findAllByReservationId(reservation.getId());
+        return payments.stream().filter(this::isRefundable).findFirst();
+    }
+
+    /**
+     * Refund a cancelled reservation's share of its payment: its own total, also
+     * when it was paid as part of a group.
+     * A failed refund is logged and never undoes the cancellation.
+     *
+     * @param event reservation cancellation event
+     */
+    @EventListener
+    public void onReservationCancelled(ReservationCancelledEvent event) {
+        Reservation reservation = event.getReservation();
+        try {
+            // Pending or unpaid reservations have nothing to refund, and a refunded payment is not refunded again
+            findRefundablePayment(reservation).ifPresent(payment -> {
+                try {
+                    processRefund(payment.getId(), reservation.getTotalAmount(), reservation.getCancellationReason());
+                    log.info("Refunded payment {} of cancelled reservation {}", payment.getId(), reservation.getId());
+                } catch (StripeException e) {
+                    log.error("Refund of payment {} failed: {}", payment.getId(), e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Refund of cancelled reservation {} failed", reservation.getId(), e);
+        }
+    }
+
     /**
      * Get payment history for a user.
      *
      * @param userId user ID
-     * @return list of payments
+     * @return list of payment summaries
      */
-    public List<Payment> getUserPaymentHistory(String userId) {
-        return paymentRepository.findByUserId(userId);
+    public List<PaymentSummary> getUserPaymentHistory(String userId) {
+        return paymentRepository.findSummariesByUserId(userId);
     }
 
     /**
-     * Get all payments (Admin only).
+     * Get all payments (Admin only), newest first.
      *
-     * @return list of all payments
+     * @return list of payment summaries
      */
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    public List<PaymentSummary> getAllPayments() {
+        return paymentRepository.findAllSummaries();
     }
 
     /**
@@ -220,31 +296,22 @@ public class PaymentService {
                 .longValue();
 
         // Create and confirm payment intent using the payment method token
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amountInCents)
-                .setCurrency("usd")
-                .setPaymentMethod(paymentMethodId)
-                .setConfirm(true)
-                .setConfirmationMethod(PaymentIntentCreateParams.ConfirmationMethod.MANUAL)
-                .putMetadata("reservationId", reservation.getId())
-                .putMetadata("userId", reservation.getUser().getId())
-                .putMetadata("bookedByManager", "true")
-                .build();
-
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        Map<String, String> metadata = Map.of(
+                "reservationId", reservation.getId(),
+                "userId", reservation.getUser().getId(),
+                "bookedByManager", "true");
+
+        GatewayPaymentIntent paymentIntent = stripeCallExecutor.call("create-payment-intent",
+                () -> paymentGateway.chargePaymentMethod(amountInCents, "usd", paymentMethodId, metadata));
 
         // Check if payment succeeded
         if (!"succeeded".equals(paymentIntent.getStatus())) {
             throw new RuntimeException("Payment failed with status: " + paymentIntent.getStatus());
         }
 
-        // Retrieve payment method details
-        com.stripe.model.PaymentMethod paymentMethod =
-            com.stripe.model.PaymentMethod.retrieve(paymentMethodId);
-
         // Create payment record
         Payment payment = new Payment();
-        payment.setReservation(reservation);
+        payment.setReservation(ReservationSnapshot.of(reservation));
         payment.setUser(reservation.getUser());
         payment.setAmount(reservation.getTotalAmount());
         payment.setCurrency("USD");
@@ -253,13 +320,13 @@ public class PaymentService {
         payment.setPaymentMethod("card");
 
         // Set card details
-        if (paymentIntent.getLatestCharge() != null) {
-            payment.setStripeChargeId(paymentIntent.getLatestCharge());
+        if (paymentIntent.getLatestChargeId() != null) {
+            payment.setStripeChargeId(paymentIntent.getLatestChargeId());
         }
 
-        if (paymentMethod.getCard() != null) {
-            payment.setCardBrand(paymentMethod.getCard().getBrand());
-            payment.setCardLast4(paymentMethod.getCard().getLast4());
+        if (paymentIntent.getCardBrand() != null) {
+            payment.setCardBrand(paymentIntent.getCardBrand());
+            payment.setCardLast4(paymentIntent.getCardLast4());
         }
 
         Payment savedPayment = paymentRepository.save(payment);
@@ -283,14 +350,37 @@ public class PaymentService {
         return com.stripe.net.Webhook.constructEvent(payload, signature, webhookSecret);
     }
 
+    /**
+     * Rebuild an event from a webhook payload that was verified when it was received.
+     *
+     * @param payload raw event JSON
+     * @return the event
+     * @throws InvalidWebhookEventException if the payload is not an event
+     */
+    public com.stripe.model.Event parseWebhookEvent(String payload) {
+        try {
+            return com.stripe.net.ApiResource.GSON.fromJson(payload, com.stripe.model.Event.class);
+        } catch (JsonParseException e) {
+            throw new InvalidWebhookEventException("Stored webhook payload is not a Stripe event", e);
+        }
+    }
+
     /**
      * Handle verified Stripe webhook events.
+     * Called by the {@link StripeEventInbox} workers; failures are thrown so that
+     * the event is retried, except for events that can never be processed.
      *
      * @param event the verified Stripe event
+     * @throws InvalidWebhookEventException if the event has no type, or no data object where one is needed
      */
     public void handleWebhookEvent(com.stripe.model.Event event) {
+        if (event == null || event.getType() == null) {
+            throw new InvalidWebhookEventException("Stripe event " + (event != null ? event.getId() : null)
+                    + " has no type");
+        }
+
         // Log event type for monitoring
-        System.out.println("Received Stripe webhook event: " + event.getType());
+        log.info("Received Stripe webhook event: {}", event.getType());
 
         switch (event.getType()) {
             case "payment_intent.succeeded":
@@ -303,7 +393,7 @@ public class PaymentService {
                 handleChargeRefunded(event);
                 break;
             default:
-                System.out.println("Unhandled event type: " + event.getType());
+                log.debug("Unhandled event type: {}", event.getType());
         }
     }
 
@@ -311,54 +401,58 @@ public class PaymentService {
      * Handle successful payment intent webhook.
      */
     private void handlePaymentIntentSucceeded(com.stripe.model.Event event) {
-        try {
-            com.stripe.model.PaymentIntent paymentIntent =
-                (com.stripe.model.PaymentIntent) event.getDataObjectDeserializer()
-                    .getObject().orElse(null);
-
-            if (paymentIntent != null) {
-                // Update payment status in database
-                paymentRepository.findByStripePaymentIntentId(paymentIntent.getId())
-                    .ifPresent(payment -> {
-                        if (payment.getStatus() != Payment.PaymentStatus.SUCCEEDED) {
-                            payment.setStatus(Payment.PaymentStatus.SUCCEEDED);
-                            paymentRepository.save(payment);
-                            System.out.println("Payment marked as succeeded: " + payment.getId());
-                        }
-                    });
-            }
-        } catch (Exception e) {
-            System.err.println("Error handling payment_intent.succeeded: " + e.getMessage());
-        }
+        com.stripe.model.PaymentIntent paymentIntent = paymentIntentOf(event);
+
+        // Update payment status in database
+        paymentRepository.findByStripePaymentIntentId(paymentIntent.getId())
+            .ifPresent(payment -> {
+                if (payment.getStatus() != Payment.PaymentStatus.SUCCEEDED) {
+                    payment.setStatus(Payment.PaymentStatus.SUCCEEDED);
+                    paymentRepository.save(payment);
+                    log.info("Payment marked as succeeded: {}", payment.getId());
+                }
+            });
     }
 
     /**
      * Handle failed payment intent webhook.
      */
     private void handlePaymentIntentFailed(com.stripe.model.Event event) {
-        try {
-            com.stripe.model.PaymentIntent paymentIntent =
-                (com.stripe.model.PaymentIntent) event.getDataObjectDeserializer()
-                    .getObject().orElse(null);
-
-            if (paymentIntent != null) {
-                paymentRepository.findByStripePaymentIntentId(paymentIntent.getId())
-                    .ifPresent(payment -> {
-                        payment.setStatus(Payment.PaymentStatus.FAILED);
-                        paymentRepository.save(payment);
-                        System.out.println("Payment marked as failed: " + payment.getId());
-                    });
-            }
-        } catch (Exception e) {
-            System.err.println("Error handling payment_intent.payment_failed: " + e.getMessage());
-        }
+        com.stripe.model.PaymentIntent paymentIntent = paymentIntentOf(event);
+
+        paymentRepository.findByStripePaymentIntentId(paymentIntent.getId())
+            .ifPresent(payment -> {
+                payment.setStatus(Payment.PaymentStatus.FAILED);
+                paymentRepository.save(payment);
+                log.info("Payment marked as failed: {}", payment.getId());
+            });
     }
 
     /**
      * Handle refund webhook.
      */
     private void handleChargeRefunded(com.stripe.model.Event event) {
-        System.out.println("Charge refunded event received");
+        log.debug("Charge refunded event {} received", event.getId());
         // Refunds are already handled by processRefund method
     }
+
+    private boolean isRefundable(Payment payment) {
+        return payment.getStatus() == Payment.PaymentStatus.SUCCEEDED
+                || payment.getStatus() == Payment.PaymentStatus.PARTIALLY_REFUNDED;
+    }
+
+    /**
+     * Payment intent carried by an event, which must have one.
+     */
+    private com.stripe.model.PaymentIntent paymentIntentOf(com.stripe.model.Event event) {
+        // The data object is only deserialized when the event matches the library's API version
+        Object object = event.getData() != null
+                ? event.getDataObjectDeserializer().getObject().orElse(null)
+                : null;
+        if (!(object instanceof com.stripe.model.PaymentIntent paymentIntent) || paymentIntent.getId() == null) {
+            throw new InvalidWebhookEventException("Stripe event " + event.getId() + " (" + event.getType()
+                    + ") carries no payment intent");
+        }
+        return paymentIntent;
+    }
 }
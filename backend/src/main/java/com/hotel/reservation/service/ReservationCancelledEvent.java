@@ -0,0 +1,25 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import lombok.Getter;
+
+/**
+ * Application event published after a guest or staff member cancels a reservation
+ * outright. Its payment is refunded in full; cancellations that settle the refund
+ * themselves, such as policy-based ones, do not publish it.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Getter
+public class ReservationCancelledEvent {
+
+    /**
+     * The cancelled reservation
+     */
+    private final Reservation reservation;
+
+    public ReservationCancelledEvent(Reservation reservation) {
+        this.reservation = reservation;
+    }
+}
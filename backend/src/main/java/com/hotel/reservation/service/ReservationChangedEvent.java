@@ -0,0 +1,54 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published after a reservation is created, modified or
+ * changes status. Listeners use it to keep in-memory views of room occupancy
+ * in sync without re-reading the reservations collection.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Getter
+public class ReservationChangedEvent {
+
+    /**
+     * The reservation in its state after the change
+     */
+    private final Reservation reservation;
+
+    /**
+     * Check-in date before the change (only set when the stay was rescheduled)
+     */
+    private final LocalDate previousCheckInDate;
+
+    /**
+     * Check-out date before the change (only set when the stay was rescheduled)
+     */
+    private final LocalDate previousCheckOutDate;
+
+    public ReservationChangedEvent(Reservation reservation) {
+        this(reservation, null, null);
+    }
+
+    public ReservationChangedEvent(Reservation reservation,
+                                   LocalDate previousCheckInDate,
+                                   LocalDate previousCheckOutDate) {
+        this.reservation = reservation;
+        this.previousCheckInDate = previousCheckInDate;
+        this.previousCheckOutDate = previousCheckOutDate;
+    }
+
+    /**
+     * Whether the stay dates were changed by this event.
+     *
+     * @return true if previous dates are available
+     */
+    public boolean isRescheduled() {
+        return previousCheckInDate != null && previousCheckOutDate != null;
+    }
+}
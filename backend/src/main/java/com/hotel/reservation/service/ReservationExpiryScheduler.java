@@ -1,8 +1,6 @@
 package com.hotel.reservation.service;
 
 import com.hotel.reservation.model.Reservation;
-import com.hotel.reservation.repository.ReservationRepository;
-import com.hotel.reservation.repository.RoomLockRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,8 +12,10 @@ import java.util.List;
 
 /**
  * Scheduled service to automatically cancel expired pending reservations.
- * Runs every minute to check for and cancel reservations that have exceeded
- * their 5-minute payment window.
+ * Holds are normally released on time by {@link HoldExpiryWheel}; this sweep is the
+ * safety net for holds the wheel missed, such as those created on an instance that
+ * has since stopped. With several instances running, only the holder of the
+ * {@link JobLeaderLease} runs the sweep.
  *
  * @author Hotel Reservation Team
  * @version 1.0
@@ -25,44 +25,35 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReservationExpiryScheduler {
 
-    private final ReservationRepository reservationRepository;
-    private final RoomLockRepository roomLockRepository;
+    private final ReservationService reservationService;
+    private final JobLeaderLease jobLeaderLease;
 
     /**
      * Scheduled task to cancel expired pending reservations.
-     * Runs every minute (60000 milliseconds).
+     * Runs every app.hold-expiry.sweep-interval-ms milliseconds.
      *
-     * This ensures that pending reservations without payment are automatically
-     * cancelled after 5 minutes, freeing up rooms for other guests.
+     * This ensures that pending reservations without payment are eventually
+     * cancelled even if the timing wheel missed them, freeing up rooms for other guests.
+     * Skipped on instances that do not hold the job lease.
      */
-    @Scheduled(fixedRate = 60000) // Run every 60 seconds
+    @Scheduled(fixedRateString = "${app.hold-expiry.sweep-interval-ms:60000}")
     @Transactional
     public void cancelExpiredReservations() {
-        LocalDateTime now = LocalDateTime.now();
-
-        // Find all pending reservations that have expired
-        List<Reservation> expiredReservations = reservationRepository.findAll().stream()
-                .filter(reservation ->
-                    reservation.getStatus() == Reservation.ReservationStatus.PENDING &&
-                    reservation.getExpiresAt() != null &&
-                    reservation.getExpiresAt().isBefore(now))
-                .toList();
-
-        if (!expiredReservations.isEmpty()) {
-            log.info("Found {} expired pending reservation(s) to cancel", expiredReservations.size());
+        jobLeaderLease.runIfLeader("reservation-expiry-sweep", this::sweep);
+    }
 
-            for (Reservation reservation : expiredReservations) {
-                reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-                reservation.setCancellationReason("Reservation expired - payment not completed within 5 minutes");
-                reservation.setCancelledAt(now);
-                reservationRepository.save(reservation);
+    private void sweep(long fencingToken) {
+        // Only the expired holds are read, and they are cancelled in one update once the lease is confirmed
+        List<Reservation> cancelledReservations = reservationService.cancelExpiredHolds(LocalDateTime.now(),
+                ReservationService.HOLD_EXPIRED_REASON, () -> jobLeaderLease.holdsLease(fencingToken));
 
-                // Release the room lock
-                roomLockRepository.deleteByReservationId(reservation.getId());
+        if (!cancelledReservations.isEmpty()) {
+            log.info("Cancelled {} expired pending reservation(s)", cancelledReservations.size());
 
+            for (Reservation reservation : cancelledReservations) {
                 log.info("Auto-cancelled reservation {} for user {} (expired at {})",
                     reservation.getId(),
-                    reservation.getUser().getEmail(),
+                    reservation.getUser() != null ? reservation.getUser().getEmail() : null,
                     reservation.getExpiresAt());
             }
         }
@@ -1,14 +1,20 @@
 package com.hotel.reservation.service;
 
+import com.hotel.reservation.dto.GroupBookingRequest;
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.dto.ReservationSummary;
 import com.hotel.reservation.exception.RoomNotAvailableException;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.model.Room;
-import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.model.RoomSnapshot;
 import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserSnapshot;
 import com.hotel.reservation.repository.ReservationRepository;
-import com.hotel.reservation.repository.RoomLockRepository;
-import com.hotel.reservation.repository.RoomRepository;
-import org.springframework.dao.DuplicateKeyException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,8 +22,17 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -27,34 +42,46 @@ import java.util.stream.Collectors;
  * @author Hotel Reservation Team
  * @version 1.0
  */
+@Slf4j
 @Service
 public class ReservationService {
 
+    /**
+     * Cancellation reason of a pending reservation whose payment window closed
+     */
+    public static final String HOLD_EXPIRED_REASON = "Reservation expired - payment not completed within 5 minutes";
+
     private final ReservationRepository reservationRepository;
-    private final RoomRepository roomRepository;
-    private final RoomLockRepository roomLockRepository;
-    private final com.hotel.reservation.repository.PaymentRepository paymentRepository;
-    private final com.hotel.reservation.service.PaymentService paymentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomInventoryService roomInventoryService;
+    private final RoomCatalog roomCatalog;
+    private final RoomBookingLocks roomBookingLocks;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final int maxUpdateAttempts;
 
     public ReservationService(ReservationRepository reservationRepository,
-                              RoomRepository roomRepository,
-                              RoomLockRepository roomLockRepository,
-                              @org.springframework.context.annotation.Lazy com.hotel.reservation.repository.PaymentRepository paymentRepository,
-                              @org.springframework.context.annotation.Lazy com.hotel.reservation.service.PaymentService paymentService) {
+                              ApplicationEventPublisher eventPublisher,
+                              RoomInventoryService roomInventoryService,
+                              RoomCatalog roomCatalog,
+                              RoomBookingLocks roomBookingLocks,
+                              RoomOccupancyIndex occupancyIndex,
+                              @Value("${app.reservations.max-update-attempts:3}") int maxUpdateAttempts) {
         this.reservationRepository = reservationRepository;
-        this.roomRepository = roomRepository;
-        this.roomLockRepository = roomLockRepository;
-        this.paymentRepository = paymentRepository;
-        this.paymentService = paymentService;
+        this.eventPublisher = eventPublisher;
+        this.roomInventoryService = roomInventoryService;
+        this.roomCatalog = roomCatalog;
+        this.roomBookingLocks = roomBookingLocks;
+        this.occupancyIndex = occupancyIndex;
+        this.maxUpdateAttempts = maxUpdateAttempts;
     }
 
     /**
-     * Get all reservations.
+     * Get the listing rows of all reservations, newest first.
      *
-     * @return list of all reservations
+     * @return list of reservation summaries
      */
-    public List<Reservation> getAllReservations() {
-        return reservationRepository.findAll();
+    public List<ReservationSummary> getAllReservations() {
+        return reservationRepository.findAllSummaries();
     }
 
     /**
@@ -79,9 +106,24 @@ public class ReservationService {
         return reservationRepository.findByUserId(userId);
     }
 
+    /**
+     * Get the listing rows of a user's reservations.
+     *
+     * @param userId user ID
+     * @return list of the user's reservation summaries
+     */
+    public List<ReservationSummary> getUserReservationSummaries(String userId) {
+        return reservationRepository.findSummariesByUserId(userId);
+    }
+
     /**
      * Create a new reservation with overbooking prevention.
-     * Uses atomic MongoDB locking via unique index to prevent race conditions.
+     * The reservation ID is generated up front so that every night of the stay can be
+     * claimed for it in a single write before the reservation is stored: single-unit
+     * rooms insert one unique lock per night, rooms with several units are claimed in
+     * the inventory ledger up to their totalRooms.
+     * Bookings for the same room are serialized by {@link RoomBookingLocks}, so a
+     * request for nights that were just sold out is rejected without writing.
      *
      * @param user the user making the reservation
      * @param roomId room ID
@@ -101,42 +143,28 @@ public class ReservationService {
             int numberOfGuests,
             String specialRequests) {
 
-        Room room = roomRepository.findById(roomId)
+        Room room = roomCatalog.findById(roomId)
                 .orElseThrow(() -> new RuntimeException("Room not found"));
 
         if (numberOfGuests > room.getCapacity()) {
             throw new RuntimeException("Number of guests exceeds room capacity");
         }
 
-        // Check for overlapping reservations
-        List<?> overlappingReservations = reservationRepository
-                .findOverlappingReservations(roomId, checkInDate, checkOutDate);
-
-        if (!overlappingReservations.isEmpty()) {
-            throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
-        }
-
-        // Check for overlapping locks (from concurrent booking attempts)
-        List<RoomLock> overlappingLocks = roomLockRepository
-                .findOverlappingLocks(roomId, checkInDate, checkOutDate);
-
-        if (!overlappingLocks.isEmpty()) {
-            throw new RoomNotAvailableException("This room is currently being booked by another guest. Please wait a moment and try again, or choose a different room.");
-        }
-
         long numberOfNights = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
         BigDecimal totalAmount = room.getPricePerNight()
                 .multiply(BigDecimal.valueOf(numberOfNights));
 
         Reservation reservation = new Reservation();
-        reservation.setUser(user);
-        reservation.setRoom(room);
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setUser(UserSnapshot.of(user));
+        reservation.setRoom(RoomSnapshot.of(room));
         reservation.setCheckInDate(checkInDate);
         reservation.setCheckOutDate(checkOutDate);
         reservation.setNumberOfGuests(numberOfGuests);
         reservation.setTotalAmount(totalAmount);
         reservation.setSpecialRequests(specialRequests);
         reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        reservation.setInventoryMode(roomInventoryService.modeFor(room));
 
         // Set expiry time: 5 minutes from now for pending reservations
         reservation.setExpiresAt(LocalDateTime.now().plusMinutes(5));
@@ -144,26 +172,168 @@ public class ReservationService {
         // Generate secure payment link token for manager-assisted bookings
         reservation.setPaymentLinkToken(UUID.randomUUID().toString());
 
-        // Save the reservation first to get the ID
-        Reservation savedReservation = reservationRepository.save(reservation);
-
-        // Create atomic lock using MongoDB unique index
-        // This will fail with DuplicateKeyException if another request tries to book the same dates
-        try {
-            RoomLock lock = new RoomLock(roomId, checkInDate, checkOutDate, savedReservation.getId());
-            roomLockRepository.save(lock);
-        } catch (DuplicateKeyException e) {
-            // Another booking won the race - rollback our reservation
-            reservationRepository.delete(savedReservation);
-            throw new RoomNotAvailableException("This room was just booked by another guest. Please try a different room or different dates.");
+        return roomBookingLocks.withRoomLock(roomId, () -> {
+            rejectIfSoldOut(room, checkInDate, checkOutDate);
+
+            // Claim every night of the stay; throws if any night is already taken
+            roomInventoryService.claim(room, reservation, checkInDate, checkOutDate);
+
+            Reservation savedReservation;
+            try {
+                savedReservation = reservationRepository.insert(reservation);
+            } catch (RuntimeException e) {
+                roomInventoryService.release(room, reservation, checkInDate, checkOutDate);
+                throw e;
+            }
+
+            // Published while holding the lock so the next booking sees the updated occupancy
+            eventPublisher.publishEvent(new ReservationChangedEvent(savedReservation));
+
+            return savedReservation;
+        });
+    }
+
+    /**
+     * Book several rooms for one guest, all or nothing.
+     * Availability of every item is checked with a single overlap query, which
+     * also accounts for items of the group that share a room type. The nights of all
+     * items are then claimed and the reservations written in one bulk insert while
+     * holding the booking locks of every room involved. MongoDB has no transaction
+     * manager configured here, so a failure at any step releases whatever the
+     * group had claimed before it is reported.
+     *
+     * @param user the user making the reservations
+     * @param items one item per room to book
+     * @param specialRequests special requests for the whole group
+     * @return created reservations, in item order, sharing one group ID
+     * @throws RoomNotAvailableException if any room is not available for its dates
+     */
+    @Transactional
+    public List<Reservation> createGroupReservation(
+            User user,
+            List<GroupBookingRequest.Item> items,
+            String specialRequests) {
+
+        String groupId = new ObjectId().toHexString();
+        LocalDateTime now = LocalDateTime.now();
+        List<Reservation> reservations = new ArrayList<>();
+
+        for (GroupBookingRequest.Item item : items) {
+            Room room = roomCatalog.findById(item.getRoomId())
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+
+            if (item.getNumberOfGuests() > room.getCapacity()) {
+                throw new RuntimeException("Number of guests exceeds room capacity");
+            }
+
+            long numberOfNights = ChronoUnit.DAYS.between(item.getCheckInDate(), item.getCheckOutDate());
+
+            Reservation reservation = new Reservation();
+            reservation.setId(new ObjectId().toHexString());
+            reservation.setGroupId(groupId);
+            reservation.setUser(UserSnapshot.of(user));
+            reservation.setRoom(RoomSnapshot.of(room));
+            reservation.setCheckInDate(item.getCheckInDate());
+            reservation.setCheckOutDate(item.getCheckOutDate());
+            reservation.setNumberOfGuests(item.getNumberOfGuests());
+            reservation.setTotalAmount(room.getPricePerNight().multiply(BigDecimal.valueOf(numberOfNights)));
+            reservation.setSpecialRequests(specialRequests);
+            reservation.setStatus(Reservation.ReservationStatus.PENDING);
+            reservation.setInventoryMode(roomInventoryService.modeFor(room));
+            reservation.setExpiresAt(now.plusMinutes(5));
+            reservation.setPaymentLinkToken(UUID.randomUUID().toString());
+            reservations.add(reservation);
+        }
+
+        Set<String> roomIds = reservations.stream().map(r -> r.getRoom().getId()).collect(Collectors.toSet());
+
+        return roomBookingLocks.withRoomLocks(roomIds, () -> {
+            rejectIfGroupSoldOut(reservations, roomIds);
+
+            // Claim every night of every room; nothing stays claimed if one is taken
+            roomInventoryService.claimAll(reservations);
+
+            List<Reservation> savedReservations;
+            try {
+                savedReservations = reservationRepository.insert(reservations);
+            } catch (RuntimeException e) {
+                roomInventoryService.releaseAll(reservations);
+                reservationRepository.deleteAllById(reservations.stream().map(Reservation::getId).toList());
+                roomCatalog.recordReservationsDeleted(roomIds);
+                throw e;
+            }
+
+            savedReservations.forEach(saved -> eventPublisher.publishEvent(new ReservationChangedEvent(saved)));
+
+            return savedReservations;
+        });
+    }
+
+    /**
+     * Get all reservations of a group booking.
+     *
+     * @param groupId group ID
+     * @return reservations of the group
+     */
+    public List<Reservation> getGroupReservations(String groupId) {
+        return reservationRepository.findByGroupId(groupId);
+    }
+
+    /**
+     * Reject a group if, on any night, the active stays of one of its rooms plus
+     * the group's own items for that room exceed the room's units.
+     */
+    private void rejectIfGroupSoldOut(List<Reservation> reservations, Set<String> roomIds) {
+        LocalDate from = reservations.stream().map(Reservation::getCheckInDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate to = reservations.stream().map(Reservation::getCheckOutDate).max(LocalDate::compareTo).orElseThrow();
+
+        Map<String, Map<LocalDate, Integer>> occupancy = new HashMap<>();
+        for (ReservationStay stay : reservationRepository.findStaysOverlapping(
+                roomIds, RoomOccupancyIndex.ACTIVE_STATUSES, from, to)) {
+            addNights(occupancy, stay.getRoomId(), stay.getCheckInDate(), stay.getCheckOutDate());
+        }
+
+        for (Reservation reservation : reservations) {
+            Room room = roomCatalog.findById(reservation.getRoom().getId())
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+            addNights(occupancy, room.getId(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+            int units = Math.max(room.getTotalRooms(), 1);
+            boolean soldOut = occupancy.get(room.getId()).entrySet().stream()
+                    .anyMatch(night -> !night.getKey().isBefore(reservation.getCheckInDate())
+                            && night.getKey().isBefore(reservation.getCheckOutDate())
+                            && night.getValue() > units);
+            if (soldOut) {
+                throw new RoomNotAvailableException(room.getName() + " is not available for the selected dates.");
+            }
+        }
+    }
+
+    private void addNights(Map<String, Map<LocalDate, Integer>> occupancy, String roomId,
+                           LocalDate checkInDate, LocalDate checkOutDate) {
+        Map<LocalDate, Integer> nights = occupancy.computeIfAbsent(roomId, id -> new HashMap<>());
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            nights.merge(night, 1, Integer::sum);
         }
+    }
 
-        return savedReservation;
+    /**
+     * Reject a booking that the occupancy index already shows as sold out.
+     * The index may lag behind cancellations made on other instances by one sync
+     * interval; it never lags behind bookings made on this one.
+     */
+    private void rejectIfSoldOut(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        OptionalInt peak = occupancyIndex.peakOccupancy(room.getId(), checkInDate, checkOutDate);
+        if (peak.isPresent() && peak.getAsInt() >= Math.max(room.getTotalRooms(), 1)) {
+            throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
+        }
     }
 
     /**
      * Update an existing reservation.
-     * Uses atomic locking to prevent race conditions during updates.
+     * The claim is moved from the old nights to the new ones for the same
+     * reservation; the old nights stay claimed if the new ones are taken.
+     * Only the changed fields are written, and only if the reservation was not
+     * changed since it was read.
      *
      * @param id reservation ID
      * @param checkInDate new check-in date
@@ -171,6 +341,7 @@ public class ReservationService {
      * @param numberOfGuests new number of guests
      * @return updated reservation
      * @throws RuntimeException if reservation not found or room not available
+     * @throws OptimisticLockingFailureException if the reservation was changed concurrently
      */
     @Transactional
     public Reservation updateReservation(
@@ -185,62 +356,57 @@ public class ReservationService {
             throw new RuntimeException("Cannot modify cancelled reservation");
         }
 
-        Room room = reservation.getRoom();
+        Room room = roomCatalog.findById(reservation.getRoom().getId())
+                .orElseThrow(() -> new RuntimeException("Room not found"));
 
         if (numberOfGuests > room.getCapacity()) {
             throw new RuntimeException("Number of guests exceeds room capacity");
         }
 
-        // Check for overlapping reservations (excluding this one)
-        List<?> overlappingReservations = reservationRepository
-                .findOverlappingReservations(room.getId(), checkInDate, checkOutDate)
-                .stream()
-                .filter(r -> !((Reservation) r).getId().equals(id))
-                .collect(Collectors.toList());
-
-        if (!overlappingReservations.isEmpty()) {
-            throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates.");
-        }
-
-        // Check for overlapping locks (excluding this reservation's lock)
-        List<RoomLock> overlappingLocks = roomLockRepository
-                .findOverlappingLocks(room.getId(), checkInDate, checkOutDate)
-                .stream()
-                .filter(lock -> !lock.getReservationId().equals(id))
-                .collect(Collectors.toList());
-
-        if (!overlappingLocks.isEmpty()) {
-            throw new RoomNotAvailableException("This room is currently being booked by another guest. Please try again in a moment.");
-        }
-
-        // Delete old lock
-        roomLockRepository.deleteByReservationId(id);
-
-        long numberOfNights = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
-        BigDecimal totalAmount = room.getPricePerNight()
-                .multiply(BigDecimal.valueOf(numberOfNights));
-
-        reservation.setCheckInDate(checkInDate);
-        reservation.setCheckOutDate(checkOutDate);
-        reservation.setNumberOfGuests(numberOfGuests);
-        reservation.setTotalAmount(totalAmount);
+        return roomBookingLocks.withRoomLock(room.getId(), () -> {
+            boolean active = RoomOccupancyIndex.ACTIVE_STATUSES.contains(reservation.getStatus());
+            LocalDate previousCheckInDate = reservation.getCheckInDate();
+            LocalDate previousCheckOutDate = reservation.getCheckOutDate();
+
+            // Move the claim from the old nights to the new ones; the old ones are kept if the new ones are taken
+            if (active) {
+                roomInventoryService.move(room, reservation,
+                        previousCheckInDate, previousCheckOutDate, checkInDate, checkOutDate);
+            }
+
+            long numberOfNights = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
+            BigDecimal totalAmount = room.getPricePerNight()
+                    .multiply(BigDecimal.valueOf(numberOfNights));
+
+            boolean updated = reservationRepository.updateIfUnchanged(reservation, changed -> {
+                changed.setCheckInDate(checkInDate);
+                changed.setCheckOutDate(checkOutDate);
+                changed.setNumberOfGuests(numberOfGuests);
+                changed.setTotalAmount(totalAmount);
+                // Re-priced at today's rate, so the snapshot records that rate
+                changed.setRoom(RoomSnapshot.of(room));
+            });
 
-        // Save the updated reservation
-        Reservation updatedReservation = reservationRepository.save(reservation);
+            if (!updated) {
+                // Changed on another instance since it was read; the move is undone rather than retried
+                if (active) {
+                    roomInventoryService.undoMove(room, getReservationById(id),
+                            previousCheckInDate, previousCheckOutDate, checkInDate, checkOutDate);
+                }
+                throw new OptimisticLockingFailureException(
+                        "Reservation " + id + " was modified by another request. Please try again.");
+            }
 
-        // Create new lock with updated dates
-        try {
-            RoomLock lock = new RoomLock(room.getId(), checkInDate, checkOutDate, id);
-            roomLockRepository.save(lock);
-        } catch (DuplicateKeyException e) {
-            throw new RoomNotAvailableException("This room became unavailable for the new dates. Please choose different dates.");
-        }
+            eventPublisher.publishEvent(
+                    new ReservationChangedEvent(reservation, previousCheckInDate, previousCheckOutDate));
 
-        return updatedReservation;
+            return reservation;
+        });
     }
 
     /**
-     * Cancel a reservation.
+     * Cancel a reservation. Its payment is refunded from the {@link ReservationCancelledEvent}
+     * published once the room's booking lock is released.
      *
      * @param id reservation ID
      * @param reason cancellation reason
@@ -249,42 +415,23 @@ public class ReservationService {
      */
     @Transactional
     public Reservation cancelReservation(String id, String reason) {
-        Reservation reservation = getReservationById(id);
+        Reservation cancelledReservation = changeReservation(id, reservation -> {
+            if (reservation.getStatus() == Reservation.ReservationStatus.CANCELLED) {
+                throw new RuntimeException("Reservation is already cancelled");
+            }
 
-        if (reservation.getStatus() == Reservation.ReservationStatus.CANCELLED) {
-            throw new RuntimeException("Reservation is already cancelled");
-        }
+            if (reservation.getStatus() == Reservation.ReservationStatus.CHECKED_OUT) {
+                throw new RuntimeException("Cannot cancel completed reservation");
+            }
 
-        if (reservation.getStatus() == Reservation.ReservationStatus.CHECKED_OUT) {
-            throw new RuntimeException("Cannot cancel completed reservation");
-        }
+            reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+            reservation.setCancellationReason(reason);
+            reservation.setCancelledAt(java.time.LocalDateTime.now());
+        });
 
-        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-        reservation.setCancellationReason(reason);
-        reservation.setCancelledAt(java.time.LocalDateTime.now());
-
-        // Release the room lock
-        roomLockRepository.deleteByReservationId(id);
-
-        // Refund payment on Stripe if exists and succeeded
-        // Skip refund logic for pending/unpaid reservations
-        try {
-            paymentRepository.findByReservationId(id).ifPresent(payment -> {
-                if (payment.getStatus() == com.hotel.reservation.model.Payment.PaymentStatus.SUCCEEDED) {
-                    try {
-                        paymentService.processRefund(payment.getId(), payment.getAmount(), reason);
-                    } catch (com.stripe.exception.StripeException e) {
-                        // Log error, but do not block cancellation
-                        System.err.println("Stripe refund failed: " + e.getMessage());
-                    }
-                }
-            });
-        } catch (Exception e) {
-            // Log error but don't fail the cancellation
-            System.err.println("Error processing refund: " + e.getMessage());
-        }
+        eventPublisher.publishEvent(new ReservationCancelledEvent(cancelledReservation));
 
-        return reservationRepository.save(reservation);
+        return cancelledReservation;
     }
 
     /**
@@ -295,20 +442,159 @@ public class ReservationService {
      */
     @Transactional
     public Reservation confirmReservation(String id) {
-        Reservation reservation = getReservationById(id);
-        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
-        return reservationRepository.save(reservation);
+        return changeReservation(id, reservation -> reservation.setStatus(Reservation.ReservationStatus.CONFIRMED));
+    }
+
+    /**
+     * Cancel every pending reservation whose payment window closed before the given time.
+     * The expired holds are read on status_expires_idx and cancelled with one conditional
+     * multi-document update, and their night locks are deleted with one deleteMany, so the
+     * cost grows with the number of expired holds only. Holds paid or changed since they
+     * were read are left alone. Runs under the booking locks of the rooms involved, so on
+     * this instance it never races a booking or date change of the same room.
+     * The fence is checked under those locks right before anything is written; when it
+     * fails, for instance because the job lease was lost, nothing is cancelled.
+     *
+     * @param now the sweep time
+     * @param reason cancellation reason
+     * @param fence whether the caller may still write
+     * @return the reservations that were cancelled
+     */
+    public List<Reservation> cancelExpiredHolds(LocalDateTime now, String reason, BooleanSupplier fence) {
+        // Stored with millisecond precision; truncated so the re-read below can match it
+        LocalDateTime sweepTime = now.truncatedTo(ChronoUnit.MILLIS);
+        List<Reservation> expired = reservationRepository.findByStatusAndExpiresAtBefore(
+                Reservation.ReservationStatus.PENDING, sweepTime);
+
+        return cancelHolds(expired, sweepTime, reason, fence);
+    }
+
+    /**
+     * Cancel the given pending reservations if their payment window closed before the
+     * given time. Used by {@link HoldExpiryWheel} to release holds as they fall due;
+     * reservations that were paid, changed or cancelled already are left alone.
+     *
+     * @param ids reservation IDs
+     * @param now the expiry time
+     * @param reason cancellation reason
+     * @return the reservations that were cancelled
+     */
+    public List<Reservation> expireHolds(Collection<String> ids, LocalDateTime now, String reason) {
+        LocalDateTime sweepTime = now.truncatedTo(ChronoUnit.MILLIS);
+        List<Reservation> expired = new ArrayList<>();
+        reservationRepository.findAllById(ids).forEach(reservation -> {
+            if (reservation.getStatus() == Reservation.ReservationStatus.PENDING
+                    && reservation.getExpiresAt() != null && reservation.getExpiresAt().isBefore(sweepTime)) {
+                expired.add(reservation);
+            }
+        });
+
+        return cancelHolds(expired, sweepTime, reason, () -> true);
+    }
+
+    private List<Reservation> cancelHolds(List<Reservation> expired, LocalDateTime sweepTime, String reason,
+                                          BooleanSupplier fence) {
+        if (expired.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> roomIds = expired.stream()
+                .filter(reservation -> reservation.getRoom() != null)
+                .map(reservation -> reservation.getRoom().getId())
+                .collect(Collectors.toSet());
+
+        return roomBookingLocks.withRoomLocks(roomIds, () -> {
+            if (!fence.getAsBoolean()) {
+                log.warn("Skipped cancelling {} expired hold(s): no longer allowed to write", expired.size());
+                return List.<Reservation>of();
+            }
+
+            List<String> ids = expired.stream().map(Reservation::getId).toList();
+            long cancelledCount = reservationRepository.cancelExpiredHolds(ids, sweepTime, reason);
+
+            List<Reservation> cancelled;
+            if (cancelledCount == expired.size()) {
+                expired.forEach(reservation -> {
+                    reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+                    reservation.setCancellationReason(reason);
+                    reservation.setCancelledAt(sweepTime);
+                    reservation.setUpdatedAt(sweepTime);
+                    reservation.setVersion(reservation.getVersion() == null ? 1L : reservation.getVersion() + 1);
+                });
+                cancelled = expired;
+            } else {
+                // Some holds were paid or changed in the meantime; keep the ones this sweep cancelled
+                cancelled = reservationRepository.findAllById(ids).stream()
+                        .filter(reservation -> reservation.getStatus() == Reservation.ReservationStatus.CANCELLED
+                                && sweepTime.equals(reservation.getCancelledAt()))
+                        .toList();
+            }
+
+            roomInventoryService.releaseAll(cancelled);
+            cancelled.forEach(reservation -> eventPublisher.publishEvent(new ReservationChangedEvent(reservation)));
+
+            return cancelled;
+        });
+    }
+
+    /**
+     * Change a reservation with a conditional update that writes only the changed fields.
+     * The change is applied to a freshly read reservation and written only if nobody
+     * else has written it since; on a conflict it is read and applied again, up to
+     * app.reservations.max-update-attempts times. The change may therefore run more
+     * than once, and may reject the current state by throwing.
+     * Runs under the room's booking lock, so on this instance it never races a booking
+     * or date change of the same room. The room's nights are claimed or released
+     * when the status changes.
+     *
+     * @param id reservation ID
+     * @param change validates and applies the change
+     * @return the changed reservation
+     * @throws OptimisticLockingFailureException if every attempt conflicted with another write
+     */
+    public Reservation changeReservation(String id, Consumer<Reservation> change) {
+        Reservation firstRead = getReservationById(id);
+        if (firstRead.getRoom() == null) {
+            return applyChange(firstRead, change);
+        }
+        // Serialized with bookings and date changes of the same room on this instance
+        return roomBookingLocks.withRoomLock(firstRead.getRoom().getId(), () -> applyChange(firstRead, change));
+    }
+
+    private Reservation applyChange(Reservation firstRead, Consumer<Reservation> change) {
+        String id = firstRead.getId();
+        Reservation reservation = firstRead;
+        for (int attempt = 1; attempt <= maxUpdateAttempts; attempt++) {
+            if (attempt > 1) {
+                reservation = getReservationById(id);
+            }
+            Reservation.ReservationStatus previousStatus = reservation.getStatus();
+            Long previousVersion = reservation.getVersion();
+
+            if (reservationRepository.updateIfUnchanged(reservation, change)) {
+                if (!Objects.equals(previousVersion, reservation.getVersion())) {
+                    roomInventoryService.applyStatusChange(reservation, previousStatus);
+                    eventPublisher.publishEvent(new ReservationChangedEvent(reservation));
+                }
+                return reservation;
+            }
+
+            log.debug("Reservation {} was modified concurrently (attempt {} of {})", id, attempt, maxUpdateAttempts);
+        }
+
+        throw new OptimisticLockingFailureException(
+                "Reservation " + id + " is being modified by another request. Please try again.");
     }
 
     /**
-     * Get reservations by date range.
+     * Get the listing rows of reservations in a date range.
      *
      * @param startDate start date
      * @param endDate end date
-     * @return list of reservations in date range
+     * @return list of reservation summaries in date range
      */
-    public List<Reservation> getReservationsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return reservationRepository.findByDateRange(startDate, endDate);
+    public List<ReservationSummary> getReservationsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return reservationRepository.findSummariesByDateRange(startDate, endDate);
     }
 
     /**
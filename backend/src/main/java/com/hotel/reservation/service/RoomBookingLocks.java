@@ -0,0 +1,149 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks that serialize bookings for the same room.
+ * Concurrent requests for a popular room queue up here instead of racing each other
+ * to MongoDB, so each one sees the outcome of the previous booking before writing.
+ * MongoDB's unique indexes and guarded updates remain the source of truth across instances.
+ *
+ * Each stripe publishes a wait-time histogram ({@code booking.lock.wait}), counters of
+ * contended acquisitions and timeouts, and the number of queued threads.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class RoomBookingLocks {
+
+    /**
+     * A lock and its meters
+     */
+    private record Stripe(ReentrantLock lock, Timer waitTimer, Counter contended, Counter timeouts) {
+    }
+
+    private final Stripe[] stripes;
+    private final Duration timeout;
+
+    public RoomBookingLocks(MeterRegistry meterRegistry,
+                            @Value("${app.booking-locks.stripes:32}") int stripeCount,
+                            @Value("${app.booking-locks.timeout-ms:3000}") long timeoutMs) {
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            String stripe = Integer.toString(i);
+            ReentrantLock lock = new ReentrantLock(true);
+            Gauge.builder("booking.lock.queued", lock, ReentrantLock::getQueueLength)
+                    .description("Threads waiting for the booking lock")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            stripes[i] = new Stripe(lock,
+                    Timer.builder("booking.lock.wait")
+                            .description("Time spent waiting for the booking lock")
+                            .tag("stripe", stripe)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry),
+                    Counter.builder("booking.lock.contended")
+                            .description("Booking lock acquisitions that had to wait")
+                            .tag("stripe", stripe)
+                            .register(meterRegistry),
+                    Counter.builder("booking.lock.timeouts")
+                            .description("Booking lock acquisitions that gave up waiting")
+                            .tag("stripe", stripe)
+                            .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Run a booking action while holding the lock for a room.
+     *
+     * @param roomId room ID
+     * @param action the booking action
+     * @param <T> result type
+     * @return the action's result
+     * @throws RoomNotAvailableException if the lock could not be acquired in time
+     */
+    public <T> T withRoomLock(String roomId, Supplier<T> action) {
+        return withRoomLocks(List.of(roomId), action);
+    }
+
+    /**
+     * Run a booking action while holding the locks for several rooms.
+     * Stripes are always taken in index order, so overlapping groups cannot deadlock.
+     *
+     * @param roomIds room IDs
+     * @param action the booking action
+     * @param <T> result type
+     * @return the action's result
+     * @throws RoomNotAvailableException if a lock could not be acquired in time
+     */
+    public <T> T withRoomLocks(Collection<String> roomIds, Supplier<T> action) {
+        TreeMap<Integer, String> stripeIndexes = new TreeMap<>();
+        roomIds.forEach(roomId -> stripeIndexes.putIfAbsent(stripeIndexOf(roomId), roomId));
+
+        Deque<Stripe> held = new ArrayDeque<>();
+        try {
+            for (Map.Entry<Integer, String> entry : stripeIndexes.entrySet()) {
+                Stripe stripe = stripes[entry.getKey()];
+                acquire(stripe, entry.getValue());
+                held.push(stripe);
+            }
+            return action.get();
+        } finally {
+            while (!held.isEmpty()) {
+                held.pop().lock().unlock();
+            }
+        }
+    }
+
+    private void acquire(Stripe stripe, String roomId) {
+        if (stripe.lock().tryLock()) {
+            stripe.waitTimer().record(Duration.ZERO);
+            return;
+        }
+
+        stripe.contended().increment();
+        long startedAt = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = stripe.lock().tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        stripe.waitTimer().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            stripe.timeouts().increment();
+            log.warn("Gave up waiting {} ms for the booking lock of room {}", timeout.toMillis(), roomId);
+            throw new RoomNotAvailableException("This room is currently being booked by other guests. Please wait a moment and try again.");
+        }
+    }
+
+    private int stripeIndexOf(String roomId) {
+        int hash = roomId.hashCode();
+        // Spread the hash so that similar IDs do not pile onto the same stripe
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+}
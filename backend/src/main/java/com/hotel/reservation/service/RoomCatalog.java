@@ -0,0 +1,227 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ResourceVersion;
+import com.hotel.reservation.model.CatalogChange;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.repository.CatalogChangeRepository;
+import com.hotel.reservation.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the room catalog.
+ * Rooms only change through the manager endpoints, so the whole catalog is
+ * loaded once and served from memory until a write bumps the catalog version.
+ * The TTL picks up writes made on other application instances.
+ * Every write also records a catalog change time in the database, which the
+ * catalog's Last-Modified includes so that deleting a room moves it too.
+ *
+ * Cached rooms are shared; callers that modify a room must load it from
+ * {@link RoomRepository} instead.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class RoomCatalog {
+
+    /**
+     * Immutable view of the catalog as loaded for one version
+     */
+    private record Snapshot(long version, Map<String, Room> roomsById, List<Room> rooms,
+                            ResourceVersion resourceVersion, Instant loadedAt) {
+    }
+
+    /**
+     * Name of the room catalog's change record
+     */
+    static final String CATALOG = "rooms";
+
+    private final RoomRepository roomRepository;
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final Duration ttl;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public RoomCatalog(RoomRepository roomRepository,
+                       CatalogChangeRepository catalogChangeRepository,
+                       @Value("${app.room-catalog.ttl-seconds:60}") long ttlSeconds) {
+        this.roomRepository = roomRepository;
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Get all rooms.
+     *
+     * @return unmodifiable list of all rooms
+     */
+    public List<Room> findAll() {
+        return current().rooms();
+    }
+
+    /**
+     * Get a room by ID.
+     *
+     * @param id room ID
+     * @return the room, or empty if it does not exist
+     */
+    public Optional<Room> findById(String id) {
+        return Optional.ofNullable(current().roomsById().get(id));
+    }
+
+    /**
+     * Validators for the catalog as a whole, derived from the IDs and
+     * modification times of all rooms and the catalog change time. Identical
+     * on every instance that has loaded the same catalog.
+     *
+     * @return catalog validators
+     */
+    public ResourceVersion getResourceVersion() {
+        return current().resourceVersion();
+    }
+
+    /**
+     * Validators for a single room, derived from its ID and modification time.
+     *
+     * @param id room ID
+     * @return room validators, or empty if the room does not exist
+     */
+    public Optional<ResourceVersion> findResourceVersion(String id) {
+        return findById(id).map(room -> new ResourceVersion(
+                digest(room.getId() + '@' + lastModifiedOf(room)), lastModifiedOf(room)));
+    }
+
+    /**
+     * Validators for one representation of a versioned resource, such as a
+     * filtered list. The entity tag is a digest of the resource's tag and the
+     * inputs that select the representation.
+     *
+     * @param version validators of the resource
+     * @param inputs parameters that change the representation
+     * @return validators of the representation
+     */
+    public ResourceVersion variantOf(ResourceVersion version, Object... inputs) {
+        return new ResourceVersion(digest(version.getEtag() + '|' + Arrays.toString(inputs)), version.getLastModified());
+    }
+
+    /**
+     * Current catalog version; changes whenever the catalog is invalidated.
+     *
+     * @return catalog version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Invalidate the catalog after a room was created, updated or deleted.
+     */
+    public void invalidate() {
+        catalogChangeRepository.recordChange(CATALOG, LocalDateTime.now());
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()
+                && current.loadedAt().plus(ttl).isAfter(Instant.now())) {
+            return current;
+        }
+        return reload();
+    }
+
+    private ResourceVersion resourceVersionOf(Collection<Room> rooms, LocalDateTime changedAt) {
+        StringBuilder content = new StringBuilder();
+        Instant lastModified = changedAt != null ? changedAt.atZone(ZoneId.systemDefault()).toInstant() : null;
+        content.append(lastModified).append(';');
+        for (Room room : rooms) {
+            Instant updatedAt = lastModifiedOf(room);
+            content.append(room.getId()).append('@').append(updatedAt).append(';');
+            if (updatedAt != null && (lastModified == null || updatedAt.isAfter(lastModified))) {
+                lastModified = updatedAt;
+            }
+        }
+        return new ResourceVersion(digest(content.toString()), lastModified);
+    }
+
+    private Instant lastModifiedOf(Room room) {
+        return room.getUpdatedAt() != null ? room.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    private String digest(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Record that reservations of rooms were deleted. No remaining reservation
+     * reflects a deletion, so the booked-dates validators of those rooms include
+     * this time.
+     *
+     * @param roomIds IDs of the rooms whose reservations were deleted
+     */
+    public void recordReservationsDeleted(Collection<String> roomIds) {
+        LocalDateTime now = LocalDateTime.now();
+        roomIds.forEach(roomId -> catalogChangeRepository.recordChange(reservationsOf(roomId), now));
+    }
+
+    /**
+     * When reservations of a room were last deleted.
+     *
+     * @param roomId room ID
+     * @return time of the latest deletion, or empty if none was recorded
+     */
+    public Optional<LocalDateTime> findReservationsDeletedAt(String roomId) {
+        return catalogChangeRepository.findById(reservationsOf(roomId)).map(CatalogChange::getChangedAt);
+    }
+
+    private String reservationsOf(String roomId) {
+        return CATALOG + "/" + roomId + "/reservations";
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        long loadingVersion = version.get();
+        if (current != null && current.version() == loadingVersion
+                && current.loadedAt().plus(ttl).isAfter(Instant.now())) {
+            return current;
+        }
+
+        LocalDateTime changedAt = catalogChangeRepository.findById(CATALOG).map(CatalogChange::getChangedAt).orElse(null);
+        Map<String, Room> roomsById = new LinkedHashMap<>();
+        roomRepository.findAll().forEach(room -> roomsById.put(room.getId(), room));
+        Snapshot loaded = new Snapshot(loadingVersion, roomsById, List.copyOf(roomsById.values()),
+                resourceVersionOf(roomsById.values(), changedAt), Instant.now());
+
+        // A write during the load bumps the version; serve the result but don't keep it
+        if (version.get() == loadingVersion) {
+            snapshot = loaded;
+        }
+        log.debug("Room catalog loaded with {} room(s) at version {}", roomsById.size(), loadingVersion);
+        return loaded;
+    }
+}
@@ -0,0 +1,503 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomInventory;
+import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.repository.ReservationRepository;
+import com.hotel.reservation.repository.RoomInventoryRepository;
+import com.hotel.reservation.repository.RoomLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for claiming the nights of a stay.
+ * Single-unit rooms are claimed with one {@link RoomLock} per night, inserted in a
+ * single ordered write that fails as soon as any night is already locked.
+ * Rooms with several units use the per-night inventory ledger, where every booking
+ * claims one unit on each night with an atomic guarded increment and is recorded
+ * as its holder, so that a repeated release cannot return another booking's unit.
+ * The mode is recorded on the reservation when it is created, and its nights
+ * are always claimed and released in that mode, even if the room's number of
+ * units is changed later. Either claim is released when the reservation stops
+ * holding the room.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomInventoryService {
+
+    private final RoomInventoryRepository roomInventoryRepository;
+    private final RoomLockRepository roomLockRepository;
+    private final ReservationRepository reservationRepository;
+    private final RoomCatalog roomCatalog;
+
+    /**
+     * Inventory mode for new reservations of a room.
+     *
+     * @param room the room
+     * @return NIGHT_LOCKS for single-unit rooms, LEDGER otherwise
+     */
+    public Reservation.InventoryMode modeFor(Room room) {
+        return isSingleUnit(room) ? Reservation.InventoryMode.NIGHT_LOCKS : Reservation.InventoryMode.LEDGER;
+    }
+
+    /**
+     * Claim one unit of a room for every night of a stay, in the reservation's
+     * inventory mode. Nothing stays claimed if any night is unavailable.
+     *
+     * @param room the room
+     * @param reservation the reservation holding the nights
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date (exclusive)
+     * @throws RoomNotAvailableException if any night is sold out
+     */
+    public void claim(Room room, Reservation reservation, LocalDate checkInDate, LocalDate checkOutDate) {
+        if (modeOf(room, reservation) == Reservation.InventoryMode.NIGHT_LOCKS) {
+            try {
+                roomLockRepository.insert(nightLocks(room.getId(), reservation.getId(), checkInDate, checkOutDate));
+            } catch (DuplicateKeyException e) {
+                // The ordered insert stops at the first taken night; drop the ones written before it
+                roomLockRepository.deleteByReservationId(reservation.getId());
+                throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
+            }
+            return;
+        }
+
+        int totalRooms = totalRoomsOf(room);
+
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            if (!roomInventoryRepository.incrementSold(room.getId(), night, totalRooms, reservation.getId())) {
+                roomInventoryRepository.decrementSold(room.getId(), checkInDate, night, reservation.getId());
+                throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
+            }
+        }
+    }
+
+    /**
+     * Claim the nights of several reservations, all or nothing.
+     * Night locks of all reservations in that mode are written in one ordered insert;
+     * the ledger is then claimed reservation by reservation. Whatever was claimed is
+     * released again if any reservation cannot be claimed.
+     *
+     * @param reservations reservations with their IDs, rooms, dates and inventory modes set
+     * @throws RoomNotAvailableException if any night of any reservation is sold out
+     */
+    public void claimAll(List<Reservation> reservations) {
+        List<Reservation> exclusive = reservations.stream()
+                .filter(r -> modeOf(roomOf(r), r) == Reservation.InventoryMode.NIGHT_LOCKS).toList();
+        List<Reservation> pooled = reservations.stream()
+                .filter(r -> modeOf(roomOf(r), r) == Reservation.InventoryMode.LEDGER).toList();
+
+        List<RoomLock> locks = new ArrayList<>();
+        exclusive.forEach(r -> locks.addAll(nightLocks(r.getRoom().getId(), r.getId(), r.getCheckInDate(), r.getCheckOutDate())));
+        if (!locks.isEmpty()) {
+            try {
+                roomLockRepository.insert(locks);
+            } catch (DuplicateKeyException e) {
+                roomLockRepository.deleteByReservationIdIn(exclusive.stream().map(Reservation::getId).toList());
+                throw new RoomNotAvailableException("One or more rooms of the group are not available for the selected dates.");
+            }
+        }
+
+        List<Reservation> claimed = new ArrayList<>(exclusive);
+        for (Reservation reservation : pooled) {
+            try {
+                claim(roomOf(reservation), reservation, reservation.getCheckInDate(), reservation.getCheckOutDate());
+            } catch (RoomNotAvailableException e) {
+                releaseAll(claimed);
+                throw new RoomNotAvailableException(reservation.getRoom().getName() + " is not available for the selected dates.");
+            }
+            claimed.add(reservation);
+        }
+    }
+
+    /**
+     * Release the nights of several reservations, such as those claimed with {@link #claimAll(List)}.
+     * Night locks are deleted in one deleteMany; ledger units are released
+     * reservation by reservation.
+     *
+     * @param reservations the reservations
+     */
+    public void releaseAll(List<Reservation> reservations) {
+        List<String> exclusive = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (reservation.getRoom() == null || reservation.getCheckInDate() == null || reservation.getCheckOutDate() == null) {
+                continue;
+            }
+            Optional<Reservation.InventoryMode> mode = modeOf(reservation);
+            if (mode.isEmpty()) {
+                continue;
+            }
+            if (mode.get() == Reservation.InventoryMode.NIGHT_LOCKS) {
+                exclusive.add(reservation.getId());
+            } else {
+                roomInventoryRepository.decrementSold(reservation.getRoom().getId(),
+                        reservation.getCheckInDate(), reservation.getCheckOutDate(), reservation.getId());
+            }
+        }
+        if (!exclusive.isEmpty()) {
+            roomLockRepository.deleteByReservationIdIn(exclusive);
+        }
+    }
+
+    /**
+     * Release one unit of a room for every night of a stay, in the reservation's inventory mode.
+     *
+     * @param room the room
+     * @param reservation the reservation holding the nights
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date (exclusive)
+     */
+    public void release(Room room, Reservation reservation, LocalDate checkInDate, LocalDate checkOutDate) {
+        if (modeOf(room, reservation) == Reservation.InventoryMode.NIGHT_LOCKS) {
+            roomLockRepository.deleteByReservationId(reservation.getId());
+        } else {
+            roomInventoryRepository.decrementSold(room.getId(), checkInDate, checkOutDate, reservation.getId());
+        }
+    }
+
+    /**
+     * Move a reservation's claim to new dates. Only the nights the new stay adds are
+     * claimed, and only once they are all claimed are the nights it drops released,
+     * so if the new dates are taken the reservation still holds its original nights
+     * and nothing has to be claimed back.
+     *
+     * @param room the room
+     * @param reservation the reservation holding the nights
+     * @param fromCheckIn current check-in date
+     * @param fromCheckOut current check-out date
+     * @param toCheckIn new check-in date
+     * @param toCheckOut new check-out date
+     * @throws RoomNotAvailableException if any added night is sold out
+     */
+    public void move(Room room, Reservation reservation, LocalDate fromCheckIn, LocalDate fromCheckOut,
+                     LocalDate toCheckIn, LocalDate toCheckOut) {
+        List<LocalDate> kept = nightsOf(fromCheckIn, fromCheckOut);
+        kept.retainAll(nightsOf(toCheckIn, toCheckOut));
+        List<LocalDate> added = nightsOf(toCheckIn, toCheckOut);
+        added.removeAll(kept);
+        List<LocalDate> dropped = nightsOf(fromCheckIn, fromCheckOut);
+        dropped.removeAll(kept);
+
+        if (modeOf(room, reservation) == Reservation.InventoryMode.NIGHT_LOCKS) {
+            if (!added.isEmpty()) {
+                try {
+                    roomLockRepository.insert(added.stream()
+                            .map(night -> new RoomLock(room.getId(), night, reservation.getId()))
+                            .toList());
+                } catch (DuplicateKeyException e) {
+                    roomLockRepository.deleteByReservationIdAndNightIn(reservation.getId(), added);
+                    throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
+                }
+            }
+            if (!dropped.isEmpty()) {
+                roomLockRepository.deleteByReservationIdAndNightIn(reservation.getId(), dropped);
+            }
+            return;
+        }
+
+        int totalRooms = totalRoomsOf(room);
+        List<LocalDate> claimed = new ArrayList<>();
+        for (LocalDate night : added) {
+            if (!roomInventoryRepository.incrementSold(room.getId(), night, totalRooms, reservation.getId())) {
+                claimed.forEach(own -> roomInventoryRepository.decrementSold(
+                        room.getId(), own, own.plusDays(1), reservation.getId()));
+                throw new RoomNotAvailableException("This room is not available for the selected dates. Please choose different dates or another room.");
+            }
+            claimed.add(night);
+        }
+        dropped.forEach(night -> roomInventoryRepository.decrementSold(
+                room.getId(), night, night.plusDays(1), reservation.getId()));
+    }
+
+    /**
+     * Undo moving a reservation's claim to new dates after the move could not be saved.
+     * The new nights are released. Night locks are then made to match the reservation
+     * as it is now stored, while ledger units of the original nights are claimed
+     * again, since any concurrent status change has already released them on its own.
+     *
+     * @param room the room
+     * @param current the reservation as it is now stored
+     * @param movedFromCheckIn original check-in date
+     * @param movedFromCheckOut original check-out date
+     * @param movedToCheckIn new check-in date
+     * @param movedToCheckOut new check-out date
+     */
+    public void undoMove(Room room, Reservation current, LocalDate movedFromCheckIn, LocalDate movedFromCheckOut,
+                         LocalDate movedToCheckIn, LocalDate movedToCheckOut) {
+        if (modeOf(room, current) == Reservation.InventoryMode.NIGHT_LOCKS) {
+            roomLockRepository.deleteByReservationId(current.getId());
+            if (RoomOccupancyIndex.ACTIVE_STATUSES.contains(current.getStatus())) {
+                forceLock(room.getId(), current.getId(), current.getCheckInDate(), current.getCheckOutDate());
+            }
+            return;
+        }
+
+        roomInventoryRepository.decrementSold(room.getId(), movedToCheckIn, movedToCheckOut, current.getId());
+        int totalRooms = totalRoomsOf(room);
+        for (LocalDate night = movedFromCheckIn; night.isBefore(movedFromCheckOut); night = night.plusDays(1)) {
+            if (!roomInventoryRepository.incrementSold(room.getId(), night, totalRooms, current.getId())) {
+                roomInventoryRepository.forceIncrementSold(room.getId(), night, current.getId());
+                log.warn("Room {} oversold on {} by restoring reservation {}", room.getId(), night, current.getId());
+            }
+        }
+    }
+
+    /**
+     * Find which of the given rooms are sold out on at least one night of a stay.
+     *
+     * @param rooms candidate rooms
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date (exclusive)
+     * @return IDs of the sold out rooms
+     */
+    public Set<String> findSoldOutRoomIds(Collection<Room> rooms, LocalDate checkInDate, LocalDate checkOutDate) {
+        if (rooms.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<String, Room> roomsById = rooms.stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity(), (first, second) -> first));
+
+        return roomInventoryRepository.findNights(roomsById.keySet(), checkInDate, checkOutDate).stream()
+                .filter(entry -> entry.getSold() >= totalRoomsOf(roomsById.get(entry.getRoomId())))
+                .map(RoomInventory::getRoomId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Bring the ledger in line with a reservation whose status was changed.
+     * Leaving an active status releases the nights; returning to one claims them
+     * again. Such transitions are made by staff or by a captured payment, so the
+     * claim is recorded even if it oversells the room.
+     *
+     * @param reservation the reservation in its new status
+     * @param previousStatus status before the change
+     */
+    public void applyStatusChange(Reservation reservation, Reservation.ReservationStatus previousStatus) {
+        if (reservation.getRoom() == null || reservation.getCheckInDate() == null || reservation.getCheckOutDate() == null) {
+            return;
+        }
+
+        boolean wasActive = RoomOccupancyIndex.ACTIVE_STATUSES.contains(previousStatus);
+        boolean isActive = RoomOccupancyIndex.ACTIVE_STATUSES.contains(reservation.getStatus());
+
+        if (wasActive && !isActive) {
+            // Released in the recorded mode, which does not need the room if it was deleted since
+            releaseAll(List.of(reservation));
+            return;
+        }
+
+        Room room = roomCatalog.findById(reservation.getRoom().getId()).orElse(null);
+        if (room == null) {
+            return;
+        }
+        String roomId = room.getId();
+
+        if (!wasActive && isActive && modeOf(room, reservation) == Reservation.InventoryMode.NIGHT_LOCKS) {
+            forceLock(roomId, reservation.getId(), reservation.getCheckInDate(), reservation.getCheckOutDate());
+        } else if (!wasActive && isActive) {
+            int totalRooms = totalRoomsOf(room);
+            for (LocalDate night = reservation.getCheckInDate(); night.isBefore(reservation.getCheckOutDate()); night = night.plusDays(1)) {
+                if (!roomInventoryRepository.incrementSold(roomId, night, totalRooms, reservation.getId())) {
+                    roomInventoryRepository.forceIncrementSold(roomId, night, reservation.getId());
+                    log.warn("Room {} oversold on {} by reactivating reservation {}", roomId, night, reservation.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the ledger from active reservations the first time the application
+     * starts with an empty room_inventory collection. On later starts, nights
+     * written before their holders were recorded get the active reservations
+     * that hold them, so that releasing those reservations returns their units.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        boolean empty = roomInventoryRepository.count() == 0;
+        List<ReservationStay> stays = reservationRepository.findStaysByStatusIn(RoomOccupancyIndex.ACTIVE_STATUSES);
+        Map<String, Map<LocalDate, List<String>>> holdersByRoom = new HashMap<>();
+        for (ReservationStay stay : stays) {
+            if (!hasDates(stay) || modeOf(stay) != Reservation.InventoryMode.LEDGER) {
+                continue;
+            }
+            Map<LocalDate, List<String>> holders = holdersByRoom.computeIfAbsent(stay.getRoomId(), id -> new HashMap<>());
+            for (LocalDate night = stay.getCheckInDate(); night.isBefore(stay.getCheckOutDate()); night = night.plusDays(1)) {
+                holders.computeIfAbsent(night, n -> new ArrayList<>()).add(stay.getReservationId());
+            }
+        }
+
+        if (!empty) {
+            recordHolders(holdersByRoom);
+            return;
+        }
+
+        List<RoomInventory> entries = holdersByRoom.entrySet().stream()
+                .flatMap(room -> room.getValue().entrySet().stream()
+                        .map(night -> new RoomInventory(room.getKey(), night.getKey(), night.getValue())))
+                .toList();
+        roomInventoryRepository.saveAll(entries);
+
+        log.info("Room inventory ledger backfilled with {} night(s) from {} active reservation(s)",
+                entries.size(), stays.size());
+    }
+
+    /**
+     * Record the holders of ledger nights that were sold before holders were recorded.
+     */
+    private void recordHolders(Map<String, Map<LocalDate, List<String>>> holdersByRoom) {
+        int recorded = 0;
+        for (Map.Entry<String, Map<LocalDate, List<String>>> room : holdersByRoom.entrySet()) {
+            LocalDate first = Collections.min(room.getValue().keySet());
+            LocalDate last = Collections.max(room.getValue().keySet());
+            List<RoomInventory> unrecorded = roomInventoryRepository.findNights(Set.of(room.getKey()), first, last.plusDays(1))
+                    .stream()
+                    .filter(entry -> entry.getReservationIds() == null)
+                    .toList();
+            for (RoomInventory entry : unrecorded) {
+                roomInventoryRepository.recordReservationIds(entry.getRoomId(), entry.getNight(),
+                        room.getValue().getOrDefault(entry.getNight(), List.of()));
+                recorded++;
+            }
+        }
+
+        if (recorded > 0) {
+            log.info("Room inventory ledger recorded the holders of {} night(s)", recorded);
+        }
+    }
+
+    /**
+     * Lock the remaining nights of active single-unit stays the first time the
+     * application starts with an empty room_night_locks collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLocksIfEmpty() {
+        if (roomLockRepository.count() > 0) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        List<ReservationStay> stays = reservationRepository.findStaysByStatusIn(RoomOccupancyIndex.ACTIVE_STATUSES);
+        int locked = 0;
+        for (ReservationStay stay : stays) {
+            if (!hasDates(stay) || modeOf(stay) != Reservation.InventoryMode.NIGHT_LOCKS
+                    || !stay.getCheckOutDate().isAfter(today)) {
+                continue;
+            }
+            LocalDate from = stay.getCheckInDate().isAfter(today) ? stay.getCheckInDate() : today;
+            forceLock(stay.getRoomId(), stay.getReservationId(), from, stay.getCheckOutDate());
+            locked++;
+        }
+
+        log.info("Room night locks backfilled for {} active single-unit reservation(s)", locked);
+    }
+
+    /**
+     * Lock every night of a stay, keeping the nights that are free when others
+     * are already locked by another reservation.
+     */
+    private void forceLock(String roomId, String reservationId, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<RoomLock> locks = nightLocks(roomId, reservationId, checkInDate, checkOutDate);
+        try {
+            roomLockRepository.insert(locks);
+        } catch (DuplicateKeyException e) {
+            List<LocalDate> taken = new ArrayList<>();
+            for (RoomLock lock : locks) {
+                try {
+                    roomLockRepository.insert(lock);
+                } catch (DuplicateKeyException duplicate) {
+                    taken.add(lock.getNight());
+                }
+            }
+            roomLockRepository.findByReservationId(reservationId).forEach(own -> taken.remove(own.getNight()));
+            if (!taken.isEmpty()) {
+                log.warn("Room {} double-booked on {} by reservation {}", roomId, taken, reservationId);
+            }
+        }
+    }
+
+    private List<LocalDate> nightsOf(LocalDate checkInDate, LocalDate checkOutDate) {
+        return new ArrayList<>(checkInDate.datesUntil(checkOutDate).toList());
+    }
+
+    private List<RoomLock> nightLocks(String roomId, String reservationId, LocalDate checkInDate, LocalDate checkOutDate) {
+        List<RoomLock> locks = new ArrayList<>();
+        for (LocalDate night = checkInDate; night.isBefore(checkOutDate); night = night.plusDays(1)) {
+            locks.add(new RoomLock(roomId, night, reservationId));
+        }
+        return locks;
+    }
+
+    private boolean hasDates(ReservationStay stay) {
+        return stay.getRoomId() != null && stay.getCheckInDate() != null && stay.getCheckOutDate() != null;
+    }
+
+    /**
+     * Inventory mode of a reservation: the recorded one, or for reservations made
+     * before it was recorded the current mode of the room.
+     */
+    private Reservation.InventoryMode modeOf(Room room, Reservation reservation) {
+        return reservation.getInventoryMode() != null ? reservation.getInventoryMode() : modeFor(room);
+    }
+
+    /**
+     * Inventory mode of a reservation, looking up its room only if no mode was recorded.
+     *
+     * @return the mode, or empty if none was recorded and the room no longer exists
+     */
+    private Optional<Reservation.InventoryMode> modeOf(Reservation reservation) {
+        if (reservation.getInventoryMode() != null) {
+            return Optional.of(reservation.getInventoryMode());
+        }
+        return roomCatalog.findById(reservation.getRoom().getId()).map(this::modeFor);
+    }
+
+    private Reservation.InventoryMode modeOf(ReservationStay stay) {
+        if (stay.getInventoryMode() != null) {
+            return stay.getInventoryMode();
+        }
+        return roomCatalog.findById(stay.getRoomId()).map(this::modeFor).orElse(null);
+    }
+
+    /**
+     * Current catalog entry of a reservation's room; the snapshot does not carry its units.
+     */
+    private Room roomOf(Reservation reservation) {
+        return roomCatalog.findById(reservation.getRoom().getId())
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+    }
+
+    /**
+     * Whether a room has a single physical unit and is booked exclusively.
+     */
+    private boolean isSingleUnit(Room room) {
+        return room.getTotalRooms() <= 1;
+    }
+
+    private int totalRoomsOf(Room room) {
+        return room.getTotalRooms() > 0 ? room.getTotalRooms() : 1;
+    }
+}
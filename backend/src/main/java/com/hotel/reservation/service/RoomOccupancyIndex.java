@@ -0,0 +1,328 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-night occupancy index for every room.
+ * Keeps one counter array per room covering the booking horizon, so availability
+ * for any date range is answered in O(nights) without querying MongoDB.
+ *
+ * The index is built at startup, updated on every {@link ReservationChangedEvent},
+ * periodically synced with changes made by other application instances and
+ * rebuilt nightly to move the horizon forward.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoomOccupancyIndex {
+
+    /**
+     * Statuses that hold a room for the nights of the stay
+     */
+    public static final Set<Reservation.ReservationStatus> ACTIVE_STATUSES = EnumSet.of(
+            Reservation.ReservationStatus.PENDING,
+            Reservation.ReservationStatus.CONFIRMED,
+            Reservation.ReservationStatus.CHECKED_IN);
+
+    /**
+     * Statuses counted as current occupancy when no dates are requested
+     */
+    private static final Set<Reservation.ReservationStatus> OCCUPYING_STATUSES = EnumSet.of(
+            Reservation.ReservationStatus.CONFIRMED,
+            Reservation.ReservationStatus.CHECKED_IN);
+
+    /**
+     * Check-in is accepted up to two years ahead (see ReservationController),
+     * plus room for the length of the stay itself.
+     */
+    private static final int HORIZON_DAYS = 2 * 366 + 90;
+
+    /**
+     * Overlap between two sync runs, to tolerate clock skew between instances
+     */
+    private static final long SYNC_OVERLAP_SECONDS = 5;
+
+    private final ReservationRepository reservationRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, int[]> nightlyCounts = new HashMap<>();
+    private final Map<String, Integer> occupyingCounts = new HashMap<>();
+    private final Map<String, ReservationStay> appliedStays = new HashMap<>();
+    private LocalDate baseDate;
+    private LocalDateTime syncWatermark;
+    private volatile boolean ready = false;
+
+    /**
+     * Build the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from MongoDB.
+     * Runs nightly so that the horizon always starts at yesterday's date.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<ReservationStay> stays = reservationRepository.findStaysByStatusIn(ACTIVE_STATUSES);
+
+        lock.writeLock().lock();
+        try {
+            nightlyCounts.clear();
+            occupyingCounts.clear();
+            appliedStays.clear();
+            // Check-in is accepted from yesterday onwards to tolerate client time zones
+            baseDate = LocalDate.now().minusDays(1);
+            stays.forEach(this::apply);
+            syncWatermark = startedAt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Room occupancy index built from {} active reservation(s) across {} room(s)",
+                stays.size(), nightlyCounts.size());
+    }
+
+    /**
+     * Pick up reservation changes made by other application instances.
+     * Changes made by this instance are already applied through events;
+     * re-applying them is harmless.
+     */
+    @Scheduled(fixedDelayString = "${app.occupancy.sync-interval-ms:15000}",
+               initialDelayString = "${app.occupancy.sync-interval-ms:15000}")
+    public void syncChanges() {
+        if (!ready) {
+            return;
+        }
+
+        LocalDateTime since = syncWatermark.minusSeconds(SYNC_OVERLAP_SECONDS);
+        List<ReservationStay> changed = reservationRepository.findStaysUpdatedSince(since);
+
+        lock.writeLock().lock();
+        try {
+            for (ReservationStay stay : changed) {
+                apply(stay);
+                if (stay.getUpdatedAt() != null && stay.getUpdatedAt().isAfter(syncWatermark)) {
+                    syncWatermark = stay.getUpdatedAt();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a reservation change made by this instance.
+     *
+     * @param event reservation change event
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Reservation reservation = event.getReservation();
+        if (reservation.getId() == null || reservation.getRoom() == null) {
+            return;
+        }
+
+        ReservationStay stay = new ReservationStay(
+                reservation.getId(),
+                reservation.getRoom().getId(),
+                reservation.getCheckInDate(),
+                reservation.getCheckOutDate(),
+                reservation.getStatus(),
+                reservation.getUpdatedAt(),
+                reservation.getInventoryMode());
+
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(stay);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the index has been built and can answer queries.
+     *
+     * @return true if ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get the highest number of units of a room booked on any night of a stay.
+     *
+     * @param roomId room ID
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date (exclusive)
+     * @return peak occupancy, or empty if the index cannot answer for these dates
+     */
+    public OptionalInt peakOccupancy(String roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        lock.readLock().lock();
+        try {
+            if (!covers(checkInDate, checkOutDate)) {
+                return OptionalInt.empty();
+            }
+
+            int[] counts = nightlyCounts.get(roomId);
+            if (counts == null) {
+                return OptionalInt.of(0);
+            }
+
+            int peak = 0;
+            int end = offsetOf(checkOutDate);
+            for (int night = offsetOf(checkInDate); night < end; night++) {
+                peak = Math.max(peak, counts[night]);
+            }
+            return OptionalInt.of(peak);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of units of a room booked on each night of a range.
+     *
+     * @param roomId room ID
+     * @param from first night (inclusive)
+     * @param to last night (exclusive)
+     * @return per-night occupancy, or empty if the index cannot answer for these dates
+     */
+    public Optional<int[]> nightlyOccupancy(String roomId, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            if (!covers(from, to)) {
+                return Optional.empty();
+            }
+
+            int[] occupancy = new int[offsetOf(to) - offsetOf(from)];
+            int[] counts = nightlyCounts.get(roomId);
+            if (counts != null) {
+                System.arraycopy(counts, offsetOf(from), occupancy, 0, occupancy.length);
+            }
+            return Optional.of(occupancy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of confirmed or checked-in reservations for a room,
+     * regardless of dates.
+     *
+     * @param roomId room ID
+     * @return occupancy count, or empty if the index is not ready
+     */
+    public OptionalInt currentOccupancy(String roomId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of(occupyingCounts.getOrDefault(roomId, 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace whatever was previously recorded for the reservation with its current stay.
+     * Caller must hold the write lock.
+     */
+    private void apply(ReservationStay stay) {
+        ReservationStay previous = appliedStays.remove(stay.getReservationId());
+        boolean active = stay.getRoomId() != null && stay.getStatus() != null && ACTIVE_STATUSES.contains(stay.getStatus());
+
+        if (previous != null && active && sameStay(previous, stay)) {
+            // Already applied (e.g. seen again by an overlapping sync run)
+            appliedStays.put(stay.getReservationId(), previous);
+            return;
+        }
+
+        unapply(previous);
+
+        if (!active) {
+            return;
+        }
+
+        appliedStays.put(stay.getReservationId(), stay);
+        adjust(stay, 1);
+    }
+
+    private boolean sameStay(ReservationStay a, ReservationStay b) {
+        return Objects.equals(a.getRoomId(), b.getRoomId())
+                && Objects.equals(a.getCheckInDate(), b.getCheckInDate())
+                && Objects.equals(a.getCheckOutDate(), b.getCheckOutDate())
+                && a.getStatus() == b.getStatus();
+    }
+
+    /**
+     * Remove a previously applied stay. Caller must hold the write lock.
+     */
+    private void unapply(ReservationStay stay) {
+        if (stay != null) {
+            adjust(stay, -1);
+        }
+    }
+
+    private void adjust(ReservationStay stay, int delta) {
+        if (OCCUPYING_STATUSES.contains(stay.getStatus())) {
+            occupyingCounts.merge(stay.getRoomId(), delta, Integer::sum);
+        }
+
+        if (stay.getCheckInDate() == null || stay.getCheckOutDate() == null) {
+            return;
+        }
+
+        int[] counts = nightlyCounts.computeIfAbsent(stay.getRoomId(), id -> new int[HORIZON_DAYS]);
+        int start = Math.max(0, offsetOf(stay.getCheckInDate()));
+        int end = Math.min(HORIZON_DAYS, offsetOf(stay.getCheckOutDate()));
+        for (int night = start; night < end; night++) {
+            counts[night] += delta;
+        }
+    }
+
+    private boolean covers(LocalDate checkInDate, LocalDate checkOutDate) {
+        return ready
+                && !checkInDate.isBefore(baseDate)
+                && offsetOf(checkOutDate) <= HORIZON_DAYS;
+    }
+
+    private int offsetOf(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(baseDate, date);
+    }
+}
@@ -1,6 +1,12 @@
 package com.hotel.reservation.service;
 
 import com.hotel.reservation.dto.RoomAvailabilityDTO;
+import com.hotel.reservation.dto.BookedNightsBitset;
+import com.hotel.reservation.dto.FlexibleAvailabilityDTO;
+import com.hotel.reservation.dto.ReservationStay;
+import com.hotel.reservation.dto.ResourceVersion;
+import com.hotel.reservation.dto.RoomOccupancy;
+import com.hotel.reservation.dto.RoomReservationsVersion;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.model.Room;
 import com.hotel.reservation.repository.RoomRepository;
@@ -11,8 +17,27 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for room management operations.
@@ -25,32 +50,139 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RoomService {
 
+    /**
+     * Longest window served by the booked-dates endpoint: check-in is accepted
+     * up to two years ahead, plus room for the length of the stay.
+     */
+    public static final int MAX_BOOKED_DATES_WINDOW_DAYS = 2 * 366 + 90;
+
+    /**
+     * Largest number of days the check-in date may move in a flexible-date search
+     */
+    public static final int MAX_FLEXIBLE_DAYS = 14;
+
+    /**
+     * Longest stay supported by the flexible-date search
+     */
+    public static final int MAX_FLEXIBLE_STAY_NIGHTS = 30;
+
     private final RoomRepository roomRepository;
     private final ReservationRepository reservationRepository;
+    private final RoomOccupancyIndex occupancyIndex;
+    private final RoomInventoryService roomInventoryService;
+    private final AvailabilityCache availabilityCache;
+    private final RoomCatalog roomCatalog;
 
     /**
      * Get all rooms.
+     * Served from the {@link RoomCatalog}.
      *
      * @return list of all rooms
      */
     public List<Room> getAllRooms() {
-        return roomRepository.findAll();
+        return roomCatalog.findAll();
     }
 
     /**
      * Get room by ID.
+     * Served from the {@link RoomCatalog}.
      *
      * @param id room ID
      * @return room entity
      * @throws RuntimeException if room not found
      */
     public Room getRoomById(String id) {
+        return roomCatalog.findById(id)
+                .orElseThrow(() -> new RuntimeException("Room not found with id: " + id));
+    }
+
+    /**
+     * Get validators for the room list, for conditional GET requests.
+     * The filter is part of the representation and of its entity tag.
+     *
+     * @param type room type filter (optional)
+     * @param minPrice minimum price filter (optional)
+     * @param maxPrice maximum price filter (optional)
+     * @return validators of the filtered list
+     */
+    public ResourceVersion getRoomsVersion(Room.RoomType type, BigDecimal minPrice, BigDecimal maxPrice) {
+        return roomCatalog.variantOf(roomCatalog.getResourceVersion(), type, minPrice, maxPrice);
+    }
+
+    /**
+     * Get validators for a single room, for conditional GET requests.
+     *
+     * @param id room ID
+     * @return room validators
+     * @throws RuntimeException if room not found
+     */
+    public ResourceVersion getRoomVersion(String id) {
+        return roomCatalog.findResourceVersion(id)
+                .orElseThrow(() -> new RuntimeException("Room not found with id: " + id));
+    }
+
+    /**
+     * Get validators for the booked dates of a room, for conditional GET requests.
+     * Derived from the room's reservation count, latest reservation change and
+     * latest reservation deletion as stored, so every instance issues the same
+     * validators. The effective window and the format are part of the entity tag;
+     * a window that defaults to today also moves Last-Modified to the start of today.
+     *
+     * @param id room ID
+     * @param from start of the window (optional)
+     * @param to end of the window (optional)
+     * @param bitset whether the bitset format is requested
+     * @return booked-dates validators
+     * @throws RuntimeException if room not found
+     */
+    public ResourceVersion getBookedDatesVersion(String id, LocalDate from, LocalDate to, boolean bitset) {
+        Room room = getRoomById(id);
+        LocalDate windowStart = from != null ? from : LocalDate.now();
+        LocalDate windowEnd = to != null ? to : windowStart.plusDays(MAX_BOOKED_DATES_WINDOW_DAYS);
+        RoomReservationsVersion reservations = reservationRepository.findRoomReservationsVersion(room.getId());
+        LocalDateTime deletedAt = roomCatalog.findReservationsDeletedAt(room.getId()).orElse(null);
+
+        LocalDateTime lastUpdatedAt = reservations.getLastUpdatedAt();
+        // Without If-None-Match only Last-Modified is compared, so it has to move with the default window too
+        LocalDateTime lastModified = Stream.of(lastUpdatedAt, deletedAt, from == null ? windowStart.atStartOfDay() : null)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        ResourceVersion version = new ResourceVersion(
+                room.getId() + "-" + reservations.getReservationCount() + "-" + lastUpdatedAt + "-" + deletedAt,
+                lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant() : null);
+        return roomCatalog.variantOf(version, windowStart, windowEnd, bitset);
+    }
+
+    /**
+     * Load a room from the database for modification.
+     * Cached catalog rooms are shared and must not be modified.
+     */
+    private Room loadRoomForUpdate(String id) {
         return roomRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Room not found with id: " + id));
     }
 
+    /**
+     * Rooms from the catalog that can host the given number of guests.
+     */
+    private List<Room> findRoomsForGuests(Integer guests) {
+        List<Room> rooms = roomCatalog.findAll();
+        if (guests == null || guests <= 0) {
+            return rooms;
+        }
+        return rooms.stream()
+                .filter(room -> room.getCapacity() >= guests)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get available rooms for specific dates.
+     * Blocked rooms are looked up for all candidates at once, so the search
+     * costs the same number of queries regardless of catalog size. Single-unit
+     * rooms are blocked by any overlapping reservation or lock; rooms with several
+     * units only once a night of the stay is sold out in the inventory ledger.
+     * Results are served from the {@link AvailabilityCache}.
      *
      * @param checkInDate check-in date
      * @param checkOutDate check-out date
@@ -58,10 +190,22 @@ public class RoomService {
      * @return list of available rooms
      */
     public List<Room> getAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, int guests) {
-        List<Room> allRooms = roomRepository.findByCapacityGreaterThanEqual(guests);
+        return availabilityCache.getAvailableRooms(checkInDate, checkOutDate, guests,
+                () -> findAvailableRooms(checkInDate, checkOutDate, guests));
+    }
+
+    private List<Room> findAvailableRooms(LocalDate checkInDate, LocalDate checkOutDate, int guests) {
+        List<Room> allRooms = findRoomsForGuests(guests);
+        Map<Boolean, List<Room>> roomsBySingleUnit = allRooms.stream()
+                .collect(Collectors.partitioningBy(room -> room.getTotalRooms() <= 1));
+
+        Set<String> blockedRoomIds = new HashSet<>(reservationRepository.findBlockedRoomIds(
+                roomsBySingleUnit.get(true).stream().map(Room::getId).toList(), checkInDate, checkOutDate));
+        blockedRoomIds.addAll(roomInventoryService.findSoldOutRoomIds(
+                roomsBySingleUnit.get(false), checkInDate, checkOutDate));
 
         return allRooms.stream()
-                .filter(room -> isRoomAvailable(room.getId(), checkInDate, checkOutDate))
+                .filter(room -> !blockedRoomIds.contains(room.getId()))
                 .collect(Collectors.toList());
     }
 
@@ -82,6 +226,10 @@ public class RoomService {
     /**
      * Get all rooms with availability status for specific dates.
      * If no dates provided, returns all rooms with general occupancy status.
+     * Occupancy is read from the in-memory {@link RoomOccupancyIndex}, or from a single
+     * aggregation when the index cannot answer; with dates, occupiedCount is the
+     * highest number of units booked on any night of the stay.
+     * Results are served from the {@link AvailabilityCache}.
      *
      * @param checkInDate check-in date (optional)
      * @param checkOutDate check-out date (optional)
@@ -90,18 +238,16 @@ public class RoomService {
      */
     public List<RoomAvailabilityDTO> getAllRoomsWithAvailability(
             LocalDate checkInDate, LocalDate checkOutDate, Integer guests) {
+        return availabilityCache.getRoomsWithAvailability(checkInDate, checkOutDate, guests,
+                () -> computeRoomsWithAvailability(checkInDate, checkOutDate, guests));
+    }
 
-        List<Room> allRooms = roomRepository.findAll();
-
-        // Filter by capacity if guests specified
-        if (guests != null && guests > 0) {
-            allRooms = allRooms.stream()
-                    .filter(room -> room.getCapacity() >= guests)
-                    .collect(Collectors.toList());
-        }
+    private List<RoomAvailabilityDTO> computeRoomsWithAvailability(
+            LocalDate checkInDate, LocalDate checkOutDate, Integer guests) {
 
-        return allRooms.stream()
-                .map(room -> {
+        return findRoomOccupancies(checkInDate, checkOutDate, guests).stream()
+                .map(occupancy -> {
+                    Room room = occupancy.getRoom();
                     RoomAvailabilityDTO dto = new RoomAvailabilityDTO();
                     dto.setRoom(room);
 
@@ -112,25 +258,11 @@ public class RoomService {
 
                     // Check availability for specific dates
                     if (checkInDate != null && checkOutDate != null) {
-                        // Get all reservations for this room and filter for overlaps in Java
-                        // This is more reliable than the MongoDB query which has issues with status enum matching
-                        List<Reservation> allReservations = reservationRepository.findByRoom(room);
-
-                        // Filter for active reservations that overlap with the requested date range
-                        int occupiedCount = (int) allReservations.stream()
-                                .filter(r -> r.getStatus() == Reservation.ReservationStatus.PENDING ||
-                                           r.getStatus() == Reservation.ReservationStatus.CONFIRMED ||
-                                           r.getStatus() == Reservation.ReservationStatus.CHECKED_IN)
-                                .filter(r -> {
-                                    // Check if reservation overlaps with the requested date range
-                                    // Overlap occurs if: reservation starts before requested end AND reservation ends after requested start
-                                    return !r.getCheckInDate().isAfter(checkOutDate.minusDays(1)) &&
-                                           !r.getCheckOutDate().isBefore(checkInDate.plusDays(1));
-                                })
-                                .count();
+                        int occupiedCount = occupancy.getOccupiedCount();
 
                         dto.setOccupiedCount(occupiedCount);
-                        boolean isAvailable = occupiedCount == 0;
+                        // Peak units booked on any night; a unit is left as long as the peak is below the total
+                        boolean isAvailable = occupiedCount < totalRooms;
                         dto.setAvailable(isAvailable);
 
                         int availableCount = totalRooms - occupiedCount;
@@ -156,13 +288,7 @@ public class RoomService {
                         }
                     } else {
                         // No dates specified - show general occupancy
-                        List<Reservation> allReservations = reservationRepository.findByRoom(room)
-                                .stream()
-                                .filter(r -> r.getStatus() == Reservation.ReservationStatus.CONFIRMED ||
-                                           r.getStatus() == Reservation.ReservationStatus.CHECKED_IN)
-                                .collect(Collectors.toList());
-
-                        int occupiedCount = allReservations.size();
+                        int occupiedCount = occupancy.getOccupiedCount();
                         dto.setOccupiedCount(occupiedCount);
 
                         int availableCount = totalRooms - occupiedCount;
@@ -190,6 +316,151 @@ public class RoomService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Find every bookable (room, check-in date) pair for a stay of the given
+     * length starting within {@code flexDays} days of the target date.
+     * Occupancy for the whole window is loaded once, from the in-memory
+     * {@link RoomOccupancyIndex} or with a single query, and each candidate
+     * start is checked with prefix sums over the sold-out nights.
+     *
+     * @param targetDate preferred check-in date
+     * @param nights length of the stay
+     * @param flexDays how many days the check-in may move either way
+     * @param guests number of guests (optional)
+     * @return rooms with their bookable stays; rooms without any are omitted
+     * @throws IllegalArgumentException if the parameters are out of range
+     */
+    public List<FlexibleAvailabilityDTO> getFlexibleAvailability(
+            LocalDate targetDate, int nights, int flexDays, Integer guests) {
+        if (nights < 1 || nights > MAX_FLEXIBLE_STAY_NIGHTS) {
+            throw new IllegalArgumentException("Stay length must be between 1 and " + MAX_FLEXIBLE_STAY_NIGHTS + " nights");
+        }
+        if (flexDays < 0 || flexDays > MAX_FLEXIBLE_DAYS) {
+            throw new IllegalArgumentException("Flexible window must be between 0 and " + MAX_FLEXIBLE_DAYS + " days");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstStart = targetDate.minusDays(flexDays);
+        if (firstStart.isBefore(today)) {
+            firstStart = today;
+        }
+        LocalDate lastStart = targetDate.plusDays(flexDays);
+        if (lastStart.isBefore(firstStart)) {
+            return List.of();
+        }
+        int starts = (int) ChronoUnit.DAYS.between(firstStart, lastStart) + 1;
+        LocalDate windowEnd = lastStart.plusDays(nights);
+
+        List<Room> rooms = findRoomsForGuests(guests);
+        Map<String, int[]> occupancyByRoom = loadNightlyOccupancy(rooms, firstStart, windowEnd);
+
+        List<FlexibleAvailabilityDTO> results = new ArrayList<>();
+        for (Room room : rooms) {
+            int totalRooms = room.getTotalRooms() > 0 ? room.getTotalRooms() : 1;
+            int[] occupancy = occupancyByRoom.get(room.getId());
+
+            // soldOut[i] = number of sold out nights before night i of the window
+            int[] soldOut = new int[occupancy.length + 1];
+            for (int night = 0; night < occupancy.length; night++) {
+                soldOut[night + 1] = soldOut[night] + (occupancy[night] >= totalRooms ? 1 : 0);
+            }
+
+            // Sliding-window maximum of the occupancy over each candidate stay
+            Deque<Integer> peakNights = new ArrayDeque<>();
+            List<FlexibleAvailabilityDTO.StayOption> options = new ArrayList<>();
+            for (int night = 0; night < occupancy.length; night++) {
+                while (!peakNights.isEmpty() && occupancy[peakNights.peekLast()] <= occupancy[night]) {
+                    peakNights.pollLast();
+                }
+                peakNights.addLast(night);
+
+                int start = night - nights + 1;
+                if (start < 0) {
+                    continue;
+                }
+                if (peakNights.peekFirst() < start) {
+                    peakNights.pollFirst();
+                }
+                if (start < starts && soldOut[start + nights] == soldOut[start]) {
+                    LocalDate checkIn = firstStart.plusDays(start);
+                    options.add(new FlexibleAvailabilityDTO.StayOption(
+                            checkIn,
+                            checkIn.plusDays(nights),
+                            totalRooms - occupancy[peakNights.peekFirst()],
+                            room.getPricePerNight().multiply(BigDecimal.valueOf(nights))));
+                }
+            }
+
+            if (!options.isEmpty()) {
+                results.add(new FlexibleAvailabilityDTO(room, totalRooms, options));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Per-night occupancy of each room over a window, from the occupancy index
+     * when it covers the window, otherwise from a single query for all rooms.
+     */
+    private Map<String, int[]> loadNightlyOccupancy(List<Room> rooms, LocalDate from, LocalDate to) {
+        Map<String, int[]> occupancyByRoom = new HashMap<>();
+        for (Room room : rooms) {
+            Optional<int[]> occupancy = occupancyIndex.nightlyOccupancy(room.getId(), from, to);
+            if (occupancy.isEmpty()) {
+                occupancyByRoom.clear();
+                break;
+            }
+            occupancyByRoom.put(room.getId(), occupancy.get());
+        }
+        if (occupancyByRoom.size() == rooms.size()) {
+            return occupancyByRoom;
+        }
+
+        int nights = (int) ChronoUnit.DAYS.between(from, to);
+        rooms.forEach(room -> occupancyByRoom.put(room.getId(), new int[nights]));
+        for (ReservationStay stay : reservationRepository.findStaysOverlapping(
+                occupancyByRoom.keySet(), RoomOccupancyIndex.ACTIVE_STATUSES, from, to)) {
+            int[] occupancy = occupancyByRoom.get(stay.getRoomId());
+            if (occupancy == null) {
+                continue;
+            }
+            int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, stay.getCheckInDate()));
+            int end = (int) Math.min(nights, ChronoUnit.DAYS.between(from, stay.getCheckOutDate()));
+            for (int night = start; night < end; night++) {
+                occupancy[night]++;
+            }
+        }
+        return occupancyByRoom;
+    }
+
+    /**
+     * Load the rooms matching the guest count together with their occupancy.
+     * Answered from the in-memory occupancy index when it covers the request;
+     * otherwise (index warming up, dates beyond its horizon) a single aggregation
+     * joins rooms with their active reservations on the server.
+     */
+    private List<RoomOccupancy> findRoomOccupancies(LocalDate checkInDate, LocalDate checkOutDate, Integer guests) {
+        boolean hasDates = checkInDate != null && checkOutDate != null;
+
+        if (occupancyIndex.isReady()) {
+            List<Room> rooms = findRoomsForGuests(guests);
+
+            List<RoomOccupancy> occupancies = new ArrayList<>(rooms.size());
+            for (Room room : rooms) {
+                OptionalInt occupiedCount = hasDates
+                        ? occupancyIndex.peakOccupancy(room.getId(), checkInDate, checkOutDate)
+                        : occupancyIndex.currentOccupancy(room.getId());
+                if (occupiedCount.isEmpty()) {
+                    return roomRepository.findAllWithOccupancy(checkInDate, checkOutDate, guests);
+                }
+                occupancies.add(new RoomOccupancy(room, occupiedCount.getAsInt()));
+            }
+            return occupancies;
+        }
+
+        return roomRepository.findAllWithOccupancy(checkInDate, checkOutDate, guests);
+    }
+
     /**
      * Create a new room.
      *
@@ -198,7 +469,10 @@ public class RoomService {
      */
     @Transactional
     public Room createRoom(Room room) {
-        return roomRepository.save(room);
+        Room createdRoom = roomRepository.save(room);
+        roomCatalog.invalidate();
+        availabilityCache.invalidateAll();
+        return createdRoom;
     }
 
     /**
@@ -211,7 +485,7 @@ public class RoomService {
      */
     @Transactional
     public Room updateRoom(String id, Room roomDetails) {
-        Room room = getRoomById(id);
+        Room room = loadRoomForUpdate(id);
 
         room.setName(roomDetails.getName());
         room.setType(roomDetails.getType());
@@ -225,7 +499,10 @@ public class RoomService {
         room.setFloorNumber(roomDetails.getFloorNumber());
         room.setSize(roomDetails.getSize());
 
-        return roomRepository.save(room);
+        Room updatedRoom = roomRepository.save(room);
+        roomCatalog.invalidate();
+        availabilityCache.invalidateAll();
+        return updatedRoom;
     }
 
     /**
@@ -237,7 +514,7 @@ public class RoomService {
      */
     @Transactional
     public void deleteRoom(String id) {
-        Room room = getRoomById(id);
+        Room room = loadRoomForUpdate(id);
 
         // Check for any active reservations (PENDING, CONFIRMED, CHECKED_IN)
         List<Reservation> activeReservations = reservationRepository.findByRoom(room)
@@ -274,10 +551,13 @@ public class RoomService {
         }
 
         roomRepository.delete(room);
+        roomCatalog.invalidate();
+        availabilityCache.invalidateAll();
     }
 
     /**
      * Filter rooms by criteria.
+     * Filters the cached {@link RoomCatalog} in memory.
      *
      * @param type room type (optional)
      * @param minPrice minimum price (optional)
@@ -286,15 +566,9 @@ public class RoomService {
      */
     public List<Room> filterRooms(Room.RoomType type, BigDecimal minPrice, BigDecimal maxPrice) {
         // Start with all available rooms or rooms of specific type
-        List<Room> rooms;
-        if (type != null) {
-            rooms = roomRepository.findByTypeAndAvailable(type, true);
-        } else {
-            rooms = roomRepository.findByAvailable(true);
-        }
-
-        // Apply price filters
-        return rooms.stream()
+        return roomCatalog.findAll().stream()
+                .filter(room -> room.isAvailable() && (type == null || room.getType() == type))
+                // Apply price filters
                 .filter(room -> {
                     boolean passesMinPrice = minPrice == null || room.getPricePerNight().compareTo(minPrice) >= 0;
                     boolean passesMaxPrice = maxPrice == null || room.getPricePerNight().compareTo(maxPrice) <= 0;
@@ -304,33 +578,93 @@ public class RoomService {
     }
 
     /**
-     * Get all booked date ranges for a specific room.
-     * Returns list of date ranges where the room is reserved (PENDING, CONFIRMED, or CHECKED_IN status).
-     * PENDING reservations are included to prevent double-booking while awaiting payment.
+     * Get the booked date ranges of a room within a window.
+     * Only reservations overlapping the window are read (PENDING, CONFIRMED or
+     * CHECKED_IN; PENDING ones block dates while awaiting payment). A night is
+     * booked once all units of the room are taken, and consecutive booked
+     * nights are merged into a single range, clipped to the window.
      *
      * @param roomId room ID
+     * @param from start of the window (optional, defaults to today)
+     * @param to end of the window, exclusive (optional, defaults to the booking horizon)
      * @return list of date range maps with checkInDate and checkOutDate
+     * @throws IllegalArgumentException if the window is empty or too long
      */
-    public List<java.util.Map<String, LocalDate>> getBookedDateRanges(String roomId) {
-        // Get the room first
-        Room room = getRoomById(roomId);
+    public List<Map<String, LocalDate>> getBookedDateRanges(String roomId, LocalDate from, LocalDate to) {
+        LocalDate windowStart = from != null ? from : LocalDate.now();
+        LocalDate windowEnd = to != null ? to : windowStart.plusDays(MAX_BOOKED_DATES_WINDOW_DAYS);
+        boolean[] booked = findBookedNights(roomId, windowStart, windowEnd);
+
+        List<Map<String, LocalDate>> ranges = new ArrayList<>();
+        int night = 0;
+        while (night < booked.length) {
+            if (!booked[night]) {
+                night++;
+                continue;
+            }
+            int rangeStart = night;
+            while (night < booked.length && booked[night]) {
+                night++;
+            }
+            Map<String, LocalDate> dateRange = new LinkedHashMap<>();
+            dateRange.put("checkInDate", windowStart.plusDays(rangeStart));
+            dateRange.put("checkOutDate", windowStart.plusDays(night));
+            ranges.add(dateRange);
+        }
+        return ranges;
+    }
 
-        // Get all active reservations for this room (PENDING, CONFIRMED, or CHECKED_IN)
-        // PENDING reservations should block dates too since they're awaiting payment
-        List<Reservation> reservations = reservationRepository.findByRoom(room).stream()
-                .filter(r -> r.getStatus() == Reservation.ReservationStatus.PENDING ||
-                           r.getStatus() == Reservation.ReservationStatus.CONFIRMED ||
-                           r.getStatus() == Reservation.ReservationStatus.CHECKED_IN)
-                .collect(Collectors.toList());
+    /**
+     * Get the booked nights of a room within a window as a bitset.
+     *
+     * @param roomId room ID
+     * @param from start of the window (optional, defaults to today)
+     * @param to end of the window, exclusive (optional, defaults to the booking horizon)
+     * @return bitset of booked nights
+     * @throws IllegalArgumentException if the window is empty or too long
+     */
+    public BookedNightsBitset getBookedNightsBitset(String roomId, LocalDate from, LocalDate to) {
+        LocalDate windowStart = from != null ? from : LocalDate.now();
+        LocalDate windowEnd = to != null ? to : windowStart.plusDays(MAX_BOOKED_DATES_WINDOW_DAYS);
+        boolean[] booked = findBookedNights(roomId, windowStart, windowEnd);
+
+        BitSet bits = new BitSet(booked.length);
+        for (int night = 0; night < booked.length; night++) {
+            bits.set(night, booked[night]);
+        }
+        byte[] bytes = Arrays.copyOf(bits.toByteArray(), (booked.length + 7) / 8);
+        return new BookedNightsBitset(windowStart, windowEnd, booked.length,
+                Base64.getEncoder().encodeToString(bytes));
+    }
 
-        // Convert to date ranges
-        return reservations.stream()
-                .map(reservation -> {
-                    java.util.Map<String, LocalDate> dateRange = new java.util.HashMap<>();
-                    dateRange.put("checkInDate", reservation.getCheckInDate());
-                    dateRange.put("checkOutDate", reservation.getCheckOutDate());
-                    return dateRange;
-                })
-                .collect(Collectors.toList());
+    /**
+     * Work out which nights of the window are fully booked, from a single query
+     * for the reservations overlapping it.
+     */
+    private boolean[] findBookedNights(String roomId, LocalDate from, LocalDate to) {
+        long nights = ChronoUnit.DAYS.between(from, to);
+        if (nights <= 0 || nights > MAX_BOOKED_DATES_WINDOW_DAYS) {
+            throw new IllegalArgumentException(
+                    "Date window must cover between 1 and " + MAX_BOOKED_DATES_WINDOW_DAYS + " nights");
+        }
+
+        Room room = getRoomById(roomId);
+        int totalRooms = room.getTotalRooms() > 0 ? room.getTotalRooms() : 1;
+
+        int[] occupied = new int[(int) nights];
+        for (ReservationStay stay : reservationRepository.findStaysOverlapping(
+                room.getId(), RoomOccupancyIndex.ACTIVE_STATUSES, from, to)) {
+            int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, stay.getCheckInDate()));
+            int end = (int) Math.min(nights, ChronoUnit.DAYS.between(from, stay.getCheckOutDate()));
+            for (int night = start; night < end; night++) {
+                occupied[night]++;
+            }
+        }
+
+        boolean[] booked = new boolean[occupied.length];
+        for (int night = 0; night < occupied.length; night++) {
+            booked[night] = occupied[night] >= totalRooms;
+        }
+        return booked;
     }
 }
@@ -0,0 +1,299 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hotel.reservation.dto.GatewayPaymentIntent;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for Stripe, for load testing the booking-to-payment flow offline.
+ * Enabled with app.payments.gateway=simulator; never use it in production.
+ *
+ * Every call sleeps for a latency drawn from a log-normal distribution with the
+ * configured median and 99th percentile, and fails with the configured failure rate.
+ * A created payment intent is settled after app.payments.simulator.webhook-delay-ms
+ * as if the guest had paid in the browser: it succeeds, or is declined with the
+ * configured decline rate. Settlements, charges and refunds emit the webhook events
+ * Stripe would send, signed with the webhook secret, verified and stored in the
+ * {@link StripeEventInbox} like delivered webhooks.
+ *
+ * Intents are kept in memory for an hour, so they are only known to the instance
+ * that created them.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "simulator")
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final String CARD_BRAND = "visa";
+    private static final String CARD_LAST4 = "4242";
+
+    /**
+     * Standard normal quantile of the 99th percentile
+     */
+    private static final double Z_99 = 2.326;
+
+    private final ObjectProvider<StripeEventInbox> stripeEventInbox;
+    private final ObjectMapper objectMapper;
+    private final String webhookSecret;
+    private final double latencyMu;
+    private final double latencySigma;
+    private final double failureRate;
+    private final double declineRate;
+    private final boolean webhooksEnabled;
+    private final long webhookDelayMs;
+
+    private final Cache<String, GatewayPaymentIntent> intents = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final ScheduledExecutorService webhookEmitter;
+
+    public SimulatedPaymentGateway(ObjectProvider<StripeEventInbox> stripeEventInbox,
+                                   ObjectMapper objectMapper,
+                                   @Value("${stripe.webhook.secret}") String webhookSecret,
+                                   @Value("${app.payments.simulator.latency-median-ms:200}") double latencyMedianMs,
+                                   @Value("${app.payments.simulator.latency-p99-ms:1000}") double latencyP99Ms,
+                                   @Value("${app.payments.simulator.failure-rate:0.01}") double failureRate,
+                                   @Value("${app.payments.simulator.decline-rate:0.02}") double declineRate,
+                                   @Value("${app.payments.simulator.webhooks-enabled:true}") boolean webhooksEnabled,
+                                   @Value("${app.payments.simulator.webhook-delay-ms:500}") long webhookDelayMs,
+                                   @Value("${app.payments.simulator.webhook-threads:2}") int webhookThreads) {
+        this.stripeEventInbox = stripeEventInbox;
+        this.objectMapper = objectMapper;
+        this.webhookSecret = webhookSecret;
+        double median = Math.max(latencyMedianMs, 1);
+        this.latencyMu = Math.log(median);
+        this.latencySigma = Math.max(Math.log(Math.max(latencyP99Ms, median) / median) / Z_99, 0);
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+        this.webhooksEnabled = webhooksEnabled;
+        this.webhookDelayMs = webhookDelayMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.webhookEmitter = Executors.newScheduledThreadPool(webhookThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-simulator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.warn("Payments are SIMULATED: no call reaches Stripe (median latency {} ms, p99 {} ms, "
+                + "failure rate {}, decline rate {})", median, latencyP99Ms, failureRate, declineRate);
+    }
+
+    @Override
+    public GatewayPaymentIntent createPaymentIntent(long amountInCents, String currency, Map<String, String> metadata)
+            throws StripeException {
+        simulateCall();
+
+        GatewayPaymentIntent intent = newIntent("requires_payment_method");
+        intents.put(intent.getId(), intent);
+
+        // The guest completes the payment in the browser a little later
+        webhookEmitter.schedule(() -> settle(intent.getId(), amountInCents, currency, metadata),
+                webhookDelayMs, TimeUnit.MILLISECONDS);
+
+        return copy(intent);
+    }
+
+    @Override
+    public GatewayPaymentIntent chargePaymentMethod(long amountInCents, String currency, String paymentMethodId,
+                                                    Map<String, String> metadata) throws StripeException {
+        simulateCall();
+
+        GatewayPaymentIntent intent = newIntent("requires_payment_method");
+        if (!declined()) {
+            charge(intent);
+            emitLater("payment_intent.succeeded", intentObject(intent, amountInCents, currency, metadata));
+        }
+        intents.put(intent.getId(), intent);
+
+        return copy(intent);
+    }
+
+    @Override
+    public GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
+        simulateCall();
+
+        GatewayPaymentIntent intent = intents.getIfPresent(paymentIntentId);
+        if (intent == null) {
+            throw new InvalidRequestException("No such payment_intent: '" + paymentIntentId + "'",
+                    "intent", requestId(), "resource_missing", 404, null);
+        }
+
+        synchronized (intent) {
+            return copy(intent);
+        }
+    }
+
+    @Override
+    public String createRefund(String paymentIntentId, long amountInCents) throws StripeException {
+        simulateCall();
+
+        Map<String, Object> charge = new LinkedHashMap<>();
+        GatewayPaymentIntent intent = intents.getIfPresent(paymentIntentId);
+        charge.put("id", intent != null && intent.getLatestChargeId() != null
+                ? intent.getLatestChargeId() : "ch_sim_" + randomId());
+        charge.put("object", "charge");
+        charge.put("payment_intent", paymentIntentId);
+        charge.put("amount_refunded", amountInCents);
+        charge.put("refunded", true);
+        emitLater("charge.refunded", charge);
+
+        return "re_sim_" + randomId();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        webhookEmitter.shutdownNow();
+    }
+
+    /**
+     * Wait for the simulated network round trip, then fail at the configured rate.
+     */
+    private void simulateCall() throws StripeException {
+        long latencyMs = Math.round(Math.exp(latencyMu + latencySigma * ThreadLocalRandom.current().nextGaussian()));
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Interrupted while calling the simulated payment provider", e);
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new ApiException("Simulated payment provider error", requestId(), "api_error", 500, null);
+        }
+    }
+
+    /**
+     * Complete a created intent as if the guest had paid, and send the resulting webhook.
+     */
+    private void settle(String paymentIntentId, long amountInCents, String currency, Map<String, String> metadata) {
+        GatewayPaymentIntent intent = intents.getIfPresent(paymentIntentId);
+        if (intent == null) {
+            return;
+        }
+
+        String type;
+        Map<String, Object> object;
+        synchronized (intent) {
+            if (declined()) {
+                type = "payment_intent.payment_failed";
+            } else {
+                charge(intent);
+                type = "payment_intent.succeeded";
+            }
+            object = intentObject(intent, amountInCents, currency, metadata);
+        }
+        emit(type, object);
+    }
+
+    private void charge(GatewayPaymentIntent intent) {
+        intent.setStatus("succeeded");
+        intent.setLatestChargeId("ch_sim_" + randomId());
+        intent.setCardBrand(CARD_BRAND);
+        intent.setCardLast4(CARD_LAST4);
+    }
+
+    private boolean declined() {
+        return ThreadLocalRandom.current().nextDouble() < declineRate;
+    }
+
+    private void emitLater(String type, Map<String, Object> object) {
+        webhookEmitter.schedule(() -> emit(type, object), webhookDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Build, sign and verify a webhook event, then store it in the inbox as the webhook endpoint would.
+     */
+    private void emit(String type, Map<String, Object> object) {
+        if (!webhooksEnabled) {
+            return;
+        }
+
+        try {
+            long created = Instant.now().getEpochSecond();
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("id", "evt_sim_" + randomId());
+            event.put("object", "event");
+            event.put("api_version", Stripe.API_VERSION);
+            event.put("created", created);
+            event.put("type", type);
+            event.put("data", Map.of("object", object));
+            String payload = objectMapper.writeValueAsString(event);
+
+            String signature = "t=" + created + ",v1="
+                    + Webhook.Util.computeHmacSha256(webhookSecret, created + "." + payload);
+            Event verified = Webhook.constructEvent(payload, signature, webhookSecret);
+
+            stripeEventInbox.getObject().accept(verified, payload);
+        } catch (JsonProcessingException | GeneralSecurityException | StripeException | RuntimeException e) {
+            log.error("Simulated {} webhook could not be emitted", type, e);
+        }
+    }
+
+    private Map<String, Object> intentObject(GatewayPaymentIntent intent, long amountInCents, String currency,
+                                             Map<String, String> metadata) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("id", intent.getId());
+        object.put("object", "payment_intent");
+        object.put("amount", amountInCents);
+        object.put("currency", currency);
+        object.put("status", intent.getStatus());
+        object.put("latest_charge", intent.getLatestChargeId());
+        object.put("metadata", metadata);
+        return object;
+    }
+
+    private static GatewayPaymentIntent newIntent(String status) {
+        String id = "pi_sim_" + randomId();
+        GatewayPaymentIntent intent = new GatewayPaymentIntent();
+        intent.setId(id);
+        intent.setClientSecret(id + "_secret_" + randomId());
+        intent.setStatus(status);
+        return intent;
+    }
+
+    private static GatewayPaymentIntent copy(GatewayPaymentIntent intent) {
+        return new GatewayPaymentIntent(intent.getId(), intent.getClientSecret(), intent.getStatus(),
+                intent.getLatestChargeId(), intent.getCardBrand(), intent.getCardLast4());
+    }
+
+    private static String requestId() {
+        return "req_sim_" + randomId();
+    }
+
+    private static String randomId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+    }
+}
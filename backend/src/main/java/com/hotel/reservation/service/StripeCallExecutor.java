@@ -0,0 +1,138 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.PaymentProviderUnavailableException;
+import com.stripe.exception.StripeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead for blocking Stripe calls.
+ * Calls run on a dedicated, bounded thread pool and the caller waits for each one
+ * for at most app.stripe.timeout-ms. When every thread is busy and the small wait
+ * queue is full, calls fail at once instead of tying up more request threads, so a
+ * Stripe slowdown cannot exhaust the servlet thread pool that room search runs on.
+ *
+ * Interrupting a timed-out call does not abort a blocked socket read, so
+ * {@link StripePaymentGateway} also sets the same timeout on each request it makes.
+ *
+ * Rejected and timed-out calls throw {@link PaymentProviderUnavailableException},
+ * and each call is timed as {@code stripe.calls}, tagged by operation and outcome.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class StripeCallExecutor {
+
+    /**
+     * A blocking Stripe API call
+     */
+    @FunctionalInterface
+    public interface StripeCall<T> {
+        T call() throws StripeException;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public StripeCallExecutor(MeterRegistry meterRegistry,
+                              @Value("${app.stripe.max-concurrent-calls:16}") int maxConcurrentCalls,
+                              @Value("${app.stripe.max-queued-calls:32}") int maxQueuedCalls,
+                              @Value("${app.stripe.timeout-ms:10000}") long timeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = Duration.ofMillis(timeoutMs);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxQueuedCalls),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stripe-call-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "stripe", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Make a Stripe call on the bulkhead and wait for its result.
+     *
+     * @param operation operation name, used as metric tag
+     * @param call the Stripe call
+     * @param <T> result type
+     * @return the call's result
+     * @throws PaymentProviderUnavailableException if the bulkhead is full or the call times out
+     * @throws StripeException if the call fails
+     */
+    public <T> T call(String operation, StripeCall<T> call) throws StripeException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Future<T> future;
+            try {
+                future = executor.submit(call::call);
+            } catch (RejectedExecutionException e) {
+                outcome = "rejected";
+                log.warn("Rejected Stripe call {}: {} calls in flight", operation, executor.getActiveCount());
+                throw new PaymentProviderUnavailableException("The payment provider is busy. Please try again in a moment.", e);
+            }
+
+            try {
+                return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                outcome = "timeout";
+                future.cancel(true);
+                log.warn("Stripe call {} timed out after {} ms", operation, timeout.toMillis());
+                throw new PaymentProviderUnavailableException("The payment provider did not respond in time. Please try again.", e);
+            } catch (InterruptedException e) {
+                outcome = "interrupted";
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new PaymentProviderUnavailableException("Interrupted while waiting for the payment provider", e);
+            } catch (ExecutionException e) {
+                outcome = "error";
+                Throwable cause = e.getCause();
+                if (cause instanceof StripeException stripeException) {
+                    throw stripeException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            sample.stop(Timer.builder("stripe.calls")
+                    .description("Stripe API calls made through the bulkhead")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
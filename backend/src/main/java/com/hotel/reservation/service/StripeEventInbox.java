@@ -0,0 +1,324 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.exception.InvalidWebhookEventException;
+import com.hotel.reservation.model.StripeEvent;
+import com.hotel.reservation.repository.StripeEventRepository;
+import com.stripe.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inbox for Stripe webhook events.
+ * A verified event is stored in the stripe_events collection with one insert and
+ * the webhook is answered right away; a redelivered event is recognized by its ID
+ * and stored only once. A fixed pool of workers processes the inbox through
+ * {@link PaymentService#handleWebhookEvent(Event)}.
+ *
+ * Events of a payment intent are processed one at a time, in the order Stripe
+ * created them. A failed event is retried with exponential backoff, holding back
+ * later events of its payment intent, until app.stripe-webhooks.max-attempts is
+ * reached. Only failures that may pass are retried, such as provider or database
+ * errors; an event that cannot be processed because of its content
+ * ({@link InvalidWebhookEventException}) is marked failed at once. Entries are claimed with a conditional update, so workers on several
+ * instances share the inbox, and a claim abandoned by a crashed worker is taken
+ * over after app.stripe-webhooks.claim-timeout-seconds. Outcomes are counted as
+ * {@code stripe.webhooks}, tagged by outcome.
+ *
+ * Workers start once the application is ready. On shutdown, events in flight get
+ * app.stripe-webhooks.shutdown-timeout-seconds to finish; an event interrupted after
+ * that is returned to the inbox at once.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class StripeEventInbox {
+
+    /**
+     * Due entries read per poll
+     */
+    private static final int BATCH_SIZE = 50;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final Duration pollInterval;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+    private final Duration retention;
+    private final Duration shutdownTimeout;
+    private final ExecutorService workers;
+    private final Counter received;
+    private final Counter duplicates;
+    private final Counter processed;
+    private final Counter retried;
+    private final Counter failed;
+
+    /**
+     * Wakes an idle worker when an event is stored
+     */
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private volatile boolean stopping;
+
+    public StripeEventInbox(StripeEventRepository stripeEventRepository,
+                            PaymentService paymentService,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.stripe-webhooks.workers:2}") int workerCount,
+                            @Value("${app.stripe-webhooks.max-attempts:8}") int maxAttempts,
+                            @Value("${app.stripe-webhooks.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${app.stripe-webhooks.initial-backoff-ms:1000}") long initialBackoffMs,
+                            @Value("${app.stripe-webhooks.max-backoff-ms:300000}") long maxBackoffMs,
+                            @Value("${app.stripe-webhooks.claim-timeout-seconds:60}") long claimTimeoutSeconds,
+                            @Value("${app.stripe-webhooks.retention-days:30}") long retentionDays,
+                            @Value("${app.stripe-webhooks.shutdown-timeout-seconds:10}") long shutdownTimeoutSeconds) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.pollInterval = Duration.ofMillis(pollIntervalMs);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.shutdownTimeout = Duration.ofSeconds(shutdownTimeoutSeconds);
+
+        this.received = outcomeCounter(meterRegistry, "received");
+        this.duplicates = outcomeCounter(meterRegistry, "duplicate");
+        this.processed = outcomeCounter(meterRegistry, "processed");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "stripe-event-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the workers once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::runWorker);
+        }
+    }
+
+    /**
+     * Store a verified webhook event for processing.
+     *
+     * @param event the verified Stripe event
+     * @param payload raw event JSON as delivered
+     * @return true if stored, false if the event was delivered before
+     */
+    public boolean accept(Event event, String payload) {
+        LocalDateTime now = LocalDateTime.now();
+
+        StripeEvent entry = new StripeEvent();
+        entry.setId(event.getId());
+        entry.setType(event.getType());
+        entry.setPaymentIntentId(paymentIntentIdOf(payload));
+        entry.setPayload(payload);
+        entry.setStatus(StripeEvent.Status.PENDING);
+        entry.setCreatedAt(event.getCreated() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochSecond(event.getCreated()), ZoneId.systemDefault())
+                : now);
+        entry.setReceivedAt(now);
+        entry.setNextAttemptAt(now);
+
+        try {
+            stripeEventRepository.insert(entry);
+        } catch (DuplicateKeyException e) {
+            duplicates.increment();
+            log.debug("Ignoring redelivered Stripe event {}", event.getId());
+            return false;
+        }
+
+        received.increment();
+        if (wakeUp.availablePermits() < workerCount) {
+            wakeUp.release();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        workers.shutdown();
+        // Idle workers stop at once instead of at the end of their poll
+        wakeUp.release(workerCount);
+        try {
+            if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Stripe event workers still busy after {} s, interrupting them", shutdownTimeout.toSeconds());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        while (!stopping && !Thread.currentThread().isInterrupted()) {
+            boolean worked = false;
+            try {
+                worked = processNext();
+            } catch (RuntimeException e) {
+                log.error("Stripe event worker failed", e);
+            }
+
+            if (!worked) {
+                try {
+                    // Also picks up retries that fell due and events stored by other instances
+                    wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim and process one due entry.
+     *
+     * @return false if no entry could be claimed
+     */
+    private boolean processNext() {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (StripeEvent candidate : stripeEventRepository.findDue(now, BATCH_SIZE)) {
+            if (candidate.getPaymentIntentId() != null) {
+                String head = stripeEventRepository.findOldestOpen(candidate.getPaymentIntentId())
+                        .map(StripeEvent::getId)
+                        .orElse(null);
+                if (!candidate.getId().equals(head)) {
+                    // An earlier event of the same payment intent goes first
+                    continue;
+                }
+            }
+
+            String claimId = UUID.randomUUID().toString();
+            if (stripeEventRepository.claim(candidate.getId(), claimId, now, now.plus(claimTimeout))) {
+                process(candidate, claimId, candidate.getAttempts() + 1);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void process(StripeEvent entry, String claimId, int attempt) {
+        boolean recorded;
+        try {
+            Event event = paymentService.parseWebhookEvent(entry.getPayload());
+            paymentService.handleWebhookEvent(event);
+
+            LocalDateTime now = LocalDateTime.now();
+            recorded = stripeEventRepository.finish(entry.getId(), claimId, StripeEvent.Status.PROCESSED, null,
+                    now, now.plus(retention));
+            processed.increment();
+        } catch (InvalidWebhookEventException e) {
+            // Would fail the same way on every attempt
+            LocalDateTime now = LocalDateTime.now();
+            recorded = stripeEventRepository.finish(entry.getId(), claimId, StripeEvent.Status.FAILED, errorOf(e),
+                    now, now.plus(retention));
+            failed.increment();
+            log.error("Stripe event {} ({}) cannot be processed: {}", entry.getId(), entry.getType(), e.getMessage());
+        } catch (RuntimeException e) {
+            String error = errorOf(e);
+            LocalDateTime now = LocalDateTime.now();
+
+            if (Thread.interrupted()) {
+                // Interrupted by shutdown; the flag is cleared for the update and set again after it
+                try {
+                    recorded = stripeEventRepository.retryLater(entry.getId(), claimId, error, now);
+                } finally {
+                    Thread.currentThread().interrupt();
+                }
+                log.warn("Stripe event {} ({}) interrupted by shutdown, returned to the inbox",
+                        entry.getId(), entry.getType());
+            } else if (attempt >= maxAttempts) {
+                recorded = stripeEventRepository.finish(entry.getId(), claimId, StripeEvent.Status.FAILED, error,
+                        now, now.plus(retention));
+                failed.increment();
+                log.error("Stripe event {} ({}) failed after {} attempts", entry.getId(), entry.getType(), attempt, e);
+            } else {
+                Duration backoff = backoff(attempt);
+                recorded = stripeEventRepository.retryLater(entry.getId(), claimId, error, now.plus(backoff));
+                retried.increment();
+                log.warn("Stripe event {} ({}) failed on attempt {}, retrying in {} ms: {}",
+                        entry.getId(), entry.getType(), attempt, backoff.toMillis(), error);
+            }
+        }
+
+        if (!recorded) {
+            log.warn("Claim on Stripe event {} was taken over before it finished", entry.getId());
+        }
+    }
+
+    private static String errorOf(RuntimeException e) {
+        String error = e.toString();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private Duration backoff(int attempt) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    /**
+     * Payment intent an event belongs to: the intent itself, or the intent of a charge or refund.
+     */
+    private String paymentIntentIdOf(String payload) {
+        try {
+            JsonNode object = objectMapper.readTree(payload).path("data").path("object");
+            if ("payment_intent".equals(object.path("object").textValue())) {
+                return object.path("id").textValue();
+            }
+            JsonNode paymentIntent = object.path("payment_intent");
+            return paymentIntent.isObject() ? paymentIntent.path("id").textValue() : paymentIntent.textValue();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("stripe.webhooks")
+                .description("Stripe webhook events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,122 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.GatewayPaymentIntent;
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentMethod;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentRetrieveParams;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Payment gateway backed by the Stripe API.
+ * Used unless app.payments.gateway selects another gateway.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Service
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway implements PaymentGateway {
+
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    @Value("${app.stripe.timeout-ms:10000}")
+    private int timeoutMs;
+
+    /**
+     * Per-request options; the read timeout ends a blocked socket read that the bulkhead cannot interrupt
+     */
+    private RequestOptions requestOptions;
+
+    /**
+     * Initialize Stripe with API key.
+     */
+    @PostConstruct
+    public void init() {
+        Stripe.apiKey = stripeApiKey;
+        requestOptions = RequestOptions.builder()
+                .setReadTimeout(timeoutMs)
+                .build();
+    }
+
+    @Override
+    public GatewayPaymentIntent createPaymentIntent(long amountInCents, String currency, Map<String, String> metadata)
+            throws StripeException {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amountInCents)
+                .setCurrency(currency)
+                .putAllMetadata(metadata)
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .build()
+                )
+                .build();
+
+        return toGatewayIntent(PaymentIntent.create(params, requestOptions));
+    }
+
+    @Override
+    public GatewayPaymentIntent chargePaymentMethod(long amountInCents, String currency, String paymentMethodId,
+                                                    Map<String, String> metadata) throws StripeException {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amountInCents)
+                .setCurrency(currency)
+                .setPaymentMethod(paymentMethodId)
+                .setConfirm(true)
+                .setConfirmationMethod(PaymentIntentCreateParams.ConfirmationMethod.MANUAL)
+                .putAllMetadata(metadata)
+                // Return the payment method with the intent, saving a second call for the card details
+                .addExpand("payment_method")
+                .build();
+
+        return toGatewayIntent(PaymentIntent.create(params, requestOptions));
+    }
+
+    @Override
+    public GatewayPaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
+        // Payment method expanded so the card details come back in the same call
+        PaymentIntentRetrieveParams params = PaymentIntentRetrieveParams.builder()
+                .addExpand("payment_method")
+                .build();
+
+        return toGatewayIntent(PaymentIntent.retrieve(paymentIntentId, params, requestOptions));
+    }
+
+    @Override
+    public String createRefund(String paymentIntentId, long amountInCents) throws StripeException {
+        Map<String, Object> refundParams = new HashMap<>();
+        refundParams.put("payment_intent", paymentIntentId);
+        refundParams.put("amount", amountInCents);
+        refundParams.put("reason", "requested_by_customer");
+
+        return Refund.create(refundParams, requestOptions).getId();
+    }
+
+    private static GatewayPaymentIntent toGatewayIntent(PaymentIntent paymentIntent) {
+        GatewayPaymentIntent intent = new GatewayPaymentIntent();
+        intent.setId(paymentIntent.getId());
+        intent.setClientSecret(paymentIntent.getClientSecret());
+        intent.setStatus(paymentIntent.getStatus());
+        intent.setLatestChargeId(paymentIntent.getLatestCharge());
+
+        PaymentMethod paymentMethod = paymentIntent.getPaymentMethodObject();
+        if (paymentMethod != null && paymentMethod.getCard() != null) {
+            intent.setCardBrand(paymentMethod.getCard().getBrand());
+            intent.setCardLast4(paymentMethod.getCard().getLast4());
+        }
+
+        return intent;
+    }
+}
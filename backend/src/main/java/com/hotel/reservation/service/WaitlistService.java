@@ -0,0 +1,259 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.WaitlistEntry;
+import com.hotel.reservation.repository.UserRepository;
+import com.hotel.reservation.repository.WaitlistEntryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service for the waitlist of rooms that are temporarily held.
+ * Instead of retrying a booking until a pending hold expires, a guest joins the
+ * waitlist and parks one long-poll request. When a hold on the room is released by
+ * cancellation or expiry, waiting entries are promoted to pending reservations in
+ * the order they joined, and the guest's parked request is answered.
+ *
+ * Promotions run on a single background thread, so a release never books rooms on
+ * the thread that released the hold. Entries are versioned, so only one instance
+ * promotes a given entry; a guest parked on another instance sees the promotion
+ * when the long-poll times out and re-reads the entry.
+ *
+ * @author Hotel Reservation Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class WaitlistService {
+
+    private static final List<WaitlistEntry.Status> PROMOTABLE_STATUSES =
+            List.of(WaitlistEntry.Status.WAITING, WaitlistEntry.Status.PROMOTING);
+
+    /**
+     * How long an entry may stay claimed before another promotion takes it over
+     */
+    private static final Duration STALE_PROMOTION = Duration.ofMinutes(1);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ReservationService reservationService;
+    private final UserRepository userRepository;
+    private final RoomCatalog roomCatalog;
+    private final Duration maxWait;
+
+    private final ExecutorService promoter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-promoter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ParkedRequests<WaitlistEntry> parkedRequests = new ParkedRequests<>();
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           ReservationService reservationService,
+                           UserRepository userRepository,
+                           RoomCatalog roomCatalog,
+                           @Value("${app.waitlist.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.reservationService = reservationService;
+        this.userRepository = userRepository;
+        this.roomCatalog = roomCatalog;
+        this.maxWait = Duration.ofSeconds(maxWaitSeconds);
+    }
+
+    /**
+     * Join the waitlist for a room and stay.
+     * Promotion is attempted right away, in case the hold was released in the meantime.
+     *
+     * @param user the waiting user
+     * @param roomId room ID
+     * @param checkInDate check-in date
+     * @param checkOutDate check-out date
+     * @param numberOfGuests number of guests
+     * @param specialRequests special requests
+     * @return the created entry
+     * @throws RuntimeException if the room does not exist or capacity is exceeded
+     */
+    public WaitlistEntry join(User user, String roomId, LocalDate checkInDate, LocalDate checkOutDate,
+                              int numberOfGuests, String specialRequests) {
+        Room room = roomCatalog.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+
+        if (numberOfGuests > room.getCapacity()) {
+            throw new RuntimeException("Number of guests exceeds room capacity");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(user.getId());
+        entry.setRoomId(roomId);
+        entry.setCheckInDate(checkInDate);
+        entry.setCheckOutDate(checkOutDate);
+        entry.setNumberOfGuests(numberOfGuests);
+        entry.setSpecialRequests(specialRequests);
+        entry.setStatus(WaitlistEntry.Status.WAITING);
+        entry.setExpireAt(checkInDate.atStartOfDay());
+
+        WaitlistEntry savedEntry = waitlistEntryRepository.insert(entry);
+        promoteLater(roomId);
+
+        return savedEntry;
+    }
+
+    /**
+     * Get a waitlist entry by ID.
+     *
+     * @param id entry ID
+     * @return waitlist entry
+     * @throws RuntimeException if the entry is not found
+     */
+    public WaitlistEntry getEntry(String id) {
+        return waitlistEntryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found with id: " + id));
+    }
+
+    /**
+     * Leave the waitlist.
+     *
+     * @param id entry ID
+     * @return the cancelled entry
+     * @throws RuntimeException if the entry was already promoted or closed
+     * @throws OptimisticLockingFailureException if the entry is being promoted right now
+     */
+    public WaitlistEntry leave(String id) {
+        WaitlistEntry entry = getEntry(id);
+
+        if (entry.getStatus() == WaitlistEntry.Status.PROMOTING) {
+            throw new OptimisticLockingFailureException("Waitlist entry is being promoted. Please retry shortly.");
+        }
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            throw new RuntimeException("Waitlist entry is no longer waiting");
+        }
+
+        entry.setStatus(WaitlistEntry.Status.CANCELLED);
+        WaitlistEntry cancelledEntry = waitlistEntryRepository.save(entry);
+        parkedRequests.answer(id, cancelledEntry);
+
+        return cancelledEntry;
+    }
+
+    /**
+     * Wait until an entry stops waiting, or until the wait times out.
+     * The result is the entry as it is then, so a caller that gets a waiting entry
+     * back simply asks again.
+     *
+     * @param id entry ID
+     * @param waitSeconds requested wait, capped at app.waitlist.max-wait-seconds
+     * @return the entry once promoted or closed, or as it is when the wait times out
+     */
+    public DeferredResult<WaitlistEntry> awaitUpdate(String id, long waitSeconds) {
+        long timeoutMs = Math.min(Duration.ofSeconds(Math.max(waitSeconds, 1)).toMillis(), maxWait.toMillis());
+        // Promotions made by another instance are picked up when the wait times out
+        DeferredResult<WaitlistEntry> result = parkedRequests.park(id, timeoutMs, () -> getEntry(id));
+
+        WaitlistEntry entry = getEntry(id);
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING && entry.getStatus() != WaitlistEntry.Status.PROMOTING) {
+            result.setResult(entry);
+        }
+
+        return result;
+    }
+
+    /**
+     * Promote waiting entries when a reservation stops holding its nights.
+     *
+     * @param event reservation change event
+     */
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        Reservation reservation = event.getReservation();
+        if (reservation.getRoom() == null) {
+            return;
+        }
+
+        if (!RoomOccupancyIndex.ACTIVE_STATUSES.contains(reservation.getStatus()) || event.isRescheduled()) {
+            promoteLater(reservation.getRoom().getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        promoter.shutdownNow();
+    }
+
+    private void promoteLater(String roomId) {
+        promoter.execute(() -> {
+            try {
+                promote(roomId);
+            } catch (RuntimeException e) {
+                log.error("Waitlist promotion failed for room {}", roomId, e);
+            }
+        });
+    }
+
+    /**
+     * Try to book every waiting entry of a room, oldest first.
+     * Entries whose nights are still taken keep their place in the queue.
+     */
+    private void promote(String roomId) {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(STALE_PROMOTION);
+
+        for (WaitlistEntry entry : waitlistEntryRepository.findByRoomIdAndStatusInOrderByCreatedAtAsc(roomId, PROMOTABLE_STATUSES)) {
+            if (entry.getStatus() == WaitlistEntry.Status.PROMOTING && entry.getUpdatedAt() != null
+                    && entry.getUpdatedAt().isAfter(staleBefore)) {
+                continue;
+            }
+
+            WaitlistEntry claimed;
+            try {
+                entry.setStatus(WaitlistEntry.Status.PROMOTING);
+                claimed = waitlistEntryRepository.save(entry);
+            } catch (OptimisticLockingFailureException e) {
+                // Promoted, cancelled or claimed by another instance
+                continue;
+            }
+
+            if (claimed.getCheckInDate().isBefore(LocalDate.now())) {
+                claimed.setStatus(WaitlistEntry.Status.EXPIRED);
+            } else {
+                book(claimed);
+            }
+
+            WaitlistEntry savedEntry = waitlistEntryRepository.save(claimed);
+            if (savedEntry.getStatus() != WaitlistEntry.Status.WAITING) {
+                parkedRequests.answer(savedEntry.getId(), savedEntry);
+            }
+        }
+    }
+
+    private void book(WaitlistEntry entry) {
+        try {
+            User user = userRepository.findById(entry.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Reservation reservation = reservationService.createReservation(user, entry.getRoomId(),
+                    entry.getCheckInDate(), entry.getCheckOutDate(), entry.getNumberOfGuests(), entry.getSpecialRequests());
+
+            entry.setStatus(WaitlistEntry.Status.PROMOTED);
+            entry.setReservationId(reservation.getId());
+            log.info("Waitlist entry {} promoted to reservation {}", entry.getId(), reservation.getId());
+        } catch (RoomNotAvailableException e) {
+            entry.setStatus(WaitlistEntry.Status.WAITING);
+        } catch (RuntimeException e) {
+            log.warn("Waitlist entry {} could not be booked: {}", entry.getId(), e.getMessage());
+            entry.setStatus(WaitlistEntry.Status.EXPIRED);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.hotel.reservation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.ReservationSummary;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
 import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserSnapshot;
 import com.hotel.reservation.repository.ReservationRepository;
 import com.hotel.reservation.repository.RoomRepository;
 import com.hotel.reservation.repository.UserRepository;
@@ -21,6 +24,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -52,6 +56,7 @@ class AdminControllerTest {
     private User testUser;
     private Room testRoom;
     private Reservation testReservation;
+    private ReservationSummary testSummary;
 
     @BeforeEach
     void setUp() {
@@ -72,11 +77,19 @@ class AdminControllerTest {
 
         testReservation = new Reservation();
         testReservation.setId("res123");
-        testReservation.setUser(testUser);
-        testReservation.setRoom(testRoom);
+        testReservation.setUser(UserSnapshot.of(testUser));
+        testReservation.setRoom(RoomSnapshot.of(testRoom));
         testReservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
         testReservation.setTotalAmount(new BigDecimal("300.00"));
         testReservation.setCreatedAt(LocalDateTime.now());
+
+        testSummary = new ReservationSummary();
+        testSummary.setId(testReservation.getId());
+        testSummary.setUser(testReservation.getUser());
+        testSummary.setRoom(testReservation.getRoom());
+        testSummary.setStatus(testReservation.getStatus());
+        testSummary.setTotalAmount(testReservation.getTotalAmount());
+        testSummary.setCreatedAt(testReservation.getCreatedAt());
     }
 
     @Test
@@ -238,7 +251,7 @@ class AdminControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllReservations_Success() throws Exception {
-        when(reservationRepository.findAll()).thenReturn(Arrays.asList(testReservation));
+        when(reservationRepository.findAllSummaries()).thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/admin/reservations"))
                 .andExpect(status().isOk())
@@ -252,8 +265,8 @@ class AdminControllerTest {
         LocalDate startDate = LocalDate.now();
         LocalDate endDate = LocalDate.now().plusDays(7);
 
-        when(reservationRepository.findByCheckInDateBetween(startDate, endDate))
-                .thenReturn(Arrays.asList(testReservation));
+        when(reservationRepository.findSummariesByCheckInDateBetween(startDate, endDate))
+                .thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/admin/reservations/date-range")
                         .param("startDate", startDate.toString())
@@ -266,7 +279,38 @@ class AdminControllerTest {
     @WithMockUser(roles = "ADMIN")
     void updateReservationStatus_Success() throws Exception {
         when(reservationRepository.findById("res123")).thenReturn(Optional.of(testReservation));
-        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+        when(reservationRepository.updateIfUnchanged(any(Reservation.class), any())).thenAnswer(invocation -> {
+            Consumer<Reservation> change = invocation.getArgument(1);
+            change.accept(invocation.getArgument(0));
+            return true;
+        });
+
+        Map<String, String> request = new HashMap<>();
+        request.put("status", "CHECKED_IN");
+
+        mockMvc.perform(put("/api/admin/reservations/res123/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("res123"))
+                .andExpect(jsonPath("$.status").value("CHECKED_IN"));
+
+        verify(reservationRepository).updateIfUnchanged(argThat(res ->
+            res.getStatus() == Reservation.ReservationStatus.CHECKED_IN), any());
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateReservationStatus_VersionConflict_RetriesWithFreshCopy() throws Exception {
+        when(reservationRepository.findById("res123")).thenReturn(Optional.of(testReservation));
+        when(reservationRepository.updateIfUnchanged(any(Reservation.class), any()))
+                .thenReturn(false)
+                .thenAnswer(invocation -> {
+                    Consumer<Reservation> change = invocation.getArgument(1);
+                    change.accept(invocation.getArgument(0));
+                    return true;
+                });
 
         Map<String, String> request = new HashMap<>();
         request.put("status", "CHECKED_IN");
@@ -275,10 +319,26 @@ class AdminControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value("res123"));
+                .andExpect(jsonPath("$.status").value("CHECKED_IN"));
+
+        verify(reservationRepository, times(2)).updateIfUnchanged(any(Reservation.class), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateReservationStatus_PersistentConflict_Conflict() throws Exception {
+        when(reservationRepository.findById("res123")).thenReturn(Optional.of(testReservation));
+        when(reservationRepository.updateIfUnchanged(any(Reservation.class), any())).thenReturn(false);
+
+        Map<String, String> request = new HashMap<>();
+        request.put("status", "CHECKED_IN");
+
+        mockMvc.perform(put("/api/admin/reservations/res123/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
 
-        verify(reservationRepository).save(argThat(res ->
-            res.getStatus() == Reservation.ReservationStatus.CHECKED_IN));
+        verify(reservationRepository, times(3)).updateIfUnchanged(any(Reservation.class), any());
     }
 
     @Test
@@ -1,13 +1,19 @@
 package com.hotel.reservation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.PaymentSummary;
+import com.hotel.reservation.exception.PaymentProviderUnavailableException;
 import com.hotel.reservation.model.Payment;
 import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.ReservationSnapshot;
 import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
 import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserSnapshot;
 import com.hotel.reservation.security.UserPrincipal;
 import com.hotel.reservation.service.PaymentService;
 import com.hotel.reservation.service.ReservationService;
+import com.hotel.reservation.service.StripeEventInbox;
 import com.stripe.exception.StripeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,6 +52,9 @@ class PaymentControllerTest {
     @MockBean
     private ReservationService reservationService;
 
+    @MockBean
+    private StripeEventInbox stripeEventInbox;
+
     @MockBean
     private com.hotel.reservation.repository.PaymentRepository paymentRepository;
 
@@ -62,6 +71,7 @@ class PaymentControllerTest {
     private Room testRoom;
     private Reservation testReservation;
     private Payment testPayment;
+    private PaymentSummary testPaymentSummary;
     private UserPrincipal userPrincipal;
 
     @BeforeEach
@@ -80,21 +90,29 @@ class PaymentControllerTest {
 
         testReservation = new Reservation();
         testReservation.setId("res123");
-        testReservation.setUser(testUser);
-        testReservation.setRoom(testRoom);
+        testReservation.setUser(UserSnapshot.of(testUser));
+        testReservation.setRoom(RoomSnapshot.of(testRoom));
         testReservation.setCheckInDate(LocalDate.now().plusDays(1));
         testReservation.setCheckOutDate(LocalDate.now().plusDays(3));
         testReservation.setTotalAmount(new BigDecimal("300.00"));
 
         testPayment = new Payment();
         testPayment.setId("payment123");
-        testPayment.setUser(testUser);
-        testPayment.setReservation(testReservation);
+        testPayment.setUser(UserSnapshot.of(testUser));
+        testPayment.setReservation(ReservationSnapshot.of(testReservation));
         testPayment.setAmount(new BigDecimal("300.00"));
         testPayment.setStripePaymentIntentId("pi_test123");
         testPayment.setStripeClientSecret("secret_test123");
         testPayment.setStatus(Payment.PaymentStatus.PENDING);
 
+        testPaymentSummary = new PaymentSummary();
+        testPaymentSummary.setId(testPayment.getId());
+        testPaymentSummary.setUser(testPayment.getUser());
+        testPaymentSummary.setReservation(testPayment.getReservation());
+        testPaymentSummary.setAmount(testPayment.getAmount());
+        testPaymentSummary.setStripePaymentIntentId(testPayment.getStripePaymentIntentId());
+        testPaymentSummary.setStatus(testPayment.getStatus());
+
         userPrincipal = new UserPrincipal(
                 testUser.getId(),
                 testUser.getEmail(),
@@ -129,7 +147,7 @@ class PaymentControllerTest {
     void createPaymentIntent_OtherUserReservation_Forbidden() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testReservation.setUser(otherUser);
+        testReservation.setUser(UserSnapshot.of(otherUser));
 
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
 
@@ -145,6 +163,49 @@ class PaymentControllerTest {
         verify(paymentService, never()).createPaymentIntent(any(Reservation.class));
     }
 
+    @Test
+    void createPaymentIntent_RetriedWithIdempotencyKey_CallsStripeOnce() throws Exception {
+        when(reservationService.getReservationById("res123")).thenReturn(testReservation);
+        when(paymentService.createPaymentIntent(any(Reservation.class))).thenReturn(testPayment);
+
+        Map<String, String> paymentData = new HashMap<>();
+        paymentData.put("reservationId", "res123");
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/api/payments/create-intent")
+                            .with(user(userPrincipal))
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(paymentData)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.clientSecret").value("secret_test123"));
+        }
+
+        verify(paymentService, times(1)).createPaymentIntent(any(Reservation.class));
+    }
+
+    @Test
+    void createGroupPaymentIntent_Success() throws Exception {
+        testReservation.setGroupId("group123");
+        testPayment.setGroupId("group123");
+        when(reservationService.getGroupReservations("group123")).thenReturn(List.of(testReservation));
+        when(paymentService.createGroupPaymentIntent(eq("group123"), anyList())).thenReturn(testPayment);
+
+        Map<String, String> paymentData = new HashMap<>();
+        paymentData.put("groupId", "group123");
+
+        mockMvc.perform(post("/api/payments/create-group-intent")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentData)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value("payment123"))
+                .andExpect(jsonPath("$.clientSecret").value("secret_test123"));
+
+        verify(paymentService).createGroupPaymentIntent(eq("group123"), anyList());
+    }
+
     @Test
     void createPaymentIntent_StripeError_ThrowsException() throws Exception {
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
@@ -161,6 +222,23 @@ class PaymentControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void createPaymentIntent_StripeBusy_ServiceUnavailable() throws Exception {
+        when(reservationService.getReservationById("res123")).thenReturn(testReservation);
+        when(paymentService.createPaymentIntent(any(Reservation.class)))
+                .thenThrow(new PaymentProviderUnavailableException("The payment provider is busy", null));
+
+        Map<String, String> paymentData = new HashMap<>();
+        paymentData.put("reservationId", "res123");
+
+        mockMvc.perform(post("/api/payments/create-intent")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentData)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
     @Test
     @WithMockUser(username = "user@example.com", roles = "USER")
     void confirmPayment_Success() throws Exception {
@@ -183,13 +261,14 @@ class PaymentControllerTest {
     @Test
     void getPaymentHistory_Success() throws Exception {
         when(paymentService.getUserPaymentHistory("user123"))
-                .thenReturn(Arrays.asList(testPayment));
+                .thenReturn(Arrays.asList(testPaymentSummary));
 
         mockMvc.perform(get("/api/payments/history")
                         .with(user(userPrincipal)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("payment123"))
-                .andExpect(jsonPath("$[0].amount").value(300.00));
+                .andExpect(jsonPath("$[0].amount").value(300.00))
+                .andExpect(jsonPath("$[0].stripeClientSecret").doesNotExist());
 
         verify(paymentService).getUserPaymentHistory("user123");
     }
@@ -208,7 +287,7 @@ class PaymentControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllPayments_AsAdmin_Success() throws Exception {
-        when(paymentService.getAllPayments()).thenReturn(Arrays.asList(testPayment));
+        when(paymentService.getAllPayments()).thenReturn(Arrays.asList(testPaymentSummary));
 
         mockMvc.perform(get("/api/payments/all"))
                 .andExpect(status().isOk())
@@ -220,7 +299,7 @@ class PaymentControllerTest {
     @Test
     @WithMockUser(roles = "MANAGER")
     void getAllPayments_AsManager_Success() throws Exception {
-        when(paymentService.getAllPayments()).thenReturn(Arrays.asList(testPayment));
+        when(paymentService.getAllPayments()).thenReturn(Arrays.asList(testPaymentSummary));
 
         mockMvc.perform(get("/api/payments/all"))
                 .andExpect(status().isOk());
@@ -249,7 +328,7 @@ class PaymentControllerTest {
     void getPaymentById_OtherUserPayment_Forbidden() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testPayment.setUser(otherUser);
+        testPayment.setUser(UserSnapshot.of(otherUser));
 
         when(paymentService.getPaymentById("payment123")).thenReturn(testPayment);
 
@@ -263,7 +342,7 @@ class PaymentControllerTest {
     void getPaymentById_AsAdmin_Success() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testPayment.setUser(otherUser);
+        testPayment.setUser(UserSnapshot.of(otherUser));
 
         when(paymentService.getPaymentById("payment123")).thenReturn(testPayment);
 
@@ -372,4 +451,46 @@ class PaymentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Webhook received"));
     }
+
+    @Test
+    void handleStripeWebhook_Success_StoresEventInInbox() throws Exception {
+        String payload = "{\"id\":\"evt_123\",\"type\":\"payment_intent.succeeded\"}";
+        com.stripe.model.Event event = new com.stripe.model.Event();
+        event.setId("evt_123");
+        when(paymentService.verifyWebhook(payload, "test_signature")).thenReturn(event);
+
+        mockMvc.perform(post("/api/payments/webhook")
+                        .content(payload)
+                        .header("Stripe-Signature", "test_signature"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Webhook received"));
+
+        verify(stripeEventInbox).accept(event, payload);
+        verify(paymentService, never()).handleWebhookEvent(any());
+    }
+
+    @Test
+    void handleStripeWebhook_InvalidSignature_ReturnsBadRequest() throws Exception {
+        when(paymentService.verifyWebhook(anyString(), anyString()))
+                .thenThrow(new com.stripe.exception.SignatureVerificationException("bad signature", "test_signature"));
+
+        mockMvc.perform(post("/api/payments/webhook")
+                        .content("{}")
+                        .header("Stripe-Signature", "test_signature"))
+                .andExpect(status().isBadRequest());
+
+        verify(stripeEventInbox, never()).accept(any(), anyString());
+    }
+
+    @Test
+    void handleStripeWebhook_InboxUnavailable_AsksStripeToRetry() throws Exception {
+        when(paymentService.verifyWebhook(anyString(), anyString())).thenReturn(new com.stripe.model.Event());
+        when(stripeEventInbox.accept(any(), anyString()))
+                .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("MongoDB unavailable"));
+
+        mockMvc.perform(post("/api/payments/webhook")
+                        .content("{}")
+                        .header("Stripe-Signature", "test_signature"))
+                .andExpect(status().isInternalServerError());
+    }
 }
@@ -1,11 +1,19 @@
 package com.hotel.reservation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.GroupBookingRequest;
+import com.hotel.reservation.dto.ReservationRequest;
+import com.hotel.reservation.dto.ReservationSummary;
+import com.hotel.reservation.exception.BookingQueueFullException;
+import com.hotel.reservation.model.BookingTicket;
 import com.hotel.reservation.model.Reservation;
 import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
 import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserSnapshot;
 import com.hotel.reservation.repository.UserRepository;
 import com.hotel.reservation.security.UserPrincipal;
+import com.hotel.reservation.service.AsyncBookingService;
 import com.hotel.reservation.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +25,8 @@ import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -44,6 +54,9 @@ class ReservationControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private AsyncBookingService asyncBookingService;
+
     @MockBean
     private com.hotel.reservation.repository.PaymentRepository paymentRepository;
 
@@ -56,6 +69,7 @@ class ReservationControllerTest {
     private User testUser;
     private Room testRoom;
     private Reservation testReservation;
+    private ReservationSummary testSummary;
     private UserPrincipal userPrincipal;
 
     @BeforeEach
@@ -74,14 +88,24 @@ class ReservationControllerTest {
 
         testReservation = new Reservation();
         testReservation.setId("res123");
-        testReservation.setUser(testUser);
-        testReservation.setRoom(testRoom);
+        testReservation.setUser(UserSnapshot.of(testUser));
+        testReservation.setRoom(RoomSnapshot.of(testRoom));
         testReservation.setCheckInDate(LocalDate.now().plusDays(1));
         testReservation.setCheckOutDate(LocalDate.now().plusDays(3));
         testReservation.setNumberOfGuests(2);
         testReservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
         testReservation.setTotalAmount(new BigDecimal("300.00"));
 
+        testSummary = new ReservationSummary();
+        testSummary.setId(testReservation.getId());
+        testSummary.setUser(testReservation.getUser());
+        testSummary.setRoom(testReservation.getRoom());
+        testSummary.setCheckInDate(testReservation.getCheckInDate());
+        testSummary.setCheckOutDate(testReservation.getCheckOutDate());
+        testSummary.setNumberOfGuests(testReservation.getNumberOfGuests());
+        testSummary.setStatus(testReservation.getStatus());
+        testSummary.setTotalAmount(testReservation.getTotalAmount());
+
         userPrincipal = new UserPrincipal(
                 testUser.getId(),
                 testUser.getEmail(),
@@ -94,7 +118,7 @@ class ReservationControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllReservations_AsAdmin_Success() throws Exception {
-        when(reservationService.getAllReservations()).thenReturn(Arrays.asList(testReservation));
+        when(reservationService.getAllReservations()).thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/reservations"))
                 .andExpect(status().isOk())
@@ -107,7 +131,7 @@ class ReservationControllerTest {
     @Test
     @WithMockUser(roles = "MANAGER")
     void getAllReservations_AsManager_Success() throws Exception {
-        when(reservationService.getAllReservations()).thenReturn(Arrays.asList(testReservation));
+        when(reservationService.getAllReservations()).thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/reservations"))
                 .andExpect(status().isOk());
@@ -122,21 +146,22 @@ class ReservationControllerTest {
 
     @Test
     void getUserReservations_Success() throws Exception {
-        when(reservationService.getUserReservations("user123"))
-                .thenReturn(Arrays.asList(testReservation));
+        when(reservationService.getUserReservationSummaries("user123"))
+                .thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/reservations/my-reservations")
                         .with(user(userPrincipal)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("res123"))
-                .andExpect(jsonPath("$[0].user.id").value("user123"));
+                .andExpect(jsonPath("$[0].user.id").value("user123"))
+                .andExpect(jsonPath("$[0].paymentLinkToken").doesNotExist());
 
-        verify(reservationService).getUserReservations("user123");
+        verify(reservationService).getUserReservationSummaries("user123");
     }
 
     @Test
     void getUserReservations_EmptyList() throws Exception {
-        when(reservationService.getUserReservations("user123"))
+        when(reservationService.getUserReservationSummaries("user123"))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/reservations/my-reservations")
@@ -159,7 +184,7 @@ class ReservationControllerTest {
     void getReservationById_OtherUserReservation_Forbidden() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testReservation.setUser(otherUser);
+        testReservation.setUser(UserSnapshot.of(otherUser));
 
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
 
@@ -173,7 +198,7 @@ class ReservationControllerTest {
     void getReservationById_AsAdmin_Success() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testReservation.setUser(otherUser);
+        testReservation.setUser(UserSnapshot.of(otherUser));
 
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
 
@@ -244,6 +269,257 @@ class ReservationControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void createReservation_RetriedWithIdempotencyKey_CreatesOnce() throws Exception {
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+        when(reservationService.createReservation(
+                any(User.class), anyString(), any(LocalDate.class), any(LocalDate.class), anyInt(), anyString()
+        )).thenReturn(testReservation);
+
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("numberOfGuests", 2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/reservations")
+                            .with(user(userPrincipal))
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(reservationData)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value("res123"));
+        }
+
+        verify(reservationService, times(1)).createReservation(
+                any(User.class), anyString(), any(LocalDate.class), any(LocalDate.class), anyInt(), anyString());
+    }
+
+    @Test
+    void createReservation_IdempotencyKeyReusedForOtherRequest_BadRequest() throws Exception {
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+        when(reservationService.createReservation(
+                any(User.class), anyString(), any(LocalDate.class), any(LocalDate.class), anyInt(), anyString()
+        )).thenReturn(testReservation);
+
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("numberOfGuests", 2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/reservations")
+                        .with(user(userPrincipal))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationData)))
+                .andExpect(status().isCreated());
+
+        reservationData.put("numberOfGuests", 3);
+        mockMvc.perform(post("/api/reservations")
+                        .with(user(userPrincipal))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationData)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createReservationAsync_Accepted() throws Exception {
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("numberOfGuests", 2);
+
+        BookingTicket ticket = new BookingTicket();
+        ticket.setId("ticket123");
+        ticket.setUserId("user123");
+        ticket.setStatus(BookingTicket.Status.QUEUED);
+        when(asyncBookingService.submit(eq("user123"), any(ReservationRequest.class))).thenReturn(ticket);
+
+        mockMvc.perform(post("/api/reservations/async")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationData)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/reservations/tickets/ticket123"))
+                .andExpect(jsonPath("$.id").value("ticket123"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(reservationService, never()).createReservation(any(), any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void createReservationAsync_RetriedWithIdempotencyKey_ReplaysLocation() throws Exception {
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("numberOfGuests", 2);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        BookingTicket ticket = new BookingTicket();
+        ticket.setId("ticket456");
+        ticket.setUserId("user123");
+        ticket.setStatus(BookingTicket.Status.QUEUED);
+        when(asyncBookingService.submit(eq("user123"), any(ReservationRequest.class))).thenReturn(ticket);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/reservations/async")
+                            .with(user(userPrincipal))
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(reservationData)))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/reservations/tickets/ticket456"))
+                    .andExpect(jsonPath("$.id").value("ticket456"));
+        }
+
+        verify(asyncBookingService, times(1)).submit(eq("user123"), any(ReservationRequest.class));
+    }
+
+    @Test
+    void createReservationAsync_QueueFull_ServiceUnavailable() throws Exception {
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("numberOfGuests", 2);
+
+        when(asyncBookingService.submit(eq("user123"), any(ReservationRequest.class)))
+                .thenThrow(new BookingQueueFullException("Too many booking requests"));
+
+        mockMvc.perform(post("/api/reservations/async")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationData)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createReservationAsync_InvalidDates_BadRequest() throws Exception {
+        Map<String, Object> reservationData = new HashMap<>();
+        reservationData.put("roomId", "room123");
+        reservationData.put("checkInDate", LocalDate.now().plusDays(3).toString());
+        reservationData.put("checkOutDate", LocalDate.now().plusDays(1).toString());
+        reservationData.put("numberOfGuests", 2);
+
+        mockMvc.perform(post("/api/reservations/async")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationData)))
+                .andExpect(status().isBadRequest());
+
+        verify(asyncBookingService, never()).submit(any(), any());
+    }
+
+    @Test
+    void awaitBookingTicket_Booked_ReturnsReservationId() throws Exception {
+        BookingTicket queued = new BookingTicket();
+        queued.setId("ticket123");
+        queued.setUserId("user123");
+        queued.setStatus(BookingTicket.Status.QUEUED);
+
+        BookingTicket booked = new BookingTicket();
+        booked.setId("ticket123");
+        booked.setUserId("user123");
+        booked.setStatus(BookingTicket.Status.BOOKED);
+        booked.setReservationId("res123");
+
+        DeferredResult<BookingTicket> result = new DeferredResult<>();
+        when(asyncBookingService.getTicket("ticket123")).thenReturn(queued);
+        when(asyncBookingService.awaitTicket("ticket123", 30)).thenReturn(result);
+
+        MvcResult pending = mockMvc.perform(get("/api/reservations/tickets/ticket123/await")
+                        .with(user(userPrincipal)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        result.setResult(booked);
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("BOOKED"))
+                .andExpect(jsonPath("$.reservationId").value("res123"));
+    }
+
+    @Test
+    void getBookingTicket_OtherUser_Forbidden() throws Exception {
+        BookingTicket ticket = new BookingTicket();
+        ticket.setId("ticket123");
+        ticket.setUserId("otherUser");
+        when(asyncBookingService.getTicket("ticket123")).thenReturn(ticket);
+
+        mockMvc.perform(get("/api/reservations/tickets/ticket123")
+                        .with(user(userPrincipal)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void createGroupReservation_Success() throws Exception {
+        Reservation secondReservation = new Reservation();
+        secondReservation.setId("res456");
+        secondReservation.setGroupId("group123");
+        secondReservation.setTotalAmount(new BigDecimal("200.00"));
+        testReservation.setGroupId("group123");
+
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+        when(reservationService.createGroupReservation(any(User.class), anyList(), anyString()))
+                .thenReturn(List.of(testReservation, secondReservation));
+
+        GroupBookingRequest request = new GroupBookingRequest(List.of(
+                new GroupBookingRequest.Item("room123", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), 2),
+                new GroupBookingRequest.Item("room456", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), 1)
+        ), "Adjacent rooms please");
+
+        mockMvc.perform(post("/api/reservations/group")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.groupId").value("group123"))
+                .andExpect(jsonPath("$.totalAmount").value(500.00))
+                .andExpect(jsonPath("$.reservations.length()").value(2));
+
+        verify(reservationService).createGroupReservation(any(User.class), anyList(), eq("Adjacent rooms please"));
+    }
+
+    @Test
+    void createGroupReservation_NoRooms_BadRequest() throws Exception {
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+
+        mockMvc.perform(post("/api/reservations/group")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GroupBookingRequest(List.of(), null))))
+                .andExpect(status().isBadRequest());
+
+        verify(reservationService, never()).createGroupReservation(any(), anyList(), anyString());
+    }
+
+    @Test
+    void createGroupReservation_InvalidItem_BadRequest() throws Exception {
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+
+        GroupBookingRequest request = new GroupBookingRequest(List.of(
+                new GroupBookingRequest.Item("room123", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), 2),
+                new GroupBookingRequest.Item("room456", LocalDate.now().plusDays(3), LocalDate.now().plusDays(1), 1)
+        ), null);
+
+        mockMvc.perform(post("/api/reservations/group")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(reservationService, never()).createGroupReservation(any(), anyList(), anyString());
+    }
+
     @Test
     void updateReservation_OwnReservation_Success() throws Exception {
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
@@ -277,7 +553,7 @@ class ReservationControllerTest {
     void updateReservation_OtherUserReservation_Forbidden() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testReservation.setUser(otherUser);
+        testReservation.setUser(UserSnapshot.of(otherUser));
 
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
 
@@ -328,7 +604,7 @@ class ReservationControllerTest {
     void cancelReservation_OtherUserReservation_Forbidden() throws Exception {
         User otherUser = new User();
         otherUser.setId("otherUser");
-        testReservation.setUser(otherUser);
+        testReservation.setUser(UserSnapshot.of(otherUser));
 
         when(reservationService.getReservationById("res123")).thenReturn(testReservation);
 
@@ -344,7 +620,7 @@ class ReservationControllerTest {
         LocalDate endDate = LocalDate.now().plusDays(7);
 
         when(reservationService.getReservationsByDateRange(startDate, endDate))
-                .thenReturn(Arrays.asList(testReservation));
+                .thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/reservations/date-range")
                         .param("startDate", startDate.toString())
@@ -362,7 +638,7 @@ class ReservationControllerTest {
         LocalDate endDate = LocalDate.now().plusDays(7);
 
         when(reservationService.getReservationsByDateRange(startDate, endDate))
-                .thenReturn(Arrays.asList(testReservation));
+                .thenReturn(Arrays.asList(testSummary));
 
         mockMvc.perform(get("/api/reservations/date-range")
                         .param("startDate", startDate.toString())
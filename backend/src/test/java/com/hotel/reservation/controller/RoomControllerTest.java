@@ -1,6 +1,9 @@
 package com.hotel.reservation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.BookedNightsBitset;
+import com.hotel.reservation.dto.FlexibleAvailabilityDTO;
+import com.hotel.reservation.dto.ResourceVersion;
 import com.hotel.reservation.model.Room;
 import com.hotel.reservation.service.RoomService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,9 +17,13 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -143,6 +150,107 @@ class RoomControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void getAllRooms_IfNoneMatch_NotModified() throws Exception {
+        when(roomService.getRoomsVersion(null, null, null)).thenReturn(new ResourceVersion("catalog1", null));
+        when(roomService.getAllRooms()).thenReturn(Arrays.asList(testRoom));
+
+        String etag = mockMvc.perform(get("/api/rooms"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/rooms")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(roomService, times(1)).getAllRooms();
+    }
+
+    @Test
+    void getRoomById_ReturnsValidators() throws Exception {
+        Instant lastModified = Instant.parse("2025-01-15T10:00:00Z");
+        when(roomService.getRoomVersion("room123")).thenReturn(new ResourceVersion("room123v1", lastModified));
+        when(roomService.getRoomById("room123")).thenReturn(testRoom);
+
+        mockMvc.perform(get("/api/rooms/room123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"room123v1\""))
+                .andExpect(header().string("Last-Modified", "Wed, 15 Jan 2025 10:00:00 GMT"))
+                .andExpect(jsonPath("$.id").value("room123"));
+    }
+
+    @Test
+    void getRoomById_IfNoneMatch_NotModified() throws Exception {
+        when(roomService.getRoomVersion("room123")).thenReturn(new ResourceVersion("room123v1", null));
+
+        mockMvc.perform(get("/api/rooms/room123")
+                        .header("If-None-Match", "\"room123v1\""))
+                .andExpect(status().isNotModified());
+
+        verify(roomService, never()).getRoomById(any());
+    }
+
+    @Test
+    void getBookedDates_IfModifiedSince_NotModified() throws Exception {
+        Instant lastModified = Instant.parse("2025-01-15T10:00:00Z");
+        when(roomService.getBookedDatesVersion("room123", null, null, false)).thenReturn(new ResourceVersion("room123-a-1-4", lastModified));
+
+        mockMvc.perform(get("/api/rooms/room123/booked-dates")
+                        .header("If-Modified-Since", "Wed, 15 Jan 2025 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(roomService, never()).getBookedDateRanges(any(), any(), any());
+    }
+
+    @Test
+    void getBookedDates_WithWindow_Success() throws Exception {
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 4, 1);
+        Map<String, LocalDate> range = new LinkedHashMap<>();
+        range.put("checkInDate", LocalDate.of(2025, 3, 5));
+        range.put("checkOutDate", LocalDate.of(2025, 3, 9));
+
+        when(roomService.getBookedDateRanges("room123", from, to)).thenReturn(List.of(range));
+
+        mockMvc.perform(get("/api/rooms/room123/booked-dates")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-04-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].checkInDate").value("2025-03-05"))
+                .andExpect(jsonPath("$[0].checkOutDate").value("2025-03-09"));
+    }
+
+    @Test
+    void getBookedDates_BitsetFormat_Success() throws Exception {
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 11);
+
+        when(roomService.getBookedNightsBitset("room123", from, to))
+                .thenReturn(new BookedNightsBitset(from, to, 10, "8AA="));
+
+        mockMvc.perform(get("/api/rooms/room123/booked-dates")
+                        .param("from", "2025-03-01")
+                        .param("to", "2025-03-11")
+                        .param("format", "bitset"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nights").value(10))
+                .andExpect(jsonPath("$.bitset").value("8AA="));
+
+        verify(roomService, never()).getBookedDateRanges(any(), any(), any());
+    }
+
+    @Test
+    void getBookedDates_InvalidWindow_BadRequest() throws Exception {
+        when(roomService.getBookedDateRanges(eq("room123"), any(), any()))
+                .thenThrow(new IllegalArgumentException("Date window must cover between 1 and 822 nights"));
+
+        mockMvc.perform(get("/api/rooms/room123/booked-dates")
+                        .param("from", "2025-04-01")
+                        .param("to", "2025-03-01"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAvailableRooms_Success() throws Exception {
         LocalDate checkIn = LocalDate.now().plusDays(1);
@@ -177,6 +285,42 @@ class RoomControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void getFlexibleAvailability_Success() throws Exception {
+        LocalDate target = LocalDate.now().plusDays(14);
+        FlexibleAvailabilityDTO.StayOption option = new FlexibleAvailabilityDTO.StayOption(
+                target.minusDays(1), target.plusDays(2), 4, new BigDecimal("450.00"));
+
+        when(roomService.getFlexibleAvailability(target, 3, 2, 2))
+                .thenReturn(List.of(new FlexibleAvailabilityDTO(testRoom, 10, List.of(option))));
+
+        mockMvc.perform(get("/api/rooms/flexible-availability")
+                        .param("targetDate", target.toString())
+                        .param("nights", "3")
+                        .param("flexDays", "2")
+                        .param("guests", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].room.id").value("room123"))
+                .andExpect(jsonPath("$[0].options[0].checkInDate").value(target.minusDays(1).toString()))
+                .andExpect(jsonPath("$[0].options[0].availableCount").value(4));
+
+        verify(roomService).getFlexibleAvailability(target, 3, 2, 2);
+    }
+
+    @Test
+    void getFlexibleAvailability_DefaultFlexDays() throws Exception {
+        LocalDate target = LocalDate.now().plusDays(14);
+        when(roomService.getFlexibleAvailability(target, 2, 3, null)).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/rooms/flexible-availability")
+                        .param("targetDate", target.toString())
+                        .param("nights", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(roomService).getFlexibleAvailability(target, 2, 3, null);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void createRoom_AsAdmin_Success() throws Exception {
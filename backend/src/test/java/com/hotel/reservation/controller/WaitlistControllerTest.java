@@ -0,0 +1,157 @@
+package com.hotel.reservation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.WaitlistEntry;
+import com.hotel.reservation.repository.UserRepository;
+import com.hotel.reservation.security.UserPrincipal;
+import com.hotel.reservation.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WaitlistControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private WaitlistService waitlistService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    private User testUser;
+    private WaitlistEntry testEntry;
+    private UserPrincipal userPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId("user123");
+        testUser.setEmail("john@example.com");
+        testUser.setRoles(Set.of(User.Role.GUEST));
+
+        testEntry = new WaitlistEntry();
+        testEntry.setId("wait123");
+        testEntry.setUserId(testUser.getId());
+        testEntry.setRoomId("room123");
+        testEntry.setCheckInDate(LocalDate.now().plusDays(1));
+        testEntry.setCheckOutDate(LocalDate.now().plusDays(3));
+        testEntry.setNumberOfGuests(2);
+        testEntry.setStatus(WaitlistEntry.Status.WAITING);
+
+        userPrincipal = new UserPrincipal(
+                testUser.getId(),
+                testUser.getEmail(),
+                "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_GUEST")),
+                true
+        );
+    }
+
+    @Test
+    void joinWaitlist_Success() throws Exception {
+        Map<String, Object> waitlistData = new HashMap<>();
+        waitlistData.put("roomId", "room123");
+        waitlistData.put("checkInDate", LocalDate.now().plusDays(1).toString());
+        waitlistData.put("checkOutDate", LocalDate.now().plusDays(3).toString());
+        waitlistData.put("numberOfGuests", 2);
+
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+        when(waitlistService.join(any(User.class), eq("room123"), any(LocalDate.class), any(LocalDate.class),
+                eq(2), anyString())).thenReturn(testEntry);
+
+        mockMvc.perform(post("/api/waitlist")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(waitlistData)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("wait123"))
+                .andExpect(jsonPath("$.status").value("WAITING"));
+    }
+
+    @Test
+    void joinWaitlist_InvalidDates_BadRequest() throws Exception {
+        Map<String, Object> waitlistData = new HashMap<>();
+        waitlistData.put("roomId", "room123");
+        waitlistData.put("checkInDate", LocalDate.now().plusDays(3).toString());
+        waitlistData.put("checkOutDate", LocalDate.now().plusDays(1).toString());
+        waitlistData.put("numberOfGuests", 2);
+
+        when(userRepository.findById("user123")).thenReturn(Optional.of(testUser));
+
+        mockMvc.perform(post("/api/waitlist")
+                        .with(user(userPrincipal))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(waitlistData)))
+                .andExpect(status().isBadRequest());
+
+        verify(waitlistService, never()).join(any(), any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void awaitWaitlistEntry_Promoted_ReturnsReservationId() throws Exception {
+        WaitlistEntry promoted = new WaitlistEntry();
+        promoted.setId("wait123");
+        promoted.setUserId("user123");
+        promoted.setStatus(WaitlistEntry.Status.PROMOTED);
+        promoted.setReservationId("res123");
+
+        DeferredResult<WaitlistEntry> result = new DeferredResult<>();
+        when(waitlistService.getEntry("wait123")).thenReturn(testEntry);
+        when(waitlistService.awaitUpdate("wait123", 20)).thenReturn(result);
+
+        MvcResult pending = mockMvc.perform(get("/api/waitlist/wait123/await")
+                        .param("waitSeconds", "20")
+                        .with(user(userPrincipal)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        result.setResult(promoted);
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PROMOTED"))
+                .andExpect(jsonPath("$.reservationId").value("res123"));
+    }
+
+    @Test
+    void getWaitlistEntry_OtherUser_Forbidden() throws Exception {
+        testEntry.setUserId("otherUser");
+        when(waitlistService.getEntry("wait123")).thenReturn(testEntry);
+
+        mockMvc.perform(get("/api/waitlist/wait123")
+                        .with(user(userPrincipal)))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(delete("/api/waitlist/wait123")
+                        .with(user(userPrincipal)))
+                .andExpect(status().isForbidden());
+
+        verify(waitlistService, never()).awaitUpdate(any(), anyLong());
+        verify(waitlistService, never()).leave(any());
+    }
+}
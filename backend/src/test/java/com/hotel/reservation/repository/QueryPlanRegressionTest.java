@@ -0,0 +1,668 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.Payment;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.ReservationSnapshot;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomInventory;
+import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.model.StripeEvent;
+import com.hotel.reservation.model.User;
+import com.hotel.reservation.model.UserPreferences;
+import com.hotel.reservation.model.UserSnapshot;
+import com.hotel.reservation.model.WaitlistEntry;
+import com.mongodb.MongoCommandException;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.Repository;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every query method of the repository package against a seeded database,
+ * captures the commands it sends and fails when MongoDB's executionStats explain shows
+ * a collection scan or a docs-examined/returned ratio above the threshold.
+ *
+ * The plan checks are tagged real-mongodb and run with -Preal-mongodb against a real
+ * mongod on localhost:27017; they fail if the server does not support explain.
+ * The check that every query method has a plan case runs in every build.
+ * The ratio threshold can be changed with -Dquery-plan.max-docs-examined-ratio.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.data.mongodb.uri=mongodb://localhost:27017/query_plan_test",
+        "spring.data.mongodb.database=query_plan_test"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final String REPOSITORY_PACKAGE = "com.hotel.reservation.repository";
+
+    private static final double MAX_DOCS_EXAMINED_RATIO =
+            Double.parseDouble(System.getProperty("query-plan.max-docs-examined-ratio", "2.0"));
+
+    private static final Set<String> EXPLAINABLE_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    private static final Set<String> NON_EXPLAINABLE_FIELDS =
+            Set.of("lsid", "txnNumber", "autocommit", "startTransaction", "readConcern", "writeConcern");
+
+    /**
+     * Collections that may be scanned, with the reason
+     */
+    private static final Map<String, String> COLLECTION_SCAN_ALLOWED = Map.of(
+            "rooms", "bounded catalog (one document per room type), served from RoomCatalog");
+
+    private static final CommandCapture CAPTURE = new CommandCapture();
+
+    @TestConfiguration
+    static class CommandCaptureConfig {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryPlanCommandCapture() {
+            return builder -> builder.addCommandListener(CAPTURE);
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private StripeEventRepository stripeEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserPreferencesRepository userPreferencesRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    private final Map<String, Runnable> cases = new LinkedHashMap<>();
+
+    private List<Room> rooms;
+    private List<User> users;
+    private Reservation reservation;
+    private Payment payment;
+    private LocalDate today;
+
+    @BeforeAll
+    void setUp() {
+        registerCases();
+    }
+
+    @Test
+    void everyRepositoryQueryMethod_HasPlanCase() {
+        Set<String> declared = declaredQueryMethods();
+
+        Set<String> missing = new TreeSet<>(declared);
+        missing.removeAll(cases.keySet());
+        Set<String> stale = new TreeSet<>(cases.keySet());
+        stale.removeAll(declared);
+
+        assertTrue(missing.isEmpty(), "Add a query plan case for: " + missing);
+        assertTrue(stale.isEmpty(), "Query plan cases for methods that no longer exist: " + stale);
+    }
+
+    @TestFactory
+    @Tag("real-mongodb")
+    Stream<DynamicTest> repositoryQueries_UseIndexes() {
+        requireExplain();
+        seed();
+
+        return cases.entrySet().stream()
+                .map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> checkPlan(entry.getKey(), entry.getValue())));
+    }
+
+    private void registerCases() {
+        LocalDate from = LocalDate.now().plusDays(10);
+        LocalDate to = from.plusDays(3);
+
+        cases.put("ReservationRepository.findByUser(User)", () -> reservationRepository.findByUser(users.get(0)));
+        cases.put("ReservationRepository.findByUserId(String)", () -> reservationRepository.findByUserId(users.get(1).getId()));
+        cases.put("ReservationRepository.findByRoom(Room)", () -> reservationRepository.findByRoom(rooms.get(0)));
+        cases.put("ReservationRepository.findByRoomId(String)", () -> reservationRepository.findByRoomId(rooms.get(1).getId()));
+        cases.put("ReservationRepository.findByStatus(ReservationStatus)",
+                () -> reservationRepository.findByStatus(Reservation.ReservationStatus.CHECKED_IN));
+        cases.put("ReservationRepository.findOverlappingReservations(String, LocalDate, LocalDate)",
+                () -> reservationRepository.findOverlappingReservations(rooms.get(0).getId(), from, to));
+        cases.put("ReservationRepository.findByDateRange(LocalDate, LocalDate)",
+                () -> reservationRepository.findByDateRange(from, to));
+        cases.put("ReservationRepository.countByStatus(ReservationStatus)",
+                () -> reservationRepository.countByStatus(Reservation.ReservationStatus.CONFIRMED));
+        cases.put("ReservationRepository.findByCheckInDateBetween(LocalDate, LocalDate)",
+                () -> reservationRepository.findByCheckInDateBetween(from, to));
+        cases.put("ReservationRepository.findByCreatedAtBetween(LocalDateTime, LocalDateTime)",
+                () -> reservationRepository.findByCreatedAtBetween(LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(1)));
+        cases.put("ReservationRepository.findByPaymentLinkToken(String)",
+                () -> reservationRepository.findByPaymentLinkToken(reservation.getPaymentLinkToken()));
+        cases.put("ReservationRepository.findByGroupId(String)",
+                () -> reservationRepository.findByGroupId(new ObjectId().toHexString()));
+        cases.put("ReservationRepository.findByUserIdAndStatus(String, ReservationStatus)",
+                () -> reservationRepository.findByUserIdAndStatus(users.get(0).getId(), Reservation.ReservationStatus.PENDING));
+        cases.put("ReservationRepositoryCustom.findStaysByStatusIn(Collection)",
+                () -> reservationRepository.findStaysByStatusIn(List.of(Reservation.ReservationStatus.CHECKED_IN)));
+        cases.put("ReservationRepositoryCustom.findStaysUpdatedSince(LocalDateTime)",
+                () -> reservationRepository.findStaysUpdatedSince(LocalDateTime.now().minusMinutes(1)));
+        cases.put("ReservationRepositoryCustom.findStaysOverlapping(String, Collection, LocalDate, LocalDate)",
+                () -> reservationRepository.findStaysOverlapping(rooms.get(0).getId(),
+                        List.of(Reservation.ReservationStatus.CONFIRMED), from, to));
+        cases.put("ReservationRepositoryCustom.findStaysOverlapping(Collection, Collection, LocalDate, LocalDate)",
+                () -> reservationRepository.findStaysOverlapping(List.of(rooms.get(0).getId(), rooms.get(1).getId()),
+                        List.of(Reservation.ReservationStatus.CONFIRMED), from, to));
+        cases.put("ReservationRepositoryCustom.findBlockedRoomIds(Collection, LocalDate, LocalDate)",
+                () -> reservationRepository.findBlockedRoomIds(List.of(rooms.get(0).getId(), rooms.get(1).getId()), from, to));
+        cases.put("ReservationRepositoryCustom.findRoomReservationsVersion(String)",
+                () -> reservationRepository.findRoomReservationsVersion(rooms.get(0).getId()));
+        cases.put("ReservationRepositoryCustom.updateIfUnchanged(Reservation, Consumer)",
+                () -> reservationRepository.updateIfUnchanged(reservationRepository.findById(reservation.getId()).orElseThrow(),
+                        current -> current.setSpecialRequests("Plan check " + System.nanoTime())));
+        cases.put("ReservationRepository.findByStatusAndExpiresAtBefore(ReservationStatus, LocalDateTime)",
+                () -> reservationRepository.findByStatusAndExpiresAtBefore(
+                        Reservation.ReservationStatus.PENDING, LocalDateTime.now()));
+        // Cut-off in the past, so the sweep matches nothing in the fixture
+        cases.put("ReservationRepositoryCustom.cancelExpiredHolds(Collection, LocalDateTime, String)",
+                () -> reservationRepository.cancelExpiredHolds(
+                        List.of(reservation.getId()), LocalDateTime.now().minusYears(1), "expired"));
+        cases.put("ReservationRepositoryCustom.findAllSummaries()", () -> reservationRepository.findAllSummaries());
+        cases.put("ReservationRepositoryCustom.findSummariesByUserId(String)",
+                () -> reservationRepository.findSummariesByUserId(users.get(0).getId()));
+        cases.put("ReservationRepositoryCustom.findSummariesByCheckInDateBetween(LocalDate, LocalDate)",
+                () -> reservationRepository.findSummariesByCheckInDateBetween(from, to));
+        cases.put("ReservationRepositoryCustom.findSummariesByDateRange(LocalDate, LocalDate)",
+                () -> reservationRepository.findSummariesByDateRange(from, to));
+
+        cases.put("PaymentRepository.findByUser(User)", () -> paymentRepository.findByUser(users.get(0)));
+        cases.put("PaymentRepository.findByUserId(String)", () -> paymentRepository.findByUserId(users.get(1).getId()));
+        cases.put("PaymentRepository.findByStatus(PaymentStatus)",
+                () -> paymentRepository.findByStatus(Payment.PaymentStatus.REFUNDED));
+        cases.put("PaymentRepository.findByStripePaymentIntentId(String)",
+                () -> paymentRepository.findByStripePaymentIntentId(payment.getStripePaymentIntentId()));
+        cases.put("PaymentRepository.findAllByReservationId(String)",
+                () -> paymentRepository.findAllByReservationId(reservation.getId()));
+        cases.put("PaymentRepository.findAllByGroupId(String)",
+                () -> paymentRepository.findAllByGroupId(new ObjectId().toHexString()));
+        cases.put("PaymentRepository.findByReservationId(String)",
+                () -> paymentRepository.findByReservationId(payment.getReservation().getId()));
+        cases.put("PaymentRepositoryCustom.findAllSummaries()", () -> paymentRepository.findAllSummaries());
+        cases.put("PaymentRepositoryCustom.findSummariesByUserId(String)",
+                () -> paymentRepository.findSummariesByUserId(users.get(1).getId()));
+
+        cases.put("RoomRepository.findByType(RoomType)", () -> roomRepository.findByType(Room.RoomType.DELUXE));
+        cases.put("RoomRepository.findByAvailable(boolean)", () -> roomRepository.findByAvailable(true));
+        cases.put("RoomRepository.findByTypeAndAvailable(RoomType, boolean)",
+                () -> roomRepository.findByTypeAndAvailable(Room.RoomType.DELUXE, true));
+        cases.put("RoomRepository.findByPricePerNightBetween(BigDecimal, BigDecimal)",
+                () -> roomRepository.findByPricePerNightBetween(new BigDecimal("100"), new BigDecimal("200")));
+        cases.put("RoomRepository.findByCapacityGreaterThanEqual(int)", () -> roomRepository.findByCapacityGreaterThanEqual(3));
+        cases.put("RoomRepository.countByAvailable(boolean)", () -> roomRepository.countByAvailable(true));
+        cases.put("RoomRepositoryCustom.findAllWithOccupancy(LocalDate, LocalDate, Integer)",
+                () -> roomRepository.findAllWithOccupancy(from, to, 2));
+
+        cases.put("RoomLockRepository.findByReservationId(String)",
+                () -> roomLockRepository.findByReservationId(reservation.getId()));
+        cases.put("RoomLockRepository.deleteByReservationId(String)",
+                () -> roomLockRepository.deleteByReservationId(reservation.getId()));
+
+        cases.put("RoomLockRepository.deleteByReservationIdAndNightIn(String, Collection)",
+                () -> roomLockRepository.deleteByReservationIdAndNightIn(reservation.getId(), List.of(from)));
+        cases.put("RoomLockRepository.deleteByReservationIdIn(Collection)",
+                () -> roomLockRepository.deleteByReservationIdIn(List.of(reservation.getId())));
+
+        cases.put("RoomInventoryRepository.findNights(Collection, LocalDate, LocalDate)",
+                () -> roomInventoryRepository.findNights(List.of(rooms.get(2).getId()), from, to));
+        cases.put("RoomInventoryRepositoryCustom.incrementSold(String, LocalDate, int, String)",
+                () -> roomInventoryRepository.incrementSold(rooms.get(2).getId(), from, 5, reservation.getId()));
+        cases.put("RoomInventoryRepositoryCustom.forceIncrementSold(String, LocalDate, String)",
+                () -> roomInventoryRepository.forceIncrementSold(rooms.get(2).getId(), from, reservation.getId()));
+        cases.put("RoomInventoryRepositoryCustom.decrementSold(String, LocalDate, LocalDate, String)",
+                () -> roomInventoryRepository.decrementSold(rooms.get(2).getId(), from, to, reservation.getId()));
+        cases.put("RoomInventoryRepositoryCustom.recordReservationIds(String, LocalDate, Collection)",
+                () -> roomInventoryRepository.recordReservationIds(rooms.get(2).getId(), from, List.of(reservation.getId())));
+
+        LocalDateTime now = LocalDateTime.now();
+        cases.put("JobLeaseRepositoryCustom.nextFencingToken(String)",
+                () -> jobLeaseRepository.nextFencingToken("plan-lease"));
+        cases.put("JobLeaseRepositoryCustom.acquire(String, String, long, LocalDateTime, Duration)",
+                () -> jobLeaseRepository.acquire("plan-lease", "plan-instance", 1, now, Duration.ofSeconds(15)));
+        cases.put("JobLeaseRepositoryCustom.renew(String, String, long, LocalDateTime, Duration)",
+                () -> jobLeaseRepository.renew("plan-lease", "plan-instance", 1, now, Duration.ofSeconds(15)));
+        cases.put("JobLeaseRepositoryCustom.release(String, String, long)",
+                () -> jobLeaseRepository.release("plan-lease", "plan-instance", 1));
+        cases.put("JobLeaseRepositoryCustom.isHeld(String, long, LocalDateTime)",
+                () -> jobLeaseRepository.isHeld("plan-lease", 1, now));
+        cases.put("JobLeaseRepositoryCustom.fenceJobRun(String, String, long, LocalDateTime)",
+                () -> jobLeaseRepository.fenceJobRun("plan-job", "plan-instance", 1, now));
+
+        cases.put("CatalogChangeRepositoryCustom.recordChange(String, LocalDateTime)",
+                () -> catalogChangeRepository.recordChange("plan-catalog", now));
+
+        cases.put("StripeEventRepositoryCustom.findDue(LocalDateTime, int)",
+                () -> stripeEventRepository.findDue(now, 50));
+        cases.put("StripeEventRepositoryCustom.findOldestOpen(String)",
+                () -> stripeEventRepository.findOldestOpen("pi_plan"));
+        cases.put("StripeEventRepositoryCustom.claim(String, String, LocalDateTime, LocalDateTime)",
+                () -> stripeEventRepository.claim("evt_plan", "plan-claim", now, now.plusMinutes(1)));
+        cases.put("StripeEventRepositoryCustom.finish(String, String, Status, String, LocalDateTime, LocalDateTime)",
+                () -> stripeEventRepository.finish("evt_plan", "plan-claim", StripeEvent.Status.PROCESSED, null,
+                        now, now.plusDays(30)));
+        cases.put("StripeEventRepositoryCustom.retryLater(String, String, String, LocalDateTime)",
+                () -> stripeEventRepository.retryLater("evt_plan", "plan-claim", "error", now.plusSeconds(1)));
+
+        cases.put("UserRepository.findByEmail(String)", () -> userRepository.findByEmail(users.get(1).getEmail()));
+        cases.put("UserRepository.findByProviderAndProviderId(String, String)",
+                () -> userRepository.findByProviderAndProviderId("google", "google-1"));
+        cases.put("UserRepository.existsByEmail(String)", () -> userRepository.existsByEmail(users.get(0).getEmail()));
+
+        cases.put("UserPreferencesRepository.findByUserId(String)",
+                () -> userPreferencesRepository.findByUserId(users.get(0).getId()));
+        cases.put("UserPreferencesRepository.existsByUserId(String)",
+                () -> userPreferencesRepository.existsByUserId(users.get(1).getId()));
+        cases.put("UserPreferencesRepository.deleteByUserId(String)",
+                () -> userPreferencesRepository.deleteByUserId(users.get(2).getId()));
+
+        cases.put("WaitlistEntryRepository.findByRoomIdAndStatusInOrderByCreatedAtAsc(String, Collection)",
+                () -> waitlistEntryRepository.findByRoomIdAndStatusInOrderByCreatedAtAsc(rooms.get(0).getId(),
+                        List.of(WaitlistEntry.Status.WAITING, WaitlistEntry.Status.PROMOTING)));
+    }
+
+    private void checkPlan(String name, Runnable query) {
+        List<BsonDocument> commands = CAPTURE.capture(query);
+        assertTrue(!commands.isEmpty(), name + " sent no commands");
+
+        List<String> problems = new ArrayList<>();
+        StringBuilder report = new StringBuilder(name);
+        for (BsonDocument command : commands) {
+            PlanSummary plan = explain(command);
+            report.append("\n  ").append(plan);
+            problems.addAll(plan.problems());
+        }
+        log.info("{}", report);
+
+        if (!problems.isEmpty()) {
+            fail(report + "\n" + String.join("\n", problems));
+        }
+    }
+
+    private PlanSummary explain(BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !NON_EXPLAINABLE_FIELDS.contains(key)) {
+                explainable.put(key, value);
+            }
+        });
+
+        Document result = mongoTemplate.getDb().runCommand(new BsonDocument("explain", explainable)
+                .append("verbosity", new BsonString("executionStats")));
+        return new PlanSummary(explainable, result);
+    }
+
+    private void requireExplain() {
+        try {
+            mongoTemplate.getDb().runCommand(new Document("explain", new Document("find", "reservations"))
+                    .append("verbosity", "queryPlanner"));
+        } catch (MongoCommandException e) {
+            fail("Query plan checks need a real mongod that supports explain: " + e.getErrorMessage());
+        }
+    }
+
+    private Set<String> declaredQueryMethods() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(org.springframework.beans.factory.annotation.AnnotatedBeanDefinition definition) {
+                return definition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+
+        Set<String> methods = new TreeSet<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(REPOSITORY_PACKAGE)) {
+            Class<?> repository = loadClass(definition.getBeanClassName());
+            List<Class<?>> declaring = new ArrayList<>();
+            declaring.add(repository);
+            Arrays.stream(repository.getInterfaces())
+                    .filter(type -> type.getPackageName().equals(REPOSITORY_PACKAGE))
+                    .forEach(declaring::add);
+
+            for (Class<?> type : declaring) {
+                for (Method method : type.getDeclaredMethods()) {
+                    if (!method.isSynthetic() && !method.isDefault()) {
+                        methods.add(signature(method));
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static String signature(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes())
+                        .map(Class::getSimpleName)
+                        .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Seed enough documents that a collection scan or a poorly bounded index scan
+     * examines visibly more documents than it returns.
+     */
+    private void seed() {
+        Stream.of(Reservation.class, Payment.class, Room.class, RoomLock.class, RoomInventory.class,
+                        User.class, UserPreferences.class, WaitlistEntry.class)
+                .forEach(type -> mongoTemplate.remove(new Query(), type));
+
+        today = LocalDate.now();
+
+        users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setEmail("plan" + i + "@hotel.com");
+            user.setFirstName("Plan");
+            user.setLastName("User " + i);
+            user.setProvider(i % 2 == 0 ? "google" : "local");
+            user.setProviderId(i % 2 == 0 ? "google-" + i : null);
+            users.add(user);
+        }
+        users = new ArrayList<>(userRepository.saveAll(users));
+
+        List<UserPreferences> preferences = new ArrayList<>();
+        for (User user : users) {
+            UserPreferences userPreferences = new UserPreferences();
+            userPreferences.setUserId(user.getId());
+            preferences.add(userPreferences);
+        }
+        userPreferencesRepository.saveAll(preferences);
+
+        Room.RoomType[] types = Room.RoomType.values();
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Room room = new Room();
+            room.setName("Plan Room " + i);
+            room.setType(types[i % types.length]);
+            room.setPricePerNight(BigDecimal.valueOf(80 + 20L * i));
+            room.setCapacity(1 + i % 4);
+            room.setTotalRooms(i == 2 ? 5 : 1);
+            rooms.add(room);
+        }
+        rooms = new ArrayList<>(roomRepository.saveAll(rooms));
+
+        Reservation.ReservationStatus[] statuses = Reservation.ReservationStatus.values();
+        List<Reservation> reservations = new ArrayList<>();
+        List<RoomLock> locks = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Reservation stay = new Reservation();
+            stay.setUser(UserSnapshot.of(users.get(i % users.size())));
+            stay.setRoom(RoomSnapshot.of(rooms.get(i % rooms.size())));
+            stay.setCheckInDate(today.minusDays(200).plusDays(i));
+            stay.setCheckOutDate(stay.getCheckInDate().plusDays(1 + i % 4));
+            stay.setNumberOfGuests(1);
+            stay.setTotalAmount(BigDecimal.TEN);
+            stay.setStatus(statuses[i % statuses.length]);
+            stay.setPaymentLinkToken(i % 10 == 0 ? "plan-token-" + i : null);
+            reservations.add(stay);
+        }
+        reservations = reservationRepository.saveAll(reservations);
+        reservation = reservations.get(210);
+
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < reservations.size(); i += 2) {
+            Reservation paid = reservations.get(i);
+            Payment entry = new Payment();
+            entry.setReservation(ReservationSnapshot.of(paid));
+            entry.setUser(paid.getUser());
+            entry.setAmount(BigDecimal.TEN);
+            entry.setStatus(Payment.PaymentStatus.values()[i % Payment.PaymentStatus.values().length]);
+            entry.setStripePaymentIntentId("pi_plan_" + i);
+            payments.add(entry);
+
+            for (LocalDate night = paid.getCheckInDate(); night.isBefore(paid.getCheckOutDate()); night = night.plusDays(1)) {
+                locks.add(new RoomLock(paid.getRoom().getId(), night, paid.getId()));
+            }
+        }
+        payments = paymentRepository.saveAll(payments);
+        payment = payments.get(payments.size() / 2);
+        roomLockRepository.saveAll(locks);
+
+        List<RoomInventory> nights = new ArrayList<>();
+        for (Room room : rooms) {
+            for (int night = 0; night < 60; night++) {
+                nights.add(new RoomInventory(room.getId(), today.plusDays(night), night % 3));
+            }
+        }
+        roomInventoryRepository.saveAll(nights);
+
+        WaitlistEntry.Status[] waitlistStatuses = WaitlistEntry.Status.values();
+        List<WaitlistEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            WaitlistEntry entry = new WaitlistEntry();
+            entry.setUserId(users.get(i % users.size()).getId());
+            entry.setRoomId(rooms.get(i % rooms.size()).getId());
+            entry.setCheckInDate(today.plusDays(i % 30));
+            entry.setCheckOutDate(entry.getCheckInDate().plusDays(2));
+            entry.setNumberOfGuests(1);
+            entry.setStatus(waitlistStatuses[i % waitlistStatuses.length]);
+            entries.add(entry);
+        }
+        waitlistEntryRepository.saveAll(entries);
+    }
+
+    /**
+     * Result of explaining one captured command.
+     */
+    private static final class PlanSummary {
+
+        private final String commandName;
+        private final String collection;
+        private final BsonDocument command;
+        private final Set<String> stages = new TreeSet<>();
+        private final Set<String> indexes = new TreeSet<>();
+        private final Set<String> scannedCollections = new TreeSet<>();
+        private long keysExamined = -1;
+        private long docsExamined = -1;
+        private long returned = -1;
+
+        PlanSummary(BsonDocument command, Document explain) {
+            this.commandName = command.getFirstKey();
+            this.collection = command.get(commandName).isString() ? command.getString(commandName).getValue() : "?";
+            this.command = command;
+            walk(explain, collection);
+        }
+
+        private void walk(Object node, String source) {
+            if (node instanceof List<?> list) {
+                list.forEach(item -> walk(item, source));
+                return;
+            }
+            if (!(node instanceof Document document)) {
+                return;
+            }
+
+            String current = document.get("$lookup") instanceof Document lookup ? lookup.getString("from") : source;
+            if (document.containsKey("$lookup")) {
+                if (document.get("collectionScans") instanceof Number scans && scans.longValue() > 0) {
+                    stages.add("COLLSCAN");
+                    scannedCollections.add(current);
+                }
+                if (document.get("indexesUsed") instanceof List<?> used) {
+                    used.forEach(index -> indexes.add(current + "." + index));
+                }
+            }
+
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                scannedCollections.add(current);
+            }
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (document.get("indexName") instanceof String index) {
+                indexes.add(current + "." + index);
+            }
+            if (docsExamined < 0 && document.get("totalDocsExamined") instanceof Number docs
+                    && document.get("nReturned") instanceof Number n) {
+                docsExamined = docs.longValue();
+                returned = n.longValue();
+                if (document.get("totalKeysExamined") instanceof Number keys) {
+                    keysExamined = keys.longValue();
+                }
+            }
+
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (!"rejectedPlans".equals(entry.getKey()) && !"allPlansExecution".equals(entry.getKey())) {
+                    walk(entry.getValue(), current);
+                }
+            }
+        }
+
+        List<String> problems() {
+            List<String> problems = new ArrayList<>();
+            for (String scanned : scannedCollections) {
+                String allowed = COLLECTION_SCAN_ALLOWED.get(scanned);
+                if (allowed == null) {
+                    problems.add("COLLSCAN on " + scanned + " for " + commandName + " " + filter()
+                            + ": add an index led by the equality fields, followed by the range fields");
+                }
+            }
+
+            boolean read = "find".equals(commandName) || "aggregate".equals(commandName);
+            if (read && scannedCollections.isEmpty() && ratio() > MAX_DOCS_EXAMINED_RATIO) {
+                problems.add(String.format("%s examined %d documents to return %d (ratio %.1f > %.1f) using %s: "
+                                + "move the residual predicates into the index or tighten its range bounds",
+                        collection, docsExamined, returned, ratio(), MAX_DOCS_EXAMINED_RATIO, indexes));
+            }
+
+            if (!problems.isEmpty() && filter().contains("\"$or\"")) {
+                problems.add("Filter on " + collection + " uses $or, so each branch is planned separately. "
+                        + "A date overlap is a single range: checkInDate < end and checkOutDate > start.");
+            }
+            return problems;
+        }
+
+        private double ratio() {
+            return docsExamined < 0 ? 0 : (double) docsExamined / Math.max(returned, 1);
+        }
+
+        private String filter() {
+            for (String key : List.of("filter", "query", "q")) {
+                if (command.containsKey(key)) {
+                    return command.get(key).toString();
+                }
+            }
+            if (command.containsKey("pipeline")) {
+                return command.get("pipeline").toString();
+            }
+            for (String key : List.of("updates", "deletes")) {
+                if (command.containsKey(key) && !command.getArray(key).isEmpty()) {
+                    return command.getArray(key).get(0).asDocument().get("q").toString();
+                }
+            }
+            return "{}";
+        }
+
+        @Override
+        public String toString() {
+            String allowed = scannedCollections.stream()
+                    .filter(COLLECTION_SCAN_ALLOWED::containsKey)
+                    .map(scanned -> " [scan allowed: " + COLLECTION_SCAN_ALLOWED.get(scanned) + "]")
+                    .collect(Collectors.joining());
+            return String.format("%s %s stages=%s indexes=%s keys=%d docs=%d returned=%d%s",
+                    commandName, collection, stages, indexes, keysExamined, docsExamined, returned, allowed);
+        }
+    }
+
+    /**
+     * Records the explainable commands sent by the calling thread while a query runs.
+     * Background jobs (occupancy sync, expiry) run on other threads and are ignored.
+     */
+    private static final class CommandCapture implements CommandListener {
+
+        private final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+        private volatile Thread capturing;
+
+        List<BsonDocument> capture(Runnable query) {
+            captured.clear();
+            capturing = Thread.currentThread();
+            try {
+                query.run();
+            } finally {
+                capturing = null;
+            }
+            return new ArrayList<>(captured);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (Thread.currentThread() == capturing && EXPLAINABLE_COMMANDS.contains(event.getCommandName())) {
+                captured.add(event.getCommand().clone());
+            }
+        }
+    }
+}
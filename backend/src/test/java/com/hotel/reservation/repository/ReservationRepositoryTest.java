@@ -0,0 +1,120 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.RoomReservationsVersion;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.model.RoomSnapshot;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReservationRepositoryTest {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    private String bookedRoomId;
+    private String lockedRoomId;
+    private String cancelledRoomId;
+    private String freeRoomId;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        bookedRoomId = new ObjectId().toHexString();
+        lockedRoomId = new ObjectId().toHexString();
+        cancelledRoomId = new ObjectId().toHexString();
+        freeRoomId = new ObjectId().toHexString();
+        checkIn = LocalDate.now().plusDays(50);
+    }
+
+    @Test
+    void findBlockedRoomIds_ReturnsRoomsBlockedByReservationsOrLocks() {
+        reservationRepository.insert(reservation(bookedRoomId, Reservation.ReservationStatus.PENDING,
+                checkIn.plusDays(1), checkIn.plusDays(4)));
+        reservationRepository.insert(reservation(cancelledRoomId, Reservation.ReservationStatus.CANCELLED,
+                checkIn, checkIn.plusDays(2)));
+        roomLockRepository.insert(new RoomLock(lockedRoomId, checkIn.plusDays(1), new ObjectId().toHexString()));
+
+        Set<String> blocked = reservationRepository.findBlockedRoomIds(
+                List.of(bookedRoomId, lockedRoomId, cancelledRoomId, freeRoomId), checkIn, checkIn.plusDays(2));
+
+        assertEquals(Set.of(bookedRoomId, lockedRoomId), blocked);
+    }
+
+    @Test
+    void findBlockedRoomIds_IgnoresStaysAndLocksOutsideTheRange() {
+        // Check-out on the requested check-in day and a lock on the check-out night do not overlap
+        reservationRepository.insert(reservation(bookedRoomId, Reservation.ReservationStatus.CONFIRMED,
+                checkIn.minusDays(2), checkIn));
+        roomLockRepository.insert(new RoomLock(lockedRoomId, checkIn.plusDays(2), new ObjectId().toHexString()));
+
+        Set<String> blocked = reservationRepository.findBlockedRoomIds(
+                List.of(bookedRoomId, lockedRoomId), checkIn, checkIn.plusDays(2));
+
+        assertTrue(blocked.isEmpty());
+    }
+
+    @Test
+    void findBlockedRoomIds_WithNoRooms_ReturnsEmpty() {
+        assertTrue(reservationRepository.findBlockedRoomIds(List.of(), checkIn, checkIn.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void findRoomReservationsVersion_MovesWithEveryChangeToTheRoom() {
+        RoomReservationsVersion empty = reservationRepository.findRoomReservationsVersion(bookedRoomId);
+        assertEquals(0, empty.getReservationCount());
+        assertNull(empty.getLastUpdatedAt());
+
+        Reservation first = reservationRepository.save(reservation(bookedRoomId, Reservation.ReservationStatus.PENDING,
+                checkIn, checkIn.plusDays(2)));
+        Reservation second = reservationRepository.save(reservation(bookedRoomId, Reservation.ReservationStatus.CONFIRMED,
+                checkIn.plusDays(3), checkIn.plusDays(4)));
+        reservationRepository.save(reservation(freeRoomId, Reservation.ReservationStatus.CONFIRMED,
+                checkIn, checkIn.plusDays(1)));
+
+        RoomReservationsVersion booked = reservationRepository.findRoomReservationsVersion(bookedRoomId);
+        assertEquals(2, booked.getReservationCount());
+        assertEquals(second.getUpdatedAt().truncatedTo(ChronoUnit.MILLIS),
+                booked.getLastUpdatedAt().truncatedTo(ChronoUnit.MILLIS));
+
+        // A deletion leaves the latest updatedAt as it was but changes the count
+        reservationRepository.deleteById(first.getId());
+        RoomReservationsVersion afterDelete = reservationRepository.findRoomReservationsVersion(bookedRoomId);
+        assertEquals(1, afterDelete.getReservationCount());
+        assertNotEquals(booked, afterDelete);
+    }
+
+    private Reservation reservation(String roomId, Reservation.ReservationStatus status,
+                                    LocalDate checkInDate, LocalDate checkOutDate) {
+        Room room = new Room();
+        room.setId(roomId);
+        room.setName("Blocked Rooms Test Room");
+        room.setPricePerNight(new BigDecimal("100.00"));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(new BigDecimal("100.00"));
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
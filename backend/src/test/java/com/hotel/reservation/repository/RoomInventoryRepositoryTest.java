@@ -0,0 +1,152 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.model.RoomInventory;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoomInventoryRepositoryTest {
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    private String roomId;
+    private LocalDate night;
+
+    @BeforeEach
+    void setUp() {
+        roomId = new ObjectId().toHexString();
+        night = LocalDate.now().plusDays(70);
+    }
+
+    @Test
+    void incrementSold_StopsAtLimit() {
+        assertTrue(roomInventoryRepository.incrementSold(roomId, night, 2, reservationId()));
+        assertTrue(roomInventoryRepository.incrementSold(roomId, night, 2, reservationId()));
+        assertFalse(roomInventoryRepository.incrementSold(roomId, night, 2, reservationId()));
+
+        assertEquals(2, soldOn(night));
+    }
+
+    @Test
+    void incrementSold_SameReservationTwice_SellsOneUnit() {
+        String reservationId = reservationId();
+
+        assertTrue(roomInventoryRepository.incrementSold(roomId, night, 2, reservationId));
+        assertTrue(roomInventoryRepository.incrementSold(roomId, night, 2, reservationId));
+        roomInventoryRepository.forceIncrementSold(roomId, night, reservationId);
+
+        assertEquals(1, soldOn(night));
+        assertEquals(List.of(reservationId), holdersOn(night));
+    }
+
+    @Test
+    void incrementSold_Concurrent_NeverSellsMoreThanLimit() throws Exception {
+        int limit = 3;
+        int buyers = 12;
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return roomInventoryRepository.incrementSold(roomId, night, limit, reservationId());
+                }));
+            }
+            start.countDown();
+
+            int sold = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    sold++;
+                }
+            }
+            assertEquals(limit, sold);
+            assertEquals(limit, soldOn(night));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void forceIncrementSold_IgnoresLimit() {
+        roomInventoryRepository.incrementSold(roomId, night, 1, reservationId());
+        roomInventoryRepository.forceIncrementSold(roomId, night, reservationId());
+
+        assertEquals(2, soldOn(night));
+    }
+
+    @Test
+    void decrementSold_ReleasesRangeAndNeverGoesBelowZero() {
+        String reservationId = reservationId();
+        roomInventoryRepository.incrementSold(roomId, night, 5, reservationId);
+        roomInventoryRepository.incrementSold(roomId, night.plusDays(1), 5, reservationId);
+        roomInventoryRepository.incrementSold(roomId, night.plusDays(2), 5, reservationId);
+
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(2), reservationId);
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(2), reservationId);
+
+        assertEquals(0, soldOn(night));
+        assertEquals(0, soldOn(night.plusDays(1)));
+        assertEquals(1, soldOn(night.plusDays(2)));
+    }
+
+    @Test
+    void decrementSold_ReleasedTwice_KeepsTheOtherReservationsUnit() {
+        String released = reservationId();
+        String holder = reservationId();
+        roomInventoryRepository.incrementSold(roomId, night, 2, released);
+        roomInventoryRepository.incrementSold(roomId, night, 2, holder);
+
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(1), released);
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(1), released);
+
+        assertEquals(1, soldOn(night));
+        assertEquals(List.of(holder), holdersOn(night));
+    }
+
+    @Test
+    void recordReservationIds_NightSoldBeforeHoldersWereRecorded_ReleasedByItsHolder() {
+        String holder = reservationId();
+        roomInventoryRepository.save(new RoomInventory(roomId, night, 1));
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(1), holder);
+        assertEquals(1, soldOn(night));
+
+        roomInventoryRepository.recordReservationIds(roomId, night, List.of(holder));
+        roomInventoryRepository.decrementSold(roomId, night, night.plusDays(1), holder);
+
+        assertEquals(0, soldOn(night));
+        assertEquals(List.of(), holdersOn(night));
+    }
+
+    private String reservationId() {
+        return new ObjectId().toHexString();
+    }
+
+    private List<String> holdersOn(LocalDate date) {
+        return roomInventoryRepository.findNights(Set.of(roomId), date, date.plusDays(1)).stream()
+                .flatMap(entry -> entry.getReservationIds().stream())
+                .toList();
+    }
+
+    private int soldOn(LocalDate date) {
+        return roomInventoryRepository.findNights(Set.of(roomId), date, date.plusDays(1)).stream()
+                .mapToInt(RoomInventory::getSold)
+                .sum();
+    }
+}
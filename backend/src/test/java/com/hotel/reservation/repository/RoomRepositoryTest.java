@@ -0,0 +1,116 @@
+package com.hotel.reservation.repository;
+
+import com.hotel.reservation.dto.RoomOccupancy;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the room occupancy aggregation.
+ */
+@SpringBootTest
+class RoomRepositoryTest {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Room suite;
+    private Room single;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        checkIn = LocalDate.now().plusDays(40);
+        suite = roomRepository.save(room("Repository Test Suite", 4, 3));
+        single = roomRepository.save(room("Repository Test Single", 1, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll(reservationRepository.findByRoomId(suite.getId()));
+        reservationRepository.deleteAll(reservationRepository.findByRoomId(single.getId()));
+        roomRepository.deleteAll(List.of(suite, single));
+    }
+
+    @Test
+    void findAllWithOccupancy_WithDates_ReturnsPeakOverlapPerRoom() {
+        // Two stays share the third night; the third stay only touches check-out day
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.CONFIRMED, checkIn, checkIn.plusDays(3)));
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.PENDING, checkIn.plusDays(2), checkIn.plusDays(5)));
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.CONFIRMED, checkIn.plusDays(5), checkIn.plusDays(6)));
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.CANCELLED, checkIn, checkIn.plusDays(5)));
+        reservationRepository.insert(reservation(single, Reservation.ReservationStatus.CHECKED_IN, checkIn.plusDays(1), checkIn.plusDays(2)));
+
+        Map<String, Integer> occupied = occupiedByRoom(
+                roomRepository.findAllWithOccupancy(checkIn, checkIn.plusDays(5), null));
+
+        assertEquals(2, occupied.get(suite.getId()));
+        assertEquals(1, occupied.get(single.getId()));
+    }
+
+    @Test
+    void findAllWithOccupancy_WithoutDates_CountsConfirmedAndCheckedInStays() {
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.CONFIRMED, checkIn, checkIn.plusDays(1)));
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.CHECKED_IN, checkIn.plusDays(3), checkIn.plusDays(4)));
+        reservationRepository.insert(reservation(suite, Reservation.ReservationStatus.PENDING, checkIn, checkIn.plusDays(1)));
+
+        Map<String, Integer> occupied = occupiedByRoom(roomRepository.findAllWithOccupancy(null, null, null));
+
+        assertEquals(2, occupied.get(suite.getId()));
+        assertEquals(0, occupied.get(single.getId()));
+    }
+
+    @Test
+    void findAllWithOccupancy_FiltersByCapacity() {
+        Map<String, Integer> occupied = occupiedByRoom(
+                roomRepository.findAllWithOccupancy(checkIn, checkIn.plusDays(1), 2));
+
+        assertTrue(occupied.containsKey(suite.getId()));
+        assertFalse(occupied.containsKey(single.getId()));
+    }
+
+    private Map<String, Integer> occupiedByRoom(List<RoomOccupancy> occupancies) {
+        return occupancies.stream()
+                .collect(Collectors.toMap(occupancy -> occupancy.getRoom().getId(), RoomOccupancy::getOccupiedCount));
+    }
+
+    private Room room(String name, int capacity, int totalRooms) {
+        Room room = new Room();
+        room.setName(name);
+        room.setType(Room.RoomType.DELUXE);
+        room.setPricePerNight(new BigDecimal("150.00"));
+        room.setCapacity(capacity);
+        room.setTotalRooms(totalRooms);
+        return room;
+    }
+
+    private Reservation reservation(Room room, Reservation.ReservationStatus status,
+                                    LocalDate checkInDate, LocalDate checkOutDate) {
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(room.getPricePerNight());
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
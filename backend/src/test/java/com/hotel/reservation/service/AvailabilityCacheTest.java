@@ -0,0 +1,90 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AvailabilityCacheTest {
+
+    @Autowired
+    private AvailabilityCache availabilityCache;
+
+    private LocalDate checkIn;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        availabilityCache.invalidateAll();
+        checkIn = LocalDate.now().plusDays(90);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getAvailableRooms_Hit_DoesNotReload() {
+        availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, this::load);
+        availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, this::load);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onReservationChanged_DropsOnlyOverlappingSearches() {
+        availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, this::load);
+        availabilityCache.getAvailableRooms(checkIn.plusDays(10), checkIn.plusDays(12), 1, this::load);
+
+        availabilityCache.onReservationChanged(new ReservationChangedEvent(stay(checkIn.plusDays(1), checkIn.plusDays(3))));
+
+        availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, this::load);
+        availabilityCache.getAvailableRooms(checkIn.plusDays(10), checkIn.plusDays(12), 1, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getAvailableRooms_InvalidatedWhileLoading_DoesNotKeepStaleResult() {
+        List<Room> stale = availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, () -> {
+            List<Room> rooms = load();
+            // A booking lands after the loader read the rooms but before the result is stored
+            availabilityCache.onReservationChanged(new ReservationChangedEvent(stay(checkIn, checkIn.plusDays(1))));
+            return rooms;
+        });
+        assertEquals(1, stale.size());
+
+        availabilityCache.getAvailableRooms(checkIn, checkIn.plusDays(2), 1, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    private List<Room> load() {
+        loads.incrementAndGet();
+        Room room = new Room();
+        room.setId(new ObjectId().toHexString());
+        return List.of(room);
+    }
+
+    private Reservation stay(LocalDate checkInDate, LocalDate checkOutDate) {
+        Room room = new Room();
+        room.setId(new ObjectId().toHexString());
+        room.setName("Availability Cache Test Room");
+        room.setPricePerNight(new BigDecimal("100.00"));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        return reservation;
+    }
+}
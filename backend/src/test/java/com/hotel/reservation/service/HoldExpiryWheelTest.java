@@ -0,0 +1,133 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.repository.ReservationRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldExpiryWheelTest {
+
+    private static final long TICK_MS = 20;
+
+    private ReservationService reservationService;
+    private ReservationRepository reservationRepository;
+    private HoldExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        reservationRepository = mock(ReservationRepository.class);
+        when(reservationService.expireHolds(anyCollection(), any(LocalDateTime.class), anyString()))
+                .thenAnswer(invocation -> List.of());
+        // A full turn of four buckets takes 80 ms
+        wheel = new HoldExpiryWheel(reservationService, reservationRepository, TICK_MS, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    void tick_HoldDueAfterSeveralTurns_ReleasedOnlyOnceItExpires() throws Exception {
+        Reservation hold = hold(LocalDateTime.now().plusNanos(300_000_000));
+        long scheduledAt = System.currentTimeMillis();
+        start(List.of());
+        publish(hold);
+
+        // Its bucket is passed on every turn before the hold is due
+        Thread.sleep(150);
+        verify(reservationService, never()).expireHolds(anyCollection(), any(LocalDateTime.class), anyString());
+
+        verify(reservationService, timeout(2000)).expireHolds(
+                eq(List.of(hold.getId())), any(LocalDateTime.class), eq(ReservationService.HOLD_EXPIRED_REASON));
+        assertTrue(System.currentTimeMillis() - scheduledAt >= 300);
+    }
+
+    @Test
+    void onApplicationReady_HoldExpiredWhileDown_ReleasedOnFirstTick() {
+        Reservation hold = hold(LocalDateTime.now().minusMinutes(10));
+        start(List.of(hold));
+
+        verify(reservationService, timeout(1000)).expireHolds(
+                eq(List.of(hold.getId())), any(LocalDateTime.class), anyString());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void onReservationChanged_PaidHold_IsUnscheduled() throws Exception {
+        Reservation hold = hold(LocalDateTime.now().plusNanos(100_000_000));
+        start(List.of());
+        publish(hold);
+        assertEquals(1, wheel.size());
+
+        hold.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        publish(hold);
+
+        assertEquals(0, wheel.size());
+        Thread.sleep(250);
+        verify(reservationService, never()).expireHolds(anyCollection(), any(LocalDateTime.class), anyString());
+    }
+
+    @Test
+    void tick_ReleaseFails_RetriedLater() {
+        Reservation hold = hold(LocalDateTime.now().minusSeconds(1));
+        when(reservationService.expireHolds(eq(List.of(hold.getId())), any(LocalDateTime.class), anyString()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenAnswer(invocation -> List.of(hold));
+        start(List.of(hold));
+
+        verify(reservationService, timeout(2000).times(2)).expireHolds(
+                eq(List.of(hold.getId())), any(LocalDateTime.class), anyString());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void tick_HoldNotYetExpiredInStore_ScheduledAgain() {
+        Reservation hold = hold(LocalDateTime.now().minusSeconds(1));
+        // Extended on another instance; this wheel still has the old expiry
+        Reservation extended = hold(LocalDateTime.now().plusNanos(200_000_000));
+        extended.setId(hold.getId());
+        when(reservationRepository.findAllById(List.of(hold.getId()))).thenReturn(List.of(extended));
+        start(List.of(hold));
+
+        verify(reservationService, timeout(1000)).expireHolds(
+                eq(List.of(hold.getId())), any(LocalDateTime.class), anyString());
+        verify(reservationService, timeout(2000).times(2)).expireHolds(
+                eq(List.of(hold.getId())), any(LocalDateTime.class), anyString());
+    }
+
+    private void start(List<Reservation> pending) {
+        when(reservationRepository.findByStatus(Reservation.ReservationStatus.PENDING)).thenReturn(pending);
+        wheel.onApplicationReady();
+    }
+
+    private void publish(Reservation reservation) {
+        wheel.onReservationChanged(new ReservationChangedEvent(reservation));
+    }
+
+    private Reservation hold(LocalDateTime expiresAt) {
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        reservation.setExpiresAt(expiresAt);
+        return reservation;
+    }
+}
@@ -0,0 +1,73 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.model.IdempotencyRecord;
+import com.hotel.reservation.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final TypeReference<Map<String, String>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                new SimpleMeterRegistry(), 24, 60, 100, 600);
+    }
+
+    @Test
+    void execute_ResponseCannotBeStored_KeepsTheKey() {
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+        ResponseEntity<Map<String, String>> response = idempotencyService.execute("bookings", "user1", "key1",
+                Map.of("room", "101"), RESPONSE_TYPE, () -> ResponseEntity.ok(Map.of("id", "res1")));
+
+        assertEquals(Map.of("id", "res1"), response.getBody());
+        verify(idempotencyRecordRepository, never()).deleteById(anyString());
+        // A retry on this instance is still answered with the first response
+        ResponseEntity<Map<String, String>> retried = idempotencyService.execute("bookings", "user1", "key1",
+                Map.of("room", "101"), RESPONSE_TYPE, () -> fail("The request must not run twice"));
+        assertEquals("true", retried.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void execute_RequestThrows_ReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("bookings", "user1", "key2",
+                Map.of("room", "101"), RESPONSE_TYPE, () -> {
+                    throw new IllegalStateException("Room not available");
+                }));
+
+        verify(idempotencyRecordRepository).deleteById("bookings:user1:key2");
+    }
+
+    @Test
+    void execute_ErrorResponse_ReleasesTheKey() {
+        ResponseEntity<Map<String, String>> response = idempotencyService.execute("bookings", "user1", "key3",
+                Map.of("room", "101"), RESPONSE_TYPE, () -> ResponseEntity.badRequest().body(Map.of()));
+
+        assertEquals(400, response.getStatusCode().value());
+        verify(idempotencyRecordRepository).deleteById("bookings:user1:key3");
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+}
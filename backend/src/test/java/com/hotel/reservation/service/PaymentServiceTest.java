@@ -0,0 +1,186 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.CancellationRequest;
+import com.hotel.reservation.model.Payment;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.ReservationSnapshot;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.repository.PaymentRepository;
+import com.hotel.reservation.repository.ReservationRepository;
+import com.stripe.exception.ApiConnectionException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class PaymentServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CancellationService cancellationService;
+
+    @MockBean
+    private PaymentGateway paymentGateway;
+
+    @Test
+    void cancelReservation_SucceededPayment_RefundedInFull() throws Exception {
+        Reservation reservation = reservationRepository.insert(reservation());
+        Payment payment = paymentRepository.insert(payment(reservation, Payment.PaymentStatus.SUCCEEDED));
+        when(paymentGateway.createRefund(eq(payment.getStripePaymentIntentId()), anyLong())).thenReturn("re_test");
+
+        reservationService.cancelReservation(reservation.getId(), "Change of plans");
+
+        verify(paymentGateway, times(1)).createRefund(payment.getStripePaymentIntentId(), 20000L);
+        Payment refunded = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertEquals(Payment.PaymentStatus.REFUNDED, refunded.getStatus());
+        assertEquals("Change of plans", refunded.getRefundReason());
+    }
+
+    @Test
+    void cancelReservation_PendingPayment_NotRefunded() throws Exception {
+        Reservation reservation = reservationRepository.insert(reservation());
+        Payment payment = paymentRepository.insert(payment(reservation, Payment.PaymentStatus.PENDING));
+
+        reservationService.cancelReservation(reservation.getId(), "Change of plans");
+
+        verify(paymentGateway, never()).createRefund(anyString(), anyLong());
+        assertEquals(Payment.PaymentStatus.PENDING, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void cancelReservation_RefundFails_StillCancelled() throws Exception {
+        Reservation reservation = reservationRepository.insert(reservation());
+        Payment payment = paymentRepository.insert(payment(reservation, Payment.PaymentStatus.SUCCEEDED));
+        when(paymentGateway.createRefund(anyString(), anyLong()))
+                .thenThrow(new ApiConnectionException("Stripe is unreachable"));
+
+        Reservation cancelled = reservationService.cancelReservation(reservation.getId(), "Change of plans");
+
+        assertEquals(Reservation.ReservationStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(Payment.PaymentStatus.SUCCEEDED, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void cancelReservation_GroupMemberOtherThanTheFirst_RefundsItsShare() throws Exception {
+        String groupId = new ObjectId().toHexString();
+        Reservation first = reservationRepository.insert(member(groupId, "200.00"));
+        Reservation second = reservationRepository.insert(member(groupId, "300.00"));
+        Payment payment = paymentRepository.insert(groupPayment(groupId, first, second));
+        when(paymentGateway.createRefund(eq(payment.getStripePaymentIntentId()), anyLong())).thenReturn("re_test");
+
+        reservationService.cancelReservation(second.getId(), "One room less");
+
+        verify(paymentGateway, times(1)).createRefund(payment.getStripePaymentIntentId(), 30000L);
+        Payment refunded = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertEquals(Payment.PaymentStatus.PARTIALLY_REFUNDED, refunded.getStatus());
+        assertEquals(0, new BigDecimal("300.00").compareTo(refunded.getRefundAmount()));
+    }
+
+    @Test
+    void cancelReservation_FirstGroupMemberThenTheOther_RefundsEachShareOnce() throws Exception {
+        String groupId = new ObjectId().toHexString();
+        Reservation first = reservationRepository.insert(member(groupId, "200.00"));
+        Reservation second = reservationRepository.insert(member(groupId, "300.00"));
+        Payment payment = paymentRepository.insert(groupPayment(groupId, first, second));
+        when(paymentGateway.createRefund(eq(payment.getStripePaymentIntentId()), anyLong())).thenReturn("re_test");
+
+        reservationService.cancelReservation(first.getId(), "Change of plans");
+
+        verify(paymentGateway, times(1)).createRefund(payment.getStripePaymentIntentId(), 20000L);
+        assertEquals(Payment.PaymentStatus.PARTIALLY_REFUNDED,
+                paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+
+        reservationService.cancelReservation(second.getId(), "Change of plans");
+
+        verify(paymentGateway, times(1)).createRefund(payment.getStripePaymentIntentId(), 30000L);
+        Payment refunded = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertEquals(Payment.PaymentStatus.REFUNDED, refunded.getStatus());
+        assertEquals(0, new BigDecimal("500.00").compareTo(refunded.getRefundAmount()));
+    }
+
+    @Test
+    void processCancellation_GroupMember_RefundCappedAtWhatIsLeft() throws Exception {
+        String groupId = new ObjectId().toHexString();
+        Reservation first = reservationRepository.insert(member(groupId, "200.00"));
+        Reservation second = reservationRepository.insert(member(groupId, "300.00"));
+        Payment payment = groupPayment(groupId, first, second);
+        payment.setStatus(Payment.PaymentStatus.PARTIALLY_REFUNDED);
+        payment.setRefundAmount(new BigDecimal("450.00"));
+        paymentRepository.insert(payment);
+        when(paymentGateway.createRefund(eq(payment.getStripePaymentIntentId()), anyLong())).thenReturn("re_test");
+
+        cancellationService.processCancellation(second.getId(), new CancellationRequest("One room less", true));
+
+        verify(paymentGateway, times(1)).createRefund(payment.getStripePaymentIntentId(), 5000L);
+        assertEquals(Payment.PaymentStatus.REFUNDED,
+                paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    private Reservation member(String groupId, String totalAmount) {
+        Reservation reservation = reservation();
+        reservation.setGroupId(groupId);
+        reservation.setTotalAmount(new BigDecimal(totalAmount));
+        return reservation;
+    }
+
+    /**
+     * The group's payment, which references its first reservation only.
+     */
+    private Payment groupPayment(String groupId, Reservation first, Reservation second) {
+        Payment payment = payment(first, Payment.PaymentStatus.SUCCEEDED);
+        payment.setGroupId(groupId);
+        payment.setAmount(first.getTotalAmount().add(second.getTotalAmount()));
+        return payment;
+    }
+
+    private Reservation reservation() {
+        Room room = new Room();
+        room.setId(new ObjectId().toHexString());
+        room.setName("Refund Test Room");
+        room.setPricePerNight(new BigDecimal("100.00"));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(LocalDate.now().plusDays(20));
+        reservation.setCheckOutDate(LocalDate.now().plusDays(22));
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(new BigDecimal("200.00"));
+        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        reservation.setInventoryMode(Reservation.InventoryMode.NIGHT_LOCKS);
+        return reservation;
+    }
+
+    private Payment payment(Reservation reservation, Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setId(new ObjectId().toHexString());
+        payment.setReservation(ReservationSnapshot.of(reservation));
+        payment.setAmount(reservation.getTotalAmount());
+        payment.setStatus(status);
+        payment.setStripePaymentIntentId("pi_" + new ObjectId().toHexString());
+        return payment;
+    }
+}
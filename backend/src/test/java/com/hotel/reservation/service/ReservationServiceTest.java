@@ -0,0 +1,223 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomInventory;
+import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.repository.ReservationRepository;
+import com.hotel.reservation.repository.RoomInventoryRepository;
+import com.hotel.reservation.repository.RoomLockRepository;
+import com.hotel.reservation.repository.RoomRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private Room pooledRoom;
+    private Room singleRoom;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        checkIn = LocalDate.now().plusDays(120);
+        pooledRoom = roomRepository.save(room("Hold Expiry Test Family Room", 2));
+        singleRoom = roomRepository.save(room("Hold Expiry Test Single Room", 1));
+        roomCatalog.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomRepository.deleteAll(List.of(pooledRoom, singleRoom));
+        roomCatalog.invalidate();
+    }
+
+    @Test
+    void cancelExpiredHolds_ReleasesNightLocksAndLedgerUnits() {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation single = hold(singleRoom, now.minusMinutes(1));
+        Reservation pooled = hold(pooledRoom, now.minusMinutes(1));
+        Reservation stillHeld = hold(pooledRoom, now.plusMinutes(5));
+
+        reservationService.cancelExpiredHolds(now, ReservationService.HOLD_EXPIRED_REASON, () -> true);
+
+        assertEquals(Reservation.ReservationStatus.CANCELLED, statusOf(single));
+        assertEquals(Reservation.ReservationStatus.CANCELLED, statusOf(pooled));
+        assertEquals(Reservation.ReservationStatus.PENDING, statusOf(stillHeld));
+        assertTrue(roomLockRepository.findByReservationId(single.getId()).isEmpty());
+        // Only the unit of the hold that has not expired stays sold
+        assertEquals(1, soldOn(checkIn));
+        assertEquals(1, soldOn(checkIn.plusDays(1)));
+    }
+
+    @Test
+    void cancelExpiredHolds_FenceFails_WritesNothing() {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation expired = hold(singleRoom, now.minusMinutes(1));
+
+        List<Reservation> cancelled = reservationService.cancelExpiredHolds(
+                now, ReservationService.HOLD_EXPIRED_REASON, () -> false);
+
+        assertTrue(cancelled.isEmpty());
+        assertEquals(Reservation.ReservationStatus.PENDING, statusOf(expired));
+        assertEquals(2, roomLockRepository.findByReservationId(expired.getId()).size());
+    }
+
+    @Test
+    void expireHolds_ReleasesOnlyExpiredPendingHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation expired = hold(singleRoom, now.minusSeconds(1));
+        Reservation notDue = hold(pooledRoom, now.plusMinutes(5));
+
+        List<Reservation> cancelled = reservationService.expireHolds(
+                List.of(expired.getId(), notDue.getId()), now, ReservationService.HOLD_EXPIRED_REASON);
+
+        assertEquals(List.of(expired.getId()), cancelled.stream().map(Reservation::getId).toList());
+        assertEquals(ReservationService.HOLD_EXPIRED_REASON,
+                reservationRepository.findById(expired.getId()).orElseThrow().getCancellationReason());
+        assertTrue(roomLockRepository.findByReservationId(expired.getId()).isEmpty());
+        assertEquals(Reservation.ReservationStatus.PENDING, statusOf(notDue));
+        assertEquals(1, soldOn(checkIn));
+    }
+
+    @Test
+    void expireHolds_PaidHold_KeepsItsInventory() {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation paid = hold(singleRoom, now.minusSeconds(1));
+        reservationService.confirmReservation(paid.getId());
+
+        List<Reservation> cancelled = reservationService.expireHolds(
+                List.of(paid.getId()), now, ReservationService.HOLD_EXPIRED_REASON);
+
+        assertTrue(cancelled.isEmpty());
+        assertEquals(Reservation.ReservationStatus.CONFIRMED, statusOf(paid));
+        assertEquals(2, roomLockRepository.findByReservationId(paid.getId()).size());
+    }
+
+    @Test
+    void updateReservation_LedgerNewNightTaken_KeepsTheOriginalNights() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        Reservation moving = hold(pooledRoom, expiresAt);
+        hold(pooledRoom, checkIn.plusDays(3), checkIn.plusDays(4), expiresAt);
+        hold(pooledRoom, checkIn.plusDays(3), checkIn.plusDays(4), expiresAt);
+
+        assertThrows(RoomNotAvailableException.class, () -> reservationService.updateReservation(
+                moving.getId(), checkIn.plusDays(1), checkIn.plusDays(4), 1));
+
+        assertEquals(1, soldOn(checkIn));
+        assertEquals(1, soldOn(checkIn.plusDays(1)));
+        assertEquals(0, soldOn(checkIn.plusDays(2)));
+        assertEquals(2, soldOn(checkIn.plusDays(3)));
+        assertEquals(checkIn, reservationRepository.findById(moving.getId()).orElseThrow().getCheckInDate());
+    }
+
+    @Test
+    void updateReservation_NightLocksNewNightTaken_KeepsTheOriginalNights() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        Reservation moving = hold(singleRoom, expiresAt);
+        Reservation other = hold(singleRoom, checkIn.plusDays(3), checkIn.plusDays(4), expiresAt);
+
+        assertThrows(RoomNotAvailableException.class, () -> reservationService.updateReservation(
+                moving.getId(), checkIn.plusDays(1), checkIn.plusDays(4), 1));
+
+        assertEquals(List.of(checkIn, checkIn.plusDays(1)), lockedNightsOf(moving));
+        assertEquals(List.of(checkIn.plusDays(3)), lockedNightsOf(other));
+    }
+
+    @Test
+    void updateReservation_OverlappingDates_MovesTheClaimInBothModes() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        Reservation pooled = hold(pooledRoom, expiresAt);
+        Reservation single = hold(singleRoom, expiresAt);
+
+        reservationService.updateReservation(pooled.getId(), checkIn.plusDays(1), checkIn.plusDays(3), 1);
+        reservationService.updateReservation(single.getId(), checkIn.plusDays(1), checkIn.plusDays(3), 1);
+
+        assertEquals(0, soldOn(checkIn));
+        assertEquals(1, soldOn(checkIn.plusDays(1)));
+        assertEquals(1, soldOn(checkIn.plusDays(2)));
+        assertEquals(List.of(checkIn.plusDays(1), checkIn.plusDays(2)), lockedNightsOf(single));
+    }
+
+    private Reservation hold(Room room, LocalDateTime expiresAt) {
+        return hold(room, checkIn, checkIn.plusDays(2), expiresAt);
+    }
+
+    private Reservation hold(Room room, LocalDate checkInDate, LocalDate checkOutDate, LocalDateTime expiresAt) {
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(new BigDecimal("240.00"));
+        reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        reservation.setExpiresAt(expiresAt);
+        reservation.setInventoryMode(roomInventoryService.modeFor(room));
+
+        roomInventoryService.claim(room, reservation, reservation.getCheckInDate(), reservation.getCheckOutDate());
+        return reservationRepository.insert(reservation);
+    }
+
+    private Reservation.ReservationStatus statusOf(Reservation reservation) {
+        return reservationRepository.findById(reservation.getId()).orElseThrow().getStatus();
+    }
+
+    private List<LocalDate> lockedNightsOf(Reservation reservation) {
+        return roomLockRepository.findByReservationId(reservation.getId()).stream()
+                .map(RoomLock::getNight)
+                .sorted()
+                .toList();
+    }
+
+    private int soldOn(LocalDate night) {
+        return roomInventoryRepository.findNights(Set.of(pooledRoom.getId()), night, night.plusDays(1)).stream()
+                .mapToInt(RoomInventory::getSold)
+                .sum();
+    }
+
+    private Room room(String name, int totalRooms) {
+        Room room = new Room();
+        room.setName(name);
+        room.setType(Room.RoomType.DELUXE);
+        room.setPricePerNight(new BigDecimal("120.00"));
+        room.setCapacity(2);
+        room.setTotalRooms(totalRooms);
+        return room;
+    }
+}
@@ -0,0 +1,133 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomBookingLocksTest {
+
+    private static final long TIMEOUT_MS = 200;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RoomBookingLocks roomBookingLocks;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        roomBookingLocks = new RoomBookingLocks(meterRegistry, 8, TIMEOUT_MS);
+    }
+
+    @Test
+    void withRoomLock_SameRoom_RunsOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> roomBookingLocks.withRoomLock("room-a", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(20);
+                    return running.decrementAndGet();
+                })));
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void withRoomLock_HeldLongerThanTimeout_GivesUpWithRoomNotAvailable() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> roomBookingLocks.withRoomLock("room-a", () -> {
+                locked.countDown();
+                await(finish);
+                return null;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            long startedAt = System.nanoTime();
+            assertThrows(RoomNotAvailableException.class,
+                    () -> roomBookingLocks.withRoomLock("room-a", () -> "booked"));
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+            assertTrue(waitedMs >= TIMEOUT_MS, "gave up after " + waitedMs + " ms");
+            assertEquals(1.0, meterRegistry.get("booking.lock.timeouts").counters().stream()
+                    .mapToDouble(counter -> counter.count()).sum());
+
+            finish.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+
+        // Free again once the holder is done
+        assertEquals("booked", roomBookingLocks.withRoomLock("room-a", () -> "booked"));
+    }
+
+    @Test
+    void withRoomLock_ActionThrows_ReleasesTheLock() {
+        assertThrows(IllegalStateException.class, () -> roomBookingLocks.withRoomLock("room-a", () -> {
+            throw new IllegalStateException("booking failed");
+        }));
+
+        assertEquals("booked", roomBookingLocks.withRoomLock("room-a", () -> "booked"));
+    }
+
+    @Test
+    void withRoomLocks_OverlappingGroupsInOppositeOrder_DoNotDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> forward = executor.submit(() -> lockRepeatedly(List.of("room-a", "room-b", "room-c")));
+            Future<?> backward = executor.submit(() -> lockRepeatedly(List.of("room-c", "room-b", "room-a")));
+
+            forward.get(10, TimeUnit.SECONDS);
+            backward.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void lockRepeatedly(List<String> roomIds) {
+        for (int i = 0; i < 200; i++) {
+            roomBookingLocks.withRoomLocks(roomIds, () -> null);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
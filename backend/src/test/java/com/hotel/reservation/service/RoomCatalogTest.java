@@ -0,0 +1,118 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ResourceVersion;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoomCatalogTest {
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        room = roomRepository.save(room("Catalog Test Room"));
+        roomCatalog.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomRepository.deleteById(room.getId());
+        roomCatalog.invalidate();
+    }
+
+    @Test
+    void findById_ServesLoadedCatalogUntilInvalidated() {
+        assertTrue(roomCatalog.findById(room.getId()).isPresent());
+
+        Room unseen = roomRepository.save(room("Catalog Test Unseen Room"));
+        try {
+            assertTrue(roomCatalog.findById(unseen.getId()).isEmpty());
+
+            long version = roomCatalog.getVersion();
+            roomCatalog.invalidate();
+
+            assertEquals(version + 1, roomCatalog.getVersion());
+            assertTrue(roomCatalog.findById(unseen.getId()).isPresent());
+            assertTrue(roomCatalog.findAll().stream().anyMatch(r -> r.getId().equals(unseen.getId())));
+        } finally {
+            roomRepository.deleteById(unseen.getId());
+        }
+    }
+
+    @Test
+    void findAll_IsUnmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> roomCatalog.findAll().clear());
+    }
+
+    @Test
+    void getResourceVersion_ChangesWhenARoomIsUpdated() {
+        ResourceVersion before = roomCatalog.getResourceVersion();
+        ResourceVersion roomBefore = roomCatalog.findResourceVersion(room.getId()).orElseThrow();
+        assertEquals(before, roomCatalog.getResourceVersion());
+
+        room.setName("Catalog Test Room Renamed");
+        roomRepository.save(room);
+        roomCatalog.invalidate();
+
+        assertNotEquals(before.getEtag(), roomCatalog.getResourceVersion().getEtag());
+        assertNotEquals(roomBefore.getEtag(), roomCatalog.findResourceVersion(room.getId()).orElseThrow().getEtag());
+    }
+
+    @Test
+    void getResourceVersion_DeletingARoomMovesLastModified() throws Exception {
+        Room deleted = roomRepository.save(room("Catalog Test Deleted Room"));
+        roomCatalog.invalidate();
+        ResourceVersion before = roomCatalog.getResourceVersion();
+
+        Thread.sleep(5);
+        roomRepository.deleteById(deleted.getId());
+        roomCatalog.invalidate();
+        ResourceVersion after = roomCatalog.getResourceVersion();
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(after.getLastModified().isAfter(before.getLastModified()));
+    }
+
+    @Test
+    void variantOf_DigestsTheRepresentationInputs() {
+        ResourceVersion catalog = roomCatalog.getResourceVersion();
+
+        ResourceVersion all = roomCatalog.variantOf(catalog, null, null, null);
+        ResourceVersion suites = roomCatalog.variantOf(catalog, Room.RoomType.SUITE, null, null);
+
+        assertEquals(all, roomCatalog.variantOf(catalog, null, null, null));
+        assertNotEquals(all.getEtag(), suites.getEtag());
+        assertEquals(catalog.getLastModified(), suites.getLastModified());
+    }
+
+    @Test
+    void findResourceVersion_UnknownRoom_IsEmpty() {
+        assertTrue(roomCatalog.findResourceVersion("no-such-room").isEmpty());
+    }
+
+    private Room room(String name) {
+        Room newRoom = new Room();
+        newRoom.setName(name);
+        newRoom.setType(Room.RoomType.STANDARD);
+        newRoom.setPricePerNight(new BigDecimal("90.00"));
+        newRoom.setCapacity(2);
+        newRoom.setTotalRooms(1);
+        return newRoom;
+    }
+}
@@ -0,0 +1,212 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.exception.RoomNotAvailableException;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomInventory;
+import com.hotel.reservation.model.RoomLock;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.repository.RoomInventoryRepository;
+import com.hotel.reservation.repository.RoomLockRepository;
+import com.hotel.reservation.repository.RoomRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoomInventoryServiceTest {
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private Room pooledRoom;
+    private Room singleRoom;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        checkIn = LocalDate.now().plusDays(80);
+        pooledRoom = roomRepository.save(room("Inventory Test Family Room", 2));
+        singleRoom = roomRepository.save(room("Inventory Test Single Room", 1));
+        roomCatalog.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomRepository.deleteAll(List.of(pooledRoom, singleRoom));
+        roomCatalog.invalidate();
+    }
+
+    @Test
+    void claim_LedgerSellsEachNightUpToTotalRooms() {
+        roomInventoryService.claim(pooledRoom, reservation(pooledRoom), checkIn, checkIn.plusDays(2));
+        roomInventoryService.claim(pooledRoom, reservation(pooledRoom), checkIn, checkIn.plusDays(2));
+
+        assertThrows(RoomNotAvailableException.class, () -> roomInventoryService.claim(
+                pooledRoom, reservation(pooledRoom), checkIn.plusDays(1), checkIn.plusDays(3)));
+        assertEquals(Set.of(pooledRoom.getId()),
+                roomInventoryService.findSoldOutRoomIds(Set.of(pooledRoom), checkIn, checkIn.plusDays(1)));
+    }
+
+    @Test
+    void claim_LedgerNightFull_RollsBackEarlierNights() {
+        // Fill the third night only
+        roomInventoryService.claim(pooledRoom, reservation(pooledRoom), checkIn.plusDays(2), checkIn.plusDays(3));
+        roomInventoryService.claim(pooledRoom, reservation(pooledRoom), checkIn.plusDays(2), checkIn.plusDays(3));
+
+        assertThrows(RoomNotAvailableException.class, () -> roomInventoryService.claim(
+                pooledRoom, reservation(pooledRoom), checkIn, checkIn.plusDays(4)));
+
+        assertEquals(0, soldOn(checkIn));
+        assertEquals(0, soldOn(checkIn.plusDays(1)));
+        assertEquals(2, soldOn(checkIn.plusDays(2)));
+        assertEquals(0, soldOn(checkIn.plusDays(3)));
+    }
+
+    @Test
+    void release_LedgerFreesTheUnit() {
+        Reservation reservation = reservation(pooledRoom);
+        roomInventoryService.claim(pooledRoom, reservation, checkIn, checkIn.plusDays(2));
+        roomInventoryService.release(pooledRoom, reservation, checkIn, checkIn.plusDays(2));
+
+        assertEquals(0, soldOn(checkIn));
+        assertEquals(0, soldOn(checkIn.plusDays(1)));
+    }
+
+    @Test
+    void claim_NightLocks_ConcurrentClaimsOfTheSameNight_OnlyOneWins() throws Exception {
+        int guests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(guests);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < guests; i++) {
+                Reservation reservation = reservation(singleRoom);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        roomInventoryService.claim(singleRoom, reservation, checkIn, checkIn.plusDays(2));
+                        return true;
+                    } catch (RoomNotAvailableException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int claimed = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    claimed++;
+                }
+            }
+            assertEquals(1, claimed);
+            assertEquals(2, locksOn(checkIn, checkIn.plusDays(2)).size());
+            assertEquals(1, locksOn(checkIn, checkIn.plusDays(2)).stream().map(RoomLock::getReservationId).distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claim_NightLocks_TakenNight_RemovesLocksWrittenBeforeIt() {
+        roomInventoryService.claim(singleRoom, reservation(singleRoom), checkIn.plusDays(2), checkIn.plusDays(3));
+
+        Reservation blocked = reservation(singleRoom);
+        assertThrows(RoomNotAvailableException.class,
+                () -> roomInventoryService.claim(singleRoom, blocked, checkIn, checkIn.plusDays(4)));
+
+        assertTrue(roomLockRepository.findByReservationId(blocked.getId()).isEmpty());
+        assertEquals(1, locksOn(checkIn, checkIn.plusDays(4)).size());
+    }
+
+    @Test
+    void release_UsesTheModeRecordedAtClaimTime() {
+        Reservation reservation = reservation(pooledRoom);
+        roomInventoryService.claim(pooledRoom, reservation, checkIn, checkIn.plusDays(2));
+
+        // The room is reduced to a single unit while the reservation holds ledger units
+        pooledRoom.setTotalRooms(1);
+        roomRepository.save(pooledRoom);
+        roomCatalog.invalidate();
+
+        roomInventoryService.releaseAll(List.of(reservation));
+
+        assertEquals(0, soldOn(checkIn));
+        assertEquals(0, soldOn(checkIn.plusDays(1)));
+        assertEquals(Reservation.InventoryMode.NIGHT_LOCKS, roomInventoryService.modeFor(pooledRoom));
+    }
+
+    @Test
+    void claimAll_OneRoomTaken_ReleasesTheWholeGroup() {
+        roomInventoryService.claim(singleRoom, reservation(singleRoom), checkIn, checkIn.plusDays(1));
+
+        Reservation pooled = reservation(pooledRoom);
+        Reservation single = reservation(singleRoom);
+        assertThrows(RoomNotAvailableException.class, () -> roomInventoryService.claimAll(List.of(pooled, single)));
+
+        assertEquals(0, soldOn(checkIn));
+        assertTrue(roomLockRepository.findByReservationId(single.getId()).isEmpty());
+    }
+
+    private Reservation reservation(Room room) {
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkIn);
+        reservation.setCheckOutDate(checkIn.plusDays(2));
+        reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        reservation.setInventoryMode(roomInventoryService.modeFor(room));
+        return reservation;
+    }
+
+    private List<RoomLock> locksOn(LocalDate from, LocalDate to) {
+        return roomLockRepository.findAll().stream()
+                .filter(lock -> lock.getRoomId().equals(singleRoom.getId()))
+                .filter(lock -> !lock.getNight().isBefore(from) && lock.getNight().isBefore(to))
+                .toList();
+    }
+
+    private int soldOn(LocalDate night) {
+        return roomInventoryRepository.findNights(Set.of(pooledRoom.getId()), night, night.plusDays(1)).stream()
+                .mapToInt(RoomInventory::getSold)
+                .sum();
+    }
+
+    private Room room(String name, int totalRooms) {
+        Room room = new Room();
+        room.setName(name);
+        room.setType(Room.RoomType.DELUXE);
+        room.setPricePerNight(new BigDecimal("120.00"));
+        room.setCapacity(4);
+        room.setTotalRooms(totalRooms);
+        return room;
+    }
+}
@@ -0,0 +1,115 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.repository.ReservationRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoomOccupancyIndexTest {
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private String roomId;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        // A room ID of its own, so stays left by other tests never count
+        roomId = new ObjectId().toHexString();
+        checkIn = LocalDate.now().plusDays(30);
+    }
+
+    @Test
+    void rebuild_CountsActiveStaysPerNight() {
+        reservationRepository.insert(reservation(Reservation.ReservationStatus.CONFIRMED, checkIn, checkIn.plusDays(3)));
+        reservationRepository.insert(reservation(Reservation.ReservationStatus.PENDING, checkIn.plusDays(2), checkIn.plusDays(4)));
+        reservationRepository.insert(reservation(Reservation.ReservationStatus.CANCELLED, checkIn, checkIn.plusDays(5)));
+
+        occupancyIndex.rebuild();
+
+        assertArrayEquals(new int[] {1, 1, 2, 1, 0},
+                occupancyIndex.nightlyOccupancy(roomId, checkIn, checkIn.plusDays(5)).orElseThrow());
+        assertEquals(2, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(4)).orElseThrow());
+        assertEquals(1, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+        assertEquals(0, occupancyIndex.peakOccupancy(roomId, checkIn.plusDays(4), checkIn.plusDays(6)).orElseThrow());
+        // Pending holds block nights but do not count as current occupancy
+        assertEquals(1, occupancyIndex.currentOccupancy(roomId).orElseThrow());
+    }
+
+    @Test
+    void onReservationChanged_MovesAndReleasesStay() {
+        Reservation reservation = reservation(Reservation.ReservationStatus.PENDING, checkIn, checkIn.plusDays(2));
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation));
+        assertEquals(1, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+
+        reservation.setCheckInDate(checkIn.plusDays(5));
+        reservation.setCheckOutDate(checkIn.plusDays(7));
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation, checkIn, checkIn.plusDays(2)));
+        assertEquals(0, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+        assertEquals(1, occupancyIndex.peakOccupancy(roomId, checkIn.plusDays(5), checkIn.plusDays(7)).orElseThrow());
+
+        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation));
+        assertEquals(0, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(10)).orElseThrow());
+    }
+
+    @Test
+    void syncChanges_AppliesWritesFromOtherInstancesOnce() {
+        occupancyIndex.rebuild();
+
+        // Written without an event, as another instance would
+        Reservation reservation = reservationRepository.insert(
+                reservation(Reservation.ReservationStatus.CONFIRMED, checkIn, checkIn.plusDays(2)));
+        assertEquals(0, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+
+        occupancyIndex.syncChanges();
+        assertEquals(1, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+
+        // Seen again by the next, overlapping sync run and through an event
+        occupancyIndex.syncChanges();
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation));
+        assertEquals(1, occupancyIndex.peakOccupancy(roomId, checkIn, checkIn.plusDays(2)).orElseThrow());
+    }
+
+    @Test
+    void peakOccupancy_OutsideHorizon_IsEmpty() {
+        assertTrue(occupancyIndex.peakOccupancy(roomId, LocalDate.now().minusDays(5), LocalDate.now()).isEmpty());
+        assertTrue(occupancyIndex.peakOccupancy(roomId, checkIn, LocalDate.now().plusYears(5)).isEmpty());
+    }
+
+    private Reservation reservation(Reservation.ReservationStatus status, LocalDate checkInDate, LocalDate checkOutDate) {
+        Room room = new Room();
+        room.setId(roomId);
+        room.setName("Occupancy Test Room");
+        room.setPricePerNight(new BigDecimal("100.00"));
+
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(new BigDecimal("100.00"));
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
@@ -0,0 +1,143 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.dto.ResourceVersion;
+import com.hotel.reservation.dto.RoomAvailabilityDTO;
+import com.hotel.reservation.model.Reservation;
+import com.hotel.reservation.model.Room;
+import com.hotel.reservation.model.RoomSnapshot;
+import com.hotel.reservation.repository.ReservationRepository;
+import com.hotel.reservation.repository.RoomRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RoomServiceTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private Room room;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        occupancyIndex.rebuild();
+        checkIn = LocalDate.now().plusDays(60);
+
+        Room newRoom = new Room();
+        newRoom.setName("Room Service Test Suite");
+        newRoom.setType(Room.RoomType.SUITE);
+        newRoom.setPricePerNight(new BigDecimal("200.00"));
+        newRoom.setCapacity(2);
+        newRoom.setTotalRooms(2);
+        room = roomService.createRoom(newRoom);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll(reservationRepository.findByRoomId(room.getId()));
+        roomRepository.deleteById(room.getId());
+    }
+
+    @Test
+    void getAllRoomsWithAvailability_MultiUnitRoom_AvailableUntilEveryUnitIsBooked() {
+        eventPublisher.publishEvent(new ReservationChangedEvent(stay(checkIn, checkIn.plusDays(2))));
+
+        RoomAvailabilityDTO partlyBooked = availabilityOf(checkIn, checkIn.plusDays(3));
+        assertTrue(partlyBooked.isAvailable());
+        assertEquals(1, partlyBooked.getOccupiedCount());
+        assertEquals(1, partlyBooked.getAvailableCount());
+
+        eventPublisher.publishEvent(new ReservationChangedEvent(stay(checkIn.plusDays(1), checkIn.plusDays(3))));
+
+        RoomAvailabilityDTO fullyBooked = availabilityOf(checkIn, checkIn.plusDays(3));
+        assertFalse(fullyBooked.isAvailable());
+        assertEquals(RoomAvailabilityDTO.AvailabilityStatus.FULLY_BOOKED, fullyBooked.getStatus());
+
+        // Only the second night has both units taken
+        assertTrue(availabilityOf(checkIn.plusDays(2), checkIn.plusDays(3)).isAvailable());
+    }
+
+    @Test
+    void getBookedDatesVersion_FollowsStoredReservations() {
+        ResourceVersion before = roomService.getBookedDatesVersion(room.getId(), null, null, false);
+        assertEquals(before, roomService.getBookedDatesVersion(room.getId(), null, null, false));
+        assertNotEquals(before.getEtag(), roomService.getBookedDatesVersion(room.getId(), null, null, true).getEtag());
+
+        // Written without an event, as another instance would
+        reservationRepository.save(stay(checkIn, checkIn.plusDays(2)));
+
+        ResourceVersion after = roomService.getBookedDatesVersion(room.getId(), null, null, false);
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertNotNull(after.getLastModified());
+    }
+
+    @Test
+    void getBookedDatesVersion_ReservationDeleted_Changes() {
+        Reservation deleted = reservationRepository.save(stay(checkIn, checkIn.plusDays(2)));
+        ResourceVersion before = roomService.getBookedDatesVersion(room.getId(), checkIn, checkIn.plusDays(30), false);
+
+        reservationRepository.delete(deleted);
+        roomCatalog.recordReservationsDeleted(List.of(room.getId()));
+
+        ResourceVersion after = roomService.getBookedDatesVersion(room.getId(), checkIn, checkIn.plusDays(30), false);
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(after.getLastModified().isAfter(before.getLastModified()));
+    }
+
+    @Test
+    void getBookedDatesVersion_DefaultWindow_LastModifiedNotBeforeToday() {
+        ResourceVersion version = roomService.getBookedDatesVersion(room.getId(), null, null, false);
+
+        Instant startOfToday = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        assertEquals(startOfToday, version.getLastModified());
+        assertNull(roomService.getBookedDatesVersion(room.getId(), checkIn, null, false).getLastModified());
+    }
+
+    private RoomAvailabilityDTO availabilityOf(LocalDate checkInDate, LocalDate checkOutDate) {
+        return roomService.getAllRoomsWithAvailability(checkInDate, checkOutDate, null).stream()
+                .filter(dto -> dto.getRoom().getId().equals(room.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Reservation stay(LocalDate checkInDate, LocalDate checkOutDate) {
+        Reservation reservation = new Reservation();
+        reservation.setId(new ObjectId().toHexString());
+        reservation.setRoom(RoomSnapshot.of(room));
+        reservation.setCheckInDate(checkInDate);
+        reservation.setCheckOutDate(checkOutDate);
+        reservation.setNumberOfGuests(1);
+        reservation.setTotalAmount(room.getPricePerNight());
+        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        return reservation;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.dto.GatewayPaymentIntent;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SimulatedPaymentGatewayTest {
+
+    private static final String WEBHOOK_SECRET = "whsec_simulator_test";
+    private static final Map<String, String> METADATA = Map.of("reservationId", "res123");
+
+    private final StripeEventInbox stripeEventInbox = mock(StripeEventInbox.class);
+    private SimulatedPaymentGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        if (gateway != null) {
+            gateway.shutdown();
+        }
+    }
+
+    @Test
+    void createPaymentIntent_Settled_SucceedsAndEmitsSignedWebhook() throws Exception {
+        gateway = gateway(0, 0, true);
+
+        GatewayPaymentIntent created = gateway.createPaymentIntent(20000, "usd", METADATA);
+        assertEquals("requires_payment_method", created.getStatus());
+        assertTrue(created.getClientSecret().startsWith(created.getId() + "_secret_"));
+        assertNull(created.getLatestChargeId());
+
+        Event event = awaitWebhook();
+        assertEquals("payment_intent.succeeded", event.getType());
+
+        GatewayPaymentIntent settled = gateway.retrievePaymentIntent(created.getId());
+        assertEquals("succeeded", settled.getStatus());
+        assertNotNull(settled.getLatestChargeId());
+        assertEquals("visa", settled.getCardBrand());
+        assertEquals("4242", settled.getCardLast4());
+        // The webhook carries the intent as it was settled
+        com.stripe.model.PaymentIntent paymentIntent =
+                (com.stripe.model.PaymentIntent) event.getDataObjectDeserializer().getObject().orElseThrow();
+        assertEquals(created.getId(), paymentIntent.getId());
+        assertEquals(settled.getLatestChargeId(), paymentIntent.getLatestCharge());
+        assertEquals("res123", paymentIntent.getMetadata().get("reservationId"));
+    }
+
+    @Test
+    void createPaymentIntent_Declined_StaysUnpaidAndEmitsPaymentFailed() throws Exception {
+        gateway = gateway(0, 1, true);
+
+        GatewayPaymentIntent created = gateway.createPaymentIntent(20000, "usd", METADATA);
+
+        assertEquals("payment_intent.payment_failed", awaitWebhook().getType());
+        GatewayPaymentIntent declined = gateway.retrievePaymentIntent(created.getId());
+        assertEquals("requires_payment_method", declined.getStatus());
+        assertNull(declined.getLatestChargeId());
+    }
+
+    @Test
+    void chargePaymentMethod_Approved_SucceedsAtOnce() throws Exception {
+        gateway = gateway(0, 0, true);
+
+        GatewayPaymentIntent charged = gateway.chargePaymentMethod(20000, "usd", "pm_card_visa", METADATA);
+
+        assertEquals("succeeded", charged.getStatus());
+        assertNotNull(charged.getLatestChargeId());
+        assertEquals("payment_intent.succeeded", awaitWebhook().getType());
+        assertEquals(charged.getLatestChargeId(), gateway.retrievePaymentIntent(charged.getId()).getLatestChargeId());
+    }
+
+    @Test
+    void chargePaymentMethod_Declined_NoChargeAndNoWebhook() throws Exception {
+        gateway = gateway(0, 1, true);
+
+        GatewayPaymentIntent declined = gateway.chargePaymentMethod(20000, "usd", "pm_card_visa", METADATA);
+
+        assertEquals("requires_payment_method", declined.getStatus());
+        assertNull(declined.getLatestChargeId());
+        verify(stripeEventInbox, after(200).never()).accept(any(), anyString());
+    }
+
+    @Test
+    void createRefund_EmitsChargeRefundedForTheLatestCharge() throws Exception {
+        gateway = gateway(0, 0, true);
+        GatewayPaymentIntent charged = gateway.chargePaymentMethod(20000, "usd", "pm_card_visa", METADATA);
+        awaitWebhook();
+
+        String refundId = gateway.createRefund(charged.getId(), 20000);
+
+        assertTrue(refundId.startsWith("re_sim_"));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(stripeEventInbox, timeout(2000).times(2)).accept(any(Event.class), payload.capture());
+        String refunded = payload.getAllValues().get(1);
+        assertTrue(refunded.contains("\"type\":\"charge.refunded\""));
+        assertTrue(refunded.contains("\"id\":\"" + charged.getLatestChargeId() + "\""));
+        assertTrue(refunded.contains("\"payment_intent\":\"" + charged.getId() + "\""));
+    }
+
+    @Test
+    void retrievePaymentIntent_Unknown_ResourceMissing() {
+        gateway = gateway(0, 0, true);
+
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> gateway.retrievePaymentIntent("pi_sim_unknown"));
+        assertEquals(404, e.getStatusCode());
+        assertEquals("resource_missing", e.getCode());
+    }
+
+    @Test
+    void createPaymentIntent_InjectedFailure_ThrowsWithoutCreatingIntent() {
+        gateway = gateway(1, 0, true);
+
+        assertThrows(ApiException.class, () -> gateway.createPaymentIntent(20000, "usd", METADATA));
+        verify(stripeEventInbox, after(200).never()).accept(any(), anyString());
+    }
+
+    @Test
+    void createPaymentIntent_WebhooksDisabled_SettlesWithoutWebhook() throws Exception {
+        gateway = gateway(0, 0, false);
+
+        GatewayPaymentIntent created = gateway.createPaymentIntent(20000, "usd", METADATA);
+
+        verify(stripeEventInbox, after(200).never()).accept(any(), anyString());
+        assertEquals("succeeded", gateway.retrievePaymentIntent(created.getId()).getStatus());
+    }
+
+    private Event awaitWebhook() {
+        ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+        verify(stripeEventInbox, timeout(2000)).accept(event.capture(), anyString());
+        return event.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SimulatedPaymentGateway gateway(double failureRate, double declineRate, boolean webhooksEnabled) {
+        ObjectProvider<StripeEventInbox> inboxProvider = mock(ObjectProvider.class);
+        when(inboxProvider.getObject()).thenReturn(stripeEventInbox);
+        // One millisecond per call, and settlements 20 ms after the intent is created
+        return new SimulatedPaymentGateway(inboxProvider, new ObjectMapper(), WEBHOOK_SECRET,
+                1, 1, failureRate, declineRate, webhooksEnabled, 20, 1);
+    }
+}
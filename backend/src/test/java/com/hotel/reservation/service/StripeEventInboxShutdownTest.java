@@ -0,0 +1,103 @@
+package com.hotel.reservation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.reservation.model.StripeEvent;
+import com.hotel.reservation.repository.StripeEventRepository;
+import com.stripe.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StripeEventInboxShutdownTest {
+
+    private StripeEventRepository stripeEventRepository;
+    private PaymentService paymentService;
+    private StripeEvent entry;
+
+    @BeforeEach
+    void setUp() {
+        stripeEventRepository = mock(StripeEventRepository.class);
+        paymentService = mock(PaymentService.class);
+
+        entry = new StripeEvent();
+        entry.setId("evt_shutdown");
+        entry.setType("payment_intent.succeeded");
+        entry.setPayload("{}");
+        when(stripeEventRepository.findDue(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(entry))
+                .thenReturn(List.of());
+        when(stripeEventRepository.claim(eq(entry.getId()), anyString(), any(LocalDateTime.class),
+                any(LocalDateTime.class))).thenReturn(true);
+        when(paymentService.parseWebhookEvent(anyString())).thenReturn(new Event());
+    }
+
+    @Test
+    void shutdown_EventInFlight_FinishesIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(200);
+            return null;
+        }).when(paymentService).handleWebhookEvent(any(Event.class));
+        StripeEventInbox inbox = inbox(5);
+        inbox.onApplicationReady();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        inbox.shutdown();
+
+        verify(stripeEventRepository).finish(eq(entry.getId()), anyString(), eq(StripeEvent.Status.PROCESSED),
+                any(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(stripeEventRepository, never()).retryLater(anyString(), anyString(), any(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shutdown_EventStillRunningAfterTimeout_ReturnedToTheInboxAtOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+            return null;
+        }).when(paymentService).handleWebhookEvent(any(Event.class));
+        StripeEventInbox inbox = inbox(0);
+        inbox.onApplicationReady();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        LocalDateTime before = LocalDateTime.now();
+        inbox.shutdown();
+
+        ArgumentCaptor<LocalDateTime> nextAttemptAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(stripeEventRepository, timeout(2000))
+                .retryLater(eq(entry.getId()), anyString(), anyString(), nextAttemptAt.capture());
+        // Due again right away rather than after a backoff
+        assertFalse(nextAttemptAt.getValue().isAfter(LocalDateTime.now()));
+        assertFalse(nextAttemptAt.getValue().isBefore(before));
+    }
+
+    private StripeEventInbox inbox(long shutdownTimeoutSeconds) {
+        return new StripeEventInbox(stripeEventRepository, paymentService, new ObjectMapper(),
+                new SimpleMeterRegistry(), 1, 8, 50, 1000, 300000, 60, 30, shutdownTimeoutSeconds);
+    }
+}
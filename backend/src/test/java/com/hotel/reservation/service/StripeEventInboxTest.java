@@ -0,0 +1,73 @@
+package com.hotel.reservation.service;
+
+import com.hotel.reservation.model.StripeEvent;
+import com.hotel.reservation.repository.StripeEventRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StripeEventInboxTest {
+
+    @Autowired
+    private StripeEventInbox stripeEventInbox;
+
+    @Autowired
+    private StripeEventRepository stripeEventRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void accept_EventWithoutType_FailedWithoutRetry() throws Exception {
+        String id = "evt_" + new ObjectId().toHexString();
+        String payload = "{\"id\":\"" + id + "\",\"object\":\"event\"}";
+
+        assertTrue(stripeEventInbox.accept(paymentService.parseWebhookEvent(payload), payload));
+
+        StripeEvent entry = awaitFinished(id);
+        assertEquals(StripeEvent.Status.FAILED, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertTrue(entry.getLastError().contains("has no type"));
+    }
+
+    @Test
+    void accept_PaymentEventWithoutDataObject_FailedWithoutRetry() throws Exception {
+        String id = "evt_" + new ObjectId().toHexString();
+        String payload = "{\"id\":\"" + id + "\",\"object\":\"event\",\"type\":\"payment_intent.succeeded\"}";
+
+        assertTrue(stripeEventInbox.accept(paymentService.parseWebhookEvent(payload), payload));
+
+        StripeEvent entry = awaitFinished(id);
+        assertEquals(StripeEvent.Status.FAILED, entry.getStatus());
+        assertEquals(1, entry.getAttempts());
+        assertTrue(entry.getLastError().contains("carries no payment intent"));
+    }
+
+    @Test
+    void accept_UnhandledEventType_Processed() throws Exception {
+        String id = "evt_" + new ObjectId().toHexString();
+        String payload = "{\"id\":\"" + id + "\",\"object\":\"event\",\"type\":\"customer.created\"}";
+
+        assertTrue(stripeEventInbox.accept(paymentService.parseWebhookEvent(payload), payload));
+
+        assertEquals(StripeEvent.Status.PROCESSED, awaitFinished(id).getStatus());
+    }
+
+    private StripeEvent awaitFinished(String id) throws InterruptedException {
+        Set<StripeEvent.Status> finished = Set.of(StripeEvent.Status.PROCESSED, StripeEvent.Status.FAILED);
+        for (int i = 0; i < 100; i++) {
+            StripeEvent entry = stripeEventRepository.findById(id).orElseThrow();
+            if (finished.contains(entry.getStatus())) {
+                return entry;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Stripe event " + id + " was not processed");
+    }
+}